@@ -0,0 +1,42 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.render.device.Graphics;
+import io.github.gjkf.seriousEngine.render.device.HeadlessGraphicsDevice;
+
+/**
+ * Shared set up for the benchmarks.
+ * <p>Every benchmark runs on a {@link HeadlessGraphicsDevice}, so no OpenGL context is needed and only the CPU side is
+ * measured, and draws its random data from {@link #SEED} so that runs can be compared.</p>
+ */
+
+final class BenchmarkUtils{
+
+    /**
+     * The seed of every random generator used by the benchmarks.
+     */
+    static final long SEED = 0x5EED;
+
+    /**
+     * Do not instantiate BenchmarkUtils.
+     */
+    private BenchmarkUtils(){
+    }
+
+    /**
+     * Installs a new headless device.
+     * <p>Must be called before creating any mesh or texture.</p>
+     *
+     * @return The device.
+     */
+
+    static HeadlessGraphicsDevice useHeadlessDevice(){
+        HeadlessGraphicsDevice device = new HeadlessGraphicsDevice();
+        Graphics.setDevice(device);
+        return device;
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.collision.CollisionWorld;
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.Mesh;
+import org.joml.Quaternionf;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks finding every colliding pair of a large set of items, half of them rotated, spread over a flat world.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CollisionWorldBenchmark{
+
+    /**
+     * The number of items.
+     */
+    @Param({"10000", "100000"})
+    private int items;
+    /**
+     * Whether the work can run in parallel.
+     */
+    @Param({"false", "true"})
+    private boolean parallel;
+    /**
+     * The world.
+     */
+    private CollisionWorld world;
+
+    /**
+     * Creates the items with a fixed seed, with the same density for every count.
+     */
+
+    @Setup
+    public void setup(){
+        BenchmarkUtils.useHeadlessDevice();
+        Random random = new Random(BenchmarkUtils.SEED);
+        float[] positions = new float[]{-1, -0.5f, -0.25f, 1, 0.5f, 0.25f, 0, 0, 0};
+        Mesh mesh = new Mesh(positions, new float[6], new float[9], new int[]{0, 1, 2});
+        float worldSize = (float) Math.sqrt(items) * 2;
+        world = new CollisionWorld();
+        world.setParallel(parallel);
+        for(int i = 0; i < items; i++){
+            Item item = new Item(mesh);
+            item.setPosition(random.nextFloat() * worldSize, random.nextFloat() * 10, random.nextFloat() * worldSize);
+            item.setScale(0.5f + random.nextFloat());
+            if(random.nextBoolean()){
+                item.setRotation(new Quaternionf().rotateXYZ(random.nextFloat(), random.nextFloat(), random.nextFloat()));
+            }
+            world.add(item);
+        }
+    }
+
+    /**
+     * Finds the colliding pairs.
+     *
+     * @return The number of pairs.
+     */
+
+    @Benchmark
+    public int update(){
+        return world.update().size();
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.Engine;
+import io.github.gjkf.seriousEngine.render.Material;
+import io.github.gjkf.seriousEngine.render.Mesh;
+import io.github.gjkf.seriousEngine.render.Texture;
+import io.github.gjkf.seriousEngine.render.particles.FlowParticleEmitter;
+import io.github.gjkf.seriousEngine.render.particles.Particle;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a {@link FlowParticleEmitter} update once the number of live particles is steady.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FlowParticleEmitterBenchmark{
+
+    /**
+     * The time step of each update, in seconds.
+     */
+    private static final float STEP = 1f / Engine.TARGET_UPS;
+    /**
+     * The particles time to live, in milliseconds.
+     */
+    private static final long TTL_MILLIS = 4000;
+    /**
+     * The maximum number of particles.
+     */
+    @Param({"200", "1000", "100000"})
+    private int maxParticles;
+    /**
+     * The emitter.
+     */
+    private FlowParticleEmitter emitter;
+
+    /**
+     * Creates the emitter and fills it.
+     *
+     * @throws Exception If the texture could not be loaded.
+     */
+
+    @Setup
+    public void setup() throws Exception{
+        BenchmarkUtils.useHeadlessDevice();
+        float[] positions = new float[]{-0.5f, 0.5f, 0, -0.5f, -0.5f, 0, 0.5f, -0.5f, 0, 0.5f, 0.5f, 0};
+        float[] textCoords = new float[]{0, 0, 0, 1, 1, 1, 1, 0};
+        float[] normals = new float[]{0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1};
+        int[] indices = new int[]{0, 1, 3, 3, 1, 2};
+        Mesh mesh = new Mesh(positions, textCoords, normals, indices);
+        mesh.setMaterial(new Material(new Texture("/textures/particle_anim.png", 4, 4), 0));
+
+        Particle particle = new Particle(mesh, new Vector3f(0, 1, 0), TTL_MILLIS, 100);
+        // The emitter is filled on every update
+        emitter = new FlowParticleEmitter(particle, maxParticles, 0, BenchmarkUtils.SEED);
+        emitter.setPositionRndRange(0.5f);
+        emitter.setSpeedRndRange(0.5f);
+        emitter.setScaleRndRange(0.1f);
+        emitter.setAnimRange(10);
+        emitter.setActive(true);
+        for(float t = 0; t < TTL_MILLIS * 2 / 1000f; t += STEP){
+            emitter.update(STEP);
+        }
+    }
+
+    /**
+     * Updates the emitter by one frame.
+     */
+
+    @Benchmark
+    public void update(){
+        emitter.update(STEP);
+    }
+
+}
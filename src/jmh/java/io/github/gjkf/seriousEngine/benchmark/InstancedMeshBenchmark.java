@@ -0,0 +1,115 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.InstancedMesh;
+import io.github.gjkf.seriousEngine.render.Material;
+import io.github.gjkf.seriousEngine.render.Texture;
+import io.github.gjkf.seriousEngine.render.Transformation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the filling of the instance buffer of an {@link InstancedMesh}.
+ * <p>The draw calls go to the headless device, so only the per instance work is measured. The headless device maps
+ * buffers as plain direct buffers, so the persistent streaming path is the one measured.</p>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class InstancedMeshBenchmark{
+
+    /**
+     * The number of instances rendered by each invocation.
+     */
+    private static final int ITEMS = 4096;
+    /**
+     * The initial number of instances of the mesh, grown on the first invocation.
+     */
+    private static final int INITIAL_INSTANCES = 1024;
+    /**
+     * The mesh.
+     */
+    private InstancedMesh mesh;
+    /**
+     * The items.
+     */
+    private List<Item> items;
+    /**
+     * The transformation.
+     */
+    private Transformation transformation;
+    /**
+     * The offset moving the items, negated by each invocation of {@link #renderMoving()} so that the items go back and
+     * forth and every invocation moves all of them.
+     */
+    private float offset;
+
+    /**
+     * Creates the mesh and the items with a fixed seed.
+     *
+     * @throws Exception If the texture could not be loaded.
+     */
+
+    @Setup
+    public void setup() throws Exception{
+        BenchmarkUtils.useHeadlessDevice();
+        Random random = new Random(BenchmarkUtils.SEED);
+        float[] positions = new float[]{-0.5f, 0.5f, 0, -0.5f, -0.5f, 0, 0.5f, -0.5f, 0, 0.5f, 0.5f, 0};
+        float[] textCoords = new float[]{0, 0, 0, 1, 1, 1, 1, 0};
+        float[] normals = new float[]{0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1};
+        int[] indices = new int[]{0, 1, 3, 3, 1, 2};
+        mesh = new InstancedMesh(positions, textCoords, normals, indices, INITIAL_INSTANCES);
+        mesh.setMaterial(new Material(new Texture("/textures/particle_anim.png", 4, 4), 0));
+
+        items = new ArrayList<>(ITEMS);
+        for(int i = 0; i < ITEMS; i++){
+            Item item = new Item(mesh);
+            item.setPosition(random.nextFloat() * 100, random.nextFloat() * 100, random.nextFloat() * 100);
+            item.setScale(0.5f + random.nextFloat());
+            item.setTextPos(random.nextInt(16));
+            items.add(item);
+        }
+
+        transformation = new Transformation();
+        offset = 1;
+    }
+
+    /**
+     * Renders items that do not move, as the scene pass does every frame for static items.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void renderStatic(){
+        mesh.renderListInstanced(items, transformation);
+    }
+
+    /**
+     * Renders items that all moved since the previous frame, as the particles pass does.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void renderMoving(){
+        offset = -offset;
+        for(int i = 0; i < ITEMS; i++){
+            Item item = items.get(i);
+            item.getPosition().x += offset;
+            item.invalidateBounds();
+        }
+        mesh.renderListInstanced(items, transformation);
+    }
+
+}
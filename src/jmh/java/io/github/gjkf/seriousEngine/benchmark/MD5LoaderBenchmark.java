@@ -0,0 +1,74 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.loaders.md5.MD5AnimModel;
+import io.github.gjkf.seriousEngine.loaders.md5.MD5Loader;
+import io.github.gjkf.seriousEngine.loaders.md5.MD5Model;
+import io.github.gjkf.seriousEngine.render.anim.AnimItem;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link MD5Loader#process(MD5Model, MD5AnimModel, Vector3f)} on the test models.
+ * <p>The files are parsed once, so only the mesh generation and the animation frames are measured.</p>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MD5LoaderBenchmark{
+
+    /**
+     * The path of the model, without the extension.
+     */
+    @Param({"/models/bob/boblamp", "/models/monster/monster"})
+    private String model;
+    /**
+     * The parsed mesh file.
+     */
+    private MD5Model md5Model;
+    /**
+     * The parsed animation file.
+     */
+    private MD5AnimModel animModel;
+    /**
+     * The default colour.
+     */
+    private Vector3f defaultColour;
+
+    /**
+     * Parses the files.
+     *
+     * @throws Exception If the files could not be parsed.
+     */
+
+    @Setup
+    public void setup() throws Exception{
+        BenchmarkUtils.useHeadlessDevice();
+        md5Model = MD5Model.parse(model + ".md5mesh");
+        animModel = MD5AnimModel.parse(model + ".md5anim");
+        defaultColour = new Vector3f(1, 1, 1);
+    }
+
+    /**
+     * Processes the model.
+     *
+     * @return The item.
+     *
+     * @throws Exception If the model could not be processed.
+     */
+
+    @Benchmark
+    public AnimItem process() throws Exception{
+        return MD5Loader.process(md5Model, animModel, defaultColour);
+    }
+
+}
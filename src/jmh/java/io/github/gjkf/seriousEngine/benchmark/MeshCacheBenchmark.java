@@ -0,0 +1,83 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.loaders.cache.MeshCache;
+import io.github.gjkf.seriousEngine.render.Mesh;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks {@link MeshCache#loadMesh(String)} once the cache file exists, to compare with
+ * {@link OBJLoaderBenchmark}.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MeshCacheBenchmark{
+
+    /**
+     * The path of the model.
+     */
+    @Param({"/models/compass.obj", "/models/sphere.obj"})
+    private String model;
+    /**
+     * The cache, in a temporary directory.
+     */
+    private MeshCache cache;
+
+    /**
+     * Installs the headless device and writes the cache file.
+     *
+     * @throws Exception If the model could not be loaded.
+     */
+
+    @Setup
+    public void setup() throws Exception{
+        BenchmarkUtils.useHeadlessDevice();
+        cache = new MeshCache(Files.createTempDirectory("meshcache"));
+        cache.loadMesh(model);
+    }
+
+    /**
+     * Deletes the cache files.
+     *
+     * @throws IOException If a file could not be deleted.
+     */
+
+    @TearDown
+    public void tearDown() throws IOException{
+        Path directory = cache.getDirectory();
+        try(Stream<Path> files = Files.list(directory)){
+            for(Path file : (Iterable<Path>) files::iterator){
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Loads the model from the cache.
+     *
+     * @return The mesh.
+     *
+     * @throws Exception If the model could not be loaded.
+     */
+
+    @Benchmark
+    public Mesh loadMesh() throws Exception{
+        return cache.loadMesh(model);
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.loaders.obj.OBJLoader;
+import io.github.gjkf.seriousEngine.render.Mesh;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link OBJLoader#loadMesh(String)}.
+ * <p><tt>sphere.obj</tt> is a benchmark fixture with positions, texture coordinates and normals.</p>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OBJLoaderBenchmark{
+
+    /**
+     * The path of the model.
+     */
+    @Param({"/models/compass.obj", "/models/sphere.obj"})
+    private String model;
+
+    /**
+     * Installs the headless device.
+     */
+
+    @Setup
+    public void setup(){
+        BenchmarkUtils.useHeadlessDevice();
+    }
+
+    /**
+     * Loads the model.
+     *
+     * @return The mesh.
+     *
+     * @throws Exception If the model could not be loaded.
+     */
+
+    @Benchmark
+    public Mesh loadMesh() throws Exception{
+        return OBJLoader.loadMesh(model);
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.Engine;
+import io.github.gjkf.seriousEngine.render.Material;
+import io.github.gjkf.seriousEngine.render.ParticleMesh;
+import io.github.gjkf.seriousEngine.render.Texture;
+import io.github.gjkf.seriousEngine.render.particles.FlowParticleEmitter;
+import io.github.gjkf.seriousEngine.render.particles.Particle;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the filling of the instance data of a {@link ParticleMesh}, with and without sorting the particles.
+ * <p>The draw calls go to the headless device, so only the per particle work is measured.</p>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ParticleMeshBenchmark{
+
+    /**
+     * The number of particles.
+     */
+    private static final int PARTICLES = 16384;
+    /**
+     * The emitter.
+     */
+    private FlowParticleEmitter emitter;
+    /**
+     * The mesh.
+     */
+    private ParticleMesh mesh;
+    /**
+     * The view matrix.
+     */
+    private Matrix4f viewMatrix;
+
+    /**
+     * Creates the mesh and fills the emitter with a fixed seed.
+     *
+     * @throws Exception If the texture could not be loaded.
+     */
+
+    @Setup
+    public void setup() throws Exception{
+        BenchmarkUtils.useHeadlessDevice();
+        float[] positions = new float[]{-0.5f, 0.5f, 0, -0.5f, -0.5f, 0, 0.5f, -0.5f, 0, 0.5f, 0.5f, 0};
+        float[] textCoords = new float[]{0, 0, 0, 1, 1, 1, 1, 0};
+        float[] normals = new float[]{0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1};
+        int[] indices = new int[]{0, 1, 3, 3, 1, 2};
+        mesh = new ParticleMesh(positions, textCoords, normals, indices, PARTICLES);
+        mesh.setMaterial(new Material(new Texture("/textures/particle_anim.png", 4, 4), 0));
+
+        Particle particle = new Particle(mesh, new Vector3f(0, 1, 0), 100_000, 100);
+        emitter = new FlowParticleEmitter(particle, PARTICLES, 0, BenchmarkUtils.SEED);
+        emitter.setPositionRndRange(50);
+        emitter.setSpeedRndRange(1);
+        emitter.setAnimRange(10);
+        emitter.update(1f / Engine.TARGET_UPS);
+        viewMatrix = new Matrix4f().lookAt(0, 10, 100, 0, 0, 0, 0, 1, 0);
+    }
+
+    /**
+     * Renders the particles in the order they are stored, as for additive blending.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(PARTICLES)
+    public void renderUnsorted(){
+        mesh.renderParticles(emitter.getParticles(), null);
+    }
+
+    /**
+     * Renders the particles back to front, as for alpha blending.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(PARTICLES)
+    public void renderSorted(){
+        mesh.renderParticles(emitter.getParticles(), viewMatrix);
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.Material;
+import io.github.gjkf.seriousEngine.render.Mesh;
+import io.github.gjkf.seriousEngine.render.RenderQueue;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the filling and the sorting of the {@link RenderQueue}, done for every pass of every frame.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RenderQueueBenchmark{
+
+    /**
+     * The number of draws queued by each invocation.
+     */
+    private static final int ITEMS = 4096;
+    /**
+     * The number of meshes.
+     */
+    private static final int MESHES = 32;
+    /**
+     * The number of materials, shared by the meshes.
+     */
+    private static final int MATERIALS = 8;
+    /**
+     * The items, grouped by mesh as the scene lists them.
+     */
+    private Item[] items;
+    /**
+     * The queue.
+     */
+    private RenderQueue queue;
+    /**
+     * The view matrix.
+     */
+    private Matrix4f viewMatrix;
+
+    /**
+     * Creates the meshes and the items with a fixed seed.
+     */
+
+    @Setup
+    public void setup(){
+        BenchmarkUtils.useHeadlessDevice();
+        Random random = new Random(BenchmarkUtils.SEED);
+        float[] positions = new float[]{-0.5f, 0.5f, 0, -0.5f, -0.5f, 0, 0.5f, -0.5f, 0};
+        Material[] materials = new Material[MATERIALS];
+        for(int i = 0; i < MATERIALS; i++){
+            materials[i] = new Material(new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat()), 0);
+        }
+        items = new Item[ITEMS];
+        for(int i = 0; i < ITEMS; i++){
+            if(i % (ITEMS / MESHES) == 0){
+                Mesh mesh = new Mesh(positions, new float[6], new float[9], new int[]{0, 1, 2});
+                mesh.setMaterial(materials[random.nextInt(MATERIALS)]);
+                items[i] = new Item(mesh);
+            }else{
+                items[i] = new Item(items[i - 1].getMesh());
+            }
+            items[i].setPosition(random.nextFloat() * 200 - 100, random.nextFloat() * 20, -random.nextFloat() * 500);
+        }
+        queue = new RenderQueue();
+        viewMatrix = new Matrix4f();
+    }
+
+    /**
+     * Fills the queue with every item and sorts it.
+     *
+     * @return The queue.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public RenderQueue fillAndSort(){
+        queue.clear(viewMatrix, 1000);
+        for(Item item : items){
+            queue.add(RenderQueue.PASS_OPAQUE, item.getMesh(), item);
+        }
+        queue.sort();
+        return queue;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.render.lights.PointLight;
+import io.github.gjkf.seriousEngine.render.shaders.ShaderProgram;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the setting of uniforms, by name and by handle.
+ * <p>The uploads go to the headless device, so only the look up and the comparison with the last values are
+ * measured.</p>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ShaderProgramBenchmark{
+
+    /**
+     * The number of point lights.
+     */
+    private static final int LIGHTS = 5;
+    /**
+     * The program.
+     */
+    private ShaderProgram program;
+    /**
+     * The handle of the first point light.
+     */
+    private int pointLights;
+    /**
+     * The handle of the matrix.
+     */
+    private int matrix;
+    /**
+     * The lights.
+     */
+    private PointLight[] lights;
+    /**
+     * The matrix uploaded.
+     */
+    private Matrix4f value;
+
+    /**
+     * Creates the program and its uniforms.
+     *
+     * @throws Exception If a uniform could not be created.
+     */
+
+    @Setup
+    public void setup() throws Exception{
+        BenchmarkUtils.useHeadlessDevice();
+        program = new ShaderProgram();
+        pointLights = program.createPointLightListUniform("pointLights", LIGHTS);
+        matrix = program.createUniform("modelViewMatrix");
+        lights = new PointLight[LIGHTS];
+        for(int i = 0; i < LIGHTS; i++){
+            lights[i] = new PointLight(new Vector3f(1, 1, 1), new Vector3f(i, 0, 0), 1);
+        }
+        value = new Matrix4f().translate(1, 2, 3);
+    }
+
+    /**
+     * Sets the lights by name, building the names of their uniforms.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(LIGHTS)
+    public void lightsByName(){
+        program.setUniform("pointLights", lights);
+    }
+
+    /**
+     * Sets the lights by handle.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(LIGHTS)
+    public void lightsByHandle(){
+        for(int i = 0; i < LIGHTS; i++){
+            program.setUniform(pointLights + i * ShaderProgram.POINT_LIGHT_UNIFORMS, lights[i], lights[i].getPosition());
+        }
+    }
+
+    /**
+     * Sets a matrix that changes every time, as the model view matrix of the items does.
+     */
+
+    @Benchmark
+    public void changingMatrix(){
+        value.m30(-value.m30());
+        program.setUniform(matrix, value);
+    }
+
+}
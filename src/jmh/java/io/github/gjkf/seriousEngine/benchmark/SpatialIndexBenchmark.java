@@ -0,0 +1,145 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.Mesh;
+import io.github.gjkf.seriousEngine.render.spatial.DynamicAabbTree;
+import io.github.gjkf.seriousEngine.render.spatial.ISpatialCallback;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link DynamicAabbTree} of a large scene: updating it after some items moved and querying it with
+ * the camera frustum.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SpatialIndexBenchmark{
+
+    /**
+     * The size of the square world.
+     */
+    private static final float WORLD_SIZE = 1000;
+    /**
+     * The number of items in the tree.
+     */
+    @Param({"10000", "100000"})
+    private int items;
+    /**
+     * The percentage of items moved before every update.
+     */
+    @Param({"1"})
+    private int movingPercent;
+    /**
+     * The tree.
+     */
+    private DynamicAabbTree tree;
+    /**
+     * The items.
+     */
+    private Item[] sceneItems;
+    /**
+     * The random generator used to move the items.
+     */
+    private Random random;
+    /**
+     * The camera frustum.
+     */
+    private FrustumIntersection frustum;
+    /**
+     * Counts the visible items.
+     */
+    private VisibleCounter counter;
+
+    /**
+     * Creates the items with a fixed seed and fills the tree.
+     */
+
+    @Setup
+    public void setup(){
+        BenchmarkUtils.useHeadlessDevice();
+        random = new Random(BenchmarkUtils.SEED);
+        float[] positions = new float[]{-0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f, 0.5f, -0.5f, 0.5f};
+        Mesh mesh = new Mesh(positions, new float[6], new float[9], new int[]{0, 1, 2});
+        tree = new DynamicAabbTree();
+        sceneItems = new Item[items];
+        for(int i = 0; i < items; i++){
+            Item item = new Item(mesh);
+            item.setPosition(random.nextFloat() * WORLD_SIZE, random.nextFloat() * 10, random.nextFloat() * WORLD_SIZE);
+            item.setScale(0.5f + random.nextFloat() * 2);
+            sceneItems[i] = item;
+            tree.createProxy(item);
+        }
+        Matrix4f projView = new Matrix4f().perspective((float) Math.toRadians(60), 16f / 9f, 0.01f, 300)
+                .lookAt(new Vector3f(WORLD_SIZE / 2, 20, WORLD_SIZE / 2), new Vector3f(WORLD_SIZE / 2 + 100, 0, WORLD_SIZE / 2 + 100), new Vector3f(0, 1, 0));
+        frustum = new FrustumIntersection(projView);
+        counter = new VisibleCounter();
+    }
+
+    /**
+     * Moves some items and updates the tree.
+     *
+     * @return The number of reinserted proxies.
+     */
+
+    @Benchmark
+    public int moveAndUpdate(){
+        int moving = items * movingPercent / 100;
+        for(int i = 0; i < moving; i++){
+            Item item = sceneItems[random.nextInt(items)];
+            Vector3f position = item.getPosition();
+            item.setPosition(position.x + random.nextFloat() - 0.5f, position.y, position.z + random.nextFloat() - 0.5f);
+        }
+        return tree.update();
+    }
+
+    /**
+     * Finds the items inside the camera frustum.
+     *
+     * @return The number of visible items.
+     */
+
+    @Benchmark
+    public int frustumQuery(){
+        counter.count = 0;
+        tree.query(frustum, counter);
+        return counter.count;
+    }
+
+    /**
+     * Counts the items it visits.
+     */
+
+    private static class VisibleCounter implements ISpatialCallback{
+
+        /**
+         * The number of items visited.
+         */
+        private int count;
+
+        /**
+         * {@inheritDoc}
+         */
+
+        @Override
+        public boolean visit(Item item){
+            count++;
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.items.Terrain;
+import io.github.gjkf.seriousEngine.render.HeightMapMesh;
+import io.github.gjkf.seriousEngine.render.Texture;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link HeightMapMesh} construction and {@link Terrain#getHeight(Vector3f)}.
+ * <p>The height map and the texture are decoded once, so the construction only measures the vertices and indices
+ * generation and their upload to the headless device.</p>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TerrainBenchmark{
+
+    /**
+     * The height map.
+     */
+    private static final String HEIGHT_MAP = "/textures/heightmap.png";
+    /**
+     * The terrain texture.
+     */
+    private static final String TEXTURE = "/textures/terrain.png";
+    /**
+     * The number of blocks per side.
+     */
+    private static final int TERRAIN_SIZE = 3;
+    /**
+     * The scale of each block.
+     */
+    private static final float SCALE = 10;
+    /**
+     * The number of heights queried by each invocation.
+     */
+    private static final int QUERIES = 1024;
+    /**
+     * The decoded height map.
+     */
+    private BufferedImage heightMapImage;
+    /**
+     * The loaded terrain texture, shared by the built meshes.
+     */
+    private Texture texture;
+    /**
+     * The mesh built by the last invocation of {@link #heightMapMesh()}.
+     */
+    private HeightMapMesh builtMesh;
+    /**
+     * The terrain.
+     */
+    private Terrain terrain;
+    /**
+     * The positions to query.
+     */
+    private Vector3f[] positions;
+
+    /**
+     * Creates the terrain and the positions with a fixed seed.
+     *
+     * @throws Exception If the images could not be loaded.
+     */
+
+    @Setup
+    public void setup() throws Exception{
+        BenchmarkUtils.useHeadlessDevice();
+        heightMapImage = ImageIO.read(TerrainBenchmark.class.getResourceAsStream(HEIGHT_MAP));
+        texture = new Texture(TEXTURE);
+        terrain = new Terrain(TERRAIN_SIZE, SCALE, -0.1f, 0.1f, HEIGHT_MAP, TEXTURE, 40);
+
+        Random random = new Random(BenchmarkUtils.SEED);
+        float extent = TERRAIN_SIZE * SCALE * HeightMapMesh.getXLength();
+        positions = new Vector3f[QUERIES];
+        for(int i = 0; i < QUERIES; i++){
+            positions[i] = new Vector3f((random.nextFloat() - 0.5f) * extent, 0, (random.nextFloat() - 0.5f) * extent);
+        }
+    }
+
+    /**
+     * Deletes the buffers of the mesh built by the last invocation, keeping the shared texture.
+     */
+
+    @TearDown(Level.Invocation)
+    public void deleteBuiltMesh(){
+        if(builtMesh != null){
+            builtMesh.getMesh().deleteBuffers();
+            builtMesh = null;
+        }
+    }
+
+    /**
+     * Deletes the terrain and the texture.
+     */
+
+    @TearDown
+    public void tearDown(){
+        terrain.getItems()[0].getMesh().cleanUp();
+        texture.cleanup();
+    }
+
+    /**
+     * Builds the mesh from the decoded height map and the loaded texture.
+     *
+     * @return The mesh.
+     */
+
+    @Benchmark
+    public HeightMapMesh heightMapMesh(){
+        builtMesh = new HeightMapMesh(-0.1f, 0.1f, heightMapImage, texture, 40);
+        return builtMesh;
+    }
+
+    /**
+     * Queries the height of every position.
+     *
+     * @param blackhole The blackhole.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void getHeight(Blackhole blackhole){
+        for(Vector3f position : positions){
+            blackhole.consume(terrain.getHeight(position));
+        }
+    }
+
+}
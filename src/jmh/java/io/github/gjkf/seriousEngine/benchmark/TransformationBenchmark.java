@@ -0,0 +1,132 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.benchmark;
+
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.Camera;
+import io.github.gjkf.seriousEngine.render.TransformStage;
+import io.github.gjkf.seriousEngine.render.Transformation;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the matrices built for every item, every frame.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TransformationBenchmark{
+
+    /**
+     * The number of items transformed by each invocation.
+     */
+    private static final int ITEMS = 1024;
+    /**
+     * The transformation.
+     */
+    private Transformation transformation;
+    /**
+     * The view matrix.
+     */
+    private Matrix4f viewMatrix;
+    /**
+     * The items.
+     */
+    private Item[] items;
+    /**
+     * The stage holding the model matrices of the items.
+     */
+    private TransformStage transformStage;
+
+    /**
+     * Creates the items with a fixed seed.
+     */
+
+    @Setup
+    public void setup(){
+        BenchmarkUtils.useHeadlessDevice();
+        Random random = new Random(BenchmarkUtils.SEED);
+        transformation = new Transformation();
+        viewMatrix = transformation.updateViewMatrix(new Camera());
+        items = new Item[ITEMS];
+        for(int i = 0; i < ITEMS; i++){
+            Item item = new Item();
+            item.setPosition(random.nextFloat() * 100, random.nextFloat() * 100, random.nextFloat() * 100);
+            item.setScale(0.5f + random.nextFloat());
+            item.setRotation(new Quaternionf().rotateXYZ(random.nextFloat(), random.nextFloat(), random.nextFloat()));
+            items[i] = item;
+        }
+        transformStage = new TransformStage();
+        for(Item item : items){
+            transformStage.add(item);
+        }
+        transformStage.update();
+    }
+
+    /**
+     * Builds the model matrix of every item.
+     *
+     * @param blackhole The blackhole.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void buildModelMatrix(Blackhole blackhole){
+        for(Item item : items){
+            blackhole.consume(transformation.buildModelMatrix(item));
+        }
+    }
+
+    /**
+     * Builds the model view matrix of every item.
+     *
+     * @param blackhole The blackhole.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void buildModelViewMatrix(Blackhole blackhole){
+        for(Item item : items){
+            blackhole.consume(transformation.buildModelViewMatrix(item, viewMatrix));
+        }
+    }
+
+    /**
+     * Updates the stage when no item moved, as for a static scene.
+     *
+     * @return The number of matrices recomputed.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public int updateTransformStageStatic(){
+        return transformStage.update();
+    }
+
+    /**
+     * Updates the stage when every item moved.
+     *
+     * @return The number of matrices recomputed.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public int updateTransformStageMoving(){
+        for(Item item : items){
+            item.invalidateBounds();
+        }
+        return transformStage.update();
+    }
+
+}
@@ -3,6 +3,8 @@
  */
 package io.github.gjkf.seriousEngine;
 
+import io.github.gjkf.seriousEngine.profiler.FrameProfiler;
+
 /**
  * This is the main class. <p>
  * Here happens the game loop ({@link #gameLoop()}) and all the relevant updates.
@@ -111,24 +113,38 @@ public class Engine implements Runnable{
         float elapsedTime;
         float accumulator = 0f;
         float interval = 1f / TARGET_UPS;
+        FrameProfiler profiler = window.getProfiler();
 
         boolean running = true;
         while(running && !window.windowShouldClose()){
+            profiler.beginFrame();
             elapsedTime = timer.getElapsedTime();
             accumulator += elapsedTime;
 
+            long start = profiler.start();
             input();
+            profiler.record(FrameProfiler.Phase.INPUT, start);
 
+            start = profiler.start();
+            int updates = 0;
             while(accumulator >= interval){
                 update(interval);
                 accumulator -= interval;
+                updates++;
             }
+            profiler.record(FrameProfiler.Phase.UPDATE, start);
+            profiler.recordUpdates(updates, accumulator);
 
+            start = profiler.start();
             render();
+            profiler.record(FrameProfiler.Phase.RENDER, start);
 
+            start = profiler.start();
             if(!window.isvSync()){
                 sync();
             }
+            profiler.record(FrameProfiler.Phase.SYNC, start);
+            profiler.endFrame();
         }
     }
 
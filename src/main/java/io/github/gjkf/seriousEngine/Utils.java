@@ -4,9 +4,15 @@
 package io.github.gjkf.seriousEngine;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -51,7 +57,7 @@ public class Utils{
 
     public static List<String> readAllLines(String fileName) throws Exception{
         List<String> list = new ArrayList<>();
-        try(BufferedReader br = new BufferedReader(new InputStreamReader(Utils.class.getClass().getResourceAsStream(fileName)))){
+        try(BufferedReader br = new BufferedReader(new InputStreamReader(Utils.class.getResourceAsStream(fileName)))){
             String line;
             while((line = br.readLine()) != null){
                 list.add(line);
@@ -60,6 +66,48 @@ public class Utils{
         return list;
     }
 
+    /**
+     * Reads all the bytes of a resource.
+     *
+     * @param fileName The path of the resource.
+     *
+     * @return The bytes.
+     *
+     * @throws IOException If the resource does not exist or could not be read.
+     */
+
+    public static byte[] readAllBytes(String fileName) throws IOException{
+        try(InputStream in = Utils.class.getResourceAsStream(fileName)){
+            if(in == null){
+                throw new FileNotFoundException("Resource not found: " + fileName);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(8192, in.available()));
+            byte[] buffer = new byte[8192];
+            int read;
+            while((read = in.read(buffer)) != -1){
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Maps a file into memory, read only.
+     * <p>The mapping stays valid after this returns, until the buffer is garbage collected.</p>
+     *
+     * @param path The path of the file.
+     *
+     * @return The mapped bytes.
+     *
+     * @throws IOException If the file could not be mapped.
+     */
+
+    public static MappedByteBuffer mapFile(String path) throws IOException{
+        try(FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)){
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
     /**
      * Transforms a list into an array.
      *
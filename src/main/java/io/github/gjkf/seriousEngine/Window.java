@@ -3,7 +3,10 @@
  */
 package io.github.gjkf.seriousEngine;
 
+import io.github.gjkf.seriousEngine.profiler.FrameProfiler;
 import io.github.gjkf.seriousEngine.render.Color4f;
+import io.github.gjkf.seriousEngine.render.device.Graphics;
+import io.github.gjkf.seriousEngine.render.device.IGraphicsDevice;
 import org.lwjgl.glfw.GLFWErrorCallback;
 import org.lwjgl.glfw.GLFWKeyCallback;
 import org.lwjgl.glfw.GLFWVidMode;
@@ -61,6 +64,10 @@ public class Window{
      * The window options.
      */
     private WindowOptions opts;
+    /**
+     * The profiler of the frames shown in this window.
+     */
+    private final FrameProfiler profiler;
 
     /**
      * The window constructor.
@@ -81,6 +88,7 @@ public class Window{
         this.vSync = vSync;
         this.resized = false;
         this.opts = opts;
+        this.profiler = new FrameProfiler();
     }
 
     /**
@@ -153,20 +161,22 @@ public class Window{
 
         GL.createCapabilities();
 
+        IGraphicsDevice device = Graphics.getDevice();
+
         // Set the clear color
-        glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
-        glEnable(GL_DEPTH_TEST);
+        device.clearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        device.enable(GL_DEPTH_TEST);
         if(opts.showTriangles){
-            glPolygonMode(GL_FRONT_AND_BACK, GL_LINE);
+            device.polygonMode(GL_FRONT_AND_BACK, GL_LINE);
         }
 
         // Support for transparencies
-        glEnable(GL_BLEND);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        device.enable(GL_BLEND);
+        device.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
 
         if(opts.cullFace){
-            glEnable(GL_CULL_FACE);
-            glCullFace(GL_BACK);
+            device.enable(GL_CULL_FACE);
+            device.cullFace(GL_BACK);
         }
     }
 
@@ -187,7 +197,7 @@ public class Window{
      */
 
     public void setClearColor(Color4f color){
-        glClearColor(color.r, color.g, color.b, color.a);
+        Graphics.getDevice().clearColor(color.r, color.g, color.b, color.a);
     }
 
     /**
@@ -294,6 +304,26 @@ public class Window{
         this.vSync = vSync;
     }
 
+    /**
+     * Getter for property 'options'.
+     *
+     * @return Value for property 'options'.
+     */
+
+    public WindowOptions getOptions(){
+        return opts;
+    }
+
+    /**
+     * Getter for property 'profiler'.
+     *
+     * @return Value for property 'profiler'.
+     */
+
+    public FrameProfiler getProfiler(){
+        return profiler;
+    }
+
     /**
      * Updates the window swapping the buffers.
      */
@@ -0,0 +1,179 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.collision;
+
+import io.github.gjkf.seriousEngine.items.Item;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of pairs of colliding items.
+ * <p>The pairs are stored in two parallel arrays that only grow, so filling the buffer again every frame does not
+ * allocate once it is large enough.</p>
+ */
+
+public class CollisionPairs{
+
+    /**
+     * The first item of each pair.
+     */
+    private Item[] firsts;
+    /**
+     * The second item of each pair.
+     */
+    private Item[] seconds;
+    /**
+     * The number of pairs.
+     */
+    private int size;
+
+    /**
+     * Creates an empty buffer.
+     */
+
+    public CollisionPairs(){
+        this(16);
+    }
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param capacity The initial number of pairs that fit in the buffer.
+     */
+
+    public CollisionPairs(int capacity){
+        firsts = new Item[Math.max(1, capacity)];
+        seconds = new Item[firsts.length];
+    }
+
+    /**
+     * Adds a pair.
+     *
+     * @param first  The first item.
+     * @param second The second item.
+     */
+
+    public void add(Item first, Item second){
+        ensureCapacity(size + 1);
+        firsts[size] = first;
+        seconds[size] = second;
+        size++;
+    }
+
+    /**
+     * Adds all the pairs of another buffer.
+     *
+     * @param other The other buffer.
+     */
+
+    public void addAll(CollisionPairs other){
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.firsts, 0, firsts, size, other.size);
+        System.arraycopy(other.seconds, 0, seconds, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Removes all the pairs.
+     */
+
+    public void clear(){
+        Arrays.fill(firsts, 0, size, null);
+        Arrays.fill(seconds, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of pairs.
+     *
+     * @return The size.
+     */
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns whether the buffer is empty.
+     *
+     * @return Whether there are no pairs.
+     */
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Returns the first item of a pair.
+     *
+     * @param index The index of the pair.
+     *
+     * @return The first item.
+     */
+
+    public Item getFirst(int index){
+        checkIndex(index);
+        return firsts[index];
+    }
+
+    /**
+     * Returns the second item of a pair.
+     *
+     * @param index The index of the pair.
+     *
+     * @return The second item.
+     */
+
+    public Item getSecond(int index){
+        checkIndex(index);
+        return seconds[index];
+    }
+
+    /**
+     * Returns whether two items are a pair, in any order.
+     * <p>This is a linear search.</p>
+     *
+     * @param a The first item.
+     * @param b The second item.
+     *
+     * @return Whether they collide.
+     */
+
+    public boolean contains(Item a, Item b){
+        for(int i = 0; i < size; i++){
+            if((firsts[i] == a && seconds[i] == b) || (firsts[i] == b && seconds[i] == a)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Grows the arrays to hold at least the given number of pairs.
+     *
+     * @param capacity The number of pairs.
+     */
+
+    private void ensureCapacity(int capacity){
+        if(capacity > firsts.length){
+            int newCapacity = Math.max(capacity, firsts.length * 2);
+            firsts = Arrays.copyOf(firsts, newCapacity);
+            seconds = Arrays.copyOf(seconds, newCapacity);
+        }
+    }
+
+    /**
+     * Throws if an index is out of bounds.
+     *
+     * @param index The index.
+     */
+
+    private void checkIndex(int index){
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+}
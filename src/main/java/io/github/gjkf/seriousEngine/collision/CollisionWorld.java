@@ -0,0 +1,609 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.collision;
+
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.Bounds;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds all the pairs of colliding items in one batch.
+ * <p>The broad phase is a uniform grid hashed into a sorted array: every item adds one entry, a long made of the hash of
+ * the cell and the index of the item, for each cell its world bounds touch. Sorting the entries groups the items of
+ * each cell, and only the items of the same cell are compared. A pair sharing more than one cell is reported only by
+ * the cell holding the minimum corner of the intersection of their bounds. The items touching more than
+ * {@link #MAX_CELLS_PER_ITEM} cells are kept out of the grid and compared with every other item.</p>
+ * <p>The pairs whose world bounds overlap go through the narrow phase, which tests the exact oriented boxes with
+ * {@link Collisions#intersectObb(float[], int, float[], int)} when one of the items is rotated.</p>
+ * <p>With at least {@link #PARALLEL_THRESHOLD} items the work is split into chunks run on the common
+ * {@link ForkJoinPool}. Each chunk fills its own {@link CollisionPairs} and the buffers are merged in order, so the
+ * result is the same as a serial run. Nothing is allocated once the buffers are large enough.</p>
+ * <p>Usage, once per update:</p>
+ * <pre>
+ *     CollisionPairs pairs = world.update();
+ *     for(int i = 0; i &lt; pairs.size(); i++){
+ *         handle(pairs.getFirst(i), pairs.getSecond(i));
+ *     }
+ * </pre>
+ */
+
+public class CollisionWorld{
+
+    /**
+     * The number of items from which the work is run in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 4096;
+    /**
+     * The maximum number of cells an item can touch before it is kept out of the grid.
+     */
+    public static final int MAX_CELLS_PER_ITEM = 64;
+    /**
+     * The number of chunks per thread, more than one to balance the load.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+    /**
+     * The items.
+     */
+    private Item[] items;
+    /**
+     * The world bounds of each item, six floats each: the minimum and the maximum corner.
+     */
+    private float[] boxes;
+    /**
+     * The oriented box of each item, {@link Collisions#OBB_SIZE} floats each.
+     */
+    private float[] obbs;
+    /**
+     * Whether each item is not rotated.
+     */
+    private boolean[] axisAligned;
+    /**
+     * Whether each item is kept out of the grid.
+     */
+    private boolean[] oversizedFlags;
+    /**
+     * The number of items.
+     */
+    private int count;
+    /**
+     * The grid entries: the hash of the cell in the high half and the index of the item in the low half.
+     */
+    private long[] entries;
+    /**
+     * The number of entries.
+     */
+    private int entryCount;
+    /**
+     * The indices of the items kept out of the grid.
+     */
+    private int[] oversized;
+    /**
+     * The number of items kept out of the grid.
+     */
+    private int oversizedCount;
+    /**
+     * The size of the cells, 0 to compute it from the items.
+     */
+    private float cellSize;
+    /**
+     * The inverse of the size of the cells used by the current update.
+     */
+    private float invCellSize;
+    /**
+     * The pairs found by the last update.
+     */
+    private final CollisionPairs pairs;
+    /**
+     * The chunks of the parallel update.
+     */
+    private ChunkTask[] tasks;
+    /**
+     * Whether the work can run in parallel.
+     */
+    private boolean parallel;
+
+    /**
+     * Creates an empty world whose cell size is computed from the items.
+     */
+
+    public CollisionWorld(){
+        items = new Item[16];
+        boxes = new float[16 * 6];
+        obbs = new float[16 * Collisions.OBB_SIZE];
+        axisAligned = new boolean[16];
+        oversizedFlags = new boolean[16];
+        entries = new long[64];
+        oversized = new int[16];
+        pairs = new CollisionPairs();
+        tasks = new ChunkTask[0];
+        parallel = true;
+    }
+
+    /**
+     * Adds an item.
+     *
+     * @param item The item.
+     */
+
+    public void add(Item item){
+        if(count == items.length){
+            int capacity = count * 2;
+            items = Arrays.copyOf(items, capacity);
+            boxes = Arrays.copyOf(boxes, capacity * 6);
+            obbs = Arrays.copyOf(obbs, capacity * Collisions.OBB_SIZE);
+            axisAligned = Arrays.copyOf(axisAligned, capacity);
+            oversizedFlags = Arrays.copyOf(oversizedFlags, capacity);
+        }
+        items[count++] = item;
+    }
+
+    /**
+     * Adds some items.
+     *
+     * @param items The items.
+     */
+
+    public void addAll(Item[] items){
+        for(Item item : items){
+            add(item);
+        }
+    }
+
+    /**
+     * Removes an item.
+     * <p>This is a linear search.</p>
+     *
+     * @param item The item.
+     *
+     * @return Whether the item was in the world.
+     */
+
+    public boolean remove(Item item){
+        for(int i = 0; i < count; i++){
+            if(items[i] == item){
+                count--;
+                items[i] = items[count];
+                items[count] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all the items.
+     */
+
+    public void clear(){
+        Arrays.fill(items, 0, count, null);
+        count = 0;
+        pairs.clear();
+    }
+
+    /**
+     * Finds all the pairs of colliding items.
+     * <p>The returned buffer belongs to the world and is overwritten by the next update. Each pair is reported once.</p>
+     *
+     * @return The pairs.
+     */
+
+    public CollisionPairs update(){
+        pairs.clear();
+        if(count < 2){
+            return pairs;
+        }
+        boolean runParallel = parallel && count >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+        if(runParallel){
+            prepareTasks(count);
+            runTasks(ChunkTask.GATHER);
+        }else{
+            gather(0, count);
+        }
+        buildGrid();
+        if(runParallel){
+            prepareTasks(entryCount);
+            alignTasks();
+            runTasks(ChunkTask.TEST);
+            for(ChunkTask task : tasks){
+                pairs.addAll(task.pairs);
+            }
+        }else{
+            testCells(0, entryCount, pairs);
+        }
+        testOversized(pairs);
+        return pairs;
+    }
+
+    /**
+     * Getter for property 'pairs'.
+     *
+     * @return Value for property 'pairs'.
+     */
+
+    public CollisionPairs getPairs(){
+        return pairs;
+    }
+
+    /**
+     * Returns the number of items.
+     *
+     * @return The number of items.
+     */
+
+    public int size(){
+        return count;
+    }
+
+    /**
+     * Getter for property 'cellSize'.
+     *
+     * @return Value for property 'cellSize'.
+     */
+
+    public float getCellSize(){
+        return cellSize;
+    }
+
+    /**
+     * Setter for property 'cellSize'.
+     * <p>Cells about twice as large as the typical item work best. With 0, the default, the size is computed at every
+     * update as twice the mean size of the items.</p>
+     *
+     * @param cellSize Value to set for property 'cellSize'.
+     */
+
+    public void setCellSize(float cellSize){
+        if(cellSize < 0){
+            throw new IllegalArgumentException("The cell size must not be negative");
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Getter for property 'parallel'.
+     *
+     * @return Value for property 'parallel'.
+     */
+
+    public boolean isParallel(){
+        return parallel;
+    }
+
+    /**
+     * Setter for property 'parallel'.
+     *
+     * @param parallel Value to set for property 'parallel'.
+     */
+
+    public void setParallel(boolean parallel){
+        this.parallel = parallel;
+    }
+
+    /**
+     * Copies the world bounds of a range of items and computes their oriented boxes.
+     * <p>Items with empty bounds get an inverted box, which overlaps nothing.</p>
+     *
+     * @param start The first item.
+     * @param end   The item after the last one.
+     */
+
+    private void gather(int start, int end){
+        for(int i = start; i < end; i++){
+            Item item = items[i];
+            Bounds bounds = item.getWorldBounds();
+            int o = i * 6;
+            if(bounds.isEmpty()){
+                Arrays.fill(boxes, o, o + 3, Float.POSITIVE_INFINITY);
+                Arrays.fill(boxes, o + 3, o + 6, Float.NEGATIVE_INFINITY);
+                axisAligned[i] = true;
+                continue;
+            }
+            Vector3f min = bounds.getMin();
+            Vector3f max = bounds.getMax();
+            boxes[o] = min.x;
+            boxes[o + 1] = min.y;
+            boxes[o + 2] = min.z;
+            boxes[o + 3] = max.x;
+            boxes[o + 4] = max.y;
+            boxes[o + 5] = max.z;
+            axisAligned[i] = Collisions.isAxisAligned(item);
+            Collisions.computeObb(item, obbs, i * Collisions.OBB_SIZE);
+        }
+    }
+
+    /**
+     * Fills and sorts the grid entries.
+     */
+
+    private void buildGrid(){
+        float size = cellSize;
+        if(size == 0){
+            size = 2 * meanItemSize();
+        }
+        invCellSize = size > 0 ? 1.0f / size : 1.0f;
+
+        entryCount = 0;
+        oversizedCount = 0;
+        for(int i = 0; i < count; i++){
+            int o = i * 6;
+            oversizedFlags[i] = false;
+            if(boxes[o] > boxes[o + 3]){
+                continue;
+            }
+            int minX = cell(boxes[o]), minY = cell(boxes[o + 1]), minZ = cell(boxes[o + 2]);
+            int maxX = cell(boxes[o + 3]), maxY = cell(boxes[o + 4]), maxZ = cell(boxes[o + 5]);
+            long cells = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+            if(cells > MAX_CELLS_PER_ITEM){
+                if(oversizedCount == oversized.length){
+                    oversized = Arrays.copyOf(oversized, oversizedCount * 2);
+                }
+                oversized[oversizedCount++] = i;
+                oversizedFlags[i] = true;
+                continue;
+            }
+            if(entryCount + cells > entries.length){
+                entries = Arrays.copyOf(entries, Math.max(entries.length * 2, (int) (entryCount + cells)));
+            }
+            for(int x = minX; x <= maxX; x++){
+                for(int y = minY; y <= maxY; y++){
+                    for(int z = minZ; z <= maxZ; z++){
+                        entries[entryCount++] = ((long) hash(x, y, z) << 32) | i;
+                    }
+                }
+            }
+        }
+        if(parallel && entryCount >= PARALLEL_THRESHOLD){
+            Arrays.parallelSort(entries, 0, entryCount);
+        }else{
+            Arrays.sort(entries, 0, entryCount);
+        }
+    }
+
+    /**
+     * Returns the mean of the largest side of the world bounds of the items.
+     *
+     * @return The mean size, 0 if all the bounds are empty.
+     */
+
+    private float meanItemSize(){
+        double sum = 0;
+        int valid = 0;
+        for(int i = 0; i < count; i++){
+            int o = i * 6;
+            if(boxes[o] <= boxes[o + 3]){
+                sum += Math.max(boxes[o + 3] - boxes[o], Math.max(boxes[o + 4] - boxes[o + 1], boxes[o + 5] - boxes[o + 2]));
+                valid++;
+            }
+        }
+        return valid == 0 ? 0 : (float) (sum / valid);
+    }
+
+    /**
+     * Returns the cell of a coordinate.
+     *
+     * @param value The coordinate.
+     *
+     * @return The cell.
+     */
+
+    private int cell(float value){
+        return (int) Math.floor(value * invCellSize);
+    }
+
+    /**
+     * Hashes the coordinates of a cell.
+     *
+     * @param x The X of the cell.
+     * @param y The Y of the cell.
+     * @param z The Z of the cell.
+     *
+     * @return The hash.
+     */
+
+    private static int hash(int x, int y, int z){
+        return (x * 73856093) ^ (y * 19349663) ^ (z * 83492791);
+    }
+
+    /**
+     * Compares the items of every cell starting in a range of entries.
+     * <p>Within a cell the entries are sorted by item, so an item found twice, because two cells share the hash, is
+     * skipped.</p>
+     *
+     * @param start The first entry, the start of a cell.
+     * @param end   The entry after the last one, the start of a cell or the end of the entries.
+     * @param dest  Where to add the pairs.
+     */
+
+    private void testCells(int start, int end, CollisionPairs dest){
+        long[] entries = this.entries;
+        float[] boxes = this.boxes;
+        int cellStart = start;
+        while(cellStart < end){
+            int hash = (int) (entries[cellStart] >> 32);
+            int cellEnd = cellStart + 1;
+            while(cellEnd < entryCount && (int) (entries[cellEnd] >> 32) == hash){
+                cellEnd++;
+            }
+            for(int a = cellStart; a < cellEnd; a++){
+                int i = (int) entries[a];
+                if(a > cellStart && i == (int) entries[a - 1]){
+                    continue;
+                }
+                int io = i * 6;
+                for(int b = a + 1; b < cellEnd; b++){
+                    int j = (int) entries[b];
+                    if(j == (int) entries[b - 1]){
+                        continue;
+                    }
+                    int jo = j * 6;
+                    // Intersection of the world bounds
+                    float minX = Math.max(boxes[io], boxes[jo]);
+                    float minY = Math.max(boxes[io + 1], boxes[jo + 1]);
+                    float minZ = Math.max(boxes[io + 2], boxes[jo + 2]);
+                    if(minX > Math.min(boxes[io + 3], boxes[jo + 3]) || minY > Math.min(boxes[io + 4], boxes[jo + 4])
+                            || minZ > Math.min(boxes[io + 5], boxes[jo + 5])){
+                        continue;
+                    }
+                    // Only the cell of the minimum corner of the intersection reports the pair
+                    if(hash(cell(minX), cell(minY), cell(minZ)) != hash){
+                        continue;
+                    }
+                    if(narrowPhase(i, j)){
+                        dest.add(items[i], items[j]);
+                    }
+                }
+            }
+            cellStart = cellEnd;
+        }
+    }
+
+    /**
+     * Compares the items kept out of the grid with every other item.
+     *
+     * @param dest Where to add the pairs.
+     */
+
+    private void testOversized(CollisionPairs dest){
+        for(int k = 0; k < oversizedCount; k++){
+            int i = oversized[k];
+            int io = i * 6;
+            for(int j = 0; j < count; j++){
+                // Two oversized items are compared only once
+                if(j == i || (j < i && oversizedFlags[j])){
+                    continue;
+                }
+                int jo = j * 6;
+                if(boxes[io] > boxes[jo + 3] || boxes[io + 3] < boxes[jo] || boxes[io + 1] > boxes[jo + 4]
+                        || boxes[io + 4] < boxes[jo + 1] || boxes[io + 2] > boxes[jo + 5] || boxes[io + 5] < boxes[jo + 2]){
+                    continue;
+                }
+                if(narrowPhase(i, j)){
+                    dest.add(items[i], items[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the exact boxes of two items whose world bounds overlap.
+     *
+     * @param i The first item.
+     * @param j The second item.
+     *
+     * @return Whether they intersect.
+     */
+
+    private boolean narrowPhase(int i, int j){
+        return (axisAligned[i] && axisAligned[j])
+                || Collisions.intersectObb(obbs, i * Collisions.OBB_SIZE, obbs, j * Collisions.OBB_SIZE);
+    }
+
+    /**
+     * Creates the chunks and splits a range evenly between them.
+     *
+     * @param length The length of the range.
+     */
+
+    private void prepareTasks(int length){
+        int numTasks = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD;
+        if(tasks.length != numTasks){
+            tasks = new ChunkTask[numTasks];
+            for(int i = 0; i < numTasks; i++){
+                tasks[i] = new ChunkTask();
+            }
+        }
+        for(int i = 0; i < numTasks; i++){
+            tasks[i].start = (int) ((long) length * i / numTasks);
+            tasks[i].end = (int) ((long) length * (i + 1) / numTasks);
+        }
+    }
+
+    /**
+     * Moves the limits of the chunks forward to the start of a cell, so every cell is tested by one chunk.
+     */
+
+    private void alignTasks(){
+        for(int i = 1; i < tasks.length; i++){
+            int start = Math.max(tasks[i].start, tasks[i - 1].start);
+            while(start > 0 && start < entryCount && (int) (entries[start] >> 32) == (int) (entries[start - 1] >> 32)){
+                start++;
+            }
+            tasks[i].start = start;
+            tasks[i - 1].end = start;
+        }
+        tasks[tasks.length - 1].end = entryCount;
+    }
+
+    /**
+     * Runs a phase on every chunk and waits for them.
+     *
+     * @param phase The phase.
+     */
+
+    private void runTasks(int phase){
+        for(ChunkTask task : tasks){
+            task.reinitialize();
+            task.phase = phase;
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * A chunk of the work, processed by one task.
+     */
+
+    private class ChunkTask extends RecursiveAction{
+
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The phase copying the bounds, over a range of items.
+         */
+        static final int GATHER = 0;
+        /**
+         * The phase comparing the items of the cells, over a range of entries.
+         */
+        static final int TEST = 1;
+        /**
+         * The pairs found by this chunk.
+         */
+        final CollisionPairs pairs = new CollisionPairs();
+        /**
+         * The start of the range.
+         */
+        int start;
+        /**
+         * The end of the range.
+         */
+        int end;
+        /**
+         * The phase to run.
+         */
+        int phase;
+
+        /**
+         * {@inheritDoc}
+         */
+
+        @Override
+        protected void compute(){
+            if(phase == GATHER){
+                gather(start, end);
+            }else{
+                pairs.clear();
+                testCells(start, end, pairs);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.collision;
+
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.Bounds;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Exact intersection tests between the boxes of items.
+ * <p>The box of an item is its local bounds box, scaled, rotated and translated with the item: an oriented box. It is
+ * stored in {@link #OBB_SIZE} floats: the center, the three unit axes and the three half extents.</p>
+ */
+
+public final class Collisions{
+
+    /**
+     * The number of floats of an oriented box.
+     */
+    public static final int OBB_SIZE = 15;
+    /**
+     * Added to the projections to counter the arithmetic errors when two axes are almost parallel.
+     */
+    private static final float EPSILON = 1e-6f;
+    /**
+     * The boxes computed by {@link #intersect(Item, Item)}, one pair per thread.
+     */
+    private static final ThreadLocal<float[]> SCRATCH = ThreadLocal.withInitial(() -> new float[2 * OBB_SIZE]);
+
+    /**
+     * Do not instantiate Collisions.
+     */
+    private Collisions(){
+    }
+
+    /**
+     * Returns whether the boxes of two items intersect.
+     * <p>The world bounds are compared first, and the oriented boxes only if one of the items is rotated. Items with
+     * empty bounds never intersect.</p>
+     *
+     * @param a The first item.
+     * @param b The second item.
+     *
+     * @return Whether they intersect.
+     */
+
+    public static boolean intersect(Item a, Item b){
+        Bounds boundsA = a.getWorldBounds();
+        Bounds boundsB = b.getWorldBounds();
+        if(boundsA.isEmpty() || boundsB.isEmpty() || !boundsA.intersects(boundsB)){
+            return false;
+        }
+        if(isAxisAligned(a) && isAxisAligned(b)){
+            // The world bounds are the exact boxes
+            return true;
+        }
+        float[] boxes = SCRATCH.get();
+        computeObb(a, boxes, 0);
+        computeObb(b, boxes, OBB_SIZE);
+        return intersectObb(boxes, 0, boxes, OBB_SIZE);
+    }
+
+    /**
+     * Returns whether an item is not rotated, so its world bounds are its exact box.
+     *
+     * @param item The item.
+     *
+     * @return Whether it is axis aligned.
+     */
+
+    public static boolean isAxisAligned(Item item){
+        Quaternionf rotation = item.getRotation();
+        return rotation.x == 0 && rotation.y == 0 && rotation.z == 0;
+    }
+
+    /**
+     * Computes the oriented box of an item.
+     *
+     * @param item   The item.
+     * @param dest   Where to store the box.
+     * @param offset The offset of the box in <tt>dest</tt>.
+     */
+
+    public static void computeObb(Item item, float[] dest, int offset){
+        Bounds bounds = item.getLocalBounds();
+        Quaternionf rotation = item.getRotation();
+        Vector3f position = item.getPosition();
+        float scale = item.getScale();
+
+        // Rotation matrix of the quaternion, the columns are the axes of the box
+        float w2 = rotation.w * rotation.w, x2 = rotation.x * rotation.x;
+        float y2 = rotation.y * rotation.y, z2 = rotation.z * rotation.z;
+        float xy = rotation.x * rotation.y, zw = rotation.z * rotation.w;
+        float xz = rotation.x * rotation.z, yw = rotation.y * rotation.w;
+        float yz = rotation.y * rotation.z, xw = rotation.x * rotation.w;
+        float m00 = w2 + x2 - z2 - y2, m01 = xy + zw + zw + xy, m02 = xz - yw + xz - yw;
+        float m10 = -zw + xy - zw + xy, m11 = y2 - z2 + w2 - x2, m12 = yz + yz + xw + xw;
+        float m20 = yw + xz + xz + yw, m21 = yz + yz - xw - xw, m22 = z2 - y2 - x2 + w2;
+
+        Vector3f center = bounds.getCenter();
+        Vector3f min = bounds.getMin();
+        Vector3f max = bounds.getMax();
+        float absScale = Math.abs(scale);
+
+        dest[offset] = (m00 * center.x + m10 * center.y + m20 * center.z) * scale + position.x;
+        dest[offset + 1] = (m01 * center.x + m11 * center.y + m21 * center.z) * scale + position.y;
+        dest[offset + 2] = (m02 * center.x + m12 * center.y + m22 * center.z) * scale + position.z;
+        dest[offset + 3] = m00;
+        dest[offset + 4] = m01;
+        dest[offset + 5] = m02;
+        dest[offset + 6] = m10;
+        dest[offset + 7] = m11;
+        dest[offset + 8] = m12;
+        dest[offset + 9] = m20;
+        dest[offset + 10] = m21;
+        dest[offset + 11] = m22;
+        dest[offset + 12] = (max.x - min.x) * 0.5f * absScale;
+        dest[offset + 13] = (max.y - min.y) * 0.5f * absScale;
+        dest[offset + 14] = (max.z - min.z) * 0.5f * absScale;
+    }
+
+    /**
+     * Returns whether two oriented boxes intersect, testing the fifteen separating axes.
+     * <p>Boxes that touch intersect.</p>
+     *
+     * @param a       The array holding the first box.
+     * @param aOffset The offset of the first box.
+     * @param b       The array holding the second box.
+     * @param bOffset The offset of the second box.
+     *
+     * @return Whether they intersect.
+     */
+
+    public static boolean intersectObb(float[] a, int aOffset, float[] b, int bOffset){
+        int ao = aOffset, bo = bOffset;
+        float ae0 = a[ao + 12], ae1 = a[ao + 13], ae2 = a[ao + 14];
+        float be0 = b[bo + 12], be1 = b[bo + 13], be2 = b[bo + 14];
+
+        // The axes of b in the frame of a
+        float r00 = dot(a, ao + 3, b, bo + 3), r01 = dot(a, ao + 3, b, bo + 6), r02 = dot(a, ao + 3, b, bo + 9);
+        float r10 = dot(a, ao + 6, b, bo + 3), r11 = dot(a, ao + 6, b, bo + 6), r12 = dot(a, ao + 6, b, bo + 9);
+        float r20 = dot(a, ao + 9, b, bo + 3), r21 = dot(a, ao + 9, b, bo + 6), r22 = dot(a, ao + 9, b, bo + 9);
+
+        // The translation in the frame of a
+        float dx = b[bo] - a[ao], dy = b[bo + 1] - a[ao + 1], dz = b[bo + 2] - a[ao + 2];
+        float t0 = dx * a[ao + 3] + dy * a[ao + 4] + dz * a[ao + 5];
+        float t1 = dx * a[ao + 6] + dy * a[ao + 7] + dz * a[ao + 8];
+        float t2 = dx * a[ao + 9] + dy * a[ao + 10] + dz * a[ao + 11];
+
+        float abs00 = Math.abs(r00) + EPSILON, abs01 = Math.abs(r01) + EPSILON, abs02 = Math.abs(r02) + EPSILON;
+        float abs10 = Math.abs(r10) + EPSILON, abs11 = Math.abs(r11) + EPSILON, abs12 = Math.abs(r12) + EPSILON;
+        float abs20 = Math.abs(r20) + EPSILON, abs21 = Math.abs(r21) + EPSILON, abs22 = Math.abs(r22) + EPSILON;
+
+        // The axes of a
+        if(Math.abs(t0) > ae0 + be0 * abs00 + be1 * abs01 + be2 * abs02){
+            return false;
+        }
+        if(Math.abs(t1) > ae1 + be0 * abs10 + be1 * abs11 + be2 * abs12){
+            return false;
+        }
+        if(Math.abs(t2) > ae2 + be0 * abs20 + be1 * abs21 + be2 * abs22){
+            return false;
+        }
+
+        // The axes of b
+        if(Math.abs(t0 * r00 + t1 * r10 + t2 * r20) > ae0 * abs00 + ae1 * abs10 + ae2 * abs20 + be0){
+            return false;
+        }
+        if(Math.abs(t0 * r01 + t1 * r11 + t2 * r21) > ae0 * abs01 + ae1 * abs11 + ae2 * abs21 + be1){
+            return false;
+        }
+        if(Math.abs(t0 * r02 + t1 * r12 + t2 * r22) > ae0 * abs02 + ae1 * abs12 + ae2 * abs22 + be2){
+            return false;
+        }
+
+        // The cross products of the axes of a and b
+        if(Math.abs(t2 * r10 - t1 * r20) > ae1 * abs20 + ae2 * abs10 + be1 * abs02 + be2 * abs01){
+            return false;
+        }
+        if(Math.abs(t2 * r11 - t1 * r21) > ae1 * abs21 + ae2 * abs11 + be0 * abs02 + be2 * abs00){
+            return false;
+        }
+        if(Math.abs(t2 * r12 - t1 * r22) > ae1 * abs22 + ae2 * abs12 + be0 * abs01 + be1 * abs00){
+            return false;
+        }
+        if(Math.abs(t0 * r20 - t2 * r00) > ae0 * abs20 + ae2 * abs00 + be1 * abs12 + be2 * abs11){
+            return false;
+        }
+        if(Math.abs(t0 * r21 - t2 * r01) > ae0 * abs21 + ae2 * abs01 + be0 * abs12 + be2 * abs10){
+            return false;
+        }
+        if(Math.abs(t0 * r22 - t2 * r02) > ae0 * abs22 + ae2 * abs02 + be0 * abs11 + be1 * abs10){
+            return false;
+        }
+        if(Math.abs(t1 * r00 - t0 * r10) > ae0 * abs10 + ae1 * abs00 + be1 * abs22 + be2 * abs21){
+            return false;
+        }
+        if(Math.abs(t1 * r01 - t0 * r11) > ae0 * abs11 + ae1 * abs01 + be0 * abs22 + be2 * abs20){
+            return false;
+        }
+        return Math.abs(t1 * r02 - t0 * r12) <= ae0 * abs12 + ae1 * abs02 + be0 * abs21 + be1 * abs20;
+    }
+
+    /**
+     * Returns the dot product of two vectors stored in arrays.
+     *
+     * @param a       The array of the first vector.
+     * @param aOffset The offset of the first vector.
+     * @param b       The array of the second vector.
+     * @param bOffset The offset of the second vector.
+     *
+     * @return The dot product.
+     */
+
+    private static float dot(float[] a, int aOffset, float[] b, int bOffset){
+        return a[aOffset] * b[bOffset] + a[aOffset + 1] * b[bOffset + 1] + a[aOffset + 2] * b[bOffset + 2];
+    }
+
+}
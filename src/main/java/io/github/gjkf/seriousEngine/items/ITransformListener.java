@@ -0,0 +1,23 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.items;
+
+/**
+ * Implement this interface to be notified when the world bounds of an {@link Item} become stale.
+ * <p>That happens when the position, the rotation, the scale or the meshes of the item change.</p>
+ */
+
+public interface ITransformListener{
+
+    /**
+     * Called every time the transformation of an item changes.
+     * <p>It can be called many times for the same item between two frames.</p>
+     *
+     * @param item The item.
+     */
+
+    void transformChanged(Item item);
+
+}
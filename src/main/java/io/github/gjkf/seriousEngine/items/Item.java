@@ -3,9 +3,10 @@
  */
 package io.github.gjkf.seriousEngine.items;
 
+import io.github.gjkf.seriousEngine.collision.Collisions;
+import io.github.gjkf.seriousEngine.render.Bounds;
 import io.github.gjkf.seriousEngine.render.Mesh;
 import org.joml.Quaternionf;
-import org.joml.Vector2f;
 import org.joml.Vector3f;
 
 /**
@@ -34,6 +35,34 @@ public class Item{
      * The texture position.
      */
     private int textPos;
+    /**
+     * The union of the bounds of the meshes, in model space.
+     */
+    private final Bounds localBounds;
+    /**
+     * The local bounds transformed by the position, rotation and scale of this item.
+     */
+    private final Bounds worldBounds;
+    /**
+     * Whether {@link #worldBounds} needs to be recalculated.
+     */
+    private boolean boundsDirty;
+    /**
+     * The listener notified when the transformation changes.
+     */
+    private ITransformListener transformListener;
+    /**
+     * The proxy of this item in the spatial index of its scene, -1 if it is not in one.
+     */
+    private int spatialProxy;
+    /**
+     * The index of this item in the transform stage of its scene, -1 if it is not in one.
+     */
+    private int transformIndex;
+    /**
+     * Whether the model matrix of this item needs to be recalculated.
+     */
+    private boolean transformDirty;
 
     /**
      * Constructs a new Item.
@@ -44,6 +73,12 @@ public class Item{
         scale = 1;
         rotation = new Quaternionf();
         textPos = 0;
+        localBounds = new Bounds();
+        worldBounds = new Bounds();
+        boundsDirty = true;
+        spatialProxy = -1;
+        transformIndex = -1;
+        transformDirty = true;
     }
 
     /**
@@ -55,15 +90,19 @@ public class Item{
     public Item(Mesh mesh){
         this();
         this.meshes = new Mesh[] {mesh};
+        updateLocalBounds();
     }
 
     public Item(Mesh[] meshes){
         this();
         this.meshes = meshes;
+        updateLocalBounds();
     }
 
     /**
      * Returns the position.
+     * <p>If the vector is modified directly {@link #invalidateBounds()} must be called, prefer
+     * {@link #setPosition(float, float, float)}.</p>
      *
      * @return The position vector.
      */
@@ -84,6 +123,7 @@ public class Item{
         this.position.x = x;
         this.position.y = y;
         this.position.z = z;
+        invalidateBounds();
     }
 
     /**
@@ -104,10 +144,13 @@ public class Item{
 
     public void setScale(float scale){
         this.scale = scale;
+        invalidateBounds();
     }
 
     /**
      * Gets the rotation vector.
+     * <p>If the quaternion is modified directly {@link #invalidateBounds()} must be called, prefer
+     * {@link #setRotation(Quaternionf)}.</p>
      *
      * @return The rotation.
      */
@@ -124,6 +167,7 @@ public class Item{
 
     public final void setRotation(Quaternionf q){
         this.rotation.set(q);
+        invalidateBounds();
     }
 
     /**
@@ -154,6 +198,7 @@ public class Item{
 
     public void setMeshes(Mesh[] meshes){
         this.meshes = meshes;
+        updateLocalBounds();
     }
 
     /**
@@ -164,6 +209,146 @@ public class Item{
 
     public void setMesh(Mesh mesh){
         this.meshes = new Mesh[] {mesh};
+        updateLocalBounds();
+    }
+
+    /**
+     * Getter for property 'localBounds'.
+     * <p>The bounds are in model space and must not be modified.</p>
+     *
+     * @return Value for property 'localBounds'.
+     */
+
+    public Bounds getLocalBounds(){
+        return localBounds;
+    }
+
+    /**
+     * Returns the bounds of this item in world space.
+     * <p>They are cached and only recalculated after the position, the rotation, the scale or the meshes change. The
+     * returned object must not be modified.</p>
+     *
+     * @return The world bounds.
+     */
+
+    public Bounds getWorldBounds(){
+        if(boundsDirty){
+            localBounds.transform(position, rotation, scale, worldBounds);
+            boundsDirty = false;
+        }
+        return worldBounds;
+    }
+
+    /**
+     * Marks the world bounds and the model matrix as stale and notifies the {@link ITransformListener}.
+     * <p>Needed only after modifying the vectors returned by {@link #getPosition()} or {@link #getRotation()}
+     * directly.</p>
+     */
+
+    public void invalidateBounds(){
+        boundsDirty = true;
+        transformDirty = true;
+        if(transformListener != null){
+            transformListener.transformChanged(this);
+        }
+    }
+
+    /**
+     * Getter for property 'transformListener'.
+     *
+     * @return Value for property 'transformListener'.
+     */
+
+    public ITransformListener getTransformListener(){
+        return transformListener;
+    }
+
+    /**
+     * Setter for property 'transformListener'.
+     * <p>Set by the spatial index of the scene when the item is added to it.</p>
+     *
+     * @param transformListener Value to set for property 'transformListener'.
+     */
+
+    public void setTransformListener(ITransformListener transformListener){
+        this.transformListener = transformListener;
+    }
+
+    /**
+     * Getter for property 'spatialProxy'.
+     *
+     * @return Value for property 'spatialProxy'.
+     */
+
+    public int getSpatialProxy(){
+        return spatialProxy;
+    }
+
+    /**
+     * Setter for property 'spatialProxy'.
+     * <p>Set by the spatial index of the scene when the item is added to it.</p>
+     *
+     * @param spatialProxy Value to set for property 'spatialProxy'.
+     */
+
+    public void setSpatialProxy(int spatialProxy){
+        this.spatialProxy = spatialProxy;
+    }
+
+    /**
+     * Getter for property 'transformIndex'.
+     *
+     * @return Value for property 'transformIndex'.
+     */
+
+    public int getTransformIndex(){
+        return transformIndex;
+    }
+
+    /**
+     * Setter for property 'transformIndex'.
+     * <p>Set by the transform stage of the scene when the item is added to it.</p>
+     *
+     * @param transformIndex Value to set for property 'transformIndex'.
+     */
+
+    public void setTransformIndex(int transformIndex){
+        this.transformIndex = transformIndex;
+    }
+
+    /**
+     * Returns whether the position, the rotation or the scale changed since the model matrix was last calculated.
+     *
+     * @return Whether the model matrix is stale.
+     */
+
+    public boolean isTransformDirty(){
+        return transformDirty;
+    }
+
+    /**
+     * Setter for property 'transformDirty'.
+     * <p>Cleared by the transform stage of the scene once it recalculated the model matrix.</p>
+     *
+     * @param transformDirty Value to set for property 'transformDirty'.
+     */
+
+    public void setTransformDirty(boolean transformDirty){
+        this.transformDirty = transformDirty;
+    }
+
+    /**
+     * Recalculates the local bounds as the union of the bounds of the meshes.
+     * <p>Subclasses can override this to include more than the meshes.</p>
+     */
+
+    protected void updateLocalBounds(){
+        localBounds.setEmpty();
+        int numMeshes = this.meshes != null ? this.meshes.length : 0;
+        for(int i = 0; i < numMeshes; i++){
+            localBounds.union(this.meshes[i].getBounds());
+        }
+        invalidateBounds();
     }
 
     /**
@@ -198,69 +383,20 @@ public class Item{
     }
 
     /**
-     * Checks whether the given item collides with this one.
+     * Checks whether the given item collides with this one, comparing their boxes exactly.
+     * <p>To test many items against each other use a {@link io.github.gjkf.seriousEngine.collision.CollisionWorld}.</p>
      *
      * @param item The item to check.
      *
      * @return TRUE if there's a collision, FALSE otherwise.
+     *
+     * @see Collisions#intersect(Item, Item)
      */
 
     public boolean checkCollisionWith(Item item){
         if(item.equals(this)){
             return true;
         }
-        boolean collidedX = false, collidedY = false, collidedZ = false;
-
-        Vector3f thisPosition = new Vector3f(
-                getPosition().x * getScale(),
-                getPosition().y * getScale(),
-                getPosition().z * getScale()
-        );
-
-        Vector3f itemPosition = new Vector3f(
-                item.getPosition().x * item.getScale(),
-                item.getPosition().y * item.getScale(),
-                item.getPosition().z * item.getScale()
-        );
-
-        Vector2f thisXBounds = new Vector2f(thisPosition.x - getScale(), thisPosition.x + getScale());
-        Vector2f thisYBounds = new Vector2f(thisPosition.y - getScale(), thisPosition.y + getScale());
-        Vector2f thisZBounds = new Vector2f(thisPosition.z - getScale(), thisPosition.z + getScale());
-
-        Vector2f itemXBounds = new Vector2f(itemPosition.x - item.getScale(), itemPosition.x + item.getScale());
-        Vector2f itemYBounds = new Vector2f(itemPosition.y - item.getScale(), itemPosition.y + item.getScale());
-        Vector2f itemZBounds = new Vector2f(itemPosition.z - item.getScale(), itemPosition.z + item.getScale());
-
-        if(itemPosition.x < thisPosition.x){
-            if(itemXBounds.y >= thisXBounds.x){
-                collidedX = true;
-            }
-        }else{
-            if(itemXBounds.x <= thisXBounds.y){
-                collidedX = true;
-            }
-        }
-
-        if(itemPosition.y < thisPosition.y){
-            if(itemYBounds.y >= thisYBounds.x){
-                collidedY = true;
-            }
-        }else{
-            if(itemYBounds.x <= thisYBounds.y){
-                collidedY = true;
-            }
-        }
-
-        if(itemPosition.z < thisPosition.z){
-            if(itemZBounds.y >= thisZBounds.x){
-                collidedZ = true;
-            }
-        }else{
-            if(itemZBounds.x <= thisZBounds.y){
-                collidedZ = true;
-            }
-        }
-
-        return collidedX && collidedY && collidedZ;
+        return Collisions.intersect(this, item);
     }
 }
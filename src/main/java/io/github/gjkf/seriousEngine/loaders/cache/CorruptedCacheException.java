@@ -0,0 +1,31 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.loaders.cache;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a {@link MeshCacheFile} holds values that can not have been written by the cache, such as a count
+ * larger than the rest of the file. The {@link MeshCache} then rebuilds the entry from the source files.
+ */
+
+final class CorruptedCacheException extends IOException{
+
+    /**
+     * The version of the serialized form.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param message The value that was wrong.
+     */
+
+    CorruptedCacheException(String message){
+        super(message);
+    }
+
+}
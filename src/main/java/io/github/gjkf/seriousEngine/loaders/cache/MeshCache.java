@@ -0,0 +1,364 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.loaders.cache;
+
+import io.github.gjkf.seriousEngine.Utils;
+import io.github.gjkf.seriousEngine.loaders.md5.MD5AnimModel;
+import io.github.gjkf.seriousEngine.loaders.md5.MD5Loader;
+import io.github.gjkf.seriousEngine.loaders.md5.MD5Mesh;
+import io.github.gjkf.seriousEngine.loaders.md5.MD5Model;
+import io.github.gjkf.seriousEngine.loaders.obj.OBJLoader;
+import io.github.gjkf.seriousEngine.render.Mesh;
+import io.github.gjkf.seriousEngine.render.MeshData;
+import io.github.gjkf.seriousEngine.render.anim.AnimItem;
+import io.github.gjkf.seriousEngine.render.anim.AnimationClip;
+import io.github.gjkf.seriousEngine.render.anim.Skeleton;
+import io.github.gjkf.seriousEngine.render.anim.SkinData;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A directory of models already processed by the loaders.
+ * <p>The first time a model is loaded, the final arrays of its meshes, its bounds, the textures of its materials and
+ * its animation frames are written to a binary file, see {@link MeshCacheFile}. The following times the file is mapped
+ * and the meshes are uploaded straight from it, without parsing the text files or building Java arrays.</p>
+ * <p>The files are named after the SHA-256 hash of the source files, so a changed model is never read from a stale
+ * entry. Entries that can not be read, because they are corrupted or come from another version, are rebuilt.</p>
+ */
+
+public class MeshCache{
+
+    /**
+     * The extension of the cache files.
+     */
+    public static final String EXTENSION = ".mesh";
+    /**
+     * The kind of the files of {@link #loadMesh(String, int)}.
+     */
+    private static final int KIND_OBJ = 1;
+    /**
+     * The kind of the files of {@link #loadAnimItem(String, String, Vector3f)}.
+     */
+    private static final int KIND_MD5 = 2;
+    /**
+     * The fewest bytes a mesh takes in a file: its texture path, counts and bounds.
+     */
+    private static final int MESH_MIN_BYTES = 4 + 3 * 4 + 10 * 4;
+    /**
+     * The directory of the files.
+     */
+    private final Path directory;
+
+    /**
+     * Creates a cache.
+     *
+     * @param directory The directory of the files, created when the first file is written.
+     */
+
+    public MeshCache(Path directory){
+        this.directory = directory;
+    }
+
+    /**
+     * Loads an <tt>.obj</tt> resource.
+     *
+     * @param fileName The path of the resource.
+     *
+     * @return The mesh.
+     *
+     * @throws Exception If the file could not be read or parsed.
+     * @see OBJLoader#loadMesh(String)
+     */
+
+    public Mesh loadMesh(String fileName) throws Exception{
+        return loadMesh(fileName, 1);
+    }
+
+    /**
+     * Loads an <tt>.obj</tt> resource.
+     *
+     * @param fileName  The path of the resource.
+     * @param instances The number of instances, an {@link io.github.gjkf.seriousEngine.render.InstancedMesh} is
+     *                  created when more than one.
+     *
+     * @return The mesh.
+     *
+     * @throws Exception If the file could not be read or parsed.
+     * @see OBJLoader#loadMesh(String, int)
+     */
+
+    public Mesh loadMesh(String fileName, int instances) throws Exception{
+        return loadMesh(Utils.readAllBytes(fileName), instances);
+    }
+
+    /**
+     * Loads an <tt>.obj</tt> file outside the classpath.
+     *
+     * @param path      The path of the file.
+     * @param instances The number of instances, an {@link io.github.gjkf.seriousEngine.render.InstancedMesh} is
+     *                  created when more than one.
+     *
+     * @return The mesh.
+     *
+     * @throws Exception If the file could not be read or parsed.
+     * @see OBJLoader#loadMeshFromWorld(String, int)
+     */
+
+    public Mesh loadMeshFromWorld(String path, int instances) throws Exception{
+        return loadMesh(Files.readAllBytes(directory.getFileSystem().getPath(path)), instances);
+    }
+
+    /**
+     * Loads an <tt>.obj</tt> file from its bytes.
+     *
+     * @param source    The bytes of the file.
+     * @param instances The number of instances.
+     *
+     * @return The mesh.
+     *
+     * @throws IOException If the cache file could not be written.
+     */
+
+    private Mesh loadMesh(byte[] source, int instances) throws IOException{
+        Path file = getFile(KIND_OBJ, source);
+        MeshCacheFile cached = open(file, KIND_OBJ);
+        if(cached != null){
+            try{
+                cached.readTexturePath();
+                return cached.readMesh(instances);
+            }catch(CorruptedCacheException | BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e){
+                // Damaged file, rebuilt below
+            }
+        }
+        MeshData data = OBJLoader.loadMeshData(ByteBuffer.wrap(source));
+        MeshCacheFile written = new MeshCacheFile();
+        written.writeHeader(KIND_OBJ);
+        written.writeMesh(data);
+        written.save(file);
+        return data.createMesh(instances);
+    }
+
+    /**
+     * Loads an animated <tt>.md5mesh</tt> model and its <tt>.md5anim</tt> animation.
+     *
+     * @param meshFile      The path of the model resource.
+     * @param animFile      The path of the animation resource.
+     * @param defaultColour The colour of the meshes without a texture.
+     *
+     * @return The animated item.
+     *
+     * @throws Exception If the files could not be read or parsed.
+     * @see MD5Loader#process(MD5Model, MD5AnimModel, Vector3f)
+     */
+
+    public AnimItem loadAnimItem(String meshFile, String animFile, Vector3f defaultColour) throws Exception{
+        byte[] meshSource = Utils.readAllBytes(meshFile);
+        byte[] animSource = Utils.readAllBytes(animFile);
+        Path file = getFile(KIND_MD5, meshSource, animSource);
+        MeshCacheFile cached = open(file, KIND_MD5);
+        if(cached != null){
+            try{
+                return readAnimItem(cached, defaultColour);
+            }catch(Exception e){
+                // Damaged file, possibly with a texture path that can not be loaded, rebuilt below; if the source
+                // files are at fault the rebuild fails again
+            }
+        }
+
+        MD5Model md5Model = MD5Model.parse(ByteBuffer.wrap(meshSource));
+        MD5AnimModel animModel = MD5AnimModel.parse(ByteBuffer.wrap(animSource));
+        Skeleton skeleton = MD5Loader.createSkeleton(md5Model);
+        AnimationClip clip = MD5Loader.processAnimation(md5Model, animModel);
+        List<MD5Mesh> md5Meshes = md5Model.getMeshes();
+        MeshData[] meshes = new MeshData[md5Meshes.size()];
+        for(int i = 0; i < meshes.length; i++){
+            meshes[i] = MD5Loader.generateMeshData(md5Model, md5Meshes.get(i));
+        }
+
+        MeshCacheFile written = new MeshCacheFile();
+        written.writeHeader(KIND_MD5);
+        written.writeInt(meshes.length);
+        for(MeshData mesh : meshes){
+            written.writeMesh(mesh);
+        }
+        written.writeInt(skeleton.getJointCount());
+        for(int i = 0; i < skeleton.getJointCount(); i++){
+            written.writeInt(skeleton.getParent(i));
+            written.writeMatrix(skeleton.getInvJointMatrices().get(i));
+        }
+        written.writeInt(clip.getFrameCount());
+        written.writeFloat(clip.getFrameRate());
+        written.writeFloats(clip.getPoses());
+        written.writeFloats(clip.getBounds());
+        written.save(file);
+
+        Mesh[] result = new Mesh[meshes.length];
+        SkinData[] skinData = new SkinData[meshes.length];
+        for(int i = 0; i < meshes.length; i++){
+            result[i] = meshes[i].createMesh(1);
+            result[i].setMaterial(MD5Loader.createMaterial(meshes[i].getTexturePath(), defaultColour));
+            skinData[i] = new SkinData(meshes[i]);
+        }
+        return new AnimItem(result, skeleton, clip, skinData);
+    }
+
+    /**
+     * Reads an animated item from its file.
+     *
+     * @param file          The file, after its header.
+     * @param defaultColour The colour of the meshes without a texture.
+     *
+     * @return The animated item.
+     *
+     * @throws CorruptedCacheException If the file is damaged.
+     * @throws Exception                If a texture could not be loaded.
+     */
+
+    private static AnimItem readAnimItem(MeshCacheFile file, Vector3f defaultColour) throws Exception{
+        Mesh[] meshes = new Mesh[file.readCount(MESH_MIN_BYTES)];
+        try{
+            return readAnimItem(file, defaultColour, meshes);
+        }catch(Exception e){
+            // Free the meshes already uploaded before giving up on the file
+            for(Mesh mesh : meshes){
+                if(mesh == null){
+                    continue;
+                }
+                if(mesh.getMaterial() != null){
+                    mesh.cleanUp();
+                }else{
+                    mesh.deleteBuffers();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads an animated item from its file, after the number of its meshes.
+     *
+     * @param file          The file, after the number of meshes.
+     * @param defaultColour The colour of the meshes without a texture.
+     * @param meshes        Where to store the meshes as they are created.
+     *
+     * @return The animated item.
+     *
+     * @throws CorruptedCacheException If the file is damaged.
+     * @throws Exception                If a texture could not be loaded.
+     */
+
+    private static AnimItem readAnimItem(MeshCacheFile file, Vector3f defaultColour, Mesh[] meshes) throws Exception{
+        SkinData[] skinData = new SkinData[meshes.length];
+        for(int i = 0; i < meshes.length; i++){
+            String texturePath = file.readTexturePath();
+            skinData[i] = file.readSkinData();
+            meshes[i] = file.readMesh(1);
+            meshes[i].setMaterial(MD5Loader.createMaterial(texturePath, defaultColour));
+        }
+        // A joint is its parent and its inverse bind matrix
+        int jointCount = file.readCount(4 + 16 * 4);
+        int[] jointParents = new int[jointCount];
+        List<Matrix4f> invJointMatrices = new ArrayList<>(jointCount);
+        for(int i = 0; i < jointCount; i++){
+            jointParents[i] = file.readInt();
+            invJointMatrices.add(file.readMatrix(new Matrix4f()));
+        }
+        int frameCount = file.readCount(((long) jointCount * AnimationClip.POSE_SIZE + AnimationClip.BOUNDS_SIZE) * 4);
+        float frameRate = file.readFloat();
+        float[] poses = new float[jointCount * frameCount * AnimationClip.POSE_SIZE];
+        float[] bounds = new float[frameCount * AnimationClip.BOUNDS_SIZE];
+        file.readFloats(poses);
+        file.readFloats(bounds);
+        AnimationClip clip = new AnimationClip(jointCount, frameCount, frameRate, poses, bounds);
+        return new AnimItem(meshes, new Skeleton(jointParents, invJointMatrices), clip, skinData);
+    }
+
+    /**
+     * Maps a cache file and checks its header.
+     *
+     * @param file The path of the file.
+     * @param kind The expected kind.
+     *
+     * @return The file after its header, <tt>null</tt> if it does not exist or can not be read.
+     */
+
+    private static MeshCacheFile open(Path file, int kind){
+        if(!Files.isRegularFile(file)){
+            return null;
+        }
+        try{
+            MeshCacheFile cached = new MeshCacheFile(Utils.mapFile(file.toString()));
+            return cached.readHeader(kind) ? cached : null;
+        }catch(IOException e){
+            return null;
+        }
+    }
+
+    /**
+     * Returns the path of the cache file of some source files.
+     *
+     * @param kind    The kind of the file.
+     * @param sources The bytes of the source files.
+     *
+     * @return The path.
+     */
+
+    private Path getFile(int kind, byte[]... sources){
+        return directory.resolve(hash(kind, sources) + EXTENSION);
+    }
+
+    /**
+     * Hashes source files, with the format version and the kind of the file.
+     *
+     * @param kind    The kind of the file.
+     * @param sources The bytes of the source files.
+     *
+     * @return The SHA-256 hash in hexadecimal.
+     */
+
+    static String hash(int kind, byte[]... sources){
+        MessageDigest digest;
+        try{
+            digest = MessageDigest.getInstance("SHA-256");
+        }catch(NoSuchAlgorithmException e){
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(MeshCacheFile.VERSION).putInt(kind);
+        digest.update(header.array());
+        for(byte[] source : sources){
+            ByteBuffer length = ByteBuffer.allocate(8);
+            length.putLong(source.length);
+            digest.update(length.array());
+            digest.update(source);
+        }
+        StringBuilder builder = new StringBuilder(64);
+        for(byte b : digest.digest()){
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Getter for property 'directory'.
+     *
+     * @return Value for property 'directory'.
+     */
+
+    public Path getDirectory(){
+        return directory;
+    }
+
+}
@@ -0,0 +1,480 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.loaders.cache;
+
+import io.github.gjkf.seriousEngine.render.Bounds;
+import io.github.gjkf.seriousEngine.render.InstancedMesh;
+import io.github.gjkf.seriousEngine.render.Mesh;
+import io.github.gjkf.seriousEngine.render.MeshData;
+import io.github.gjkf.seriousEngine.render.anim.SkinData;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes the binary files of the {@link MeshCache}.
+ * <p>A file is a sequence of ints and floats in the native byte order, so its arrays can be given to the graphics
+ * device straight from the mapped file. Every value is four bytes, so the arrays stay aligned. A file starts with
+ * {@link #MAGIC}, {@link #VERSION} and its kind; a file written on a machine with another byte order has a different
+ * magic number and is simply rebuilt.</p>
+ * <p>A mesh is stored as the path of its texture, its vertex and index counts, whether it has joints, its bounds and
+ * then its arrays: positions, texture coordinates, normals, joint indices and weights if it has joints, and
+ * indices.</p>
+ * <p>Every count read back is checked against the bytes left in the file, so a damaged file throws a
+ * {@link CorruptedCacheException} instead of allocating arrays of any size.</p>
+ */
+
+final class MeshCacheFile{
+
+    /**
+     * The first int of every file.
+     */
+    static final int MAGIC = 0x53454D43;
+    /**
+     * The version of the format, changed whenever the layout or the loaders output change.
+     */
+    static final int VERSION = 3;
+    /**
+     * The initial capacity of a file being written.
+     */
+    private static final int INITIAL_CAPACITY = 64 << 10;
+    /**
+     * The bytes of a vertex without joints: its position, texture coordinates and normal.
+     */
+    private static final int VERTEX_MIN_BYTES = (3 + 2 + 3) * 4;
+    /**
+     * The bytes of the file. The position is the current offset.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Creates an empty file to write.
+     */
+
+    MeshCacheFile(){
+        buffer = ByteBuffer.allocate(INITIAL_CAPACITY).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Wraps a file to read.
+     *
+     * @param buffer The bytes of the file, usually mapped.
+     */
+
+    MeshCacheFile(ByteBuffer buffer){
+        this.buffer = buffer.duplicate().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Writes the header.
+     *
+     * @param kind The kind of the file.
+     */
+
+    void writeHeader(int kind){
+        writeInt(MAGIC);
+        writeInt(VERSION);
+        writeInt(kind);
+    }
+
+    /**
+     * Reads the header and checks that the file can be read.
+     *
+     * @param kind The expected kind.
+     *
+     * @return Whether the file has the right magic number, version and kind.
+     */
+
+    boolean readHeader(int kind){
+        return buffer.remaining() >= 12 && readInt() == MAGIC && readInt() == VERSION && readInt() == kind;
+    }
+
+    /**
+     * Writes an int.
+     *
+     * @param value The value.
+     */
+
+    void writeInt(int value){
+        ensureCapacity(4);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Reads an int.
+     *
+     * @return The value.
+     */
+
+    int readInt(){
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads a count and checks that the file is large enough to hold that many items.
+     *
+     * @param minBytes The fewest bytes an item takes in the file.
+     *
+     * @return The count.
+     *
+     * @throws CorruptedCacheException If the count is negative or larger than the rest of the file.
+     */
+
+    int readCount(long minBytes) throws CorruptedCacheException{
+        if(buffer.remaining() < 4){
+            throw new CorruptedCacheException("Missing count at " + buffer.position());
+        }
+        int count = readInt();
+        if(count < 0 || count * minBytes > buffer.remaining()){
+            throw new CorruptedCacheException("Invalid count " + count + " at " + (buffer.position() - 4));
+        }
+        return count;
+    }
+
+    /**
+     * Writes a float.
+     *
+     * @param value The value.
+     */
+
+    void writeFloat(float value){
+        ensureCapacity(4);
+        buffer.putFloat(value);
+    }
+
+    /**
+     * Reads a float.
+     *
+     * @return The value.
+     */
+
+    float readFloat(){
+        return buffer.getFloat();
+    }
+
+    /**
+     * Writes a string, <tt>null</tt> included, padded to a multiple of four bytes.
+     *
+     * @param value The string.
+     */
+
+    void writeString(String value){
+        if(value == null){
+            writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        ensureCapacity(padded(bytes.length));
+        buffer.put(bytes);
+        buffer.position(buffer.position() + padded(bytes.length) - bytes.length);
+    }
+
+    /**
+     * Reads a string.
+     *
+     * @return The string, possibly <tt>null</tt>.
+     *
+     * @throws CorruptedCacheException If the length does not fit in the file.
+     */
+
+    String readString() throws CorruptedCacheException{
+        if(buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == -1){
+            readInt();
+            return null;
+        }
+        int length = readCount(1);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        buffer.position(buffer.position() + padded(length) - length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a matrix, column by column.
+     *
+     * @param matrix The matrix.
+     */
+
+    void writeMatrix(Matrix4f matrix){
+        ensureCapacity(16 * 4);
+        matrix.get(buffer.position(), buffer);
+        buffer.position(buffer.position() + 16 * 4);
+    }
+
+    /**
+     * Reads a matrix.
+     *
+     * @param dest Where to store the matrix.
+     *
+     * @return <tt>dest</tt>.
+     */
+
+    Matrix4f readMatrix(Matrix4f dest){
+        dest.set(buffer);
+        buffer.position(buffer.position() + 16 * 4);
+        return dest;
+    }
+
+    /**
+     * Writes bounds.
+     *
+     * @param bounds The bounds.
+     */
+
+    void writeBounds(Bounds bounds){
+        ensureCapacity(10 * 4);
+        Vector3f min = bounds.getMin();
+        Vector3f max = bounds.getMax();
+        Vector3f center = bounds.getCenter();
+        buffer.putFloat(min.x).putFloat(min.y).putFloat(min.z);
+        buffer.putFloat(max.x).putFloat(max.y).putFloat(max.z);
+        buffer.putFloat(center.x).putFloat(center.y).putFloat(center.z);
+        buffer.putFloat(bounds.getRadius());
+    }
+
+    /**
+     * Reads bounds.
+     *
+     * @param dest Where to store the bounds.
+     *
+     * @return <tt>dest</tt>.
+     */
+
+    Bounds readBounds(Bounds dest){
+        Vector3f min = new Vector3f(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        Vector3f max = new Vector3f(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        Vector3f center = new Vector3f(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        return dest.set(min, max, center, buffer.getFloat());
+    }
+
+    /**
+     * Writes the arrays of a mesh.
+     *
+     * @param data The arrays.
+     */
+
+    void writeMesh(MeshData data){
+        writeString(data.getTexturePath());
+        writeInt(data.getPositions().length / 3);
+        writeInt(data.getIndices().length);
+        writeInt(data.isAnimated() ? 1 : 0);
+        writeBounds(new Bounds(data.getPositions()));
+        writeFloats(data.getPositions());
+        writeFloats(data.getTextCoords());
+        writeFloats(data.getNormals());
+        if(data.isAnimated()){
+            writeInts(data.getJointIndices());
+            writeFloats(data.getWeights());
+        }
+        writeInts(data.getIndices());
+    }
+
+    /**
+     * Reads the texture path of the next mesh.
+     * <p>Must be called before {@link #readMesh(int)}.</p>
+     *
+     * @return The path, possibly <tt>null</tt>.
+     *
+     * @throws CorruptedCacheException If the path does not fit in the file.
+     */
+
+    String readTexturePath() throws CorruptedCacheException{
+        return readString();
+    }
+
+    /**
+     * Uploads the next mesh straight from the file.
+     *
+     * @param instances The number of instances, an {@link InstancedMesh} is created when more than one.
+     *
+     * @return The mesh, without a material.
+     *
+     * @throws CorruptedCacheException If the arrays do not fit in the file.
+     */
+
+    Mesh readMesh(int instances) throws CorruptedCacheException{
+        int vertexCount = readCount(VERTEX_MIN_BYTES);
+        int indexCount = readCount(4);
+        boolean animated = readInt() != 0;
+        Bounds bounds = readBounds(new Bounds());
+        FloatBuffer positions = sliceFloats(vertexCount * 3);
+        FloatBuffer textCoords = sliceFloats(vertexCount * 2);
+        FloatBuffer normals = sliceFloats(vertexCount * 3);
+        IntBuffer jointIndices = animated ? sliceInts(vertexCount * Mesh.MAX_WEIGHTS) : null;
+        FloatBuffer weights = animated ? sliceFloats(vertexCount * Mesh.MAX_WEIGHTS) : null;
+        IntBuffer indices = sliceInts(indexCount);
+        if(instances > 1){
+            return new InstancedMesh(positions, textCoords, normals, indices, bounds, instances);
+        }
+        return new Mesh(positions, textCoords, normals, indices, jointIndices, weights, bounds);
+    }
+
+    /**
+     * Reads the bind pose of the next mesh for the CPU skinning, without moving past the mesh.
+     * <p>Must be called between {@link #readTexturePath()} and {@link #readMesh(int)}.</p>
+     *
+     * @return The bind pose.
+     *
+     * @throws IllegalArgumentException If the mesh has no joints.
+     * @throws CorruptedCacheException  If the arrays do not fit in the file.
+     */
+
+    SkinData readSkinData() throws CorruptedCacheException{
+        int start = buffer.position();
+        int vertexCount = readCount(VERTEX_MIN_BYTES);
+        int indexCount = readCount(4);
+        boolean animated = readInt() != 0;
+        readBounds(new Bounds());
+        FloatBuffer positions = sliceFloats(vertexCount * 3);
+        sliceFloats(vertexCount * 2);
+        FloatBuffer normals = sliceFloats(vertexCount * 3);
+        IntBuffer jointIndices = animated ? sliceInts(vertexCount * Mesh.MAX_WEIGHTS) : null;
+        FloatBuffer weights = animated ? sliceFloats(vertexCount * Mesh.MAX_WEIGHTS) : null;
+        IntBuffer indices = sliceInts(indexCount);
+        buffer.position(start);
+        return new SkinData(positions, normals, indices, jointIndices, weights);
+    }
+
+    /**
+     * Writes the file atomically: readers never see a partial file.
+     *
+     * @param file The path of the file.
+     *
+     * @throws IOException If the file could not be written.
+     */
+
+    void save(Path file) throws IOException{
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try{
+            try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)){
+                ByteBuffer data = buffer.duplicate();
+                data.flip();
+                while(data.hasRemaining()){
+                    channel.write(data);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }finally{
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes an array of floats.
+     *
+     * @param values The array.
+     */
+
+    void writeFloats(float[] values){
+        ensureCapacity(values.length * 4);
+        buffer.asFloatBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 4);
+    }
+
+    /**
+     * Reads an array of floats.
+     *
+     * @param dest Where to store the floats, filled entirely.
+     */
+
+    void readFloats(float[] dest){
+        buffer.asFloatBuffer().get(dest);
+        buffer.position(buffer.position() + dest.length * 4);
+    }
+
+    /**
+     * Writes an array of ints.
+     *
+     * @param values The array.
+     */
+
+    private void writeInts(int[] values){
+        ensureCapacity(values.length * 4);
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 4);
+    }
+
+    /**
+     * Returns a view of the next floats of the file, and moves past them.
+     *
+     * @param count The number of floats.
+     *
+     * @return The view, direct if the file is.
+     */
+
+    private FloatBuffer sliceFloats(int count){
+        return slice(count).asFloatBuffer();
+    }
+
+    /**
+     * Returns a view of the next ints of the file, and moves past them.
+     *
+     * @param count The number of ints.
+     *
+     * @return The view, direct if the file is.
+     */
+
+    private IntBuffer sliceInts(int count){
+        return slice(count).asIntBuffer();
+    }
+
+    /**
+     * Returns a view of the next values of the file, and moves past them.
+     *
+     * @param count The number of four byte values.
+     *
+     * @return The view, in the native byte order.
+     */
+
+    private ByteBuffer slice(int count){
+        int bytes = count * 4;
+        ByteBuffer view = buffer.duplicate();
+        view.limit(view.position() + bytes);
+        buffer.position(buffer.position() + bytes);
+        return view.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Grows the buffer being written to hold more bytes.
+     *
+     * @param bytes The number of bytes about to be written.
+     */
+
+    private void ensureCapacity(int bytes){
+        if(buffer.remaining() < bytes){
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.nativeOrder());
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+
+    /**
+     * Rounds a number of bytes up to a multiple of four.
+     *
+     * @param bytes The number of bytes.
+     *
+     * @return The padded number.
+     */
+
+    private static int padded(int bytes){
+        return (bytes + 3) & ~3;
+    }
+
+}
@@ -5,7 +5,9 @@
 package io.github.gjkf.seriousEngine.loaders.md5;
 
 import io.github.gjkf.seriousEngine.Utils;
+import io.github.gjkf.seriousEngine.util.IntArrayList;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -160,81 +162,71 @@ public class MD5AnimModel{
         return str.toString();
     }
 
+    /**
+     * Parses an animation resource.
+     *
+     * @param animFile The path of the resource.
+     *
+     * @return The animated model.
+     *
+     * @throws Exception If the file could not be read or parsed.
+     */
+
     public static MD5AnimModel parse(String animFile) throws Exception{
-        List<String> lines = Utils.readAllLines(animFile);
+        return parse(ByteBuffer.wrap(Utils.readAllBytes(animFile)));
+    }
 
-        MD5AnimModel result = new MD5AnimModel();
+    /**
+     * Parses an animation from its bytes.
+     * <p>The file is read in a single pass; the bodies of the <tt>frame</tt> blocks are only located, and are then parsed
+     * in parallel by {@link MD5Frame#parse(ByteBuffer, IntArrayList, int)}.</p>
+     *
+     * @param data The bytes of the file, from its position to its limit.
+     *
+     * @return The animated model.
+     *
+     * @throws Exception If the file is empty or bad defined.
+     */
 
-        int numLines = lines != null ? lines.size() : 0;
-        if(numLines == 0){
+    public static MD5AnimModel parse(ByteBuffer data) throws Exception{
+        MD5Tokenizer tokenizer = new MD5Tokenizer(data);
+        if(!tokenizer.hasNext()){
             throw new Exception("Cannot parse empty file");
         }
 
-        // Parse Header
-        boolean headerEnd = false;
-        int start = 0;
-        for(int i = 0; i < numLines && !headerEnd; i++){
-            String line = lines.get(i);
-            headerEnd = line.trim().endsWith("{");
-            start = i;
-        }
-        if(!headerEnd){
-            throw new Exception("Cannot find header");
-        }
-        List<String> headerBlock = lines.subList(0, start);
-        MD5AnimHeader header = MD5AnimHeader.parse(headerBlock);
+        MD5AnimModel result = new MD5AnimModel();
+        MD5AnimHeader header = MD5AnimHeader.parse(tokenizer);
         result.setHeader(header);
 
-        // Parse the rest of block
-        int blockStart = 0;
-        boolean inBlock = false;
-        String blockId = "";
-        for(int i = start; i < numLines; i++){
-            String line = lines.get(i);
-            if(line.endsWith("{")){
-                blockStart = i;
-                blockId = line.substring(0, line.lastIndexOf(" "));
-                inBlock = true;
-            }else if(inBlock && line.endsWith("}")){
-                List<String> blockBody = lines.subList(blockStart + 1, i);
-                parseBlock(result, blockId, blockBody);
-                inBlock = false;
+        IntArrayList frameBlocks = new IntArrayList(Math.max(16, header.getNumFrames() * 3));
+        while(tokenizer.hasNext()){
+            if(tokenizer.nextIs("hierarchy")){
+                tokenizer.expect('{');
+                result.setHierarchy(MD5Hierarchy.parse(tokenizer));
+            }else if(tokenizer.nextIs("bounds")){
+                tokenizer.expect('{');
+                result.setBoundInfo(MD5BoundInfo.parse(tokenizer));
+            }else if(tokenizer.nextIs("baseframe")){
+                tokenizer.expect('{');
+                result.setBaseFrame(MD5BaseFrame.parse(tokenizer));
+            }else if(tokenizer.nextIs("frame")){
+                int id = tokenizer.nextInt();
+                tokenizer.expect('{');
+                int start = tokenizer.getPosition();
+                frameBlocks.add(id, start, tokenizer.skipBlock());
+            }else{
+                tokenizer.nextWord();
+                if(tokenizer.peek('{')){
+                    tokenizer.expect('{');
+                    tokenizer.skipBlock();
+                }else{
+                    tokenizer.skipLine();
+                }
             }
         }
+        result.setFrames(MD5Frame.parse(data, frameBlocks, header.getNumAnimatedComponents()));
 
         return result;
     }
 
-    /**
-     * Parses a block and sets the needed things.
-     *
-     * @param model The model.
-     * @param blockId The ID (<tt>hierarchy</tt>, <tt>bounds</tt> or <tt>baseFrame</tt>)
-     * @param blockBody
-     *
-     * @throws Exception
-     */
-
-    private static void parseBlock(MD5AnimModel model, String blockId, List<String> blockBody) throws Exception{
-        switch(blockId){
-            case "hierarchy":
-                MD5Hierarchy hierarchy = MD5Hierarchy.parse(blockBody);
-                model.setHierarchy(hierarchy);
-                break;
-            case "bounds":
-                MD5BoundInfo boundInfo = MD5BoundInfo.parse(blockBody);
-                model.setBoundInfo(boundInfo);
-                break;
-            case "baseframe":
-                MD5BaseFrame baseFrame = MD5BaseFrame.parse(blockBody);
-                model.setBaseFrame(baseFrame);
-                break;
-            default:
-                if(blockId.startsWith("frame ")){
-                    MD5Frame frame = MD5Frame.parse(blockId, blockBody);
-                    model.getFrames().add(frame);
-                }
-                break;
-        }
-    }
-}
\ No newline at end of file
+}
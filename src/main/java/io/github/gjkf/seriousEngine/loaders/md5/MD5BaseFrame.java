@@ -9,9 +9,8 @@ import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Class representing the base frame of a MD5 model.
@@ -60,23 +59,35 @@ public class MD5BaseFrame{
     /**
      * Parses a block and gets the base frame.
      *
-     * @param blockBody The body.
+     * @param blockBody The body, without its braces.
      *
      * @return The base frame.
+     *
+     * @throws IllegalArgumentException If a line is malformed.
      */
 
     public static MD5BaseFrame parse(List<String> blockBody){
+        return parse(MD5Tokenizer.ofBlock(blockBody));
+    }
+
+    /**
+     * Parses the body of a <tt>baseframe</tt> block, up to its closing brace.
+     *
+     * @param tokenizer The tokenizer, after the opening brace.
+     *
+     * @return The base frame.
+     */
+
+    static MD5BaseFrame parse(MD5Tokenizer tokenizer){
         MD5BaseFrame result = new MD5BaseFrame();
 
         List<MD5BaseFrameData> frameInfoList = new ArrayList<>();
         result.setFrameDataList(frameInfoList);
 
-        for(String line : blockBody){
-            MD5BaseFrameData frameInfo = MD5BaseFrameData.parseLine(line);
-            if(frameInfo != null){
-                frameInfoList.add(frameInfo);
-            }
+        while(!tokenizer.peek('}')){
+            frameInfoList.add(MD5BaseFrameData.parse(tokenizer));
         }
+        tokenizer.expect('}');
 
         return result;
     }
@@ -87,10 +98,6 @@ public class MD5BaseFrame{
 
     public static class MD5BaseFrameData{
 
-        /**
-         * A patter to find the base frame.
-         */
-        private static final Pattern PATTERN_BASEFRAME = Pattern.compile("\\s*" + MD5Utils.VECTOR3_REGEXP + "\\s*" + MD5Utils.VECTOR3_REGEXP + ".*");
         /**
          * The position.
          */
@@ -153,25 +160,30 @@ public class MD5BaseFrame{
          *
          * @param line The line.
          *
-         * @return The data.
+         * @return The data, <tt>null</tt> if the line does not hold one.
          */
 
         public static MD5BaseFrameData parseLine(String line){
-            Matcher matcher = PATTERN_BASEFRAME.matcher(line);
-            MD5BaseFrameData result = null;
-            if(matcher.matches()){
-                result = new MD5BaseFrameData();
-                float x = Float.parseFloat(matcher.group(1));
-                float y = Float.parseFloat(matcher.group(2));
-                float z = Float.parseFloat(matcher.group(3));
-                result.setPosition(new Vector3f(x, y, z));
-
-                x = Float.parseFloat(matcher.group(4));
-                y = Float.parseFloat(matcher.group(5));
-                z = Float.parseFloat(matcher.group(6));
-                result.setOrientation(new Vector3f(x, y, z));
+            MD5Tokenizer tokenizer = MD5Tokenizer.ofLines(Collections.singletonList(line));
+            try{
+                return tokenizer.hasNext() ? parse(tokenizer) : null;
+            }catch(IllegalArgumentException e){
+                return null;
             }
+        }
+
+        /**
+         * Parses the data of a joint: <tt>( x y z ) ( qx qy qz )</tt>.
+         *
+         * @param tokenizer The tokenizer.
+         *
+         * @return The data.
+         */
 
+        static MD5BaseFrameData parse(MD5Tokenizer tokenizer){
+            MD5BaseFrameData result = new MD5BaseFrameData();
+            result.setPosition(tokenizer.nextVector3f());
+            result.setOrientation(tokenizer.nextVector3f());
             return result;
         }
     }
@@ -8,9 +8,8 @@ package io.github.gjkf.seriousEngine.loaders.md5;
 import org.joml.Vector3f;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class MD5BoundInfo {
 
@@ -35,21 +34,21 @@ public class MD5BoundInfo {
     }
 
     public static MD5BoundInfo parse(List<String> blockBody) {
+        return parse(MD5Tokenizer.ofBlock(blockBody));
+    }
+
+    static MD5BoundInfo parse(MD5Tokenizer tokenizer) {
         MD5BoundInfo result = new MD5BoundInfo();
         List<MD5Bound> bounds = new ArrayList<>();
-        for (String line : blockBody) {
-            MD5Bound bound = MD5Bound.parseLine(line);
-            if (bound != null) {
-                bounds.add(bound);
-            }
+        while (!tokenizer.peek('}')) {
+            bounds.add(MD5Bound.parse(tokenizer));
         }
+        tokenizer.expect('}');
         result.setBounds(bounds);
         return result;
     }
 
-    private static class MD5Bound {
-
-        private static final Pattern PATTERN_BOUND = Pattern.compile("\\s*" + MD5Utils.VECTOR3_REGEXP + "\\s*" + MD5Utils.VECTOR3_REGEXP + ".*");
+    public static class MD5Bound {
 
         private Vector3f minBound;
 
@@ -77,20 +76,18 @@ public class MD5BoundInfo {
         }
 
         public static MD5Bound parseLine(String line) {
-            MD5Bound result = null;
-            Matcher matcher = PATTERN_BOUND.matcher(line);
-            if (matcher.matches()) {
-                result = new MD5Bound();
-                float x = Float.parseFloat(matcher.group(1));
-                float y = Float.parseFloat(matcher.group(2));
-                float z = Float.parseFloat(matcher.group(3));
-                result.setMinBound(new Vector3f(x, y, z));
-
-                x = Float.parseFloat(matcher.group(4));
-                y = Float.parseFloat(matcher.group(5));
-                z = Float.parseFloat(matcher.group(6));
-                result.setMaxBound(new Vector3f(x, y, z));
+            MD5Tokenizer tokenizer = MD5Tokenizer.ofLines(Collections.singletonList(line));
+            try {
+                return tokenizer.hasNext() ? parse(tokenizer) : null;
+            } catch (IllegalArgumentException e) {
+                return null;
             }
+        }
+
+        static MD5Bound parse(MD5Tokenizer tokenizer) {
+            MD5Bound result = new MD5Bound();
+            result.setMinBound(tokenizer.nextVector3f());
+            result.setMaxBound(tokenizer.nextVector3f());
             return result;
         }
 
@@ -4,10 +4,16 @@
 
 package io.github.gjkf.seriousEngine.loaders.md5;
 
-import io.github.gjkf.seriousEngine.Utils;
+import io.github.gjkf.seriousEngine.util.FloatArrayList;
+import io.github.gjkf.seriousEngine.util.IntArrayList;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Class representing a frame of a MD5 model.
@@ -15,6 +21,10 @@ import java.util.List;
 
 public class MD5Frame{
 
+    /**
+     * The smallest number of frames parsed by a task.
+     */
+    private static final int MIN_FRAMES_PER_TASK = 16;
     /**
      * The ID.
      */
@@ -81,7 +91,7 @@ public class MD5Frame{
     /**
      * Parses the block to get the frame.
      *
-     * @param blockId The ID of the block.
+     * @param blockId   The ID of the block.
      * @param blockBody The body.
      *
      * @return The frame.
@@ -90,41 +100,128 @@ public class MD5Frame{
      */
 
     public static MD5Frame parse(String blockId, List<String> blockBody) throws Exception{
-        MD5Frame result = new MD5Frame();
         String[] tokens = blockId.trim().split("\\s+");
-        if(tokens.length >= 2){
-            result.setId(Integer.parseInt(tokens[1]));
-        }else{
+        if(tokens.length < 2){
             throw new Exception("Wrong frame definition: " + blockId);
         }
+        return parse(Integer.parseInt(tokens[1]), MD5Tokenizer.ofLines(blockBody), 0);
+    }
 
-        List<Float> data = new ArrayList<>();
-        for(String line : blockBody){
-            List<Float> lineData = parseLine(line);
-            if(lineData != null){
-                data.addAll(lineData);
-            }
-        }
-        float[] dataArr = Utils.listToArray(data);
-        result.setFrameData(dataArr);
+    /**
+     * Parses the body of a <tt>frame</tt> block.
+     *
+     * @param id                    The ID of the frame.
+     * @param tokenizer             The tokenizer, covering the body of the block without its braces.
+     * @param numAnimatedComponents The expected number of values.
+     *
+     * @return The frame.
+     */
 
+    static MD5Frame parse(int id, MD5Tokenizer tokenizer, int numAnimatedComponents){
+        FloatArrayList data = new FloatArrayList(Math.max(16, numAnimatedComponents));
+        while(tokenizer.hasNext()){
+            data.add(tokenizer.nextFloat());
+        }
+        MD5Frame result = new MD5Frame();
+        result.setId(id);
+        result.setFrameData(data.size() == data.getArray().length ? data.getArray() : data.toArray());
         return result;
     }
 
     /**
-     * Parses a line and gets a list of floats.
+     * Parses the bodies of many <tt>frame</tt> blocks, in parallel when there are at least
+     * {@link #MIN_FRAMES_PER_TASK} of them per worker.
      *
-     * @param line The line.
+     * @param buffer                The bytes of the file.
+     * @param blocks                The blocks, three ints each: the ID of the frame, the start and the end of its body.
+     * @param numAnimatedComponents The expected number of values of each frame.
      *
-     * @return The list.
+     * @return The frames, in the order of the blocks.
      */
 
-    private static List<Float> parseLine(String line){
-        String[] tokens = line.trim().split("\\s+");
-        List<Float> data = new ArrayList<>();
-        for(String token : tokens){
-            data.add(Float.parseFloat(token));
+    static List<MD5Frame> parse(ByteBuffer buffer, IntArrayList blocks, int numAnimatedComponents){
+        int count = blocks.size() / 3;
+        MD5Frame[] frames = new MD5Frame[count];
+        int tasks = Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, count / MIN_FRAMES_PER_TASK);
+        if(tasks <= 1){
+            new ParseTask(buffer, blocks, numAnimatedComponents, frames, 0, count).compute();
+        }else{
+            ParseTask[] parsers = new ParseTask[tasks];
+            for(int i = 0; i < tasks; i++){
+                parsers[i] = new ParseTask(buffer, blocks, numAnimatedComponents, frames, count * i / tasks, count * (i + 1) / tasks);
+            }
+            ForkJoinTask.invokeAll(parsers);
+        }
+        return new ArrayList<>(Arrays.asList(frames));
+    }
+
+    /**
+     * Parses a range of <tt>frame</tt> blocks.
+     */
+
+    private static final class ParseTask extends RecursiveAction{
+
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The bytes of the file.
+         */
+        private final ByteBuffer buffer;
+        /**
+         * The blocks, three ints each.
+         */
+        private final IntArrayList blocks;
+        /**
+         * The expected number of values of each frame.
+         */
+        private final int numAnimatedComponents;
+        /**
+         * Where to store the frames.
+         */
+        private final MD5Frame[] frames;
+        /**
+         * The first block.
+         */
+        private final int from;
+        /**
+         * The end of the range of blocks.
+         */
+        private final int to;
+
+        /**
+         * Creates a task.
+         *
+         * @param buffer                The bytes of the file.
+         * @param blocks                The blocks, three ints each.
+         * @param numAnimatedComponents The expected number of values of each frame.
+         * @param frames                Where to store the frames.
+         * @param from                  The first block.
+         * @param to                    The end of the range of blocks.
+         */
+
+        ParseTask(ByteBuffer buffer, IntArrayList blocks, int numAnimatedComponents, MD5Frame[] frames, int from, int to){
+            this.buffer = buffer;
+            this.blocks = blocks;
+            this.numAnimatedComponents = numAnimatedComponents;
+            this.frames = frames;
+            this.from = from;
+            this.to = to;
         }
-        return data;
+
+        /**
+         * {@inheritDoc}
+         */
+
+        @Override
+        protected void compute(){
+            for(int i = from; i < to; i++){
+                MD5Tokenizer tokenizer = new MD5Tokenizer(buffer, blocks.get(i * 3 + 1), blocks.get(i * 3 + 2));
+                frames[i] = MD5Frame.parse(blocks.get(i * 3), tokenizer, numAnimatedComponents);
+            }
+        }
+
     }
-}
\ No newline at end of file
+
+}
@@ -5,9 +5,8 @@
 package io.github.gjkf.seriousEngine.loaders.md5;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class MD5Hierarchy {
 
@@ -32,22 +31,22 @@ public class MD5Hierarchy {
     }
 
     public static MD5Hierarchy parse(List<String> blockBody) {
+        return parse(MD5Tokenizer.ofBlock(blockBody));
+    }
+
+    static MD5Hierarchy parse(MD5Tokenizer tokenizer) {
         MD5Hierarchy result = new MD5Hierarchy();
         List<MD5HierarchyData> hierarchyDataList = new ArrayList<>();
         result.setHierarchyDataList(hierarchyDataList);
-        for (String line : blockBody) {
-            MD5HierarchyData hierarchyData = MD5HierarchyData.parseLine(line);
-            if (hierarchyData != null) {
-                hierarchyDataList.add(hierarchyData);
-            }
+        while (!tokenizer.peek('}')) {
+            hierarchyDataList.add(MD5HierarchyData.parse(tokenizer));
         }
+        tokenizer.expect('}');
         return result;
     }
 
     public static class MD5HierarchyData {
 
-        private static final Pattern PATTERN_HIERARCHY = Pattern.compile("\\s*\\\"([^\\\"]+)\\\"\\s*([-]?\\d+)\\s*(\\d+)\\s*(\\d+).*");
-
         private String name;
 
         private int parentIndex;
@@ -94,15 +93,20 @@ public class MD5Hierarchy {
         }
 
         public static MD5HierarchyData parseLine(String line) {
-            MD5HierarchyData result = null;
-            Matcher matcher = PATTERN_HIERARCHY.matcher(line);
-            if (matcher.matches()) {
-                result = new MD5HierarchyData();
-                result.setName(matcher.group(1));
-                result.setParentIndex(Integer.parseInt(matcher.group(2)));
-                result.setFlags(Integer.parseInt(matcher.group(3)));
-                result.setStartIndex(Integer.parseInt(matcher.group(4)));
+            MD5Tokenizer tokenizer = MD5Tokenizer.ofLines(Collections.singletonList(line));
+            try {
+                return tokenizer.hasNext() ? parse(tokenizer) : null;
+            } catch (IllegalArgumentException e) {
+                return null;
             }
+        }
+
+        static MD5HierarchyData parse(MD5Tokenizer tokenizer) {
+            MD5HierarchyData result = new MD5HierarchyData();
+            result.setName(tokenizer.nextQuoted());
+            result.setParentIndex(tokenizer.nextInt());
+            result.setFlags(tokenizer.nextInt());
+            result.setStartIndex(tokenizer.nextInt());
             return result;
         }
 
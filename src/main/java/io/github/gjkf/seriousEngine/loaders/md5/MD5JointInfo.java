@@ -9,9 +9,8 @@ import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Represents the information of a joint in a MD5 model.
@@ -58,22 +57,34 @@ public class MD5JointInfo{
     }
 
     /**
-     * Parses the lines and gets the info.
+     * Parses a block and gets the joint info.
      *
-     * @param blockBody The lines.
+     * @param blockBody The body, without its braces.
      *
-     * @return The info.
+     * @return The joint info.
+     *
+     * @throws IllegalArgumentException If a line is malformed.
      */
 
     public static MD5JointInfo parse(List<String> blockBody){
+        return parse(MD5Tokenizer.ofBlock(blockBody));
+    }
+
+    /**
+     * Parses the body of a <tt>joints</tt> block, up to its closing brace.
+     *
+     * @param tokenizer The tokenizer, after the opening brace.
+     *
+     * @return The info.
+     */
+
+    static MD5JointInfo parse(MD5Tokenizer tokenizer){
         MD5JointInfo result = new MD5JointInfo();
         List<MD5JointData> joints = new ArrayList<>();
-        for(String line : blockBody){
-            MD5JointData jointData = MD5JointData.parseLine(line);
-            if(jointData != null){
-                joints.add(jointData);
-            }
+        while(!tokenizer.peek('}')){
+            joints.add(MD5JointData.parse(tokenizer));
         }
+        tokenizer.expect('}');
         result.setJoints(joints);
         return result;
     }
@@ -84,23 +95,6 @@ public class MD5JointInfo{
 
     public static class MD5JointData{
 
-        /**
-         * The RegEx of the parent index.
-         */
-        private static final String PARENT_INDEX_REGEXP = "([-]?\\d+)";
-        /**
-         * The RegEx of the name.
-         */
-        private static final String NAME_REGEXP = "\\\"([^\\\"]+)\\\"";
-        /**
-         * The joint RegEx.
-         */
-        private static final String JOINT_REGEXP = "\\s*" + NAME_REGEXP + "\\s*" + PARENT_INDEX_REGEXP + "\\s*"
-                + MD5Utils.VECTOR3_REGEXP + "\\s*" + MD5Utils.VECTOR3_REGEXP + ".*";
-        /**
-         * The pattern of the {@link #JOINT_REGEXP}.
-         */
-        private static final Pattern PATTERN_JOINT = Pattern.compile(JOINT_REGEXP);
         /**
          * The name.
          */
@@ -211,26 +205,32 @@ public class MD5JointInfo{
          *
          * @param line The line.
          *
-         * @return The joint data.
+         * @return The joint data, <tt>null</tt> if the line does not hold one.
          */
 
         public static MD5JointData parseLine(String line){
-            MD5JointData result = null;
-            Matcher matcher = PATTERN_JOINT.matcher(line);
-            if(matcher.matches()){
-                result = new MD5JointData();
-                result.setName(matcher.group(1));
-                result.setParentIndex(Integer.parseInt(matcher.group(2)));
-                float x = Float.parseFloat(matcher.group(3));
-                float y = Float.parseFloat(matcher.group(4));
-                float z = Float.parseFloat(matcher.group(5));
-                result.setPosition(new Vector3f(x, y, z));
-
-                x = Float.parseFloat(matcher.group(6));
-                y = Float.parseFloat(matcher.group(7));
-                z = Float.parseFloat(matcher.group(8));
-                result.setOrientation(new Vector3f(x, y, z));
+            MD5Tokenizer tokenizer = MD5Tokenizer.ofLines(Collections.singletonList(line));
+            try{
+                return tokenizer.hasNext() ? parse(tokenizer) : null;
+            }catch(IllegalArgumentException e){
+                return null;
             }
+        }
+
+        /**
+         * Parses a joint: <tt>"name" parent ( x y z ) ( qx qy qz )</tt>.
+         *
+         * @param tokenizer The tokenizer.
+         *
+         * @return The joint data.
+         */
+
+        static MD5JointData parse(MD5Tokenizer tokenizer){
+            MD5JointData result = new MD5JointData();
+            result.setName(tokenizer.nextQuoted());
+            result.setParentIndex(tokenizer.nextInt());
+            result.setPosition(tokenizer.nextVector3f());
+            result.setOrientation(tokenizer.nextVector3f());
             return result;
         }
     }
@@ -7,10 +7,13 @@ package io.github.gjkf.seriousEngine.loaders.md5;
 import io.github.gjkf.seriousEngine.Utils;
 import io.github.gjkf.seriousEngine.render.Material;
 import io.github.gjkf.seriousEngine.render.Mesh;
+import io.github.gjkf.seriousEngine.render.MeshData;
 import io.github.gjkf.seriousEngine.render.Texture;
 import io.github.gjkf.seriousEngine.render.anim.AnimItem;
 import io.github.gjkf.seriousEngine.render.anim.AnimVertex;
-import io.github.gjkf.seriousEngine.render.anim.AnimatedFrame;
+import io.github.gjkf.seriousEngine.render.anim.AnimationClip;
+import io.github.gjkf.seriousEngine.render.anim.Skeleton;
+import io.github.gjkf.seriousEngine.render.anim.SkinData;
 import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
@@ -34,20 +37,20 @@ public class MD5Loader{
      */
 
     public static AnimItem process(MD5Model md5Model, MD5AnimModel animModel, Vector3f defaultColour) throws Exception{
-        List<Matrix4f> invJointMatrices = calcInJointMatrices(md5Model);
-        List<AnimatedFrame> animatedFrames = processAnimationFrames(md5Model, animModel, invJointMatrices);
-
-        List<Mesh> list = new ArrayList<>();
-        for(MD5Mesh md5Mesh : md5Model.getMeshes()){
-            Mesh mesh = generateMesh(md5Model, md5Mesh);
-            handleTexture(mesh, md5Mesh, defaultColour);
-            list.add(mesh);
+        Skeleton skeleton = createSkeleton(md5Model);
+        AnimationClip clip = processAnimation(md5Model, animModel);
+
+        List<MD5Mesh> md5Meshes = md5Model.getMeshes();
+        Mesh[] meshes = new Mesh[md5Meshes.size()];
+        SkinData[] skinData = new SkinData[meshes.length];
+        for(int i = 0; i < meshes.length; i++){
+            MeshData data = generateMeshData(md5Model, md5Meshes.get(i));
+            meshes[i] = data.createMesh(1);
+            meshes[i].setMaterial(createMaterial(data.getTexturePath(), defaultColour));
+            skinData[i] = new SkinData(data);
         }
 
-        Mesh[] meshes = new Mesh[list.size()];
-        meshes = list.toArray(meshes);
-
-        AnimItem result = new AnimItem(meshes, animatedFrames, invJointMatrices);
+        AnimItem result = new AnimItem(meshes, skeleton, clip, skinData);
         return result;
     }
 
@@ -59,7 +62,7 @@ public class MD5Loader{
      * @return The list of matrices.
      */
 
-    private static List<Matrix4f> calcInJointMatrices(MD5Model md5Model){
+    public static List<Matrix4f> calcInJointMatrices(MD5Model md5Model){
         List<Matrix4f> result = new ArrayList<>();
 
         List<MD5JointInfo.MD5JointData> joints = md5Model.getJointInfo().getJoints();
@@ -78,15 +81,32 @@ public class MD5Loader{
     }
 
     /**
-     * Generates a mesh from a model and a model mesh.
+     * Creates the skeleton of a model.
+     *
+     * @param md5Model The model.
+     *
+     * @return The skeleton.
+     */
+
+    public static Skeleton createSkeleton(MD5Model md5Model){
+        List<MD5JointInfo.MD5JointData> joints = md5Model.getJointInfo().getJoints();
+        int[] parents = new int[joints.size()];
+        for(int i = 0; i < parents.length; i++){
+            parents[i] = joints.get(i).getParentIndex();
+        }
+        return new Skeleton(parents, calcInJointMatrices(md5Model));
+    }
+
+    /**
+     * Generates the arrays of a mesh from a model and a model mesh.
      *
      * @param md5Model The model.
      * @param md5Mesh  The model mesh.
      *
-     * @return The mesh.
+     * @return The arrays of the mesh, with the path of its texture.
      */
 
-    private static Mesh generateMesh(MD5Model md5Model, MD5Mesh md5Mesh){
+    public static MeshData generateMeshData(MD5Model md5Model, MD5Mesh md5Mesh){
         List<AnimVertex> vertices = new ArrayList<>();
         List<Integer> indices = new ArrayList<>();
 
@@ -141,52 +161,61 @@ public class MD5Loader{
             v2.normal.add(normal).normalize();
         }
 
-        Mesh mesh = createMesh(vertices, indices);
-        return mesh;
+        MeshData data = createMeshData(vertices, indices);
+        data.setTexturePath(md5Mesh.getTexture());
+        return data;
     }
 
     /**
      * Processes the animation frames.
+     * <p>Any number of animations of the same model can be processed this way and played by one
+     * {@link AnimItem}.</p>
      *
      * @param md5Model The model.
      * @param animModel The animated model.
-     * @param invJointMatrices The matrices.
      *
-     * @return The list of animated frames.
+     * @return The animation clip.
+     *
+     * @throws IllegalArgumentException If the animation has another number of joints than the model.
      */
 
-    private static List<AnimatedFrame> processAnimationFrames(MD5Model md5Model, MD5AnimModel animModel, List<Matrix4f> invJointMatrices){
-        List<AnimatedFrame> animatedFrames = new ArrayList<>();
+    public static AnimationClip processAnimation(MD5Model md5Model, MD5AnimModel animModel){
         List<MD5Frame> frames = animModel.getFrames();
-        for(MD5Frame frame : frames){
-            AnimatedFrame data = processAnimationFrame(md5Model, animModel, frame, invJointMatrices);
-            animatedFrames.add(data);
+        int numJoints = md5Model.getJointInfo().getJoints().size();
+        int numAnimJoints = animModel.getHierarchy().getHierarchyDataList().size();
+        if(numAnimJoints != numJoints){
+            throw new IllegalArgumentException("The animation has " + numAnimJoints + " joints, the model " + numJoints);
+        }
+        AnimationClip clip = new AnimationClip(numJoints, frames.size(), animModel.getHeader().getFrameRate());
+        MD5BoundInfo boundInfo = animModel.getBoundInfo();
+        List<MD5BoundInfo.MD5Bound> bounds = boundInfo != null ? boundInfo.getBounds() : null;
+        int numBounds = bounds != null ? bounds.size() : 0;
+        for(int i = 0; i < frames.size(); i++){
+            processAnimationFrame(animModel, frames.get(i), clip, i);
+            if(i < numBounds){
+                Vector3f min = bounds.get(i).getMinBound();
+                Vector3f max = bounds.get(i).getMaxBound();
+                clip.setBounds(i, min.x, min.y, min.z, max.x, max.y, max.z);
+            }
         }
-        return animatedFrames;
+        return clip;
     }
 
     /**
      * Processes the animation frame.
      *
-     * @param md5Model The model.
      * @param animModel The animated model.
      * @param frame The frame.
-     * @param invJointMatrices The list of matrices.
-     *
-     * @return The animated frame.
+     * @param clip The clip where to store the pose.
+     * @param frameIndex The index of the frame in the clip.
      */
 
-    private static AnimatedFrame processAnimationFrame(MD5Model md5Model, MD5AnimModel animModel, MD5Frame frame, List<Matrix4f> invJointMatrices){
-        AnimatedFrame result = new AnimatedFrame();
-
+    private static void processAnimationFrame(MD5AnimModel animModel, MD5Frame frame, AnimationClip clip, int frameIndex){
         MD5BaseFrame baseFrame = animModel.getBaseFrame();
         List<MD5Hierarchy.MD5HierarchyData> hierarchyList = animModel.getHierarchy().getHierarchyDataList();
 
-        List<MD5JointInfo.MD5JointData> joints = md5Model.getJointInfo().getJoints();
-        int numJoints = joints.size();
         float[] frameData = frame.getFrameData();
-        for(int i = 0; i < numJoints; i++){
-            MD5JointInfo.MD5JointData joint = joints.get(i);
+        for(int i = 0; i < clip.getJointCount(); i++){
             MD5BaseFrame.MD5BaseFrameData baseFrameData = baseFrame.getFrameDataList().get(i);
             Vector3f position = baseFrameData.getPosition();
             Quaternionf orientation = baseFrameData.getOrientation();
@@ -215,34 +244,21 @@ public class MD5Loader{
             // Update Quaternion's w component
             orientation = MD5Utils.calculateQuaternion(orientation.x, orientation.y, orientation.z);
 
-            // Calculate translation and rotation matrices for this joint
-            Matrix4f translateMat = new Matrix4f().translate(position);
-            Matrix4f rotationMat = new Matrix4f().rotate(orientation);
-            Matrix4f jointMat = translateMat.mul(rotationMat);
-
-            // Joint position is relative to joint's parent index position. Use parent matrices
-            // to transform it to model space
-            if(joint.getParentIndex() > -1){
-                Matrix4f parentMatrix = result.getLocalJointMatrices()[joint.getParentIndex()];
-                jointMat = new Matrix4f(parentMatrix).mul(jointMat);
-            }
-
-            result.setMatrix(i, jointMat, invJointMatrices.get(i));
+            // Joint position is relative to joint's parent index position
+            clip.setPose(frameIndex, i, position.x, position.y, position.z, orientation.x, orientation.y, orientation.z, orientation.w);
         }
-
-        return result;
     }
 
     /**
-     * Creates a mesh.
+     * Creates the arrays of a mesh.
      *
      * @param vertices The vertices.
      * @param indices The indices.
      *
-     * @return The mesh.
+     * @return The arrays of the mesh.
      */
 
-    private static Mesh createMesh(List<AnimVertex> vertices, List<Integer> indices){
+    private static MeshData createMeshData(List<AnimVertex> vertices, List<Integer> indices){
         List<Float> positions = new ArrayList<>();
         List<Float> textCoords = new ArrayList<>();
         List<Float> normals = new ArrayList<>();
@@ -280,23 +296,22 @@ public class MD5Loader{
         int[] jointIndicesArr = Utils.listIntToArray(jointIndices);
         float[] weightsArr = Utils.listToArray(weights);
 
-        Mesh result = new Mesh(positionsArr, textCoordsArr, normalsArr, indicesArr, jointIndicesArr, weightsArr);
-
-        return result;
+        return new MeshData(positionsArr, textCoordsArr, normalsArr, indicesArr, jointIndicesArr, weightsArr);
     }
 
     /**
-     * Handles textures.
+     * Creates the material of a mesh.
+     * <p>A texture named like the texture of the mesh, with <tt>_local</tt> appended, is used as normal map.</p>
      *
-     * @param mesh The mesh.
-     * @param md5Mesh The model mesh.
-     * @param defaultColour The default colour.
+     * @param texturePath The path of the texture of the mesh, <tt>null</tt> or empty if none.
+     * @param defaultColour The colour used when there is no texture.
      *
-     * @throws Exception If anything went wrong.
+     * @return The material.
+     *
+     * @throws Exception If a texture could not be loaded.
      */
 
-    private static void handleTexture(Mesh mesh, MD5Mesh md5Mesh, Vector3f defaultColour) throws Exception{
-        String texturePath = md5Mesh.getTexture();
+    public static Material createMaterial(String texturePath, Vector3f defaultColour) throws Exception{
         if(texturePath != null && texturePath.length() > 0){
             Texture texture = new Texture(texturePath);
             Material material = new Material(texture);
@@ -312,9 +327,9 @@ public class MD5Loader{
                     material.setNormalMap(normalMap);
                 }
             }
-            mesh.setMaterial(material);
+            return material;
         }else{
-            mesh.setMaterial(new Material(defaultColour, 1));
+            return new Material(defaultColour, 1);
         }
     }
 }
\ No newline at end of file
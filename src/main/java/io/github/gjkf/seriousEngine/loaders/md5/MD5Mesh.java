@@ -9,8 +9,6 @@ import org.joml.Vector3f;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Represents a model mesh.
@@ -18,24 +16,6 @@ import java.util.regex.Pattern;
 
 public class MD5Mesh{
 
-    /**
-     * The pattern for the shader.
-     */
-    private static final Pattern PATTERN_SHADER = Pattern.compile("\\s*shader\\s*\\\"([^\\\"]+)\\\"");
-    /**
-     * The pattern for the vertex.
-     */
-    private static final Pattern PATTERN_VERTEX = Pattern.compile("\\s*vert\\s*(\\d+)\\s*\\(\\s*("
-            + MD5Utils.FLOAT_REGEXP + ")\\s*(" + MD5Utils.FLOAT_REGEXP + ")\\s*\\)\\s*(\\d+)\\s*(\\d+)");
-    /**
-     * The pattern for the triangles.
-     */
-    private static final Pattern PATTERN_TRI = Pattern.compile("\\s*tri\\s*(\\d+)\\s*(\\d+)\\s*(\\d+)\\s*(\\d+)");
-    /**
-     * The pattern for the weights.
-     */
-    private static final Pattern PATTERN_WEIGHT = Pattern.compile("\\s*weight\\s*(\\d+)\\s*(\\d+)\\s*" +
-            "(" + MD5Utils.FLOAT_REGEXP + ")\\s*" + MD5Utils.VECTOR3_REGEXP);
     /**
      * The texture.
      */
@@ -94,61 +74,66 @@ public class MD5Mesh{
     /**
      * Parses a mesh block to get a model mesh.
      *
-     * @param meshBlock The block.
+     * @param meshBlock The block, without its braces.
      *
      * @return The model mesh.
+     *
+     * @throws IllegalArgumentException If a line is malformed.
      */
 
     public static MD5Mesh parse(List<String> meshBlock){
+        return parse(MD5Tokenizer.ofBlock(meshBlock));
+    }
+
+    /**
+     * Parses the body of a <tt>mesh</tt> block, up to its closing brace.
+     * <p>The counts and the unknown keys are skipped, the elements are added in the order of the file.</p>
+     *
+     * @param tokenizer The tokenizer, after the opening brace.
+     *
+     * @return The model mesh.
+     */
+
+    static MD5Mesh parse(MD5Tokenizer tokenizer){
         MD5Mesh mesh = new MD5Mesh();
         List<MD5Vertex> vertices = mesh.getVertices();
         List<MD5Triangle> triangles = mesh.getTriangles();
         List<MD5Weight> weights = mesh.getWeights();
 
-        for(String line : meshBlock){
-            if(line.contains("shader")){
-                Matcher textureMatcher = PATTERN_SHADER.matcher(line);
-                if(textureMatcher.matches()){
-                    mesh.setTexture(textureMatcher.group(1));
-
-                }
-            }else if(line.contains("vert")){
-                Matcher vertexMatcher = PATTERN_VERTEX.matcher(line);
-                if(vertexMatcher.matches()){
-                    MD5Vertex vertex = new MD5Vertex();
-                    vertex.setIndex(Integer.parseInt(vertexMatcher.group(1)));
-                    float x = Float.parseFloat(vertexMatcher.group(2));
-                    float y = Float.parseFloat(vertexMatcher.group(3));
-                    vertex.setTextCoords(new Vector2f(x, y));
-                    vertex.setStartWeight(Integer.parseInt(vertexMatcher.group(4)));
-                    vertex.setWeightCount(Integer.parseInt(vertexMatcher.group(5)));
-                    vertices.add(vertex);
-                }
-            }else if(line.contains("tri")){
-                Matcher triMatcher = PATTERN_TRI.matcher(line);
-                if(triMatcher.matches()){
-                    MD5Triangle triangle = new MD5Triangle();
-                    triangle.setIndex(Integer.parseInt(triMatcher.group(1)));
-                    triangle.setVertex0(Integer.parseInt(triMatcher.group(2)));
-                    triangle.setVertex1(Integer.parseInt(triMatcher.group(3)));
-                    triangle.setVertex2(Integer.parseInt(triMatcher.group(4)));
-                    triangles.add(triangle);
-                }
-            }else if(line.contains("weight")){
-                Matcher weightMatcher = PATTERN_WEIGHT.matcher(line);
-                if(weightMatcher.matches()){
-                    MD5Weight weight = new MD5Weight();
-                    weight.setIndex(Integer.parseInt(weightMatcher.group(1)));
-                    weight.setJointIndex(Integer.parseInt(weightMatcher.group(2)));
-                    weight.setBias(Float.parseFloat(weightMatcher.group(3)));
-                    float x = Float.parseFloat(weightMatcher.group(4));
-                    float y = Float.parseFloat(weightMatcher.group(5));
-                    float z = Float.parseFloat(weightMatcher.group(6));
-                    weight.setPosition(new Vector3f(x, y, z));
-                    weights.add(weight);
-                }
+        while(!tokenizer.peek('}')){
+            if(tokenizer.nextIs("shader")){
+                mesh.setTexture(tokenizer.nextQuoted());
+            }else if(tokenizer.nextIs("vert")){
+                MD5Vertex vertex = new MD5Vertex();
+                vertex.setIndex(tokenizer.nextInt());
+                tokenizer.expect('(');
+                float x = tokenizer.nextFloat();
+                float y = tokenizer.nextFloat();
+                tokenizer.expect(')');
+                vertex.setTextCoords(new Vector2f(x, y));
+                vertex.setStartWeight(tokenizer.nextInt());
+                vertex.setWeightCount(tokenizer.nextInt());
+                vertices.add(vertex);
+            }else if(tokenizer.nextIs("tri")){
+                MD5Triangle triangle = new MD5Triangle();
+                triangle.setIndex(tokenizer.nextInt());
+                triangle.setVertex0(tokenizer.nextInt());
+                triangle.setVertex1(tokenizer.nextInt());
+                triangle.setVertex2(tokenizer.nextInt());
+                triangles.add(triangle);
+            }else if(tokenizer.nextIs("weight")){
+                MD5Weight weight = new MD5Weight();
+                weight.setIndex(tokenizer.nextInt());
+                weight.setJointIndex(tokenizer.nextInt());
+                weight.setBias(tokenizer.nextFloat());
+                weight.setPosition(tokenizer.nextVector3f());
+                weights.add(weight);
+            }else{
+                tokenizer.nextWord();
+                tokenizer.skipLine();
             }
         }
+        tokenizer.expect('}');
         return mesh;
     }
 
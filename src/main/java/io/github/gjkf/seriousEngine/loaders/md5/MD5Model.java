@@ -6,6 +6,7 @@ package io.github.gjkf.seriousEngine.loaders.md5;
 
 import io.github.gjkf.seriousEngine.Utils;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -118,73 +119,47 @@ public class MD5Model{
      */
 
     public static MD5Model parse(String meshModelFile) throws Exception{
-        List<String> lines = Utils.readAllLines(meshModelFile);
+        return parse(ByteBuffer.wrap(Utils.readAllBytes(meshModelFile)));
+    }
 
-        MD5Model result = new MD5Model();
+    /**
+     * Parses a model from its bytes, in a single pass.
+     *
+     * @param data The bytes of the file, from its position to its limit.
+     *
+     * @return The model.
+     *
+     * @throws Exception If the file is empty or bad defined.
+     */
 
-        int numLines = lines != null ? lines.size() : 0;
-        if(numLines == 0){
+    public static MD5Model parse(ByteBuffer data) throws Exception{
+        MD5Tokenizer tokenizer = new MD5Tokenizer(data);
+        if(!tokenizer.hasNext()){
             throw new Exception("Cannot parse empty file");
         }
 
-        // Parse Header
-        boolean headerEnd = false;
-        int start = 0;
-        for(int i = 0; i < numLines && !headerEnd; i++){
-            String line = lines.get(i);
-            headerEnd = line.trim().endsWith("{");
-            start = i;
-        }
-        if(!headerEnd){
-            throw new Exception("Cannot find header");
-        }
-        List<String> headerBlock = lines.subList(0, start);
-        MD5ModelHeader header = MD5ModelHeader.parse(headerBlock);
-        result.setHeader(header);
-
-        // Parse the rest of block
-        int blockStart = 0;
-        boolean inBlock = false;
-        String blockId = "";
-        for(int i = start; i < numLines; i++){
-            String line = lines.get(i);
-            if(line.endsWith("{")){
-                blockStart = i;
-                blockId = line.substring(0, line.lastIndexOf(" "));
-                inBlock = true;
-            }else if(inBlock && line.endsWith("}")){
-                List<String> blockBody = lines.subList(blockStart + 1, i);
-                parseBlock(result, blockId, blockBody);
-                inBlock = false;
+        MD5Model result = new MD5Model();
+        result.setHeader(MD5ModelHeader.parse(tokenizer));
+
+        while(tokenizer.hasNext()){
+            if(tokenizer.nextIs("joints")){
+                tokenizer.expect('{');
+                result.setJointInfo(MD5JointInfo.parse(tokenizer));
+            }else if(tokenizer.nextIs("mesh")){
+                tokenizer.expect('{');
+                result.getMeshes().add(MD5Mesh.parse(tokenizer));
+            }else{
+                tokenizer.nextWord();
+                if(tokenizer.peek('{')){
+                    tokenizer.expect('{');
+                    tokenizer.skipBlock();
+                }else{
+                    tokenizer.skipLine();
+                }
             }
         }
 
         return result;
     }
 
-    /**
-     * Parses a block.
-     *
-     * @param model     The model.
-     * @param blockId   The block ID.
-     * @param blockBody The block vody.
-     *
-     * @throws Exception If anything went wrong.
-     */
-
-    private static void parseBlock(MD5Model model, String blockId, List<String> blockBody) throws Exception{
-        switch(blockId){
-            case "joints":
-                MD5JointInfo jointInfo = MD5JointInfo.parse(blockBody);
-                model.setJointInfo(jointInfo);
-                break;
-            case "mesh":
-                MD5Mesh md5Mesh = MD5Mesh.parse(blockBody);
-                model.getMeshes().add(md5Mesh);
-                break;
-            default:
-                break;
-        }
-    }
-
-}
\ No newline at end of file
+}
@@ -129,41 +129,34 @@ public class MD5ModelHeader{
      */
 
     public static MD5ModelHeader parse(List<String> lines) throws Exception{
-        MD5ModelHeader header = new MD5ModelHeader();
-        int numLines = lines != null ? lines.size() : 0;
-        if(numLines == 0){
+        if(lines == null || lines.isEmpty()){
             throw new Exception("Cannot parse empty file");
         }
+        return parse(MD5Tokenizer.ofLines(lines));
+    }
+
+    /**
+     * Parses the keys of the header, up to the first block.
+     *
+     * @param tokenizer The tokenizer, at the start of the file.
+     *
+     * @return The model header.
+     */
 
-        boolean finishHeader = false;
-        for(int i = 0; i < numLines && !finishHeader; i++){
-            String line = lines.get(i);
-            String[] tokens = line.split("\\s+");
-            int numTokens = tokens != null ? tokens.length : 0;
-            if(numTokens > 1){
-                String paramName = tokens[0];
-                String paramValue = tokens[1];
-
-                switch(paramName){
-                    case "MD5Version":
-                        header.setVersion(paramValue);
-                        break;
-                    case "commandline":
-                        header.setCommandLine(paramValue);
-                        break;
-                    case "numJoints":
-                        header.setNumJoints(Integer.parseInt(paramValue));
-                        break;
-                    case "numMeshes":
-                        header.setNumMeshes(Integer.parseInt(paramValue));
-                        break;
-                    case "joints":
-                        finishHeader = true;
-                        break;
-                }
+    static MD5ModelHeader parse(MD5Tokenizer tokenizer){
+        MD5ModelHeader header = new MD5ModelHeader();
+        while(true){
+            if(tokenizer.nextIs("MD5Version")){
+                header.setVersion(tokenizer.nextWord());
+            }else if(tokenizer.nextIs("commandline")){
+                header.setCommandLine(tokenizer.nextQuoted());
+            }else if(tokenizer.nextIs("numJoints")){
+                header.setNumJoints(tokenizer.nextInt());
+            }else if(tokenizer.nextIs("numMeshes")){
+                header.setNumMeshes(tokenizer.nextInt());
+            }else{
+                return header;
             }
         }
-
-        return header;
     }
 }
\ No newline at end of file
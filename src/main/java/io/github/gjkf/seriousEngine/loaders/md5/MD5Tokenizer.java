@@ -0,0 +1,379 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.loaders.md5;
+
+import io.github.gjkf.seriousEngine.util.NumberParser;
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Reads the tokens of a <tt>.md5mesh</tt> or <tt>.md5anim</tt> file straight from its bytes.
+ * <p>A token is a word, a number, a quoted string or one of <tt>( ) { }</tt>. Blanks, new lines and <tt>//</tt>
+ * comments separate the tokens and are skipped. Numbers are parsed in place with {@link NumberParser}, so reading the
+ * numbers of a file does not allocate.</p>
+ * <p>A tokenizer covers a range of the file and only uses absolute reads, so the blocks of a file can be read by many
+ * tokenizers in parallel.</p>
+ */
+
+final class MD5Tokenizer{
+
+    /**
+     * The bytes of the file.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The end of the range.
+     */
+    private final int end;
+    /**
+     * The current position.
+     */
+    private int pos;
+
+    /**
+     * Creates a tokenizer for a whole file.
+     *
+     * @param buffer The bytes of the file, from its position to its limit.
+     */
+
+    MD5Tokenizer(ByteBuffer buffer){
+        this(buffer, buffer.position(), buffer.limit());
+    }
+
+    /**
+     * Creates a tokenizer for a range of a file.
+     *
+     * @param buffer The bytes of the file.
+     * @param start  The start of the range.
+     * @param end    The end of the range.
+     */
+
+    MD5Tokenizer(ByteBuffer buffer, int start, int end){
+        this.buffer = buffer;
+        this.pos = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates a tokenizer over lines already read, for the parsers that take lines.
+     *
+     * @param lines The lines.
+     *
+     * @return The tokenizer.
+     */
+
+    static MD5Tokenizer ofLines(List<String> lines){
+        return new MD5Tokenizer(ByteBuffer.wrap(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Creates a tokenizer over the lines of the body of a block, followed by the <tt>}</tt> closing it.
+     *
+     * @param blockBody The lines between the braces.
+     *
+     * @return The tokenizer.
+     */
+
+    static MD5Tokenizer ofBlock(List<String> blockBody){
+        return new MD5Tokenizer(ByteBuffer.wrap((String.join("\n", blockBody) + "\n}").getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Skips the separators and returns whether there is another token.
+     *
+     * @return Whether the range has more tokens.
+     */
+
+    boolean hasNext(){
+        while(pos < end){
+            byte c = buffer.get(pos);
+            if(c == '/' && pos + 1 < end && buffer.get(pos + 1) == '/'){
+                skipLine();
+            }else if(isSpace(c)){
+                pos++;
+            }else{
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the next token is the given character, without consuming it.
+     *
+     * @param c The character.
+     *
+     * @return Whether it is next.
+     */
+
+    boolean peek(char c){
+        return hasNext() && buffer.get(pos) == c;
+    }
+
+    /**
+     * Consumes the next token, which must be the given character.
+     *
+     * @param c The character.
+     *
+     * @throws IllegalArgumentException If the next token is another one.
+     */
+
+    void expect(char c){
+        if(!peek(c)){
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    /**
+     * Consumes the next token if it is the given word.
+     * <p>This does not allocate.</p>
+     *
+     * @param word The word, in ASCII.
+     *
+     * @return Whether the word was consumed.
+     */
+
+    boolean nextIs(String word){
+        if(!hasNext()){
+            return false;
+        }
+        int length = word.length();
+        if(pos + length > end || (pos + length < end && !isDelimiter(buffer.get(pos + length)))){
+            return false;
+        }
+        for(int i = 0; i < length; i++){
+            if(buffer.get(pos + i) != word.charAt(i)){
+                return false;
+            }
+        }
+        pos += length;
+        return true;
+    }
+
+    /**
+     * Reads the next word.
+     *
+     * @return The word.
+     */
+
+    String nextWord(){
+        int start = nextToken();
+        return toString(start, pos);
+    }
+
+    /**
+     * Reads the next quoted string.
+     *
+     * @return The string, without the quotes.
+     */
+
+    String nextQuoted(){
+        expect('"');
+        int start = pos;
+        while(pos < end && buffer.get(pos) != '"'){
+            if(isNewLine(buffer.get(pos))){
+                throw error("Unterminated string");
+            }
+            pos++;
+        }
+        if(pos == end){
+            throw error("Unterminated string");
+        }
+        String result = new String(bytes(start, pos), StandardCharsets.UTF_8);
+        pos++;
+        return result;
+    }
+
+    /**
+     * Reads the next float.
+     *
+     * @return The value.
+     */
+
+    float nextFloat(){
+        int start = nextToken();
+        return NumberParser.parseFloat(buffer, start, pos);
+    }
+
+    /**
+     * Reads the next int.
+     *
+     * @return The value.
+     */
+
+    int nextInt(){
+        int start = nextToken();
+        return NumberParser.parseInt(buffer, start, pos);
+    }
+
+    /**
+     * Reads the next vector, written as <tt>( x y z )</tt>.
+     *
+     * @return The vector.
+     */
+
+    Vector3f nextVector3f(){
+        expect('(');
+        Vector3f result = new Vector3f(nextFloat(), nextFloat(), nextFloat());
+        expect(')');
+        return result;
+    }
+
+    /**
+     * Moves to the start of the next line.
+     */
+
+    void skipLine(){
+        while(pos < end && !isNewLine(buffer.get(pos))){
+            pos++;
+        }
+    }
+
+    /**
+     * Moves past the <tt>}</tt> closing the current block, the body of which must not contain other blocks.
+     *
+     * @return The position of the <tt>}</tt>.
+     */
+
+    int skipBlock(){
+        while(hasNext()){
+            if(buffer.get(pos) == '}'){
+                return pos++;
+            }
+            nextToken();
+        }
+        throw error("Unterminated block");
+    }
+
+    /**
+     * Getter for property 'position'.
+     *
+     * @return Value for property 'position'.
+     */
+
+    int getPosition(){
+        return pos;
+    }
+
+    /**
+     * Getter for property 'buffer'.
+     *
+     * @return Value for property 'buffer'.
+     */
+
+    ByteBuffer getBuffer(){
+        return buffer;
+    }
+
+    /**
+     * Creates an exception about the current position.
+     *
+     * @param message The problem.
+     *
+     * @return The exception.
+     */
+
+    IllegalArgumentException error(String message){
+        int line = 1;
+        for(int i = 0; i < pos && i < buffer.limit(); i++){
+            if(buffer.get(i) == '\n'){
+                line++;
+            }
+        }
+        return new IllegalArgumentException(message + " at line " + line);
+    }
+
+    /**
+     * Moves past the next token.
+     *
+     * @return The start of the token.
+     */
+
+    private int nextToken(){
+        if(!hasNext()){
+            throw error("Unexpected end of file");
+        }
+        int start = pos;
+        if(isDelimiter(buffer.get(pos))){
+            pos++;
+            return start;
+        }
+        while(pos < end && !isDelimiter(buffer.get(pos))){
+            pos++;
+        }
+        return start;
+    }
+
+    /**
+     * Copies a range of bytes.
+     *
+     * @param start The start of the range.
+     * @param end   The end of the range.
+     *
+     * @return The bytes.
+     */
+
+    private byte[] bytes(int start, int end){
+        byte[] bytes = new byte[end - start];
+        for(int i = 0; i < bytes.length; i++){
+            bytes[i] = buffer.get(start + i);
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes a range of bytes.
+     *
+     * @param start The start of the range.
+     * @param end   The end of the range.
+     *
+     * @return The string.
+     */
+
+    private String toString(int start, int end){
+        return new String(bytes(start, end), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns whether a byte separates tokens.
+     *
+     * @param c The byte.
+     *
+     * @return Whether it is blank or a new line.
+     */
+
+    private static boolean isSpace(byte c){
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+
+    /**
+     * Returns whether a byte ends a line.
+     *
+     * @param c The byte.
+     *
+     * @return Whether it is a new line.
+     */
+
+    private static boolean isNewLine(byte c){
+        return c == '\n' || c == '\r';
+    }
+
+    /**
+     * Returns whether a byte ends a word: a separator or a token of its own.
+     *
+     * @param c The byte.
+     *
+     * @return Whether it is a delimiter.
+     */
+
+    private static boolean isDelimiter(byte c){
+        return isSpace(c) || c == '(' || c == ')' || c == '{' || c == '}' || c == '"';
+    }
+
+}
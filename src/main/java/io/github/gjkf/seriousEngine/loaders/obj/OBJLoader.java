@@ -7,231 +7,187 @@ package io.github.gjkf.seriousEngine.loaders.obj;
 import io.github.gjkf.seriousEngine.Utils;
 import io.github.gjkf.seriousEngine.render.InstancedMesh;
 import io.github.gjkf.seriousEngine.render.Mesh;
-import org.joml.Vector2f;
-import org.joml.Vector3f;
+import io.github.gjkf.seriousEngine.render.MeshData;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Loads and reads a basic <tt>.obj</tt> file.
+ * <p>The file is parsed straight from its bytes by {@link OBJParser}s. Files of at least {@link #PARALLEL_THRESHOLD}
+ * bytes are split at line boundaries into chunks parsed in parallel; the indices in a file are absolute, so the chunks
+ * are simply appended in order.</p>
  */
 
 public class OBJLoader{
 
+    /**
+     * The size in bytes from which a file is parsed in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+    /**
+     * The smallest chunk parsed by a task.
+     */
+    private static final int MIN_CHUNK_SIZE = 256 << 10;
+
+    /**
+     * Loads a mesh from a resource.
+     *
+     * @param fileName The path of the resource.
+     *
+     * @return The mesh.
+     *
+     * @throws Exception If the file could not be read or parsed.
+     */
+
     public static Mesh loadMesh(String fileName) throws Exception{
         return loadMesh(fileName, 1);
     }
 
-    public static Mesh loadMeshFromWorld(String path, int instances) throws Exception{
-        List<String> lines = new ArrayList<>();
-        try(BufferedReader br = new BufferedReader(new FileReader(path))){
-            String line;
-            while((line = br.readLine()) != null){
-                lines.add(line);
-            }
-        }
+    /**
+     * Loads a mesh from a file outside the classpath.
+     *
+     * @param path      The path of the file.
+     * @param instances The number of instances, an {@link InstancedMesh} is created when more than one.
+     *
+     * @return The mesh.
+     *
+     * @throws Exception If the file could not be read or parsed.
+     */
 
-        List<Vector3f> vertices = new ArrayList<>();
-        List<Vector2f> textures = new ArrayList<>();
-        List<Vector3f> normals = new ArrayList<>();
-        List<Face> faces = new ArrayList<>();
-
-        for(String line : lines){
-            String[] tokens = line.split("\\s+");
-            switch(tokens[0]){
-                case "v":
-                    // Geometric vertex
-                    Vector3f vec3f = new Vector3f(
-                            Float.parseFloat(tokens[1]),
-                            Float.parseFloat(tokens[2]),
-                            Float.parseFloat(tokens[3]));
-                    vertices.add(vec3f);
-                    break;
-                case "vt":
-                    // Texture coordinate
-                    Vector2f vec2f = new Vector2f(
-                            Float.parseFloat(tokens[1]),
-                            Float.parseFloat(tokens[2]));
-                    textures.add(vec2f);
-                    break;
-                case "vn":
-                    // Vertex normal
-                    Vector3f vec3fNorm = new Vector3f(
-                            Float.parseFloat(tokens[1]),
-                            Float.parseFloat(tokens[2]),
-                            Float.parseFloat(tokens[3]));
-                    normals.add(vec3fNorm);
-                    break;
-                case "f":
-                    Face face = new Face(tokens[1], tokens[2], tokens[3]);
-                    faces.add(face);
-                    break;
-                default:
-                    // Ignore other lines
-                    break;
-            }
-        }
-        return reorderLists(vertices, textures, normals, faces, instances);
+    public static Mesh loadMeshFromWorld(String path, int instances) throws Exception{
+        return loadMeshData(Utils.mapFile(path)).createMesh(instances);
     }
 
-    public static Mesh loadMesh(String fileName, int instances) throws Exception{
-        List<String> lines = Utils.readAllLines(fileName);
-
-        List<Vector3f> vertices = new ArrayList<>();
-        List<Vector2f> textures = new ArrayList<>();
-        List<Vector3f> normals = new ArrayList<>();
-        List<Face> faces = new ArrayList<>();
-
-        for(String line : lines){
-            String[] tokens = line.split("\\s+");
-            switch(tokens[0]){
-                case "v":
-                    // Geometric vertex
-                    Vector3f vec3f = new Vector3f(
-                            Float.parseFloat(tokens[1]),
-                            Float.parseFloat(tokens[2]),
-                            Float.parseFloat(tokens[3]));
-                    vertices.add(vec3f);
-                    break;
-                case "vt":
-                    // Texture coordinate
-                    Vector2f vec2f = new Vector2f(
-                            Float.parseFloat(tokens[1]),
-                            Float.parseFloat(tokens[2]));
-                    textures.add(vec2f);
-                    break;
-                case "vn":
-                    // Vertex normal
-                    Vector3f vec3fNorm = new Vector3f(
-                            Float.parseFloat(tokens[1]),
-                            Float.parseFloat(tokens[2]),
-                            Float.parseFloat(tokens[3]));
-                    normals.add(vec3fNorm);
-                    break;
-                case "f":
-                    Face face = new Face(tokens[1], tokens[2], tokens[3]);
-                    faces.add(face);
-                    break;
-                default:
-                    // Ignore other lines
-                    break;
-            }
-        }
-        return reorderLists(vertices, textures, normals, faces, instances);
-    }
+    /**
+     * Loads a mesh from a resource.
+     *
+     * @param fileName  The path of the resource.
+     * @param instances The number of instances, an {@link InstancedMesh} is created when more than one.
+     *
+     * @return The mesh.
+     *
+     * @throws Exception If the file could not be read or parsed.
+     */
 
-    private static Mesh reorderLists(List<Vector3f> posList, List<Vector2f> textCoordList,
-                                     List<Vector3f> normList, List<Face> facesList, int instances){
-
-        List<Integer> indices = new ArrayList<>();
-        // Create position array in the order it has been declared
-        float[] posArr = new float[posList.size() * 3];
-        int i = 0;
-        for(Vector3f pos : posList){
-            posArr[i * 3] = pos.x;
-            posArr[i * 3 + 1] = pos.y;
-            posArr[i * 3 + 2] = pos.z;
-            i++;
-        }
-        float[] textCoordArr = new float[posList.size() * 2];
-        float[] normArr = new float[posList.size() * 3];
-
-        for(Face face : facesList){
-            IdxGroup[] faceVertexIndices = face.getFaceVertexIndices();
-            for(IdxGroup indValue : faceVertexIndices){
-                processFaceVertex(indValue, textCoordList, normList,
-                        indices, textCoordArr, normArr);
-            }
-        }
-        int[] indicesArr = Utils.listIntToArray(indices);
-        Mesh mesh;
-        if(instances > 1){
-            mesh = new InstancedMesh(posArr, textCoordArr, normArr, indicesArr, instances);
-        }else{
-            mesh = new Mesh(posArr, textCoordArr, normArr, indicesArr);
-        }
-        return mesh;
+    public static Mesh loadMesh(String fileName, int instances) throws Exception{
+        return loadMeshData(ByteBuffer.wrap(Utils.readAllBytes(fileName))).createMesh(instances);
     }
 
-    private static void processFaceVertex(IdxGroup indices, List<Vector2f> textCoordList,
-                                          List<Vector3f> normList, List<Integer> indicesList,
-                                          float[] texCoordArr, float[] normArr){
+    /**
+     * Parses a file into the arrays of its mesh, without uploading them.
+     *
+     * @param data The bytes of the file, from its position to its limit.
+     *
+     * @return The arrays of the mesh.
+     */
 
-        // Set index for vertex coordinates
-        int posIndex = indices.idxPos;
-        indicesList.add(posIndex);
+    public static MeshData loadMeshData(ByteBuffer data){
+        return createMeshData(parse(data));
+    }
 
-        // Reorder texture coordinates
-        if(indices.idxTextCoord >= 0){
-            Vector2f textCoord = textCoordList.get(indices.idxTextCoord);
-            texCoordArr[posIndex * 2] = textCoord.x;
-            texCoordArr[posIndex * 2 + 1] = 1 - textCoord.y;
+    /**
+     * Parses a whole file, in parallel if it is large.
+     *
+     * @param data The bytes of the file, from its position to its limit.
+     *
+     * @return The parser holding the results.
+     */
+
+    static OBJParser parse(ByteBuffer data){
+        int start = data.position();
+        int end = data.limit();
+        int length = end - start;
+        int chunks = length < PARALLEL_THRESHOLD ? 1 :
+                Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, length / MIN_CHUNK_SIZE);
+        if(chunks <= 1){
+            OBJParser parser = new OBJParser(data, start, end);
+            parser.parse();
+            return parser;
+        }
+        OBJParser[] parsers = new OBJParser[chunks];
+        int chunkStart = start;
+        for(int i = 0; i < chunks; i++){
+            int chunkEnd = i == chunks - 1 ? end : OBJParser.lineStart(data, start + (int) ((long) length * (i + 1) / chunks), end);
+            parsers[i] = new OBJParser(data, chunkStart, Math.max(chunkStart, chunkEnd));
+            chunkStart = Math.max(chunkStart, chunkEnd);
         }
-        if(indices.idxVecNormal >= 0){
-            // Reorder vectornormals
-            Vector3f vecNorm = normList.get(indices.idxVecNormal);
-            normArr[posIndex * 3] = vecNorm.x;
-            normArr[posIndex * 3 + 1] = vecNorm.y;
-            normArr[posIndex * 3 + 2] = vecNorm.z;
+        ForkJoinTask.invokeAll(parsers);
+        OBJParser result = parsers[0];
+        for(int i = 1; i < chunks; i++){
+            result.append(parsers[i]);
         }
+        return result;
     }
 
-    protected static class Face{
-
-        /**
-         * List of idxGroup groups for a face triangle (3 vertices per face).
-         */
-        private IdxGroup[] idxGroups = new IdxGroup[3];
-
-        public Face(String v1, String v2, String v3){
-            idxGroups = new IdxGroup[3];
-            // Parse the lines
-            idxGroups[0] = parseLine(v1);
-            idxGroups[1] = parseLine(v2);
-            idxGroups[2] = parseLine(v3);
+    /**
+     * Creates the arrays of the mesh of a parsed file.
+     * <p>Every distinct combination of position, texture coordinates and normal used by the faces becomes a vertex,
+     * see {@link VertexWelder}. Missing texture coordinates and normals are zero.</p>
+     *
+     * @param data The parsed file.
+     *
+     * @return The arrays of the mesh.
+     */
+
+    private static MeshData createMeshData(OBJParser data){
+        int[] faces = data.faces.getArray();
+        int[] indicesArr = new int[data.faces.size() / OBJParser.VERTEX_SIZE];
+        VertexWelder welder = new VertexWelder(data.positions.size() / 3);
+        for(int i = 0; i < indicesArr.length; i++){
+            int offset = i * OBJParser.VERTEX_SIZE;
+            indicesArr[i] = welder.weld(faces[offset], faces[offset + 1], faces[offset + 2]);
         }
 
-        private IdxGroup parseLine(String line){
-            IdxGroup idxGroup = new IdxGroup();
-
-            String[] lineTokens = line.split("/");
-            int length = lineTokens.length;
-            idxGroup.idxPos = Integer.parseInt(lineTokens[0]) - 1;
-            if(length > 1){
-                // It can be empty if the obj does not define text coords
-                String textCoord = lineTokens[1];
-                idxGroup.idxTextCoord = textCoord.length() > 0 ? Integer.parseInt(textCoord) - 1 : IdxGroup.NO_VALUE;
-                if(length > 2){
-                    idxGroup.idxVecNormal = Integer.parseInt(lineTokens[2]) - 1;
-                }
+        float[] positions = data.positions.getArray();
+        int positionCount = data.positions.size() / 3;
+        float[] textCoords = data.textCoords.getArray();
+        int textCoordCount = data.textCoords.size() / 2;
+        float[] normals = data.normals.getArray();
+        int normalCount = data.normals.size() / 3;
+
+        int vertexCount = welder.size();
+        int[] vertices = welder.getVertices().getArray();
+        float[] posArr = new float[vertexCount * 3];
+        float[] textCoordArr = new float[vertexCount * 2];
+        float[] normArr = new float[vertexCount * 3];
+        for(int i = 0; i < vertexCount; i++){
+            int offset = i * OBJParser.VERTEX_SIZE;
+            int position = vertices[offset];
+            checkIndex(position, positionCount);
+            posArr[i * 3] = positions[position * 3];
+            posArr[i * 3 + 1] = positions[position * 3 + 1];
+            posArr[i * 3 + 2] = positions[position * 3 + 2];
+
+            int textCoord = vertices[offset + 1];
+            if(textCoord != OBJParser.NO_VALUE){
+                checkIndex(textCoord, textCoordCount);
+                textCoordArr[i * 2] = textCoords[textCoord * 2];
+                textCoordArr[i * 2 + 1] = 1 - textCoords[textCoord * 2 + 1];
+            }
+            int normal = vertices[offset + 2];
+            if(normal != OBJParser.NO_VALUE){
+                checkIndex(normal, normalCount);
+                normArr[i * 3] = normals[normal * 3];
+                normArr[i * 3 + 1] = normals[normal * 3 + 1];
+                normArr[i * 3 + 2] = normals[normal * 3 + 2];
             }
-
-            return idxGroup;
-        }
-
-        IdxGroup[] getFaceVertexIndices(){
-            return idxGroups;
         }
+        return new MeshData(posArr, textCoordArr, normArr, indicesArr);
     }
 
-    static class IdxGroup{
-
-        static final int NO_VALUE = -1;
-
-        int idxPos;
-
-        int idxTextCoord;
-
-        int idxVecNormal;
+    /**
+     * Throws if a face refers to an element that was not declared.
+     *
+     * @param index The index of the element.
+     * @param size  The number of elements.
+     */
 
-        IdxGroup(){
-            idxPos = NO_VALUE;
-            idxTextCoord = NO_VALUE;
-            idxVecNormal = NO_VALUE;
+    private static void checkIndex(int index, int size){
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,334 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.loaders.obj;
+
+import io.github.gjkf.seriousEngine.util.FloatArrayList;
+import io.github.gjkf.seriousEngine.util.IntArrayList;
+import io.github.gjkf.seriousEngine.util.NumberParser;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses a range of lines of a <tt>.obj</tt> file straight from its bytes.
+ * <p>The tokens are never turned into strings: numbers are parsed in place and stored in primitive lists, so parsing
+ * allocates only when the lists grow. A parser covers a range of whole lines, so a large file can be split between
+ * many parsers run in parallel, whose results are then {@link #append(OBJParser) appended} in order.</p>
+ * <p>The result is the same as splitting each line with <tt>\\s+</tt> and using {@link Float#parseFloat(String)} and
+ * {@link Integer#parseInt(String)}: lines starting with a blank are ignored and the numbers the fast paths can not
+ * handle exactly are given to the JDK parsers. Faces with more than three vertices are triangulated as a fan around
+ * their first vertex.</p>
+ */
+
+final class OBJParser extends RecursiveAction{
+
+    /**
+     * The version of the serialized form.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The value of a missing index.
+     */
+    static final int NO_VALUE = -1;
+    /**
+     * The number of ints of a face vertex in {@link #faces}.
+     */
+    static final int VERTEX_SIZE = 3;
+    /**
+     * The bytes of the file.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The end of the range.
+     */
+    private final int end;
+    /**
+     * The current position.
+     */
+    private int pos;
+    /**
+     * The vertex positions, three floats each.
+     */
+    final FloatArrayList positions;
+    /**
+     * The texture coordinates, two floats each.
+     */
+    final FloatArrayList textCoords;
+    /**
+     * The normals, three floats each.
+     */
+    final FloatArrayList normals;
+    /**
+     * The vertices of the triangles, {@link #VERTEX_SIZE} ints each: the zero based indices of the position, the
+     * texture coordinates and the normal, {@link #NO_VALUE} when missing.
+     */
+    final IntArrayList faces;
+
+    /**
+     * Creates a parser for a range of lines.
+     *
+     * @param buffer The bytes of the file. Only absolute reads are used, so the buffer can be shared.
+     * @param start  The start of the first line.
+     * @param end    The end of the range, the start of a line or the end of the file.
+     */
+
+    OBJParser(ByteBuffer buffer, int start, int end){
+        this.buffer = buffer;
+        this.pos = start;
+        this.end = end;
+        int capacity = Math.max(16, (end - start) / 32);
+        positions = new FloatArrayList(capacity);
+        textCoords = new FloatArrayList(16);
+        normals = new FloatArrayList(16);
+        faces = new IntArrayList(capacity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    protected void compute(){
+        parse();
+    }
+
+    /**
+     * Parses every line of the range.
+     */
+
+    void parse(){
+        while(pos < end){
+            byte c = buffer.get(pos);
+            if(isNewLine(c)){
+                pos++;
+                continue;
+            }
+            if(isBlank(c)){
+                // The first token is empty, the line is ignored
+                skipLine();
+                continue;
+            }
+            int keyStart = pos;
+            while(pos < end && !isSeparator(buffer.get(pos))){
+                pos++;
+            }
+            int keyLength = pos - keyStart;
+            byte first = buffer.get(keyStart);
+            if(keyLength == 1 && first == 'v'){
+                // Geometric vertex
+                positions.add(nextFloat(), nextFloat(), nextFloat());
+            }else if(keyLength == 2 && first == 'v' && buffer.get(keyStart + 1) == 't'){
+                // Texture coordinate
+                textCoords.add(nextFloat(), nextFloat());
+            }else if(keyLength == 2 && first == 'v' && buffer.get(keyStart + 1) == 'n'){
+                // Vertex normal
+                normals.add(nextFloat(), nextFloat(), nextFloat());
+            }else if(keyLength == 1 && first == 'f'){
+                int faceStart = faces.size();
+                nextFaceVertex();
+                nextFaceVertex();
+                nextFaceVertex();
+                while(hasNextToken()){
+                    // Fan triangulation: the first vertex, the last one and the new one
+                    int last = faces.size() - VERTEX_SIZE;
+                    faces.add(faces.get(faceStart), faces.get(faceStart + 1), faces.get(faceStart + 2));
+                    faces.add(faces.get(last), faces.get(last + 1), faces.get(last + 2));
+                    nextFaceVertex();
+                }
+            }
+            skipLine();
+        }
+    }
+
+    /**
+     * Appends the results of the parser of the following range.
+     *
+     * @param next The parser of the following range.
+     */
+
+    void append(OBJParser next){
+        positions.addAll(next.positions);
+        textCoords.addAll(next.textCoords);
+        normals.addAll(next.normals);
+        faces.addAll(next.faces);
+    }
+
+    /**
+     * Moves past the end of the current line.
+     */
+
+    private void skipLine(){
+        while(pos < end && !isNewLine(buffer.get(pos))){
+            pos++;
+        }
+    }
+
+    /**
+     * Moves to the start of the next token of the line, if there is one.
+     *
+     * @return Whether the line has more tokens.
+     */
+
+    private boolean hasNextToken(){
+        while(pos < end && isBlank(buffer.get(pos))){
+            pos++;
+        }
+        return pos < end && !isNewLine(buffer.get(pos));
+    }
+
+    /**
+     * Moves to the start of the next token of the line.
+     *
+     * @return The start of the token.
+     *
+     * @throws NumberFormatException If the line has no more tokens.
+     */
+
+    private int nextToken(){
+        if(!hasNextToken()){
+            throw new NumberFormatException("Missing value at byte " + pos);
+        }
+        int start = pos;
+        while(pos < end && !isSeparator(buffer.get(pos))){
+            pos++;
+        }
+        return start;
+    }
+
+    /**
+     * Parses the next token as a float.
+     *
+     * @return The value.
+     */
+
+    private float nextFloat(){
+        int start = nextToken();
+        return NumberParser.parseFloat(buffer, start, pos);
+    }
+
+    /**
+     * Parses the next token as a face vertex: <tt>v</tt>, <tt>v/vt</tt>, <tt>v//vn</tt> or <tt>v/vt/vn</tt>.
+     */
+
+    private void nextFaceVertex(){
+        int start = nextToken();
+        int tokenEnd = pos;
+        int slash1 = indexOfSlash(start, tokenEnd);
+        int slash2 = slash1 < tokenEnd ? indexOfSlash(slash1 + 1, tokenEnd) : tokenEnd;
+        int slash3 = slash2 < tokenEnd ? indexOfSlash(slash2 + 1, tokenEnd) : tokenEnd;
+
+        int position = NumberParser.parseInt(buffer, start, slash1) - 1;
+        int textCoord = NO_VALUE;
+        if(slash1 < tokenEnd && slash2 > slash1 + 1){
+            textCoord = NumberParser.parseInt(buffer, slash1 + 1, slash2) - 1;
+        }
+        int normal = NO_VALUE;
+        if(slash2 < tokenEnd){
+            if(slash3 > slash2 + 1){
+                normal = NumberParser.parseInt(buffer, slash2 + 1, slash3) - 1;
+            }else if(hasNonSlash(slash3, tokenEnd)){
+                // An empty normal followed by more values is not a trailing empty token
+                throw new NumberFormatException("For input string: \"\"");
+            }
+        }
+        faces.add(position, textCoord, normal);
+    }
+
+    /**
+     * Returns the position of the first slash in a range.
+     *
+     * @param start The start of the range.
+     * @param end   The end of the range.
+     *
+     * @return The position, <tt>end</tt> if there is none.
+     */
+
+    private int indexOfSlash(int start, int end){
+        for(int i = start; i < end; i++){
+            if(buffer.get(i) == '/'){
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns whether a range holds something other than slashes.
+     *
+     * @param start The start of the range.
+     * @param end   The end of the range.
+     *
+     * @return Whether it does.
+     */
+
+    private boolean hasNonSlash(int start, int end){
+        for(int i = start; i < end; i++){
+            if(buffer.get(i) != '/'){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the start of the first line at or after a position.
+     *
+     * @param buffer The bytes of the file.
+     * @param pos    The position.
+     * @param limit  The end of the file.
+     *
+     * @return The start of the line, <tt>limit</tt> if there is none.
+     */
+
+    static int lineStart(ByteBuffer buffer, int pos, int limit){
+        if(pos == 0){
+            return 0;
+        }
+        if(isNewLine(buffer.get(pos - 1))){
+            return pos;
+        }
+        while(pos < limit && !isNewLine(buffer.get(pos))){
+            pos++;
+        }
+        return Math.min(limit, pos + 1);
+    }
+
+    /**
+     * Returns whether a byte ends a line.
+     *
+     * @param c The byte.
+     *
+     * @return Whether it is a new line.
+     */
+
+    private static boolean isNewLine(byte c){
+        return c == '\n' || c == '\r';
+    }
+
+    /**
+     * Returns whether a byte separates two tokens of a line, like <tt>\s</tt>.
+     *
+     * @param c The byte.
+     *
+     * @return Whether it is blank.
+     */
+
+    private static boolean isBlank(byte c){
+        return c == ' ' || c == '\t' || c == '\f' || c == 0x0B;
+    }
+
+    /**
+     * Returns whether a byte ends a token.
+     *
+     * @param c The byte.
+     *
+     * @return Whether it is blank or a new line.
+     */
+
+    private static boolean isSeparator(byte c){
+        return isBlank(c) || isNewLine(c);
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.loaders.obj;
+
+import io.github.gjkf.seriousEngine.util.IntArrayList;
+
+import java.util.Arrays;
+
+/**
+ * Gives an index to every distinct vertex of a mesh.
+ * <p>A vertex of an <tt>.obj</tt> file is a triple of indices: position, texture coordinates and normal. Two face
+ * vertices are the same vertex only if the three indices are equal, so a position shared by faces with different
+ * texture coordinates or normals, as on hard edges and seams, becomes a vertex for each of them.</p>
+ * <p>The triples are kept in an open addressing hash table made of int arrays, so no key is boxed.</p>
+ */
+
+final class VertexWelder{
+
+    /**
+     * The marker of an empty slot.
+     */
+    private static final int EMPTY = -1;
+    /**
+     * The index of the vertex in each slot, {@link #EMPTY} if none.
+     */
+    private int[] slots;
+    /**
+     * The mask giving the slot of a hash, the number of slots minus one.
+     */
+    private int mask;
+    /**
+     * The triples of the distinct vertices, in order of first use.
+     */
+    private final IntArrayList vertices;
+
+    /**
+     * Creates an empty welder.
+     *
+     * @param expectedVertices The expected number of distinct vertices.
+     */
+
+    VertexWelder(int expectedVertices){
+        int capacity = Integer.highestOneBit(Math.max(16, expectedVertices * 2 - 1)) << 1;
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        mask = capacity - 1;
+        vertices = new IntArrayList(Math.max(16, expectedVertices * OBJParser.VERTEX_SIZE));
+    }
+
+    /**
+     * Returns the index of a vertex, adding it if it is new.
+     *
+     * @param position  The index of the position.
+     * @param textCoord The index of the texture coordinates.
+     * @param normal    The index of the normal.
+     *
+     * @return The index of the vertex.
+     */
+
+    int weld(int position, int textCoord, int normal){
+        int[] triples = vertices.getArray();
+        int slot = hash(position, textCoord, normal) & mask;
+        int vertex;
+        while((vertex = slots[slot]) != EMPTY){
+            int offset = vertex * OBJParser.VERTEX_SIZE;
+            if(triples[offset] == position && triples[offset + 1] == textCoord && triples[offset + 2] == normal){
+                return vertex;
+            }
+            slot = (slot + 1) & mask;
+        }
+        vertex = size();
+        slots[slot] = vertex;
+        vertices.add(position, textCoord, normal);
+        if(vertex * 2 >= mask){
+            rehash();
+        }
+        return vertex;
+    }
+
+    /**
+     * Returns the number of distinct vertices.
+     *
+     * @return The size.
+     */
+
+    int size(){
+        return vertices.size() / OBJParser.VERTEX_SIZE;
+    }
+
+    /**
+     * Getter for property 'vertices'.
+     *
+     * @return Value for property 'vertices'.
+     */
+
+    IntArrayList getVertices(){
+        return vertices;
+    }
+
+    /**
+     * Doubles the number of slots, keeping the load under one half.
+     */
+
+    private void rehash(){
+        int[] triples = vertices.getArray();
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        mask = slots.length - 1;
+        for(int vertex = 0, size = size(); vertex < size; vertex++){
+            int offset = vertex * OBJParser.VERTEX_SIZE;
+            int slot = hash(triples[offset], triples[offset + 1], triples[offset + 2]) & mask;
+            while(slots[slot] != EMPTY){
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = vertex;
+        }
+    }
+
+    /**
+     * Hashes a triple of indices.
+     *
+     * @param position  The index of the position.
+     * @param textCoord The index of the texture coordinates.
+     * @param normal    The index of the normal.
+     *
+     * @return The hash.
+     */
+
+    private static int hash(int position, int textCoord, int normal){
+        int h = position * 0x9E3779B1 + textCoord * 0x85EBCA77 + normal * 0xC2B2AE3D;
+        return h ^ (h >>> 16);
+    }
+
+}
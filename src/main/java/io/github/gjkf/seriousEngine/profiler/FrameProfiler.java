@@ -0,0 +1,288 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.profiler;
+
+/**
+ * Records how long every frame takes and where the time goes.
+ * <p>The {@link io.github.gjkf.seriousEngine.Engine} times the phases of the game loop and the
+ * {@link io.github.gjkf.seriousEngine.render.Renderer} times its passes. Each metric is kept in a {@link RollingStats},
+ * so the last {@link #DEFAULT_CAPACITY} frames can be inspected through percentiles. All the times are in
+ * nanoseconds.</p>
+ * <p>Timing a section goes like this and does not allocate:</p>
+ * <pre>
+ *     long start = profiler.start();
+ *     // ...
+ *     profiler.record(FrameProfiler.Phase.UPDATE, start);
+ * </pre>
+ * <p>When the profiler is disabled {@link #start()} returns 0 and nothing is recorded.</p>
+ */
+
+public class FrameProfiler{
+
+    /**
+     * The default number of frames kept.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+    /**
+     * The stats of each phase, indexed by ordinal.
+     */
+    private final RollingStats[] phases;
+    /**
+     * The stats of each pass, indexed by ordinal.
+     */
+    private final RollingStats[] passes;
+    /**
+     * The whole frame time.
+     */
+    private final RollingStats frames;
+    /**
+     * The number of updates per frame.
+     */
+    private final RollingStats updates;
+    /**
+     * The time left in the accumulator after the updates of a frame.
+     */
+    private final RollingStats overshoot;
+    /**
+     * The start of the current frame.
+     */
+    private long frameStart;
+    /**
+     * The total number of frames recorded.
+     */
+    private long frameCount;
+    /**
+     * Whether the profiler is recording.
+     */
+    private boolean enabled;
+
+    /**
+     * Creates a new enabled profiler that keeps {@link #DEFAULT_CAPACITY} frames.
+     */
+
+    public FrameProfiler(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new enabled profiler.
+     *
+     * @param capacity The number of frames kept.
+     */
+
+    public FrameProfiler(int capacity){
+        phases = new RollingStats[Phase.values().length];
+        for(int i = 0; i < phases.length; i++){
+            phases[i] = new RollingStats(capacity);
+        }
+        passes = new RollingStats[Pass.values().length];
+        for(int i = 0; i < passes.length; i++){
+            passes[i] = new RollingStats(capacity);
+        }
+        frames = new RollingStats(capacity);
+        updates = new RollingStats(capacity);
+        overshoot = new RollingStats(capacity);
+        enabled = true;
+    }
+
+    /**
+     * Returns the current time, to be passed to one of the <tt>record</tt> methods.
+     *
+     * @return The time in nanoseconds, 0 if the profiler is disabled.
+     */
+
+    public long start(){
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Marks the start of a frame.
+     */
+
+    public void beginFrame(){
+        frameStart = start();
+    }
+
+    /**
+     * Marks the end of a frame and records its duration.
+     */
+
+    public void endFrame(){
+        if(enabled){
+            frames.record(System.nanoTime() - frameStart);
+            frameCount++;
+        }
+    }
+
+    /**
+     * Records the time elapsed since <tt>start</tt> for the given phase.
+     *
+     * @param phase The phase.
+     * @param start The value returned by {@link #start()}.
+     */
+
+    public void record(Phase phase, long start){
+        if(enabled){
+            phases[phase.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the time elapsed since <tt>start</tt> for the given render pass.
+     *
+     * @param pass  The pass.
+     * @param start The value returned by {@link #start()}.
+     */
+
+    public void record(Pass pass, long start){
+        if(enabled){
+            passes[pass.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the fixed step updates run in the current frame.
+     *
+     * @param count       The number of updates.
+     * @param accumulator The time left in the accumulator after the updates, in seconds.
+     */
+
+    public void recordUpdates(int count, float accumulator){
+        if(enabled){
+            updates.record(count);
+            overshoot.record((long) (accumulator * 1_000_000_000.0));
+        }
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+
+    public void reset(){
+        for(RollingStats stats : phases){
+            stats.reset();
+        }
+        for(RollingStats stats : passes){
+            stats.reset();
+        }
+        frames.reset();
+        updates.reset();
+        overshoot.reset();
+        frameCount = 0;
+    }
+
+    /**
+     * Returns the stats of a phase.
+     *
+     * @param phase The phase.
+     *
+     * @return The stats.
+     */
+
+    public RollingStats getStats(Phase phase){
+        return phases[phase.ordinal()];
+    }
+
+    /**
+     * Returns the stats of a render pass.
+     *
+     * @param pass The pass.
+     *
+     * @return The stats.
+     */
+
+    public RollingStats getStats(Pass pass){
+        return passes[pass.ordinal()];
+    }
+
+    /**
+     * Getter for property 'frameStats'.
+     *
+     * @return Value for property 'frameStats'.
+     */
+
+    public RollingStats getFrameStats(){
+        return frames;
+    }
+
+    /**
+     * Getter for property 'updateStats'.
+     * <p>The samples are the number of updates per frame.</p>
+     *
+     * @return Value for property 'updateStats'.
+     */
+
+    public RollingStats getUpdateStats(){
+        return updates;
+    }
+
+    /**
+     * Getter for property 'overshootStats'.
+     *
+     * @return Value for property 'overshootStats'.
+     */
+
+    public RollingStats getOvershootStats(){
+        return overshoot;
+    }
+
+    /**
+     * Getter for property 'frameCount'.
+     *
+     * @return Value for property 'frameCount'.
+     */
+
+    public long getFrameCount(){
+        return frameCount;
+    }
+
+    /**
+     * Returns the frames per second over the recorded frames.
+     *
+     * @return The FPS, 0 if no frame has been recorded.
+     */
+
+    public double getFps(){
+        double mean = frames.getMean();
+        return mean == 0 ? 0 : 1_000_000_000.0 / mean;
+    }
+
+    /**
+     * Getter for property 'enabled'.
+     *
+     * @return Value for property 'enabled'.
+     */
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    /**
+     * Setter for property 'enabled'.
+     *
+     * @param enabled Value to set for property 'enabled'.
+     */
+
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    /**
+     * The phases of the game loop.
+     */
+
+    public enum Phase{
+        INPUT, UPDATE, RENDER, SYNC
+    }
+
+    /**
+     * The passes of the renderer, in the order they are drawn.
+     */
+
+    public enum Pass{
+        TRANSFORMS, DEPTH_MAP, HUD, SCENE, SKY_BOX, PARTICLES
+    }
+
+}
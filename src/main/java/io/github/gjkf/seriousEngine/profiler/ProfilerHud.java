@@ -0,0 +1,194 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.profiler;
+
+import io.github.gjkf.seriousEngine.IHud;
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.items.TextItem;
+import io.github.gjkf.seriousEngine.render.Colors;
+import io.github.gjkf.seriousEngine.render.FontTexture;
+
+import java.awt.*;
+
+/**
+ * A HUD showing the stats of a {@link FrameProfiler} in the top left corner.
+ * <p>Rebuilding a {@link TextItem} allocates a new mesh, so the text is refreshed only every
+ * {@link #REFRESH_NANOS} nanoseconds. The times shown are in milliseconds.</p>
+ * <p>The {@link io.github.gjkf.seriousEngine.render.Renderer} draws it on top of the game HUD when
+ * {@link io.github.gjkf.seriousEngine.Window.WindowOptions#showFps} is set.</p>
+ */
+
+public class ProfilerHud implements IHud{
+
+    /**
+     * The font.
+     */
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 14);
+    /**
+     * The charset.
+     */
+    private static final String CHARSET = "ISO-8859-1";
+    /**
+     * How often the text is refreshed, in nanoseconds.
+     */
+    private static final long REFRESH_NANOS = 500_000_000L;
+    /**
+     * The distance from the window borders.
+     */
+    private static final float MARGIN = 10f;
+    /**
+     * The frame line.
+     */
+    private final TextItem frameLine;
+    /**
+     * The game loop phases line.
+     */
+    private final TextItem phasesLine;
+    /**
+     * The updates line.
+     */
+    private final TextItem updatesLine;
+    /**
+     * The render passes line.
+     */
+    private final TextItem passesLine;
+    /**
+     * The items.
+     */
+    private final Item[] items;
+    /**
+     * The builder reused for every line.
+     */
+    private final StringBuilder builder;
+    /**
+     * The height of a line.
+     */
+    private final float lineHeight;
+    /**
+     * The last time the text was refreshed.
+     */
+    private long lastRefresh;
+
+    /**
+     * Creates the HUD.
+     *
+     * @throws Exception If the font texture could not be created.
+     */
+
+    public ProfilerHud() throws Exception{
+        FontTexture fontTexture = new FontTexture(FONT, CHARSET);
+        lineHeight = fontTexture.getHeight();
+        frameLine = createLine(fontTexture, 0);
+        phasesLine = createLine(fontTexture, 1);
+        updatesLine = createLine(fontTexture, 2);
+        passesLine = createLine(fontTexture, 3);
+        items = new Item[]{frameLine, phasesLine, updatesLine, passesLine};
+        builder = new StringBuilder(128);
+        lastRefresh = Long.MIN_VALUE;
+    }
+
+    /**
+     * Creates a line of text.
+     *
+     * @param fontTexture The font texture.
+     * @param row         The row of the line.
+     *
+     * @return The line.
+     *
+     * @throws Exception If the line could not be created.
+     */
+
+    private TextItem createLine(FontTexture fontTexture, int row) throws Exception{
+        TextItem line = new TextItem(" ", fontTexture);
+        line.getMesh().getMaterial().setColour(Colors.GREEN.toVector());
+        line.setPosition(MARGIN, MARGIN + row * lineHeight, 0);
+        return line;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public Item[] getItems(){
+        return items;
+    }
+
+    /**
+     * Refreshes the text if {@link #REFRESH_NANOS} have passed since the last time.
+     *
+     * @param profiler The profiler to show.
+     */
+
+    public void update(FrameProfiler profiler){
+        long now = System.nanoTime();
+        if(now - lastRefresh < REFRESH_NANOS){
+            return;
+        }
+        lastRefresh = now;
+
+        RollingStats frames = profiler.getFrameStats();
+        builder.setLength(0);
+        builder.append("fps ").append((int) Math.round(profiler.getFps()));
+        appendMillis(builder.append("  frame p50 "), frames.percentile(50));
+        appendMillis(builder.append(" p95 "), frames.percentile(95));
+        appendMillis(builder.append(" p99 "), frames.percentile(99));
+        appendMillis(builder.append(" max "), frames.getMax());
+        setText(frameLine, builder);
+
+        builder.setLength(0);
+        builder.append("p95");
+        for(FrameProfiler.Phase phase : FrameProfiler.Phase.values()){
+            builder.append("  ").append(phase.name().toLowerCase()).append(' ');
+            appendMillis(builder, profiler.getStats(phase).percentile(95));
+        }
+        setText(phasesLine, builder);
+
+        builder.setLength(0);
+        RollingStats updates = profiler.getUpdateStats();
+        builder.append("updates/frame p50 ").append(updates.percentile(50)).append(" max ").append(updates.getMax());
+        appendMillis(builder.append("  overshoot p95 "), profiler.getOvershootStats().percentile(95));
+        setText(updatesLine, builder);
+
+        builder.setLength(0);
+        builder.append("p95");
+        for(FrameProfiler.Pass pass : FrameProfiler.Pass.values()){
+            builder.append("  ").append(pass.name().toLowerCase()).append(' ');
+            appendMillis(builder, profiler.getStats(pass).percentile(95));
+        }
+        setText(passesLine, builder);
+    }
+
+    /**
+     * Sets the text of a line if it changed.
+     *
+     * @param line The line.
+     * @param text The text.
+     */
+
+    private void setText(TextItem line, StringBuilder text){
+        if(!line.getText().contentEquals(text)){
+            line.setText(text.toString());
+        }
+    }
+
+    /**
+     * Appends a time in milliseconds with two decimals.
+     *
+     * @param builder The builder.
+     * @param nanos   The time in nanoseconds.
+     */
+
+    private static void appendMillis(StringBuilder builder, long nanos){
+        long hundredths = (nanos + 5_000) / 10_000;
+        builder.append(hundredths / 100).append('.');
+        long decimals = hundredths % 100;
+        if(decimals < 10){
+            builder.append('0');
+        }
+        builder.append(decimals);
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.profiler;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the last samples of a metric in a ring buffer.
+ * <p>Recording a sample never allocates. Percentiles are computed on demand by sorting a copy of the samples into a
+ * scratch array that is allocated once, so reading them is cheap enough to do a few times per second.</p>
+ */
+
+public class RollingStats{
+
+    /**
+     * The samples.
+     */
+    private final long[] samples;
+    /**
+     * The scratch array used to compute the percentiles.
+     */
+    private final long[] sorted;
+    /**
+     * The index where the next sample is written.
+     */
+    private int next;
+    /**
+     * The number of valid samples.
+     */
+    private int count;
+    /**
+     * The sum of the valid samples.
+     */
+    private long sum;
+    /**
+     * The last sample recorded.
+     */
+    private long last;
+    /**
+     * Whether {@link #sorted} reflects {@link #samples}.
+     */
+    private boolean sortedValid;
+
+    /**
+     * Creates a new empty buffer.
+     *
+     * @param capacity The number of samples kept.
+     */
+
+    public RollingStats(int capacity){
+        if(capacity <= 0){
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+        this.samples = new long[capacity];
+        this.sorted = new long[capacity];
+    }
+
+    /**
+     * Records a sample, overwriting the oldest one if the buffer is full.
+     *
+     * @param value The sample.
+     */
+
+    public void record(long value){
+        if(count == samples.length){
+            sum -= samples[next];
+        }else{
+            count++;
+        }
+        samples[next] = value;
+        sum += value;
+        last = value;
+        next = next + 1 == samples.length ? 0 : next + 1;
+        sortedValid = false;
+    }
+
+    /**
+     * Discards all the samples.
+     */
+
+    public void reset(){
+        next = 0;
+        count = 0;
+        sum = 0;
+        last = 0;
+        sortedValid = false;
+    }
+
+    /**
+     * Getter for property 'capacity'.
+     *
+     * @return Value for property 'capacity'.
+     */
+
+    public int getCapacity(){
+        return samples.length;
+    }
+
+    /**
+     * Getter for property 'count'.
+     *
+     * @return Value for property 'count'.
+     */
+
+    public int getCount(){
+        return count;
+    }
+
+    /**
+     * Getter for property 'last'.
+     *
+     * @return Value for property 'last'.
+     */
+
+    public long getLast(){
+        return last;
+    }
+
+    /**
+     * Returns the mean of the samples.
+     *
+     * @return The mean, 0 if there are no samples.
+     */
+
+    public double getMean(){
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the smallest sample.
+     *
+     * @return The minimum, 0 if there are no samples.
+     */
+
+    public long getMin(){
+        return percentile(0);
+    }
+
+    /**
+     * Returns the largest sample.
+     *
+     * @return The maximum, 0 if there are no samples.
+     */
+
+    public long getMax(){
+        return percentile(100);
+    }
+
+    /**
+     * Returns the given percentile of the samples, using the nearest rank.
+     *
+     * @param percent The percentile, between 0 and 100.
+     *
+     * @return The percentile, 0 if there are no samples.
+     */
+
+    public long percentile(double percent){
+        if(count == 0){
+            return 0;
+        }
+        if(!sortedValid){
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            sortedValid = true;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+}
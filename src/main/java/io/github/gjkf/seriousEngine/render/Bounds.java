@@ -0,0 +1,356 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Bounding volumes of a set of points: an axis-aligned box and a sphere.
+ * <p>The sphere is centered in the center of the box. Bounds are mutable and every operation writes into an existing
+ * object, so they can be updated every frame without allocating.</p>
+ * <p>Empty bounds have a minimum greater than the maximum and a negative radius, and never intersect anything.</p>
+ */
+
+public class Bounds{
+
+    /**
+     * The minimum corner of the box.
+     */
+    private final Vector3f min;
+    /**
+     * The maximum corner of the box.
+     */
+    private final Vector3f max;
+    /**
+     * The center of the box and of the sphere.
+     */
+    private final Vector3f center;
+    /**
+     * The radius of the sphere.
+     */
+    private float radius;
+
+    /**
+     * Creates empty bounds.
+     */
+
+    public Bounds(){
+        min = new Vector3f();
+        max = new Vector3f();
+        center = new Vector3f();
+        setEmpty();
+    }
+
+    /**
+     * Creates the bounds of the given positions.
+     *
+     * @param positions The positions, three floats each.
+     */
+
+    public Bounds(float[] positions){
+        this();
+        set(positions);
+    }
+
+    /**
+     * Makes these bounds empty.
+     *
+     * @return This.
+     */
+
+    public Bounds setEmpty(){
+        min.set(Float.POSITIVE_INFINITY);
+        max.set(Float.NEGATIVE_INFINITY);
+        center.set(0);
+        radius = -1;
+        return this;
+    }
+
+    /**
+     * Sets these bounds to the ones of the given positions.
+     * <p>The sphere is centered in the box and its radius is the distance of the farthest position.</p>
+     *
+     * @param positions The positions, three floats each.
+     *
+     * @return This.
+     */
+
+    public Bounds set(float[] positions){
+        setEmpty();
+        int length = positions.length - positions.length % 3;
+        if(length == 0){
+            return this;
+        }
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        for(int i = 0; i < length; i += 3){
+            float x = positions[i];
+            float y = positions[i + 1];
+            float z = positions[i + 2];
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+        min.set(minX, minY, minZ);
+        max.set(maxX, maxY, maxZ);
+        center.set(minX + maxX, minY + maxY, minZ + maxZ).mul(0.5f);
+
+        float maxDistanceSquared = 0;
+        for(int i = 0; i < length; i += 3){
+            float dx = positions[i] - center.x;
+            float dy = positions[i + 1] - center.y;
+            float dz = positions[i + 2] - center.z;
+            maxDistanceSquared = Math.max(maxDistanceSquared, dx * dx + dy * dy + dz * dz);
+        }
+        radius = (float) Math.sqrt(maxDistanceSquared);
+        return this;
+    }
+
+    /**
+     * Sets these bounds to the given box.
+     * <p>The sphere encloses the whole box.</p>
+     *
+     * @param minX The minimum X.
+     * @param minY The minimum Y.
+     * @param minZ The minimum Z.
+     * @param maxX The maximum X.
+     * @param maxY The maximum Y.
+     * @param maxZ The maximum Z.
+     *
+     * @return This.
+     */
+
+    public Bounds set(float minX, float minY, float minZ, float maxX, float maxY, float maxZ){
+        min.set(minX, minY, minZ);
+        max.set(maxX, maxY, maxZ);
+        return updateSphere();
+    }
+
+    /**
+     * Sets these bounds to the given box.
+     *
+     * @param min The minimum corner.
+     * @param max The maximum corner.
+     *
+     * @return This.
+     *
+     * @see #set(float, float, float, float, float, float)
+     */
+
+    public Bounds set(Vector3f min, Vector3f max){
+        return set(min.x, min.y, min.z, max.x, max.y, max.z);
+    }
+
+    /**
+     * Sets every property of these bounds, as previously read from other bounds.
+     *
+     * @param min    The minimum corner.
+     * @param max    The maximum corner.
+     * @param center The center of the sphere.
+     * @param radius The radius of the sphere, negative if the bounds are empty.
+     *
+     * @return This.
+     */
+
+    public Bounds set(Vector3f min, Vector3f max, Vector3f center, float radius){
+        this.min.set(min);
+        this.max.set(max);
+        this.center.set(center);
+        this.radius = radius;
+        return this;
+    }
+
+    /**
+     * Copies the given bounds.
+     *
+     * @param other The bounds to copy.
+     *
+     * @return This.
+     */
+
+    public Bounds set(Bounds other){
+        min.set(other.min);
+        max.set(other.max);
+        center.set(other.center);
+        radius = other.radius;
+        return this;
+    }
+
+    /**
+     * Grows these bounds to include the given ones.
+     * <p>The sphere of the result encloses the resulting box.</p>
+     *
+     * @param other The other bounds.
+     *
+     * @return This.
+     */
+
+    public Bounds union(Bounds other){
+        if(other.isEmpty()){
+            return this;
+        }
+        if(isEmpty()){
+            return set(other);
+        }
+        min.min(other.min);
+        max.max(other.max);
+        return updateSphere();
+    }
+
+    /**
+     * Transforms these bounds by a scale, a rotation and a translation, in this order, and stores the result in
+     * <tt>dest</tt>.
+     * <p>The box of the result is the smallest axis-aligned box that contains the transformed box.</p>
+     *
+     * @param position The translation.
+     * @param rotation The rotation.
+     * @param scale    The scale.
+     * @param dest     Where to store the result. Can be this.
+     *
+     * @return <tt>dest</tt>.
+     */
+
+    public Bounds transform(Vector3f position, Quaternionf rotation, float scale, Bounds dest){
+        if(isEmpty()){
+            return dest.setEmpty();
+        }
+        // Rotation matrix of the quaternion
+        float w2 = rotation.w * rotation.w, x2 = rotation.x * rotation.x;
+        float y2 = rotation.y * rotation.y, z2 = rotation.z * rotation.z;
+        float xy = rotation.x * rotation.y, zw = rotation.z * rotation.w;
+        float xz = rotation.x * rotation.z, yw = rotation.y * rotation.w;
+        float yz = rotation.y * rotation.z, xw = rotation.x * rotation.w;
+        float m00 = w2 + x2 - z2 - y2, m01 = xy + zw + zw + xy, m02 = xz - yw + xz - yw;
+        float m10 = -zw + xy - zw + xy, m11 = y2 - z2 + w2 - x2, m12 = yz + yz + xw + xw;
+        float m20 = yw + xz + xz + yw, m21 = yz + yz - xw - xw, m22 = z2 - y2 - x2 + w2;
+
+        float cx = center.x, cy = center.y, cz = center.z;
+        float ex = (max.x - min.x) * 0.5f, ey = (max.y - min.y) * 0.5f, ez = (max.z - min.z) * 0.5f;
+        float absScale = Math.abs(scale);
+
+        // Rotated and scaled center
+        float wcx = (m00 * cx + m10 * cy + m20 * cz) * scale + position.x;
+        float wcy = (m01 * cx + m11 * cy + m21 * cz) * scale + position.y;
+        float wcz = (m02 * cx + m12 * cy + m22 * cz) * scale + position.z;
+        // Extents of the rotated box
+        float wex = (Math.abs(m00) * ex + Math.abs(m10) * ey + Math.abs(m20) * ez) * absScale;
+        float wey = (Math.abs(m01) * ex + Math.abs(m11) * ey + Math.abs(m21) * ez) * absScale;
+        float wez = (Math.abs(m02) * ex + Math.abs(m12) * ey + Math.abs(m22) * ez) * absScale;
+
+        float wr = radius * absScale;
+        dest.min.set(wcx - wex, wcy - wey, wcz - wez);
+        dest.max.set(wcx + wex, wcy + wey, wcz + wez);
+        dest.center.set(wcx, wcy, wcz);
+        dest.radius = wr;
+        return dest;
+    }
+
+    /**
+     * Returns whether the boxes of these and the given bounds overlap.
+     *
+     * @param other The other bounds.
+     *
+     * @return Whether they intersect.
+     */
+
+    public boolean intersects(Bounds other){
+        return min.x <= other.max.x && max.x >= other.min.x
+                && min.y <= other.max.y && max.y >= other.min.y
+                && min.z <= other.max.z && max.z >= other.min.z;
+    }
+
+    /**
+     * Returns whether the box contains the given point.
+     *
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     *
+     * @return Whether it is inside.
+     */
+
+    public boolean contains(float x, float y, float z){
+        return x >= min.x && x <= max.x && y >= min.y && y <= max.y && z >= min.z && z <= max.z;
+    }
+
+    /**
+     * Returns whether these bounds are empty.
+     *
+     * @return Whether they are empty.
+     */
+
+    public boolean isEmpty(){
+        return radius < 0;
+    }
+
+    /**
+     * Getter for property 'min'.
+     * <p>The returned vector must not be modified.</p>
+     *
+     * @return Value for property 'min'.
+     */
+
+    public Vector3f getMin(){
+        return min;
+    }
+
+    /**
+     * Getter for property 'max'.
+     * <p>The returned vector must not be modified.</p>
+     *
+     * @return Value for property 'max'.
+     */
+
+    public Vector3f getMax(){
+        return max;
+    }
+
+    /**
+     * Getter for property 'center'.
+     * <p>The returned vector must not be modified.</p>
+     *
+     * @return Value for property 'center'.
+     */
+
+    public Vector3f getCenter(){
+        return center;
+    }
+
+    /**
+     * Getter for property 'radius'.
+     *
+     * @return Value for property 'radius'.
+     */
+
+    public float getRadius(){
+        return radius;
+    }
+
+    /**
+     * Centers the sphere in the box and makes it enclose the box.
+     *
+     * @return This.
+     */
+
+    private Bounds updateSphere(){
+        center.set(min).add(max).mul(0.5f);
+        radius = center.distance(max);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public String toString(){
+        return "[min: " + min + ", max: " + max + ", center: " + center + ", radius: " + radius + "]";
+    }
+
+}
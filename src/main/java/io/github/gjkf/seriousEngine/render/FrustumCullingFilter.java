@@ -0,0 +1,217 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render;
+
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.spatial.ISpatialCallback;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.util.*;
+
+/**
+ * Removes the items that are outside of a view volume.
+ * <p>The volume is given by a projection and a view matrix, the camera perspective for the scene or the light ortho
+ * projection for the shadow map. Every item is tested with its world bounds, first the sphere and then, for the items
+ * that straddle a plane, the box.</p>
+ * <p>A whole {@link Scene} is filtered through its spatial index with {@link #filter(Scene)}, which skips the subtrees
+ * outside of the volume. The items found are then matched against the lists of the meshes of the scene, and the
+ * visible items of each mesh are read with {@link #getVisibleItems(Mesh)}. The lists of the scene decide which mesh an
+ * item is drawn with, as when the items are not culled.</p>
+ * <p>The visible items are written to a list kept for each mesh of the scene and reused every frame, so filtering
+ * does not allocate once every mesh has been seen. The lists of the meshes that left the scene are dropped.</p>
+ */
+
+public class FrustumCullingFilter{
+
+    /**
+     * The projection matrix times the view matrix.
+     */
+    private final Matrix4f projViewMatrix;
+    /**
+     * The frustum planes.
+     */
+    private final FrustumIntersection frustumInt;
+    /**
+     * The list of visible items of each mesh.
+     */
+    private final Map<Mesh, List<Item>> visibleItems;
+    /**
+     * The items found inside the frustum by the spatial index.
+     */
+    private final Set<Item> insideItems;
+    /**
+     * Adds the items found by the spatial index to the lists of their meshes.
+     */
+    private final ISpatialCallback collector;
+
+    /**
+     * Creates a new filter.
+     */
+
+    public FrustumCullingFilter(){
+        projViewMatrix = new Matrix4f();
+        frustumInt = new FrustumIntersection();
+        visibleItems = new HashMap<>();
+        insideItems = Collections.newSetFromMap(new IdentityHashMap<>());
+        collector = this::collect;
+    }
+
+    /**
+     * Updates the frustum planes.
+     *
+     * @param projMatrix The projection matrix.
+     * @param viewMatrix The view matrix.
+     */
+
+    public void updateFrustum(Matrix4f projMatrix, Matrix4f viewMatrix){
+        projViewMatrix.set(projMatrix).mul(viewMatrix);
+        frustumInt.set(projViewMatrix);
+    }
+
+    /**
+     * Returns whether a sphere is at least partially inside the frustum.
+     *
+     * @param center The center of the sphere.
+     * @param radius The radius of the sphere.
+     *
+     * @return Whether it is inside.
+     */
+
+    public boolean insideFrustum(Vector3f center, float radius){
+        return frustumInt.testSphere(center.x, center.y, center.z, radius);
+    }
+
+    /**
+     * Returns whether bounds are at least partially inside the frustum.
+     *
+     * @param bounds The bounds.
+     *
+     * @return Whether they are inside.
+     */
+
+    public boolean insideFrustum(Bounds bounds){
+        if(bounds.isEmpty()){
+            return false;
+        }
+        Vector3f center = bounds.getCenter();
+        int result = frustumInt.intersectSphere(center.x, center.y, center.z, bounds.getRadius());
+        if(result == FrustumIntersection.INSIDE){
+            return true;
+        }
+        return result == FrustumIntersection.INTERSECT && frustumInt.testAab(bounds.getMin(), bounds.getMax());
+    }
+
+    /**
+     * Returns the items of a mesh that are inside the frustum.
+     * <p>The returned list belongs to the filter and is overwritten the next time the same mesh is filtered.</p>
+     *
+     * @param mesh  The mesh.
+     * @param items The items rendered with the mesh.
+     *
+     * @return The visible items.
+     */
+
+    public List<Item> filter(Mesh mesh, List<Item> items){
+        List<Item> visible = visibleItems.get(mesh);
+        if(visible == null){
+            visible = new ArrayList<>(items.size());
+            visibleItems.put(mesh, visible);
+        }
+        visible.clear();
+
+        int numItems = items.size();
+        for(int i = 0; i < numItems; i++){
+            Item item = items.get(i);
+            if(insideFrustum(item.getWorldBounds())){
+                visible.add(item);
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Finds the items of a scene that are inside the frustum.
+     * <p>The results are read with {@link #getVisibleItems(Mesh)} and are valid until the next call.</p>
+     *
+     * @param scene The scene.
+     */
+
+    public void filter(Scene scene){
+        insideItems.clear();
+        scene.getSpatialIndex().query(frustumInt, collector);
+
+        Map<Mesh, List<Item>> meshes = scene.getMeshes();
+        Map<InstancedMesh, List<Item>> instancedMeshes = scene.getInstancedMeshes();
+        visibleItems.keySet().removeIf(mesh -> !meshes.containsKey(mesh) && !instancedMeshes.containsKey(mesh));
+        collectVisible(meshes);
+        collectVisible(instancedMeshes);
+        insideItems.clear();
+    }
+
+    /**
+     * Fills the lists of visible items of some meshes with their items found inside the frustum.
+     *
+     * @param meshes The meshes and their items.
+     */
+
+    private void collectVisible(Map<? extends Mesh, List<Item>> meshes){
+        for(Map.Entry<? extends Mesh, List<Item>> entry : meshes.entrySet()){
+            List<Item> items = entry.getValue();
+            List<Item> visible = visibleItems.get(entry.getKey());
+            if(visible == null){
+                visible = new ArrayList<>(items.size());
+                visibleItems.put(entry.getKey(), visible);
+            }
+            visible.clear();
+
+            int numItems = items.size();
+            for(int i = 0; i < numItems; i++){
+                Item item = items.get(i);
+                if(insideItems.contains(item)){
+                    visible.add(item);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the visible items of a mesh found by the last call to {@link #filter(Scene)}.
+     * <p>The returned list belongs to the filter.</p>
+     *
+     * @param mesh The mesh.
+     *
+     * @return The visible items.
+     */
+
+    public List<Item> getVisibleItems(Mesh mesh){
+        List<Item> visible = visibleItems.get(mesh);
+        return visible != null ? visible : Collections.emptyList();
+    }
+
+    /**
+     * Remembers an item found inside the frustum.
+     *
+     * @param item The item.
+     *
+     * @return Always true, to visit every item.
+     */
+
+    private boolean collect(Item item){
+        insideItems.add(item);
+        return true;
+    }
+
+    /**
+     * Forgets the lists of the meshes that have been filtered.
+     * <p>Should be called when the meshes of the scene change.</p>
+     */
+
+    public void clear(){
+        visibleItems.clear();
+    }
+
+}
@@ -61,6 +61,20 @@ public class HeightMapMesh{
      */
 
     public HeightMapMesh(float minY, float maxY, BufferedImage heightMapImage, String textureFile, int textInc) throws Exception{
+        this(minY, maxY, heightMapImage, new Texture(textureFile), textInc);
+    }
+
+    /**
+     * Constructs a new object reading an image and creating a mesh from it, with an already loaded texture.
+     *
+     * @param minY           The minimum value the Y coordinate of the terrain can get.
+     * @param maxY           The maximum value the Y coordinate of the terrain can get.
+     * @param heightMapImage The file from which read the height map.
+     * @param texture        The texture, deleted with the mesh.
+     * @param textInc        The amount of texture between vertices.
+     */
+
+    public HeightMapMesh(float minY, float maxY, BufferedImage heightMapImage, Texture texture, int textInc){
         this.minY = minY;
         this.maxY = maxY;
 
@@ -69,8 +83,6 @@ public class HeightMapMesh{
 
         heightArray = new float[height][width];
 
-        Texture texture = new Texture(textureFile);
-
         float incx = getXLength() / (width - 1);
         float incz = getZLength() / (height - 1);
 
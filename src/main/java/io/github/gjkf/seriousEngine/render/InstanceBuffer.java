@@ -0,0 +1,325 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render;
+
+import io.github.gjkf.seriousEngine.render.device.IGraphicsDevice;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.ARBBufferStorage.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.ARBBufferStorage.GL_MAP_PERSISTENT_BIT;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_DYNAMIC_DRAW;
+import static org.lwjgl.opengl.GL30.GL_MAP_WRITE_BIT;
+import static org.lwjgl.opengl.GL32.*;
+
+/**
+ * The instance data of an {@link InstancedMesh}, kept on the GPU from one frame to the next.
+ * <p>Every instance has a slot, whose data is written to the GPU only when it changes. The data is first written to a
+ * CPU copy with {@link #getData()} and {@link #markChanged(int)}, then {@link #flush(int)} streams the changed slots.</p>
+ * <p>When immutable buffer storage is supported the buffer is mapped once, persistently, and split into
+ * {@link #SECTIONS} sections used as a ring: a frame with changes writes them to the next section while the GPU may
+ * still read the previous ones, and a fence placed after the draws tells when a section can be written again. A slot
+ * stays pending until it is written to every section. Without buffer storage a single section is updated in place
+ * with <tt>glBufferSubData</tt>, over the range of the changed slots.</p>
+ */
+
+final class InstanceBuffer{
+
+    /**
+     * The number of sections of the ring, one per frame the GPU can lag behind.
+     */
+    static final int SECTIONS = 3;
+    /**
+     * The time waited for a fence at once, in nanoseconds.
+     */
+    private static final long FENCE_TIMEOUT = 1_000_000;
+    /**
+     * The device.
+     */
+    private final IGraphicsDevice device;
+    /**
+     * The number of floats of an instance.
+     */
+    private final int instanceSize;
+    /**
+     * Whether the buffer is persistently mapped and split into sections.
+     */
+    private final boolean persistent;
+    /**
+     * The number of sections.
+     */
+    private final int sectionCount;
+    /**
+     * The fence placed after the last draw reading each section, <tt>0</tt> if none.
+     */
+    private final long[] fences;
+    /**
+     * The ID of the buffer.
+     */
+    private int vbo;
+    /**
+     * The number of instances of a section.
+     */
+    private int capacity;
+    /**
+     * The CPU copy of the data.
+     */
+    private float[] data;
+    /**
+     * The number of sections each slot still has to be written to.
+     */
+    private int[] pending;
+    /**
+     * Whether a slot changed since the last flush.
+     */
+    private boolean changed;
+    /**
+     * The number of instances of the last flush.
+     */
+    private int flushedCount;
+    /**
+     * The whole buffer when mapped, or the data uploaded from otherwise.
+     */
+    private FloatBuffer target;
+    /**
+     * The section drawn.
+     */
+    private int section;
+
+    /**
+     * Creates the buffer.
+     *
+     * @param device       The device.
+     * @param instanceSize The number of floats of an instance.
+     * @param capacity     The initial number of instances.
+     */
+
+    InstanceBuffer(IGraphicsDevice device, int instanceSize, int capacity){
+        this.device = device;
+        this.instanceSize = instanceSize;
+        this.persistent = device.isBufferStorageSupported();
+        this.sectionCount = persistent ? SECTIONS : 1;
+        this.fences = new long[sectionCount];
+        this.data = new float[0];
+        this.pending = new int[0];
+        allocate(Math.max(1, capacity));
+    }
+
+    /**
+     * Makes room for a number of instances, replacing the GPU buffer if needed.
+     *
+     * @param count The number of instances.
+     *
+     * @return Whether the buffer was replaced, in which case its attributes must be set again.
+     */
+
+    boolean ensureCapacity(int count){
+        if(count <= capacity){
+            return false;
+        }
+        device.deleteBuffers(vbo);
+        allocate(Math.max(count, capacity * 2));
+        return true;
+    }
+
+    /**
+     * Creates the GPU buffer, and marks every slot as changed.
+     *
+     * @param capacity The number of instances of a section.
+     */
+
+    private void allocate(int capacity){
+        deleteFences();
+        this.capacity = capacity;
+        data = Arrays.copyOf(data, capacity * instanceSize);
+        pending = new int[capacity];
+        Arrays.fill(pending, sectionCount);
+        changed = true;
+        section = 0;
+        long sectionBytes = (long) capacity * instanceSize * Float.BYTES;
+        vbo = device.genBuffers();
+        device.bindBuffer(GL_ARRAY_BUFFER, vbo);
+        if(persistent){
+            int flags = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+            device.bufferStorage(GL_ARRAY_BUFFER, sectionBytes * sectionCount, flags);
+            target = device.mapBufferRange(GL_ARRAY_BUFFER, 0, sectionBytes * sectionCount, flags)
+                    .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }else{
+            device.bufferData(GL_ARRAY_BUFFER, sectionBytes, GL_DYNAMIC_DRAW);
+            target = BufferUtils.createFloatBuffer(capacity * instanceSize);
+        }
+        device.bindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Marks a slot as changed, once its data is written.
+     *
+     * @param slot The slot.
+     */
+
+    void markChanged(int slot){
+        pending[slot] = sectionCount;
+        changed = true;
+    }
+
+    /**
+     * Writes the changed slots to the GPU.
+     * <p>Without changes since the last flush, and without more instances than then, nothing is written and the same
+     * section is drawn again.</p>
+     *
+     * @param count The number of instances to draw.
+     *
+     * @return The offset of the section to draw, in bytes.
+     */
+
+    long flush(int count){
+        if(count > flushedCount){
+            changed = true;
+        }
+        flushedCount = count;
+        if(changed){
+            changed = false;
+            if(persistent){
+                section = (section + 1) % sectionCount;
+                waitFence(section);
+                int base = section * capacity * instanceSize;
+                for(int i = 0; i < count; i++){
+                    if(pending[i] > 0){
+                        pending[i]--;
+                        target.position(base + i * instanceSize);
+                        target.put(data, i * instanceSize, instanceSize);
+                    }
+                }
+            }else{
+                int first = -1, last = -1;
+                for(int i = 0; i < count; i++){
+                    if(pending[i] > 0){
+                        pending[i] = 0;
+                        first = first < 0 ? i : first;
+                        last = i;
+                    }
+                }
+                if(first >= 0){
+                    target.clear();
+                    target.put(data, first * instanceSize, (last - first + 1) * instanceSize).flip();
+                    device.bindBuffer(GL_ARRAY_BUFFER, vbo);
+                    device.bufferSubData(GL_ARRAY_BUFFER, (long) first * instanceSize * Float.BYTES, target);
+                    device.bindBuffer(GL_ARRAY_BUFFER, 0);
+                }
+            }
+        }
+        return (long) section * capacity * instanceSize * Float.BYTES;
+    }
+
+    /**
+     * Places a fence after the draws reading the current section.
+     */
+
+    void fence(){
+        if(persistent){
+            if(fences[section] != 0){
+                device.deleteSync(fences[section]);
+            }
+            fences[section] = device.fenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        }
+    }
+
+    /**
+     * Waits until the GPU is done reading a section.
+     *
+     * @param section The section.
+     */
+
+    private void waitFence(int section){
+        long fence = fences[section];
+        if(fence == 0){
+            return;
+        }
+        int result;
+        do{
+            result = device.clientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT);
+        }while(result == GL_TIMEOUT_EXPIRED);
+        device.deleteSync(fence);
+        fences[section] = 0;
+    }
+
+    /**
+     * Deletes the fences.
+     */
+
+    private void deleteFences(){
+        for(int i = 0; i < fences.length; i++){
+            if(fences[i] != 0){
+                device.deleteSync(fences[i]);
+                fences[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Deletes the buffer and the fences.
+     */
+
+    void cleanup(){
+        deleteFences();
+        device.deleteBuffers(vbo);
+    }
+
+    /**
+     * Getter for property 'vbo'.
+     *
+     * @return Value for property 'vbo'.
+     */
+
+    int getVbo(){
+        return vbo;
+    }
+
+    /**
+     * Returns the CPU copy of the data, {@link #getInstanceSize()} floats per slot. It is replaced when the capacity
+     * grows.
+     *
+     * @return The data.
+     */
+
+    float[] getData(){
+        return data;
+    }
+
+    /**
+     * Getter for property 'instanceSize'.
+     *
+     * @return Value for property 'instanceSize'.
+     */
+
+    int getInstanceSize(){
+        return instanceSize;
+    }
+
+    /**
+     * Getter for property 'capacity'.
+     *
+     * @return Value for property 'capacity'.
+     */
+
+    int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * Getter for property 'persistent'.
+     *
+     * @return Value for property 'persistent'.
+     */
+
+    boolean isPersistent(){
+        return persistent;
+    }
+
+}
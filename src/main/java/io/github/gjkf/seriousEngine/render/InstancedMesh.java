@@ -5,22 +5,29 @@
 package io.github.gjkf.seriousEngine.render;
 
 import io.github.gjkf.seriousEngine.items.Item;
-import org.joml.Matrix4f;
-import org.lwjgl.BufferUtils;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
 
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL15.*;
-import static org.lwjgl.opengl.GL20.*;
-import static org.lwjgl.opengl.GL30.glBindVertexArray;
-import static org.lwjgl.opengl.GL31.glDrawElementsInstanced;
-import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
 
 /**
  * A more efficient {@link Mesh} that does not support animations.
  * <p>Takes advantage of the OpenGL <tt>glDraw*Instanced</tt> methods to have better performance.</p>
+ * <p>The instance data is in world space: the model matrix and the texture offset of each item. The view and light
+ * view matrices are uniforms, so moving the camera does not change the data. Each item of the rendered list keeps a
+ * slot in an {@link InstanceBuffer}, and only the slots whose item or transform changed since the last frame are
+ * written again. As the data is the same in the shadow and scene passes, the second pass writes nothing.</p>
+ * <p>Only the visible items are drawn: each contiguous run of visible slots is one draw, with the instance attributes
+ * pointing to the first slot of the run. The slots of the hidden items keep their data, so an item coming back into
+ * view is not written again.</p>
  */
 
 public class InstancedMesh extends Mesh{
@@ -37,30 +44,54 @@ public class InstancedMesh extends Mesh{
      * The matrix's size.
      */
     private static final int MATRIX_SIZE_FLOATS = 4 * 4;
-    /**
-     * The matrix's size in bytes.
-     */
-    private static final int MATRIX_SIZE_BYTES = MATRIX_SIZE_FLOATS * FLOAT_SIZE_BYTES;
     /**
      * The size of an instance (bytes) in bytes.
      */
-    private static final int INSTANCE_SIZE_BYTES = MATRIX_SIZE_BYTES * 2 + FLOAT_SIZE_BYTES * 2;
+    private static final int INSTANCE_SIZE_BYTES = MATRIX_SIZE_FLOATS * FLOAT_SIZE_BYTES + FLOAT_SIZE_BYTES * 2;
     /**
      * The size of an instance (floats) in bytes.
      */
-    private static final int INSTANCE_SIZE_FLOATS = MATRIX_SIZE_FLOATS * 2 + 2;
+    private static final int INSTANCE_SIZE_FLOATS = MATRIX_SIZE_FLOATS + 2;
+    /**
+     * The location of the first column of the model matrix attribute.
+     */
+    private static final int MODEL_MATRIX_LOCATION = 5;
+    /**
+     * The location of the texture offset attribute.
+     */
+    private static final int TEXTURE_OFFSET_LOCATION = 13;
+    /**
+     * The number of floats of the transform remembered for each slot: position, rotation, scale and texture position.
+     */
+    private static final int STATE_SIZE = 9;
+    /**
+     * The instance data.
+     */
+    private final InstanceBuffer instanceBuffer;
+    /**
+     * The item of each slot at the last frame.
+     */
+    private Item[] slotItems;
     /**
-     * The number of instances.
+     * The transform of each slot at the last frame, {@link #STATE_SIZE} floats each.
      */
-    private final int numInstances;
+    private float[] slotStates;
     /**
-     * The instance data of the VBO.
+     * Whether the item of each slot is visible in the current draw.
      */
-    private final int instanceDataVBO;
+    private boolean[] slotVisible;
     /**
-     * The data buffer.
+     * The slot of each item.
      */
-    private final FloatBuffer instanceDataBuffer;
+    private final Map<Item, Integer> itemSlots;
+    /**
+     * The number of slots holding an item.
+     */
+    private int slotCount;
+    /**
+     * The offset the instance attributes point to, <tt>-1</tt> if they must be set.
+     */
+    private long attributeOffset;
 
     /**
      * Creates a new InstancedMesh
@@ -69,162 +100,279 @@ public class InstancedMesh extends Mesh{
      * @param textCoords   The texture coordinate's array.
      * @param normals      The normal's array.
      * @param indices      The indices's array.
-     * @param numInstances The number of instances
+     * @param numInstances The initial number of instances, grown as needed.
      */
 
     public InstancedMesh(float[] positions, float[] textCoords, float[] normals, int[] indices, int numInstances){
         super(positions, textCoords, normals, indices, createEmptyIntArray(MAX_WEIGHTS * positions.length / 3, 0), createEmptyFloatArray(MAX_WEIGHTS * positions.length / 3, 0));
 
-        this.numInstances = numInstances;
+        this.instanceBuffer = new InstanceBuffer(device, INSTANCE_SIZE_FLOATS, numInstances);
+        this.itemSlots = new IdentityHashMap<>();
+        initSlots();
+        enableInstanceAttributes();
+    }
+
+    /**
+     * Creates a new InstancedMesh from direct buffers.
+     *
+     * @param positions    The positions.
+     * @param textCoords   The texture coordinates.
+     * @param normals      The normals.
+     * @param indices      The indices.
+     * @param bounds       The bounds of the positions.
+     * @param numInstances The initial number of instances, grown as needed.
+     *
+     * @see Mesh#Mesh(FloatBuffer, FloatBuffer, FloatBuffer, IntBuffer, IntBuffer, FloatBuffer, Bounds)
+     */
+
+    public InstancedMesh(FloatBuffer positions, FloatBuffer textCoords, FloatBuffer normals, IntBuffer indices, Bounds bounds, int numInstances){
+        super(positions, textCoords, normals, indices, null, null, bounds);
 
-        glBindVertexArray(vaoId);
+        this.instanceBuffer = new InstanceBuffer(device, INSTANCE_SIZE_FLOATS, numInstances);
+        this.itemSlots = new IdentityHashMap<>();
+        initSlots();
+        enableInstanceAttributes();
+    }
 
-        // Model View Matrix
-        instanceDataVBO = glGenBuffers();
-        vboIdList.add(instanceDataVBO);
-        this.instanceDataBuffer = BufferUtils.createFloatBuffer(numInstances * INSTANCE_SIZE_FLOATS);
-        glBindBuffer(GL_ARRAY_BUFFER, instanceDataVBO);
-        int start = 5;
-        int strideStart = 0;
+    /**
+     * Enables the instance attributes in the VAO, once. They point to the instance buffer from the first draw.
+     */
+
+    private void enableInstanceAttributes(){
+        device.bindVertexArray(vaoId);
         for(int i = 0; i < 4; i++){
-            glVertexAttribPointer(start, 4, GL_FLOAT, false, INSTANCE_SIZE_BYTES, strideStart);
-            glVertexAttribDivisor(start, 1);
-            start++;
-            strideStart += VECTOR4F_SIZE_BYTES;
+            device.enableVertexAttribArray(MODEL_MATRIX_LOCATION + i);
+            device.vertexAttribDivisor(MODEL_MATRIX_LOCATION + i, 1);
         }
+        device.enableVertexAttribArray(TEXTURE_OFFSET_LOCATION);
+        device.vertexAttribDivisor(TEXTURE_OFFSET_LOCATION, 1);
+        device.bindVertexArray(0);
+    }
 
-        // Light view matrix
+    /**
+     * Sizes the slots to the instance buffer and forgets their items.
+     */
+
+    private void initSlots(){
+        int capacity = instanceBuffer.getCapacity();
+        slotItems = slotItems == null ? new Item[capacity] : Arrays.copyOf(slotItems, capacity);
+        slotStates = slotStates == null ? new float[capacity * STATE_SIZE] : Arrays.copyOf(slotStates, capacity * STATE_SIZE);
+        slotVisible = new boolean[capacity];
+        Arrays.fill(slotItems, null);
+        itemSlots.clear();
+        slotCount = 0;
+        attributeOffset = -1;
+    }
+
+    /**
+     * Points the instance attributes to an offset of the instance buffer. The VAO must be bound.
+     *
+     * @param offset The offset of the first instance, in bytes.
+     */
+
+    private void setInstanceAttributes(long offset){
+        device.bindBuffer(GL_ARRAY_BUFFER, instanceBuffer.getVbo());
+        // Model matrix
+        int start = MODEL_MATRIX_LOCATION;
+        long strideStart = offset;
         for(int i = 0; i < 4; i++){
-            glVertexAttribPointer(start, 4, GL_FLOAT, false, INSTANCE_SIZE_BYTES, strideStart);
-            glVertexAttribDivisor(start, 1);
+            device.vertexAttribPointer(start, 4, GL_FLOAT, false, INSTANCE_SIZE_BYTES, strideStart);
             start++;
             strideStart += VECTOR4F_SIZE_BYTES;
         }
 
         // Texture offsets
-        glVertexAttribPointer(start, 2, GL_FLOAT, false, INSTANCE_SIZE_BYTES, strideStart);
-        glVertexAttribDivisor(start, 1);
+        device.vertexAttribPointer(TEXTURE_OFFSET_LOCATION, 2, GL_FLOAT, false, INSTANCE_SIZE_BYTES, strideStart);
 
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        glBindVertexArray(0);
+        device.bindBuffer(GL_ARRAY_BUFFER, 0);
+        attributeOffset = offset;
     }
 
     /**
-     * {@inheritDoc}
+     * Renders a list of instanced items with a single draw call.
+     *
+     * @param items          The items.
+     * @param transformation The transformation.
+     *
+     * @see #renderListInstanced(List, List, Transformation)
      */
 
-    @Override
-    protected void initRender(){
-        super.initRender();
-
-        int start = 5;
-        int numElements = 4 * 2 + 1;
-        for(int i = 0; i < numElements; i++){
-            glEnableVertexAttribArray(start + i);
-        }
+    public void renderListInstanced(List<Item> items, Transformation transformation){
+        renderListInstanced(items, items, transformation);
     }
 
     /**
-     * {@inheritDoc}
+     * Renders the visible items of a list of instanced items.
+     * <p>The view and light view matrices are read from the uniforms of the bound shader. Every item of the list keeps
+     * its slot, so rendering the same list again, in the same order, only writes the items that moved, whichever of
+     * them are visible. Each run of consecutive visible slots is drawn with one call.</p>
+     *
+     * @param items          The items, which give the slots.
+     * @param visible        The visible items among them, in any order, or <tt>items</tt> itself to draw them all.
+     * @param transformation The transformation.
      */
 
-    @Override
-    protected void endRender(){
-        int start = 5;
-        int numElements = 4 * 2 + 1;
-        for(int i = 0; i < numElements; i++){
-            glDisableVertexAttribArray(start + i);
+    public void renderListInstanced(List<Item> items, List<Item> visible, Transformation transformation){
+        int count = items.size();
+        if(count == 0 || visible.isEmpty()){
+            return;
+        }
+        if(instanceBuffer.ensureCapacity(count)){
+            initSlots();
+        }
+
+        Texture text = getMaterial().getTexture();
+        float[] data = instanceBuffer.getData();
+        for(int i = 0; i < count; i++){
+            Item item = items.get(i);
+            if(slotItems[i] == item && !transformChanged(i, item)){
+                continue;
+            }
+            if(slotItems[i] != item){
+                assignSlot(i, item);
+            }
+            storeTransform(i, item);
+            int offset = INSTANCE_SIZE_FLOATS * i;
+            transformation.getModelMatrix(item, data, offset);
+            if(text != null){
+                int col = item.getTextPos() % text.getNumCols();
+                int row = item.getTextPos() / text.getNumCols();
+                data[offset + MATRIX_SIZE_FLOATS] = (float) col / text.getNumCols();
+                data[offset + MATRIX_SIZE_FLOATS + 1] = (float) row / text.getNumRows();
+            }
+            instanceBuffer.markChanged(i);
         }
+        for(int i = count; i < slotCount; i++){
+            assignSlot(i, null);
+        }
+        slotCount = count;
+        long sectionOffset = instanceBuffer.flush(count);
 
-        super.endRender();
+        initRender();
+        if(visible == items){
+            drawRun(sectionOffset, 0, count);
+        }else{
+            Arrays.fill(slotVisible, 0, count, false);
+            for(int i = 0; i < visible.size(); i++){
+                Integer slot = itemSlots.get(visible.get(i));
+                if(slot != null){
+                    slotVisible[slot] = true;
+                }
+            }
+            int first = 0;
+            while(first < count){
+                if(!slotVisible[first]){
+                    first++;
+                    continue;
+                }
+                int last = first + 1;
+                while(last < count && slotVisible[last]){
+                    last++;
+                }
+                drawRun(sectionOffset, first, last - first);
+                first = last;
+            }
+        }
+        instanceBuffer.fence();
+        endRender();
     }
 
     /**
-     * Renders a list of instanced items.
+     * Draws consecutive slots of the instance buffer. The VAO must be bound.
      *
-     * @param items           The items.
-     * @param transformation  The transformation.
-     * @param viewMatrix      The view matrix.
-     * @param lightViewMatrix The light view matrix.
+     * @param sectionOffset The offset of the section written this frame, in bytes.
+     * @param first         The first slot.
+     * @param count         The number of slots.
      */
 
-    public void renderListInstanced(List<Item> items, Transformation transformation, Matrix4f viewMatrix, Matrix4f lightViewMatrix){
-        renderListInstanced(items, false, transformation, viewMatrix, lightViewMatrix);
+    private void drawRun(long sectionOffset, int first, int count){
+        long offset = sectionOffset + (long) first * INSTANCE_SIZE_BYTES;
+        if(offset != attributeOffset){
+            setInstanceAttributes(offset);
+        }
+        device.drawElementsInstanced(GL_TRIANGLES, getVertexCount(), GL_UNSIGNED_INT, 0, count);
     }
 
     /**
-     * Renders a list of instanced items.
+     * Gives a slot to an item, forgetting the slot of the item it held.
      *
-     * @param items           The items.
-     * @param billBoard       If the items are particles.
-     * @param transformation  The transformation.
-     * @param viewMatrix      The view matrix.
-     * @param lightViewMatrix The light view matrix.
+     * @param slot The slot.
+     * @param item The item, <tt>null</tt> to empty the slot.
      */
 
-    public void renderListInstanced(List<Item> items, boolean billBoard, Transformation transformation, Matrix4f viewMatrix, Matrix4f lightViewMatrix){
-        initRender();
-
-        int chunkSize = numInstances;
-        int length = items.size();
-        for(int i = 0; i < length; i += chunkSize){
-            int end = Math.min(length, i + chunkSize);
-            List<Item> subList = items.subList(i, end);
-            renderChunkInstanced(subList, billBoard, transformation, viewMatrix, lightViewMatrix);
+    private void assignSlot(int slot, Item item){
+        Item previous = slotItems[slot];
+        if(previous != null){
+            Integer previousSlot = itemSlots.get(previous);
+            if(previousSlot != null && previousSlot == slot){
+                itemSlots.remove(previous);
+            }
+        }
+        slotItems[slot] = item;
+        if(item != null){
+            itemSlots.put(item, slot);
         }
-
-        endRender();
     }
 
     /**
-     * Renders a chunk of items.
+     * Returns whether the transform of an item differs from the one remembered for a slot.
+     *
+     * @param slot The slot.
+     * @param item The item.
      *
-     * @param items           The items.
-     * @param billBoard       If the items are particles.
-     * @param transformation  The transformation.
-     * @param viewMatrix      The view matrix.
-     * @param lightViewMatrix The light view matrix.
+     * @return Whether it changed.
      */
 
-    private void renderChunkInstanced(List<Item> items, boolean billBoard, Transformation transformation, Matrix4f viewMatrix, Matrix4f lightViewMatrix){
-        this.instanceDataBuffer.clear();
+    private boolean transformChanged(int slot, Item item){
+        int o = slot * STATE_SIZE;
+        Vector3f position = item.getPosition();
+        Quaternionf rotation = item.getRotation();
+        return slotStates[o] != position.x || slotStates[o + 1] != position.y || slotStates[o + 2] != position.z
+                || slotStates[o + 3] != rotation.x || slotStates[o + 4] != rotation.y || slotStates[o + 5] != rotation.z
+                || slotStates[o + 6] != rotation.w || slotStates[o + 7] != item.getScale()
+                || slotStates[o + 8] != item.getTextPos();
+    }
 
-        int i = 0;
+    /**
+     * Remembers the transform of an item for a slot.
+     *
+     * @param slot The slot.
+     * @param item The item.
+     */
 
-        Texture text = getMaterial().getTexture();
-        for(Item gameItem : items){
-            Matrix4f modelMatrix = transformation.buildModelMatrix(gameItem);
-            if(viewMatrix != null){
-                if(billBoard){
-                    viewMatrix.transpose3x3(modelMatrix);
-                }
-                Matrix4f modelViewMatrix = transformation.buildModelViewMatrix(modelMatrix, viewMatrix);
-                modelViewMatrix.get(INSTANCE_SIZE_FLOATS * i, instanceDataBuffer);
-            }
-            if(lightViewMatrix != null){
-                Matrix4f modelLightViewMatrix = transformation.buildModelLightViewMatrix(modelMatrix, lightViewMatrix);
-                modelLightViewMatrix.get(INSTANCE_SIZE_FLOATS * i + MATRIX_SIZE_FLOATS, this.instanceDataBuffer);
-            }
-            if(text != null){
-                int col = gameItem.getTextPos() % text.getNumCols();
-                int row = gameItem.getTextPos() / text.getNumCols();
-                float textXOffset = (float) col / text.getNumCols();
-                float textYOffset = (float) row / text.getNumRows();
-                int buffPos = INSTANCE_SIZE_FLOATS * i + MATRIX_SIZE_FLOATS * 2;
-                this.instanceDataBuffer.put(buffPos, textXOffset);
-                this.instanceDataBuffer.put(buffPos + 1, textYOffset);
-            }
+    private void storeTransform(int slot, Item item){
+        int o = slot * STATE_SIZE;
+        Vector3f position = item.getPosition();
+        Quaternionf rotation = item.getRotation();
+        slotStates[o] = position.x;
+        slotStates[o + 1] = position.y;
+        slotStates[o + 2] = position.z;
+        slotStates[o + 3] = rotation.x;
+        slotStates[o + 4] = rotation.y;
+        slotStates[o + 5] = rotation.z;
+        slotStates[o + 6] = rotation.w;
+        slotStates[o + 7] = item.getScale();
+        slotStates[o + 8] = item.getTextPos();
+    }
 
-            i++;
-        }
+    /**
+     * {@inheritDoc}
+     */
 
-        glBindBuffer(GL_ARRAY_BUFFER, instanceDataVBO);
-        glBufferData(GL_ARRAY_BUFFER, instanceDataBuffer, GL_DYNAMIC_DRAW);
+    @Override
+    public void cleanUp(){
+        super.cleanUp();
+        instanceBuffer.cleanup();
+    }
 
-        glDrawElementsInstanced(
-                GL_TRIANGLES, getVertexCount(), GL_UNSIGNED_INT, 0, items.size());
+    /**
+     * {@inheritDoc}
+     */
 
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    @Override
+    public void deleteBuffers(){
+        super.deleteBuffers();
+        instanceBuffer.cleanup();
     }
 
-}
\ No newline at end of file
+}
@@ -6,9 +6,10 @@ package io.github.gjkf.seriousEngine.render;
 import io.github.gjkf.seriousEngine.items.Item;
 import io.github.gjkf.seriousEngine.loaders.md5.MD5AnimModel;
 import io.github.gjkf.seriousEngine.loaders.md5.MD5Model;
+import io.github.gjkf.seriousEngine.render.device.Graphics;
+import io.github.gjkf.seriousEngine.render.device.IGraphicsDevice;
 import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
-import org.lwjgl.opengl.GL15;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
@@ -35,6 +36,10 @@ public class Mesh{
      * The maximum number of weights.
      */
     public static final int MAX_WEIGHTS = 4;
+    /**
+     * The graphics device this mesh was created on.
+     */
+    protected final IGraphicsDevice device;
     /**
      * The ID of the VAO used.
      */
@@ -47,10 +52,18 @@ public class Mesh{
      * The array of the positions. Made accessible to help with collisions.
      */
     private float[] positions;
+    /**
+     * The buffer the positions are copied from when the mesh was not created from arrays.
+     */
+    private FloatBuffer positionBuffer;
     /**
      * The number of vertices to draw.
      */
     private final int vertexCount;
+    /**
+     * The bounds of the vertex positions.
+     */
+    private final Bounds bounds;
     /**
      * The material.
      */
@@ -68,72 +81,108 @@ public class Mesh{
      */
 
     public Mesh(float[] positions, float[] textCoords, float[] normals, int[] indices, int[] jointIndices, float[] weights){
-        vertexCount = indices.length;
+        this(positions, toBuffer(positions), toBuffer(textCoords), toBuffer(normals), toBuffer(indices),
+                toBuffer(jointIndices), toBuffer(weights), new Bounds(positions));
+    }
+
+
+    public Mesh(float[] positions, float[] textCoords, float[] normals, int[] indices){
+        this(positions, textCoords, normals, indices, createEmptyIntArray(MAX_WEIGHTS * positions.length / 3, 0), createEmptyFloatArray(MAX_WEIGHTS * positions.length / 3, 0));
+    }
+
+    /**
+     * Creates a mesh from direct buffers, such as the slices of a memory mapped file.
+     * <p>The buffers are uploaded from their position to their limit and are not kept, except for the positions which
+     * are copied to an array only if {@link #getPositions()} is called.</p>
+     *
+     * @param positions    The positions of the vertices on the 3 axis.
+     * @param textCoords   The texture coordinates for each vertex.
+     * @param normals      The normals.
+     * @param indices      The order of the vertices for the triangles.
+     * @param jointIndices The indices of the joints, {@link #MAX_WEIGHTS} per vertex. Zeros when <tt>null</tt>.
+     * @param weights      The weights, {@link #MAX_WEIGHTS} per vertex. Zeros when <tt>null</tt>.
+     * @param bounds       The bounds of the positions.
+     */
+
+    public Mesh(FloatBuffer positions, FloatBuffer textCoords, FloatBuffer normals, IntBuffer indices, IntBuffer jointIndices, FloatBuffer weights, Bounds bounds){
+        this(null, positions, textCoords, normals, indices,
+                jointIndices != null ? jointIndices : BufferUtils.createIntBuffer(MAX_WEIGHTS * positions.remaining() / 3),
+                weights != null ? weights : BufferUtils.createFloatBuffer(MAX_WEIGHTS * positions.remaining() / 3),
+                bounds);
+    }
+
+    /**
+     * Uploads the vertex buffers.
+     *
+     * @param positionsArr The array of the positions, <tt>null</tt> to read it from the buffer when needed.
+     * @param positions    The positions of the vertices on the 3 axis.
+     * @param textCoords   The texture coordinates for each vertex.
+     * @param normals      The normals.
+     * @param indices      The order of the vertices for the triangles.
+     * @param jointIndices The indices of the joints.
+     * @param weights      The weights.
+     * @param bounds       The bounds of the positions.
+     */
+
+    private Mesh(float[] positionsArr, FloatBuffer positions, FloatBuffer textCoords, FloatBuffer normals, IntBuffer indices, IntBuffer jointIndices, FloatBuffer weights, Bounds bounds){
+        vertexCount = indices.remaining();
         vboIdList = new ArrayList<>();
+        this.positions = positionsArr;
+        this.positionBuffer = positionsArr == null ? positions.duplicate() : null;
+        this.bounds = bounds;
+        device = Graphics.getDevice();
 
-        vaoId = glGenVertexArrays();
-        glBindVertexArray(vaoId);
+        vaoId = device.genVertexArrays();
+        device.bindVertexArray(vaoId);
 
         // Position VBO
-        int vboId = glGenBuffers();
+        int vboId = device.genBuffers();
         vboIdList.add(vboId);
-        FloatBuffer posBuffer = BufferUtils.createFloatBuffer(positions.length);
-        posBuffer.put(positions).flip();
-        glBindBuffer(GL_ARRAY_BUFFER, vboId);
-        glBufferData(GL_ARRAY_BUFFER, posBuffer, GL_STATIC_DRAW);
-        glVertexAttribPointer(0, 3, GL_FLOAT, false, 0, 0);
+        device.bindBuffer(GL_ARRAY_BUFFER, vboId);
+        device.bufferData(GL_ARRAY_BUFFER, positions, GL_STATIC_DRAW);
+        device.vertexAttribPointer(0, 3, GL_FLOAT, false, 0, 0);
 
         // Texture coordinates VBO
-        vboId = glGenBuffers();
+        vboId = device.genBuffers();
         vboIdList.add(vboId);
-        FloatBuffer textCoordsBuffer = BufferUtils.createFloatBuffer(textCoords.length);
-        textCoordsBuffer.put(textCoords).flip();
-        glBindBuffer(GL_ARRAY_BUFFER, vboId);
-        glBufferData(GL_ARRAY_BUFFER, textCoordsBuffer, GL_STATIC_DRAW);
-        glVertexAttribPointer(1, 2, GL_FLOAT, false, 0, 0);
+        device.bindBuffer(GL_ARRAY_BUFFER, vboId);
+        device.bufferData(GL_ARRAY_BUFFER, textCoords, GL_STATIC_DRAW);
+        device.vertexAttribPointer(1, 2, GL_FLOAT, false, 0, 0);
 
         // Vertex normals VBO
-        vboId = glGenBuffers();
+        vboId = device.genBuffers();
         vboIdList.add(vboId);
-        FloatBuffer vecNormalsBuffer = BufferUtils.createFloatBuffer(normals.length);
-        vecNormalsBuffer.put(normals).flip();
-        glBindBuffer(GL_ARRAY_BUFFER, vboId);
-        glBufferData(GL_ARRAY_BUFFER, vecNormalsBuffer, GL_STATIC_DRAW);
-        glVertexAttribPointer(2, 3, GL_FLOAT, false, 0, 0);
+        device.bindBuffer(GL_ARRAY_BUFFER, vboId);
+        device.bufferData(GL_ARRAY_BUFFER, normals, GL_STATIC_DRAW);
+        device.vertexAttribPointer(2, 3, GL_FLOAT, false, 0, 0);
 
         // Weights
-        vboId = glGenBuffers();
+        vboId = device.genBuffers();
         vboIdList.add(vboId);
-        FloatBuffer weightsBuffer = BufferUtils.createFloatBuffer(weights.length);
-        weightsBuffer.put(weights).flip();
-        glBindBuffer(GL_ARRAY_BUFFER, vboId);
-        glBufferData(GL_ARRAY_BUFFER, weightsBuffer, GL_STATIC_DRAW);
-        glVertexAttribPointer(3, 4, GL_FLOAT, false, 0, 0);
+        device.bindBuffer(GL_ARRAY_BUFFER, vboId);
+        device.bufferData(GL_ARRAY_BUFFER, weights, GL_STATIC_DRAW);
+        device.vertexAttribPointer(3, 4, GL_FLOAT, false, 0, 0);
 
         // Joint indices
-        vboId = glGenBuffers();
+        vboId = device.genBuffers();
         vboIdList.add(vboId);
-        IntBuffer jointIndicesBuffer = BufferUtils.createIntBuffer(jointIndices.length);
-        jointIndicesBuffer.put(jointIndices).flip();
-        glBindBuffer(GL_ARRAY_BUFFER, vboId);
-        glBufferData(GL_ARRAY_BUFFER, jointIndicesBuffer, GL_STATIC_DRAW);
-        glVertexAttribPointer(4, 4, GL_FLOAT, false, 0, 0);
+        device.bindBuffer(GL_ARRAY_BUFFER, vboId);
+        device.bufferData(GL_ARRAY_BUFFER, jointIndices, GL_STATIC_DRAW);
+        device.vertexAttribPointer(4, 4, GL_FLOAT, false, 0, 0);
 
         // Index VBO
-        vboId = glGenBuffers();
+        vboId = device.genBuffers();
         vboIdList.add(vboId);
-        IntBuffer indicesBuffer = BufferUtils.createIntBuffer(indices.length);
-        indicesBuffer.put(indices).flip();
-        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, vboId);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indicesBuffer, GL_STATIC_DRAW);
-
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        glBindVertexArray(0);
-    }
+        device.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, vboId);
+        device.bufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
 
+        // The enabled attributes are part of the VAO, so they are enabled once
+        for(int i = 0; i < 5; i++){
+            device.enableVertexAttribArray(i);
+        }
 
-    public Mesh(float[] positions, float[] textCoords, float[] normals, int[] indices){
-        this(positions, textCoords, normals, indices, createEmptyIntArray(MAX_WEIGHTS * positions.length / 3, 0), createEmptyFloatArray(MAX_WEIGHTS * positions.length / 3, 0));
+        device.bindBuffer(GL_ARRAY_BUFFER, 0);
+        device.bindVertexArray(0);
     }
 
 
@@ -159,6 +208,18 @@ public class Mesh{
     }
 
 
+    /**
+     * Getter for property 'bounds'.
+     * <p>The bounds are in model space and must not be modified.</p>
+     *
+     * @return Value for property 'bounds'.
+     */
+
+    public Bounds getBounds(){
+        return bounds;
+    }
+
+
     /**
      * Getter for property 'material'.
      *
@@ -182,48 +243,37 @@ public class Mesh{
 
     /**
      * Initializes the rendering operations.
+     * <p>Binds the textures and the VAO, whose attributes are already enabled.</p>
      */
 
     protected void initRender(){
         Texture texture = material.getTexture();
         if(texture != null){
             // Activate first texture bank
-            glActiveTexture(GL_TEXTURE0);
+            device.activeTexture(GL_TEXTURE0);
             // Bind the texture
-            glBindTexture(GL_TEXTURE_2D, texture.getId());
+            device.bindTexture(GL_TEXTURE_2D, texture.getId());
         }
         Texture normalMap = material.getNormalMap();
         if(normalMap != null){
             // Activate first texture bank
-            glActiveTexture(GL_TEXTURE1);
+            device.activeTexture(GL_TEXTURE1);
             // Bind the texture
-            glBindTexture(GL_TEXTURE_2D, normalMap.getId());
+            device.bindTexture(GL_TEXTURE_2D, normalMap.getId());
         }
 
         // Draw the mesh
-        glBindVertexArray(getVaoId());
-        glEnableVertexAttribArray(0);
-        glEnableVertexAttribArray(1);
-        glEnableVertexAttribArray(2);
-        glEnableVertexAttribArray(3);
-        glEnableVertexAttribArray(4);
+        device.bindVertexArray(getVaoId());
     }
 
     /**
      * Ends the rendering operations.
-     * <p>Restores the OpenGL state.</p>
+     * <p>Unbinds the VAO. The textures stay bound, so that the next mesh sharing them does not bind them again.</p>
      */
 
     protected void endRender(){
         // Restore state
-        glDisableVertexAttribArray(0);
-        glDisableVertexAttribArray(1);
-        glDisableVertexAttribArray(2);
-        glDisableVertexAttribArray(3);
-        glDisableVertexAttribArray(4);
-        glBindVertexArray(0);
-
-        glBindTexture(GL_TEXTURE_2D, 0);
+        device.bindVertexArray(0);
     }
 
     /**
@@ -233,7 +283,7 @@ public class Mesh{
     public void render(){
         initRender();
 
-        glDrawElements(GL_TRIANGLES, getVertexCount(), GL_UNSIGNED_INT, 0);
+        device.drawElements(GL_TRIANGLES, getVertexCount(), GL_UNSIGNED_INT, 0);
 
         endRender();
     }
@@ -254,7 +304,7 @@ public class Mesh{
             // Set up data required by item
             consumer.accept(item);
             // Render this game item
-            glDrawElements(GL_TRIANGLES, getVertexCount(), GL_UNSIGNED_INT, 0);
+            device.drawElements(GL_TRIANGLES, getVertexCount(), GL_UNSIGNED_INT, 0);
         }
 
         endRender();
@@ -265,11 +315,11 @@ public class Mesh{
      */
 
     public void cleanUp(){
-        glDisableVertexAttribArray(0);
+        device.disableVertexAttribArray(0);
 
         // Delete the VBOs
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        vboIdList.forEach(GL15::glDeleteBuffers);
+        device.bindBuffer(GL_ARRAY_BUFFER, 0);
+        vboIdList.forEach(device::deleteBuffers);
 
         // Delete the texture
         Texture texture = material.getTexture();
@@ -278,8 +328,8 @@ public class Mesh{
         }
 
         // Delete the VAO
-        glBindVertexArray(0);
-        glDeleteVertexArrays(vaoId);
+        device.bindVertexArray(0);
+        device.deleteVertexArrays(vaoId);
     }
 
     /**
@@ -287,15 +337,15 @@ public class Mesh{
      */
 
     public void deleteBuffers(){
-        glDisableVertexAttribArray(0);
+        device.disableVertexAttribArray(0);
 
         // Delete the VBOs
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        vboIdList.forEach(GL15::glDeleteBuffers);
+        device.bindBuffer(GL_ARRAY_BUFFER, 0);
+        vboIdList.forEach(device::deleteBuffers);
 
         // Delete the VAO
-        glBindVertexArray(0);
-        glDeleteVertexArrays(vaoId);
+        device.bindVertexArray(0);
+        device.deleteVertexArrays(vaoId);
     }
 
     /**
@@ -305,9 +355,42 @@ public class Mesh{
      */
 
     public float[] getPositions(){
+        if(positions == null){
+            positions = new float[positionBuffer.remaining()];
+            positionBuffer.get(positions);
+            positionBuffer = null;
+        }
         return positions;
     }
 
+    /**
+     * Copies an array into a new direct buffer.
+     *
+     * @param data The array.
+     *
+     * @return The flipped buffer.
+     */
+
+    private static FloatBuffer toBuffer(float[] data){
+        FloatBuffer buffer = BufferUtils.createFloatBuffer(data.length);
+        buffer.put(data).flip();
+        return buffer;
+    }
+
+    /**
+     * Copies an array into a new direct buffer.
+     *
+     * @param data The array.
+     *
+     * @return The flipped buffer.
+     */
+
+    private static IntBuffer toBuffer(int[] data){
+        IntBuffer buffer = BufferUtils.createIntBuffer(data.length);
+        buffer.put(data).flip();
+        return buffer;
+    }
+
     static float[] createEmptyFloatArray(int length, float defaultValue){
         float[] result = new float[length];
         Arrays.fill(result, defaultValue);
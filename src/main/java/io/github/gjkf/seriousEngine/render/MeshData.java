@@ -0,0 +1,184 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render;
+
+/**
+ * The vertex arrays of a mesh, before they are uploaded.
+ * <p>The loaders build these first, so the arrays can be saved to a cache without a graphics device.</p>
+ */
+
+public class MeshData{
+
+    /**
+     * The positions of the vertices on the 3 axis.
+     */
+    private final float[] positions;
+    /**
+     * The texture coordinates for each vertex.
+     */
+    private final float[] textCoords;
+    /**
+     * The normals.
+     */
+    private final float[] normals;
+    /**
+     * The order of the vertices for the triangles.
+     */
+    private final int[] indices;
+    /**
+     * The indices of the joints, {@link Mesh#MAX_WEIGHTS} per vertex, <tt>null</tt> if the mesh is not animated.
+     */
+    private final int[] jointIndices;
+    /**
+     * The weights, {@link Mesh#MAX_WEIGHTS} per vertex, <tt>null</tt> if the mesh is not animated.
+     */
+    private final float[] weights;
+    /**
+     * The path of the texture, <tt>null</tt> if none.
+     */
+    private String texturePath;
+
+    /**
+     * Creates the data of a static mesh.
+     *
+     * @param positions  The positions of the vertices on the 3 axis.
+     * @param textCoords The texture coordinates for each vertex.
+     * @param normals    The normals.
+     * @param indices    The order of the vertices for the triangles.
+     */
+
+    public MeshData(float[] positions, float[] textCoords, float[] normals, int[] indices){
+        this(positions, textCoords, normals, indices, null, null);
+    }
+
+    /**
+     * Creates the data of a mesh.
+     *
+     * @param positions    The positions of the vertices on the 3 axis.
+     * @param textCoords   The texture coordinates for each vertex.
+     * @param normals      The normals.
+     * @param indices      The order of the vertices for the triangles.
+     * @param jointIndices The indices of the joints, <tt>null</tt> if the mesh is not animated.
+     * @param weights      The weights, <tt>null</tt> if the mesh is not animated.
+     */
+
+    public MeshData(float[] positions, float[] textCoords, float[] normals, int[] indices, int[] jointIndices, float[] weights){
+        this.positions = positions;
+        this.textCoords = textCoords;
+        this.normals = normals;
+        this.indices = indices;
+        this.jointIndices = jointIndices;
+        this.weights = weights;
+    }
+
+    /**
+     * Uploads the arrays.
+     *
+     * @param instances The number of instances, an {@link InstancedMesh} is created when more than one.
+     *
+     * @return The mesh, without a material.
+     */
+
+    public Mesh createMesh(int instances){
+        if(instances > 1){
+            return new InstancedMesh(positions, textCoords, normals, indices, instances);
+        }
+        if(jointIndices != null){
+            return new Mesh(positions, textCoords, normals, indices, jointIndices, weights);
+        }
+        return new Mesh(positions, textCoords, normals, indices);
+    }
+
+    /**
+     * Returns whether the mesh has joints and weights.
+     *
+     * @return Whether it is animated.
+     */
+
+    public boolean isAnimated(){
+        return jointIndices != null;
+    }
+
+    /**
+     * Getter for property 'positions'.
+     *
+     * @return Value for property 'positions'.
+     */
+
+    public float[] getPositions(){
+        return positions;
+    }
+
+    /**
+     * Getter for property 'textCoords'.
+     *
+     * @return Value for property 'textCoords'.
+     */
+
+    public float[] getTextCoords(){
+        return textCoords;
+    }
+
+    /**
+     * Getter for property 'normals'.
+     *
+     * @return Value for property 'normals'.
+     */
+
+    public float[] getNormals(){
+        return normals;
+    }
+
+    /**
+     * Getter for property 'indices'.
+     *
+     * @return Value for property 'indices'.
+     */
+
+    public int[] getIndices(){
+        return indices;
+    }
+
+    /**
+     * Getter for property 'jointIndices'.
+     *
+     * @return Value for property 'jointIndices'.
+     */
+
+    public int[] getJointIndices(){
+        return jointIndices;
+    }
+
+    /**
+     * Getter for property 'weights'.
+     *
+     * @return Value for property 'weights'.
+     */
+
+    public float[] getWeights(){
+        return weights;
+    }
+
+    /**
+     * Getter for property 'texturePath'.
+     *
+     * @return Value for property 'texturePath'.
+     */
+
+    public String getTexturePath(){
+        return texturePath;
+    }
+
+    /**
+     * Setter for property 'texturePath'.
+     *
+     * @param texturePath Value to set for property 'texturePath'.
+     */
+
+    public void setTexturePath(String texturePath){
+        this.texturePath = texturePath;
+    }
+
+}
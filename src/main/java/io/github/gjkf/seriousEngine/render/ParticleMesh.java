@@ -0,0 +1,249 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render;
+
+import io.github.gjkf.seriousEngine.render.particles.ParticleData;
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+
+/**
+ * The mesh of the particles of an emitter, drawn as camera facing billboards with a single instanced draw call.
+ * <p>The instance data of a particle is {@link #INSTANCE_SIZE_FLOATS} floats: its position and scale, then the offset
+ * of its frame in the texture atlas. The particle vertex shader turns the quad to face the camera, so no matrix is
+ * computed or uploaded per particle.</p>
+ * <p>The particles can be sorted back to front along the view, as alpha blending needs. The sort is a radix sort over
+ * the bits of their depths, skipping the bytes all the depths share.</p>
+ */
+
+public class ParticleMesh extends Mesh{
+
+    /**
+     * The number of floats of an instance.
+     */
+    public static final int INSTANCE_SIZE_FLOATS = 6;
+    /**
+     * The size of an instance in bytes.
+     */
+    private static final int INSTANCE_SIZE_BYTES = INSTANCE_SIZE_FLOATS * Float.BYTES;
+    /**
+     * The location of the position and scale attribute.
+     */
+    private static final int PARTICLE_LOCATION = 5;
+    /**
+     * The location of the texture offset attribute.
+     */
+    private static final int TEXTURE_OFFSET_LOCATION = 6;
+    /**
+     * The instance data.
+     */
+    private final InstanceBuffer instanceBuffer;
+    /**
+     * The offset the instance attributes point to, <tt>-1</tt> if they must be set.
+     */
+    private long attributeOffset;
+    /**
+     * The digit counts of the sort.
+     */
+    private final int[] counts;
+    /**
+     * The sort keys of the particles, then sorted.
+     */
+    private int[] keys;
+    /**
+     * The particles in drawing order.
+     */
+    private int[] order;
+    /**
+     * The keys being sorted.
+     */
+    private int[] sortKeys;
+    /**
+     * The particles being sorted.
+     */
+    private int[] sortOrder;
+
+    /**
+     * Creates a new ParticleMesh.
+     *
+     * @param positions    The position's array.
+     * @param textCoords   The texture coordinate's array.
+     * @param normals      The normal's array.
+     * @param indices      The indices's array.
+     * @param numInstances The initial number of particles, grown as needed.
+     */
+
+    public ParticleMesh(float[] positions, float[] textCoords, float[] normals, int[] indices, int numInstances){
+        super(positions, textCoords, normals, indices);
+
+        instanceBuffer = new InstanceBuffer(device, INSTANCE_SIZE_FLOATS, numInstances);
+        attributeOffset = -1;
+        counts = new int[256];
+        keys = new int[0];
+        order = new int[0];
+        sortKeys = new int[0];
+        sortOrder = new int[0];
+
+        device.bindVertexArray(vaoId);
+        device.enableVertexAttribArray(PARTICLE_LOCATION);
+        device.enableVertexAttribArray(TEXTURE_OFFSET_LOCATION);
+        device.bindVertexArray(0);
+    }
+
+    /**
+     * Points the instance attributes to a section of the instance buffer. The VAO must be bound.
+     *
+     * @param offset The offset of the section, in bytes.
+     */
+
+    private void setInstanceAttributes(long offset){
+        device.bindBuffer(GL_ARRAY_BUFFER, instanceBuffer.getVbo());
+        device.vertexAttribPointer(PARTICLE_LOCATION, 4, GL_FLOAT, false, INSTANCE_SIZE_BYTES, offset);
+        device.vertexAttribDivisor(PARTICLE_LOCATION, 1);
+        device.vertexAttribPointer(TEXTURE_OFFSET_LOCATION, 2, GL_FLOAT, false, INSTANCE_SIZE_BYTES, offset + 4 * Float.BYTES);
+        device.vertexAttribDivisor(TEXTURE_OFFSET_LOCATION, 1);
+        device.bindBuffer(GL_ARRAY_BUFFER, 0);
+        attributeOffset = offset;
+    }
+
+    /**
+     * Renders particles with a single draw call.
+     * <p>The view and projection matrices are read from the uniforms of the bound shader.</p>
+     *
+     * @param particles  The particles.
+     * @param viewMatrix The view matrix, to sort the particles back to front; <tt>null</tt> to draw them in the order
+     *                   they are stored, for the blending modes where the order does not matter.
+     */
+
+    public void renderParticles(ParticleData particles, Matrix4f viewMatrix){
+        int count = particles.size();
+        if(count == 0){
+            return;
+        }
+        if(instanceBuffer.ensureCapacity(count)){
+            attributeOffset = -1;
+        }
+        if(order.length < count){
+            int capacity = Math.max(count, order.length * 2);
+            keys = new int[capacity];
+            order = new int[capacity];
+            sortKeys = new int[capacity];
+            sortOrder = new int[capacity];
+        }
+        if(viewMatrix != null){
+            sort(particles, viewMatrix);
+        }else{
+            for(int i = 0; i < count; i++){
+                order[i] = i;
+            }
+        }
+
+        Texture text = getMaterial().getTexture();
+        int numCols = text != null ? text.getNumCols() : 1;
+        int numRows = text != null ? text.getNumRows() : 1;
+        float[] data = instanceBuffer.getData();
+        float[] x = particles.getX(), y = particles.getY(), z = particles.getZ();
+        float[] scale = particles.getScale();
+        int[] frame = particles.getFrame();
+        for(int k = 0; k < count; k++){
+            int i = order[k];
+            int offset = k * INSTANCE_SIZE_FLOATS;
+            data[offset] = x[i];
+            data[offset + 1] = y[i];
+            data[offset + 2] = z[i];
+            data[offset + 3] = scale[i];
+            data[offset + 4] = (float) (frame[i] % numCols) / numCols;
+            data[offset + 5] = (float) (frame[i] / numCols) / numRows;
+            // Particles move every frame, so every slot is written
+            instanceBuffer.markChanged(k);
+        }
+        long sectionOffset = instanceBuffer.flush(count);
+
+        initRender();
+        if(sectionOffset != attributeOffset){
+            setInstanceAttributes(sectionOffset);
+        }
+        device.drawElementsInstanced(GL_TRIANGLES, getVertexCount(), GL_UNSIGNED_INT, 0, count);
+        instanceBuffer.fence();
+        endRender();
+    }
+
+    /**
+     * Sorts the particles back to front, into {@link #order}.
+     *
+     * @param particles  The particles.
+     * @param viewMatrix The view matrix.
+     */
+
+    private void sort(ParticleData particles, Matrix4f viewMatrix){
+        int count = particles.size();
+        float[] x = particles.getX(), y = particles.getY(), z = particles.getZ();
+        float m02 = viewMatrix.m02(), m12 = viewMatrix.m12(), m22 = viewMatrix.m22(), m32 = viewMatrix.m32();
+        for(int i = 0; i < count; i++){
+            // The view looks down the negative Z, so the farthest particles have the smallest Z
+            int bits = Float.floatToRawIntBits(m02 * x[i] + m12 * y[i] + m22 * z[i] + m32);
+            // Flip the bits so that the keys compare as unsigned integers in the order of the floats
+            keys[i] = bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+            order[i] = i;
+        }
+        int[] srcKeys = keys, dstKeys = sortKeys;
+        int[] srcOrder = order, dstOrder = sortOrder;
+        for(int shift = 0; shift < Integer.SIZE; shift += 8){
+            Arrays.fill(counts, 0);
+            for(int i = 0; i < count; i++){
+                counts[(srcKeys[i] >>> shift) & 0xFF]++;
+            }
+            if(counts[(srcKeys[0] >>> shift) & 0xFF] == count){
+                // Every key has the same byte
+                continue;
+            }
+            int sum = 0;
+            for(int b = 0; b < counts.length; b++){
+                int c = counts[b];
+                counts[b] = sum;
+                sum += c;
+            }
+            for(int i = 0; i < count; i++){
+                int slot = counts[(srcKeys[i] >>> shift) & 0xFF]++;
+                dstKeys[slot] = srcKeys[i];
+                dstOrder[slot] = srcOrder[i];
+            }
+            int[] tmpKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmpKeys;
+            int[] tmpOrder = srcOrder;
+            srcOrder = dstOrder;
+            dstOrder = tmpOrder;
+        }
+        keys = srcKeys;
+        sortKeys = dstKeys;
+        order = srcOrder;
+        sortOrder = dstOrder;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void cleanUp(){
+        super.cleanUp();
+        instanceBuffer.cleanup();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteBuffers(){
+        super.deleteBuffers();
+        instanceBuffer.cleanup();
+    }
+
+}
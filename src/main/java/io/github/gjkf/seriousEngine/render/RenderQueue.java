@@ -0,0 +1,447 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render;
+
+import io.github.gjkf.seriousEngine.items.Item;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The draws of a frame, sorted to minimize the state changes between them.
+ * <p>Every draw gets a 64 bit key made of, from the most significant bits: the pass, the shader variant, the
+ * material, the texture, the mesh and the depth. Sorting the keys groups the draws sharing a state, and orders the
+ * items of a mesh front to back so that the depth test discards the hidden fragments before they are shaded. The
+ * keys are sorted with a radix sort over their bytes, skipping the bytes all the keys share.</p>
+ * <p>The materials, textures and meshes get a small number the first time they are seen in a pass, which is what is
+ * stored in the keys. The numbers are given again after each {@link #clear(Matrix4f, float)}, so the queue does not
+ * keep the states of earlier frames. When a pass has more states of a kind than its bits can number, the extra ones
+ * all share the last number. The numbers only group the draws: the renderer compares the states themselves to skip
+ * the redundant changes.</p>
+ */
+
+public class RenderQueue{
+
+    /**
+     * The pass rendering the depth map of the shadows.
+     */
+    public static final int PASS_DEPTH_MAP = 0;
+    /**
+     * The pass rendering the opaque items of the scene.
+     */
+    public static final int PASS_OPAQUE = 1;
+    /**
+     * The shader variant of the meshes drawn one item at a time, possibly skinned.
+     */
+    public static final int SHADER_NON_INSTANCED = 0;
+    /**
+     * The shader variant of the instanced meshes.
+     */
+    public static final int SHADER_INSTANCED = 1;
+    /**
+     * The number of bits of the depth.
+     */
+    private static final int DEPTH_BITS = 16;
+    /**
+     * The number of bits of the mesh.
+     */
+    private static final int MESH_BITS = 16;
+    /**
+     * The number of bits of the texture.
+     */
+    private static final int TEXTURE_BITS = 12;
+    /**
+     * The number of bits of the material.
+     */
+    private static final int MATERIAL_BITS = 16;
+    /**
+     * The number of bits of the shader variant.
+     */
+    private static final int SHADER_BITS = 2;
+    /**
+     * The number of bits of the pass.
+     */
+    private static final int PASS_BITS = 2;
+    /**
+     * The initial number of draws.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+    /**
+     * The number of each material.
+     */
+    private final Map<Material, Integer> materialIds;
+    /**
+     * The number of each texture.
+     */
+    private final Map<Texture, Integer> textureIds;
+    /**
+     * The number of each mesh.
+     */
+    private final Map<Mesh, Integer> meshIds;
+    /**
+     * The digit counts of the sort.
+     */
+    private final int[] counts;
+    /**
+     * The keys of the draws, in the order they were added and then sorted.
+     */
+    private long[] keys;
+    /**
+     * The index of the draw of each key.
+     */
+    private int[] order;
+    /**
+     * The keys being sorted.
+     */
+    private long[] sortKeys;
+    /**
+     * The indices being sorted.
+     */
+    private int[] sortOrder;
+    /**
+     * The mesh of each draw.
+     */
+    private Mesh[] meshes;
+    /**
+     * The item of each draw, <tt>null</tt> for the instanced draws.
+     */
+    private Item[] items;
+    /**
+     * The items of each instanced draw, <tt>null</tt> for the others.
+     */
+    private Object[] instances;
+    /**
+     * The visible items of each instanced draw, <tt>null</tt> for the others.
+     */
+    private Object[] visibleInstances;
+    /**
+     * The number of draws.
+     */
+    private int size;
+    /**
+     * The matrix the depths are measured with.
+     */
+    private final Matrix4f depthMatrix;
+    /**
+     * The farthest depth that can be told apart.
+     */
+    private float maxDepth;
+    /**
+     * The mesh of the last key built, whose items are usually added one after the other.
+     */
+    private Mesh lastMesh;
+    /**
+     * The pass of the last key built.
+     */
+    private int lastPass;
+    /**
+     * The shader variant of the last key built.
+     */
+    private int lastShader;
+    /**
+     * The last key built, without its depth.
+     */
+    private long lastKey;
+
+    /**
+     * Creates an empty queue.
+     */
+
+    public RenderQueue(){
+        materialIds = new IdentityHashMap<>();
+        textureIds = new IdentityHashMap<>();
+        meshIds = new IdentityHashMap<>();
+        counts = new int[256];
+        keys = new long[INITIAL_CAPACITY];
+        order = new int[INITIAL_CAPACITY];
+        sortKeys = new long[INITIAL_CAPACITY];
+        sortOrder = new int[INITIAL_CAPACITY];
+        meshes = new Mesh[INITIAL_CAPACITY];
+        items = new Item[INITIAL_CAPACITY];
+        instances = new Object[INITIAL_CAPACITY];
+        visibleInstances = new Object[INITIAL_CAPACITY];
+        depthMatrix = new Matrix4f();
+        maxDepth = 1;
+    }
+
+    /**
+     * Empties the queue and forgets the numbers of the states before filling it for a pass.
+     *
+     * @param viewMatrix The view matrix the depths are measured along.
+     * @param maxDepth   The farthest depth that can be told apart, the items beyond it share the same depth.
+     */
+
+    public void clear(Matrix4f viewMatrix, float maxDepth){
+        for(int i = 0; i < size; i++){
+            meshes[i] = null;
+            items[i] = null;
+            instances[i] = null;
+            visibleInstances[i] = null;
+        }
+        size = 0;
+        materialIds.clear();
+        textureIds.clear();
+        meshIds.clear();
+        lastMesh = null;
+        depthMatrix.set(viewMatrix);
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Adds the draw of an item.
+     *
+     * @param pass The pass, from <tt>0</tt> to <tt>3</tt>.
+     * @param mesh The mesh.
+     * @param item The item.
+     */
+
+    public void add(int pass, Mesh mesh, Item item){
+        int index = append(mesh);
+        items[index] = item;
+        keys[index] = key(pass, SHADER_NON_INSTANCED, mesh, depth(item));
+    }
+
+    /**
+     * Adds the instanced draw of a list of items.
+     *
+     * @param pass    The pass, from <tt>0</tt> to <tt>3</tt>.
+     * @param mesh    The mesh.
+     * @param items   The items.
+     * @param visible The visible items among them.
+     *
+     * @see InstancedMesh#renderListInstanced(List, List, Transformation)
+     */
+
+    public void addInstanced(int pass, InstancedMesh mesh, List<Item> items, List<Item> visible){
+        int index = append(mesh);
+        instances[index] = items;
+        visibleInstances[index] = visible;
+        keys[index] = key(pass, SHADER_INSTANCED, mesh, 0);
+    }
+
+    /**
+     * Makes room for a draw.
+     *
+     * @param mesh The mesh of the draw.
+     *
+     * @return The index of the draw.
+     */
+
+    private int append(Mesh mesh){
+        if(size == keys.length){
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            order = Arrays.copyOf(order, capacity);
+            sortKeys = Arrays.copyOf(sortKeys, capacity);
+            sortOrder = Arrays.copyOf(sortOrder, capacity);
+            meshes = Arrays.copyOf(meshes, capacity);
+            items = Arrays.copyOf(items, capacity);
+            instances = Arrays.copyOf(instances, capacity);
+            visibleInstances = Arrays.copyOf(visibleInstances, capacity);
+        }
+        meshes[size] = mesh;
+        order[size] = size;
+        return size++;
+    }
+
+    /**
+     * Builds the key of a draw.
+     *
+     * @param pass   The pass.
+     * @param shader The shader variant.
+     * @param mesh   The mesh.
+     * @param depth  The quantized depth.
+     *
+     * @return The key.
+     */
+
+    private long key(int pass, int shader, Mesh mesh, int depth){
+        if(mesh != lastMesh || pass != lastPass || shader != lastShader){
+            lastKey = stateKey(pass, shader, mesh);
+            lastMesh = mesh;
+            lastPass = pass;
+            lastShader = shader;
+        }
+        return lastKey | depth;
+    }
+
+    /**
+     * Builds the key of a draw without its depth.
+     *
+     * @param pass   The pass.
+     * @param shader The shader variant.
+     * @param mesh   The mesh.
+     *
+     * @return The key.
+     */
+
+    private long stateKey(int pass, int shader, Mesh mesh){
+        Material material = mesh.getMaterial();
+        long key = pass & ((1 << PASS_BITS) - 1);
+        key = (key << SHADER_BITS) | (shader & ((1 << SHADER_BITS) - 1));
+        key = (key << MATERIAL_BITS) | id(materialIds, material, MATERIAL_BITS);
+        key = (key << TEXTURE_BITS) | id(textureIds, material != null ? material.getTexture() : null, TEXTURE_BITS);
+        key = (key << MESH_BITS) | id(meshIds, mesh, MESH_BITS);
+        return key << DEPTH_BITS;
+    }
+
+    /**
+     * Returns the number of an object, giving it the next one the first time it is seen.
+     * <p>Once the numbers that fit in the bits are used, the following objects all get the largest one.</p>
+     *
+     * @param ids    The numbers of the objects of its kind.
+     * @param object The object, <tt>0</tt> if <tt>null</tt>.
+     * @param bits   The number of bits of the number in the key.
+     * @param <T>    The kind of the object.
+     *
+     * @return The number.
+     */
+
+    private static <T> int id(Map<T, Integer> ids, T object, int bits){
+        if(object == null){
+            return 0;
+        }
+        Integer id = ids.get(object);
+        if(id == null){
+            id = Math.min(ids.size() + 1, (1 << bits) - 1);
+            ids.put(object, id);
+        }
+        return id;
+    }
+
+    /**
+     * Measures the depth of the center of an item along the view.
+     *
+     * @param item The item.
+     *
+     * @return The depth, quantized to {@link #DEPTH_BITS} bits.
+     */
+
+    private int depth(Item item){
+        Vector3f center = item.getWorldBounds().getCenter();
+        Matrix4f m = depthMatrix;
+        float z = -(m.m02() * center.x + m.m12() * center.y + m.m22() * center.z + m.m32());
+        float scaled = z / maxDepth * ((1 << DEPTH_BITS) - 1);
+        return (int) Math.max(0, Math.min(scaled, (1 << DEPTH_BITS) - 1));
+    }
+
+    /**
+     * Sorts the draws by key.
+     * <p>The sort is stable, so draws with the same key keep the order they were added in.</p>
+     */
+
+    public void sort(){
+        long[] srcKeys = keys, dstKeys = sortKeys;
+        int[] srcOrder = order, dstOrder = sortOrder;
+        for(int shift = 0; shift < Long.SIZE; shift += 8){
+            Arrays.fill(counts, 0);
+            for(int i = 0; i < size; i++){
+                counts[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+            }
+            if(counts[(int) (srcKeys[0] >>> shift) & 0xFF] == size){
+                // Every key has the same byte
+                continue;
+            }
+            int sum = 0;
+            for(int b = 0; b < counts.length; b++){
+                int count = counts[b];
+                counts[b] = sum;
+                sum += count;
+            }
+            for(int i = 0; i < size; i++){
+                int slot = counts[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+                dstKeys[slot] = srcKeys[i];
+                dstOrder[slot] = srcOrder[i];
+            }
+            long[] tmpKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmpKeys;
+            int[] tmpOrder = srcOrder;
+            srcOrder = dstOrder;
+            dstOrder = tmpOrder;
+        }
+        keys = srcKeys;
+        sortKeys = dstKeys;
+        order = srcOrder;
+        sortOrder = dstOrder;
+    }
+
+    /**
+     * Returns the number of draws.
+     *
+     * @return The size.
+     */
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns the key of a draw.
+     *
+     * @param i The position of the draw, in sorted order once sorted.
+     *
+     * @return The key.
+     */
+
+    public long getKey(int i){
+        return keys[i];
+    }
+
+    /**
+     * Returns the mesh of a draw.
+     *
+     * @param i The position of the draw, in sorted order once sorted.
+     *
+     * @return The mesh.
+     */
+
+    public Mesh getMesh(int i){
+        return meshes[order[i]];
+    }
+
+    /**
+     * Returns the item of a draw.
+     *
+     * @param i The position of the draw, in sorted order once sorted.
+     *
+     * @return The item, <tt>null</tt> for an instanced draw.
+     */
+
+    public Item getItem(int i){
+        return items[order[i]];
+    }
+
+    /**
+     * Returns the items of an instanced draw.
+     *
+     * @param i The position of the draw, in sorted order once sorted.
+     *
+     * @return The items, <tt>null</tt> for a draw of a single item.
+     */
+
+    @SuppressWarnings("unchecked")
+    public List<Item> getInstances(int i){
+        return (List<Item>) instances[order[i]];
+    }
+
+    /**
+     * Returns the visible items of an instanced draw.
+     *
+     * @param i The position of the draw, in sorted order once sorted.
+     *
+     * @return The visible items, <tt>null</tt> for a draw of a single item.
+     */
+
+    @SuppressWarnings("unchecked")
+    public List<Item> getVisibleInstances(int i){
+        return (List<Item>) visibleInstances[order[i]];
+    }
+
+}
@@ -9,26 +9,27 @@ import io.github.gjkf.seriousEngine.Utils;
 import io.github.gjkf.seriousEngine.Window;
 import io.github.gjkf.seriousEngine.items.Item;
 import io.github.gjkf.seriousEngine.items.SkyBox;
+import io.github.gjkf.seriousEngine.profiler.FrameProfiler;
+import io.github.gjkf.seriousEngine.profiler.ProfilerHud;
 import io.github.gjkf.seriousEngine.render.anim.AnimItem;
-import io.github.gjkf.seriousEngine.render.anim.AnimatedFrame;
+import io.github.gjkf.seriousEngine.render.device.Graphics;
+import io.github.gjkf.seriousEngine.render.device.IGraphicsDevice;
 import io.github.gjkf.seriousEngine.render.lights.DirectionalLight;
 import io.github.gjkf.seriousEngine.render.lights.PointLight;
 import io.github.gjkf.seriousEngine.render.lights.SceneLight;
 import io.github.gjkf.seriousEngine.render.lights.SpotLight;
 import io.github.gjkf.seriousEngine.render.particles.IParticleEmitter;
+import io.github.gjkf.seriousEngine.render.particles.ParticleScheduler;
 import io.github.gjkf.seriousEngine.render.shaders.ShaderProgram;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
-import org.joml.Vector4f;
 
 import java.util.List;
 import java.util.Map;
 
 import static org.lwjgl.opengl.GL11.*;
-import static org.lwjgl.opengl.GL13.GL_TEXTURE2;
-import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL13.*;
 import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER;
-import static org.lwjgl.opengl.GL30.glBindFramebuffer;
 
 /**
  * The renderer class.
@@ -53,6 +54,10 @@ public class Renderer{
      * Instance of {@link Transformation}
      */
     private final Transformation transformation;
+    /**
+     * The graphics device, captured in {@link #init(Window)}.
+     */
+    private IGraphicsDevice device;
     /**
      * The shadow map.
      */
@@ -77,6 +82,26 @@ public class Renderer{
      * The shader program for the particles.
      */
     private ShaderProgram particlesShaderProgram;
+    /**
+     * The profiler overlay, only created when {@link Window.WindowOptions#showFps} is set.
+     */
+    private ProfilerHud profilerHud;
+    /**
+     * Culls the items outside of the camera frustum.
+     */
+    private final FrustumCullingFilter frustumFilter;
+    /**
+     * Culls the items outside of the light ortho volume for the shadow map.
+     */
+    private final FrustumCullingFilter shadowFilter;
+    /**
+     * Whether the items outside of the view are skipped.
+     */
+    private boolean frustumCulling;
+    /**
+     * The sorted draws of the pass being rendered.
+     */
+    private final RenderQueue renderQueue;
     /**
      * The specular power.
      */
@@ -89,11 +114,217 @@ public class Renderer{
      * The maximum number of spot lights. See the fragment shader.
      */
     private static final int MAX_SPOT_LIGHTS = 5;
+    /**
+     * The handle of the <tt>projectionMatrix</tt> uniform of the particles shader.
+     */
+    private int particlesProjectionMatrix;
+    /**
+     * The handle of the <tt>viewMatrix</tt> uniform of the particles shader.
+     */
+    private int particlesViewMatrix;
+    /**
+     * The handle of the <tt>texture_sampler</tt> uniform of the particles shader.
+     */
+    private int particlesTextureSampler;
+    /**
+     * The handle of the <tt>numCols</tt> uniform of the particles shader.
+     */
+    private int particlesNumCols;
+    /**
+     * The handle of the <tt>numRows</tt> uniform of the particles shader.
+     */
+    private int particlesNumRows;
+    /**
+     * The handle of the <tt>isInstanced</tt> uniform of the depth shader.
+     */
+    private int depthIsInstanced;
+    /**
+     * The handle of the <tt>jointsMatrix</tt> uniform of the depth shader.
+     */
+    private int depthJointsMatrix;
+    /**
+     * The handle of the <tt>modelLightViewNonInstancedMatrix</tt> uniform of the depth shader.
+     */
+    private int depthModelLightViewNonInstancedMatrix;
+    /**
+     * The handle of the <tt>orthoProjectionMatrix</tt> uniform of the depth shader.
+     */
+    private int depthOrthoProjectionMatrix;
+    /**
+     * The handle of the <tt>lightViewMatrix</tt> uniform of the depth shader.
+     */
+    private int depthLightViewMatrix;
+    /**
+     * The handle of the <tt>projectionMatrix</tt> uniform of the scene shader.
+     */
+    private int sceneProjectionMatrix;
+    /**
+     * The handle of the <tt>modelViewNonInstancedMatrix</tt> uniform of the scene shader.
+     */
+    private int sceneModelViewNonInstancedMatrix;
+    /**
+     * The handle of the <tt>texture_sampler</tt> uniform of the scene shader.
+     */
+    private int sceneTextureSampler;
+    /**
+     * The handle of the <tt>normalMap</tt> uniform of the scene shader.
+     */
+    private int sceneNormalMap;
+    /**
+     * The handle of the first of the <tt>material</tt> uniforms of the scene shader.
+     */
+    private int sceneMaterial;
+    /**
+     * The handle of the <tt>specularPower</tt> uniform of the scene shader.
+     */
+    private int sceneSpecularPower;
+    /**
+     * The handle of the <tt>ambientLight</tt> uniform of the scene shader.
+     */
+    private int sceneAmbientLight;
+    /**
+     * The handle of the first of the <tt>pointLights</tt> uniforms of the scene shader.
+     */
+    private int scenePointLights;
+    /**
+     * The handle of the first of the <tt>spotLights</tt> uniforms of the scene shader.
+     */
+    private int sceneSpotLights;
+    /**
+     * The handle of the first of the <tt>directionalLight</tt> uniforms of the scene shader.
+     */
+    private int sceneDirectionalLight;
+    /**
+     * The handle of the first of the <tt>fog</tt> uniforms of the scene shader.
+     */
+    private int sceneFog;
+    /**
+     * The handle of the <tt>shadowMap</tt> uniform of the scene shader.
+     */
+    private int sceneShadowMap;
+    /**
+     * The handle of the <tt>orthoProjectionMatrix</tt> uniform of the scene shader.
+     */
+    private int sceneOrthoProjectionMatrix;
+    /**
+     * The handle of the <tt>modelLightViewNonInstancedMatrix</tt> uniform of the scene shader.
+     */
+    private int sceneModelLightViewNonInstancedMatrix;
+    /**
+     * The handle of the <tt>renderShadow</tt> uniform of the scene shader.
+     */
+    private int sceneRenderShadow;
+    /**
+     * The handle of the <tt>jointsMatrix</tt> uniform of the scene shader.
+     */
+    private int sceneJointsMatrix;
+    /**
+     * The handle of the <tt>isInstanced</tt> uniform of the scene shader.
+     */
+    private int sceneIsInstanced;
+    /**
+     * The handle of the <tt>viewMatrix</tt> uniform of the scene shader.
+     */
+    private int sceneViewMatrix;
+    /**
+     * The handle of the <tt>lightViewMatrix</tt> uniform of the scene shader.
+     */
+    private int sceneLightViewMatrix;
+    /**
+     * The handle of the <tt>numCols</tt> uniform of the scene shader.
+     */
+    private int sceneNumCols;
+    /**
+     * The handle of the <tt>numRows</tt> uniform of the scene shader.
+     */
+    private int sceneNumRows;
+    /**
+     * The handle of the <tt>projModelMatrix</tt> uniform of the HUD shader.
+     */
+    private int hudProjModelMatrix;
+    /**
+     * The handle of the <tt>colour</tt> uniform of the HUD shader.
+     */
+    private int hudColour;
+    /**
+     * The handle of the <tt>hasTexture</tt> uniform of the HUD shader.
+     */
+    private int hudHasTexture;
+    /**
+     * The handle of the <tt>projectionMatrix</tt> uniform of the sky box shader.
+     */
+    private int skyBoxProjectionMatrix;
+    /**
+     * The handle of the <tt>modelViewMatrix</tt> uniform of the sky box shader.
+     */
+    private int skyBoxModelViewMatrix;
+    /**
+     * The handle of the <tt>texture_sampler</tt> uniform of the sky box shader.
+     */
+    private int skyBoxTextureSampler;
+    /**
+     * The handle of the <tt>ambientLight</tt> uniform of the sky box shader.
+     */
+    private int skyBoxAmbientLight;
+    /**
+     * The handle of the <tt>colour</tt> uniform of the sky box shader.
+     */
+    private int skyBoxColour;
+    /**
+     * The handle of the <tt>hasTexture</tt> uniform of the sky box shader.
+     */
+    private int skyBoxHasTexture;
+    /**
+     * The position of the light being uploaded, in view space.
+     */
+    private final Vector3f viewLightPosition;
+    /**
+     * The direction of the light being uploaded, in view space.
+     */
+    private final Vector3f viewLightDirection;
 
 
     public Renderer(){
         transformation = new Transformation();
         specularPower = 10f;
+        frustumFilter = new FrustumCullingFilter();
+        shadowFilter = new FrustumCullingFilter();
+        frustumCulling = true;
+        renderQueue = new RenderQueue();
+        viewLightPosition = new Vector3f();
+        viewLightDirection = new Vector3f();
+    }
+
+    /**
+     * Getter for property 'frustumCulling'.
+     *
+     * @return Value for property 'frustumCulling'.
+     */
+
+    public boolean isFrustumCulling(){
+        return frustumCulling;
+    }
+
+    /**
+     * Setter for property 'frustumCulling'.
+     *
+     * @param frustumCulling Value to set for property 'frustumCulling'.
+     */
+
+    public void setFrustumCulling(boolean frustumCulling){
+        this.frustumCulling = frustumCulling;
+    }
+
+    /**
+     * Getter for property 'frustumFilter'.
+     * <p>The filter holds the frustum of the last frame rendered, for example to give to a
+     * {@link io.github.gjkf.seriousEngine.render.particles.ParticleBudget}.</p>
+     *
+     * @return Value for property 'frustumFilter'.
+     */
+
+    public FrustumCullingFilter getFrustumFilter(){
+        return frustumFilter;
     }
 
     /**
@@ -103,6 +334,7 @@ public class Renderer{
      */
 
     public void init(Window window) throws Exception{
+        device = Graphics.getDevice();
         shadowMap = new ShadowMap();
 
         setupDepthShader();
@@ -110,6 +342,10 @@ public class Renderer{
         setupSceneShader();
         setupParticlesShader();
         setupHudShader();
+
+        if(window.getOptions() != null && window.getOptions().showFps){
+            profilerHud = new ProfilerHud();
+        }
     }
 
     /**
@@ -124,11 +360,12 @@ public class Renderer{
         particlesShaderProgram.createFragmentShader(Utils.loadResource("engineShaders/particleFragment.glsl"));
         particlesShaderProgram.link();
 
-        particlesShaderProgram.createUniform("projectionMatrix");
-        particlesShaderProgram.createUniform("texture_sampler");
+        particlesProjectionMatrix = particlesShaderProgram.createUniform("projectionMatrix");
+        particlesViewMatrix = particlesShaderProgram.createUniform("viewMatrix");
+        particlesTextureSampler = particlesShaderProgram.createUniform("texture_sampler");
 
-        particlesShaderProgram.createUniform("numCols");
-        particlesShaderProgram.createUniform("numRows");
+        particlesNumCols = particlesShaderProgram.createUniform("numCols");
+        particlesNumRows = particlesShaderProgram.createUniform("numRows");
     }
 
     /**
@@ -143,10 +380,11 @@ public class Renderer{
         depthShaderProgram.createFragmentShader(Utils.loadResource("engineShaders/depthFragment.glsl"));
         depthShaderProgram.link();
 
-        depthShaderProgram.createUniform("isInstanced");
-        depthShaderProgram.createUniform("jointsMatrix");
-        depthShaderProgram.createUniform("modelLightViewNonInstancedMatrix");
-        depthShaderProgram.createUniform("orthoProjectionMatrix");
+        depthIsInstanced = depthShaderProgram.createUniform("isInstanced");
+        depthJointsMatrix = depthShaderProgram.createUniform("jointsMatrix");
+        depthModelLightViewNonInstancedMatrix = depthShaderProgram.createUniform("modelLightViewNonInstancedMatrix");
+        depthOrthoProjectionMatrix = depthShaderProgram.createUniform("orthoProjectionMatrix");
+        depthLightViewMatrix = depthShaderProgram.createUniform("lightViewMatrix");
 
     }
 
@@ -164,32 +402,34 @@ public class Renderer{
         sceneShaderProgram.link();
 
         // Create uniforms for modelView and projection matrices
-        sceneShaderProgram.createUniform("projectionMatrix");
-        sceneShaderProgram.createUniform("modelViewNonInstancedMatrix");
-        sceneShaderProgram.createUniform("texture_sampler");
-        sceneShaderProgram.createUniform("normalMap");
+        sceneProjectionMatrix = sceneShaderProgram.createUniform("projectionMatrix");
+        sceneModelViewNonInstancedMatrix = sceneShaderProgram.createUniform("modelViewNonInstancedMatrix");
+        sceneTextureSampler = sceneShaderProgram.createUniform("texture_sampler");
+        sceneNormalMap = sceneShaderProgram.createUniform("normalMap");
         // Create uniform for material
-        sceneShaderProgram.createMaterialUniform("material");
+        sceneMaterial = sceneShaderProgram.createMaterialUniform("material");
         // Create lighting related uniforms
-        sceneShaderProgram.createUniform("specularPower");
-        sceneShaderProgram.createUniform("ambientLight");
-        sceneShaderProgram.createPointLightListUniform("pointLights", MAX_POINT_LIGHTS);
-        sceneShaderProgram.createSpotLightListUniform("spotLights", MAX_SPOT_LIGHTS);
-        sceneShaderProgram.createDirectionalLightUniform("directionalLight");
-        sceneShaderProgram.createFogUniform("fog");
+        sceneSpecularPower = sceneShaderProgram.createUniform("specularPower");
+        sceneAmbientLight = sceneShaderProgram.createUniform("ambientLight");
+        scenePointLights = sceneShaderProgram.createPointLightListUniform("pointLights", MAX_POINT_LIGHTS);
+        sceneSpotLights = sceneShaderProgram.createSpotLightListUniform("spotLights", MAX_SPOT_LIGHTS);
+        sceneDirectionalLight = sceneShaderProgram.createDirectionalLightUniform("directionalLight");
+        sceneFog = sceneShaderProgram.createFogUniform("fog");
 
         // Create uniforms for shadow mapping
-        sceneShaderProgram.createUniform("shadowMap");
-        sceneShaderProgram.createUniform("orthoProjectionMatrix");
-        sceneShaderProgram.createUniform("modelLightViewNonInstancedMatrix");
-        sceneShaderProgram.createUniform("renderShadow");
+        sceneShadowMap = sceneShaderProgram.createUniform("shadowMap");
+        sceneOrthoProjectionMatrix = sceneShaderProgram.createUniform("orthoProjectionMatrix");
+        sceneModelLightViewNonInstancedMatrix = sceneShaderProgram.createUniform("modelLightViewNonInstancedMatrix");
+        sceneRenderShadow = sceneShaderProgram.createUniform("renderShadow");
 
         // Create uniform for joint matrices
-        sceneShaderProgram.createUniform("jointsMatrix");
+        sceneJointsMatrix = sceneShaderProgram.createUniform("jointsMatrix");
 
-        sceneShaderProgram.createUniform("isInstanced");
-        sceneShaderProgram.createUniform("numCols");
-        sceneShaderProgram.createUniform("numRows");
+        sceneIsInstanced = sceneShaderProgram.createUniform("isInstanced");
+        sceneViewMatrix = sceneShaderProgram.createUniform("viewMatrix");
+        sceneLightViewMatrix = sceneShaderProgram.createUniform("lightViewMatrix");
+        sceneNumCols = sceneShaderProgram.createUniform("numCols");
+        sceneNumRows = sceneShaderProgram.createUniform("numRows");
     }
 
     /**
@@ -205,9 +445,9 @@ public class Renderer{
         hudShaderProgram.link();
 
         // Create uniforms for Ortographic-model projection matrix and base colour
-        hudShaderProgram.createUniform("projModelMatrix");
-        hudShaderProgram.createUniform("colour");
-        hudShaderProgram.createUniform("hasTexture");
+        hudProjModelMatrix = hudShaderProgram.createUniform("projModelMatrix");
+        hudColour = hudShaderProgram.createUniform("colour");
+        hudHasTexture = hudShaderProgram.createUniform("hasTexture");
     }
 
     /**
@@ -223,12 +463,12 @@ public class Renderer{
         skyBoxShaderProgram.link();
 
         // Create uniforms for projection matrix
-        skyBoxShaderProgram.createUniform("projectionMatrix");
-        skyBoxShaderProgram.createUniform("modelViewMatrix");
-        skyBoxShaderProgram.createUniform("texture_sampler");
-        skyBoxShaderProgram.createUniform("ambientLight");
-        skyBoxShaderProgram.createUniform("colour");
-        skyBoxShaderProgram.createUniform("hasTexture");
+        skyBoxProjectionMatrix = skyBoxShaderProgram.createUniform("projectionMatrix");
+        skyBoxModelViewMatrix = skyBoxShaderProgram.createUniform("modelViewMatrix");
+        skyBoxTextureSampler = skyBoxShaderProgram.createUniform("texture_sampler");
+        skyBoxAmbientLight = skyBoxShaderProgram.createUniform("ambientLight");
+        skyBoxColour = skyBoxShaderProgram.createUniform("colour");
+        skyBoxHasTexture = skyBoxShaderProgram.createUniform("hasTexture");
     }
 
     /**
@@ -236,7 +476,7 @@ public class Renderer{
      */
 
     public void clear(){
-        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+        device.clear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
     }
 
     /**
@@ -249,27 +489,60 @@ public class Renderer{
      */
 
     public void render(Window window, Camera camera, Scene scene, IHud hud){
+        FrameProfiler profiler = window.getProfiler();
         clear();
 
+        // Compute the model matrices once for every pass
+        long start = profiler.start();
+        TransformStage transformStage = scene.getTransformStage();
+        transformStage.update();
+        transformation.setTransformStage(transformStage);
+        profiler.record(FrameProfiler.Pass.TRANSFORMS, start);
+
         // Render depth map before view ports has been set up
+        start = profiler.start();
         renderDepthMap(window, camera, scene);
+        profiler.record(FrameProfiler.Pass.DEPTH_MAP, start);
 
-        glViewport(0, 0, window.getWidth(), window.getHeight());
+        device.viewport(0, 0, window.getWidth(), window.getHeight());
 
         // Update projection and view matrices once per render cycle
         transformation.updateProjectionMatrix(FOV, window.getWidth(), window.getHeight(), Z_NEAR, Z_FAR);
         transformation.updateViewMatrix(camera);
+        frustumFilter.updateFrustum(transformation.getProjectionMatrix(), transformation.getViewMatrix());
+        if(frustumCulling){
+            frustumFilter.filter(scene);
+        }
 
-        renderParticles(window, camera, scene);
+        start = profiler.start();
         renderHud(window, hud);
+        if(profilerHud != null){
+            profilerHud.update(profiler);
+            renderHud(window, profilerHud);
+        }
+        profiler.record(FrameProfiler.Pass.HUD, start);
+
+        start = profiler.start();
         renderScene(window, camera, scene);
+        profiler.record(FrameProfiler.Pass.SCENE, start);
+
+        start = profiler.start();
         renderSkyBox(window, camera, scene);
+        profiler.record(FrameProfiler.Pass.SKY_BOX, start);
+
+        // The particles blend over the opaque scene and the sky box, which hide them through the depth test
+        start = profiler.start();
+        renderParticles(window, camera, scene);
+        profiler.record(FrameProfiler.Pass.PARTICLES, start);
 
         //renderAxes(camera);
     }
 
     /**
      * Renders the particles in the scene.
+     * <p>Must be called after the opaque scene and the sky box. The particles are depth tested against them but not
+     * written to the depth buffer. Those of the {@link IParticleEmitter.BlendMode#ALPHA} emitters are drawn back to
+     * front. The emitters hidden by the budget of the scheduler are skipped.</p>
      *
      * @param window The window.
      * @param camera The camera.
@@ -279,34 +552,69 @@ public class Renderer{
     private void renderParticles(Window window, Camera camera, Scene scene){
         particlesShaderProgram.bind();
 
-        particlesShaderProgram.setUniform("texture_sampler", 0);
+        particlesShaderProgram.setUniform(particlesTextureSampler, 0);
         Matrix4f projectionMatrix = transformation.getProjectionMatrix();
-        particlesShaderProgram.setUniform("projectionMatrix", projectionMatrix);
+        particlesShaderProgram.setUniform(particlesProjectionMatrix, projectionMatrix);
 
         Matrix4f viewMatrix = transformation.getViewMatrix();
-        IParticleEmitter[] emitters = scene.getParticleEmitters();
-        int numEmitters = emitters != null ? emitters.length : 0;
+        particlesShaderProgram.setUniform(particlesViewMatrix, viewMatrix);
+        ParticleScheduler scheduler = scene.getParticleScheduler();
+        IParticleEmitter[] emitters = scheduler.getEmitters();
+        int numEmitters = emitters.length;
 
-        glDepthMask(false);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE);
+        device.depthMask(false);
 
+        // The additive emitters first, as their order does not matter, then the sorted alpha blended ones
+        device.blendFunc(GL_SRC_ALPHA, GL_ONE);
         for(int i = 0; i < numEmitters; i++){
-            IParticleEmitter emitter = emitters[i];
-            InstancedMesh mesh = (InstancedMesh) emitter.getBaseParticle().getMesh();
-
-            Texture text = mesh.getMaterial().getTexture();
-            particlesShaderProgram.setUniform("numCols", text.getNumCols());
-            particlesShaderProgram.setUniform("numRows", text.getNumRows());
-
-            mesh.renderListInstanced(emitter.getParticles(), true, transformation, viewMatrix, null);
+            if(emitters[i].getBlendMode() == IParticleEmitter.BlendMode.ADDITIVE && isParticleVisible(scheduler, i)){
+                renderEmitter(emitters[i], null);
+            }
+        }
+        device.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        for(int i = 0; i < numEmitters; i++){
+            if(emitters[i].getBlendMode() == IParticleEmitter.BlendMode.ALPHA && isParticleVisible(scheduler, i)){
+                renderEmitter(emitters[i], viewMatrix);
+            }
         }
 
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-        glDepthMask(true);
+        device.depthMask(true);
 
         particlesShaderProgram.unbind();
     }
 
+    /**
+     * Returns whether the particles of an emitter must be drawn.
+     * <p>The visibility is the one the scheduler updated the emitter with, given by its budget, so an emitter is drawn
+     * exactly when it is simulated.</p>
+     *
+     * @param scheduler The scheduler of the emitters.
+     * @param index     The index of the emitter.
+     *
+     * @return Whether they are visible.
+     */
+
+    private boolean isParticleVisible(ParticleScheduler scheduler, int index){
+        return scheduler.getEmitters()[index].getParticles().size() > 0 && scheduler.isVisible(index);
+    }
+
+    /**
+     * Renders the particles of an emitter.
+     *
+     * @param emitter    The emitter.
+     * @param viewMatrix The view matrix to sort the particles back to front with, <tt>null</tt> not to sort them.
+     */
+
+    private void renderEmitter(IParticleEmitter emitter, Matrix4f viewMatrix){
+        ParticleMesh mesh = (ParticleMesh) emitter.getBaseParticle().getMesh();
+
+        Texture text = mesh.getMaterial().getTexture();
+        particlesShaderProgram.setUniform(particlesNumCols, text.getNumCols());
+        particlesShaderProgram.setUniform(particlesNumRows, text.getNumRows());
+
+        mesh.renderParticles(emitter.getParticles(), viewMatrix);
+    }
+
     /**
      * Renders a depth map.
      *
@@ -318,9 +626,9 @@ public class Renderer{
     private void renderDepthMap(Window window, Camera camera, Scene scene){
         if(scene.isRenderShadows()){
             // Setup view port to match the texture size
-            glBindFramebuffer(GL_FRAMEBUFFER, shadowMap.getDepthMapFBO());
-            glViewport(0, 0, ShadowMap.SHADOW_MAP_WIDTH, ShadowMap.SHADOW_MAP_HEIGHT);
-            glClear(GL_DEPTH_BUFFER_BIT);
+            device.bindFramebuffer(GL_FRAMEBUFFER, shadowMap.getDepthMapFBO());
+            device.viewport(0, 0, ShadowMap.SHADOW_MAP_WIDTH, ShadowMap.SHADOW_MAP_HEIGHT);
+            device.clear(GL_DEPTH_BUFFER_BIT);
 
             depthShaderProgram.bind();
 
@@ -334,15 +642,19 @@ public class Renderer{
             DirectionalLight.OrthoCoords orthCoords = light.getOrthoCoords();
             Matrix4f orthoProjMatrix = transformation.updateOrthoProjectionMatrix(orthCoords.left, orthCoords.right, orthCoords.bottom, orthCoords.top, orthCoords.near, orthCoords.far);
 
-            depthShaderProgram.setUniform("orthoProjectionMatrix", orthoProjMatrix);
-
-            renderNonInstancedMeshes(scene, depthShaderProgram, null, lightViewMatrix);
+            depthShaderProgram.setUniform(depthOrthoProjectionMatrix, orthoProjMatrix);
+            shadowFilter.updateFrustum(orthoProjMatrix, lightViewMatrix);
+            if(frustumCulling){
+                shadowFilter.filter(scene);
+            }
 
-            renderInstancedMeshes(scene, depthShaderProgram, null, lightViewMatrix);
+            renderQueue.clear(lightViewMatrix, orthCoords.far);
+            queueMeshes(scene, shadowFilter, RenderQueue.PASS_DEPTH_MAP);
+            renderQueue(depthShaderProgram, null, lightViewMatrix);
 
             // Unbind
             depthShaderProgram.unbind();
-            glBindFramebuffer(GL_FRAMEBUFFER, 0);
+            device.bindFramebuffer(GL_FRAMEBUFFER, 0);
         }
     }
 
@@ -358,24 +670,24 @@ public class Renderer{
         sceneShaderProgram.bind();
 
         Matrix4f projectionMatrix = transformation.getProjectionMatrix();
-        sceneShaderProgram.setUniform("projectionMatrix", projectionMatrix);
+        sceneShaderProgram.setUniform(sceneProjectionMatrix, projectionMatrix);
         Matrix4f orthoProjMatrix = transformation.getOrthoProjectionMatrix();
-        sceneShaderProgram.setUniform("orthoProjectionMatrix", orthoProjMatrix);
+        sceneShaderProgram.setUniform(sceneOrthoProjectionMatrix, orthoProjMatrix);
         Matrix4f lightViewMatrix = transformation.getLightViewMatrix();
         Matrix4f viewMatrix = transformation.getViewMatrix();
 
         SceneLight sceneLight = scene.getSceneLight();
         renderLights(viewMatrix, sceneLight);
 
-        sceneShaderProgram.setUniform("fog", scene.getFog());
-        sceneShaderProgram.setUniform("texture_sampler", 0);
-        sceneShaderProgram.setUniform("normalMap", 1);
-        sceneShaderProgram.setUniform("shadowMap", 2);
-        sceneShaderProgram.setUniform("renderShadow", scene.isRenderShadows() ? 1 : 0);
-
-        renderNonInstancedMeshes(scene, sceneShaderProgram, viewMatrix, lightViewMatrix);
+        sceneShaderProgram.setUniform(sceneFog, scene.getFog());
+        sceneShaderProgram.setUniform(sceneTextureSampler, 0);
+        sceneShaderProgram.setUniform(sceneNormalMap, 1);
+        sceneShaderProgram.setUniform(sceneShadowMap, 2);
+        sceneShaderProgram.setUniform(sceneRenderShadow, scene.isRenderShadows() ? 1 : 0);
 
-        renderInstancedMeshes(scene, sceneShaderProgram, viewMatrix, lightViewMatrix);
+        renderQueue.clear(viewMatrix, Z_FAR);
+        queueMeshes(scene, frustumFilter, RenderQueue.PASS_OPAQUE);
+        renderQueue(sceneShaderProgram, viewMatrix, lightViewMatrix);
 
         sceneShaderProgram.unbind();
     }
@@ -388,50 +700,30 @@ public class Renderer{
      */
 
     private void renderLights(Matrix4f viewMatrix, SceneLight sceneLight){
-        sceneShaderProgram.setUniform("ambientLight", sceneLight.getAmbientLight());
-        sceneShaderProgram.setUniform("specularPower", specularPower);
+        sceneShaderProgram.setUniform(sceneAmbientLight, sceneLight.getAmbientLight());
+        sceneShaderProgram.setUniform(sceneSpecularPower, specularPower);
 
-        // Process Point Lights
+        // Transform the positions and the directions to view coordinates, leaving the lights untouched
         PointLight[] pointLightList = sceneLight.getPointLightList();
         int numLights = pointLightList != null ? pointLightList.length : 0;
         for(int i = 0; i < numLights; i++){
-            // Get a copy of the point light object and transform its position to view coordinates
-            PointLight currPointLight = new PointLight(pointLightList[i]);
-            Vector3f lightPos = currPointLight.getPosition();
-            Vector4f aux = new Vector4f(lightPos, 1);
-            aux.mul(viewMatrix);
-            lightPos.x = aux.x;
-            lightPos.y = aux.y;
-            lightPos.z = aux.z;
-            sceneShaderProgram.setUniform("pointLights", currPointLight, i);
+            PointLight pointLight = pointLightList[i];
+            viewMatrix.transformPosition(pointLight.getPosition(), viewLightPosition);
+            sceneShaderProgram.setUniform(scenePointLights + i * ShaderProgram.POINT_LIGHT_UNIFORMS, pointLight, viewLightPosition);
         }
 
-        // Process Spot Lights
         SpotLight[] spotLightList = sceneLight.getSpotLightList();
         numLights = spotLightList != null ? spotLightList.length : 0;
         for(int i = 0; i < numLights; i++){
-            // Get a copy of the spot light object and transform its position and cone direction to view coordinates
-            SpotLight currSpotLight = new SpotLight(spotLightList[i]);
-            Vector4f dir = new Vector4f(currSpotLight.getConeDirection(), 0);
-            dir.mul(viewMatrix);
-            currSpotLight.setConeDirection(new Vector3f(dir.x, dir.y, dir.z));
-
-            Vector3f lightPos = currSpotLight.getPointLight().getPosition();
-            Vector4f aux = new Vector4f(lightPos, 1);
-            aux.mul(viewMatrix);
-            lightPos.x = aux.x;
-            lightPos.y = aux.y;
-            lightPos.z = aux.z;
-
-            sceneShaderProgram.setUniform("spotLights", currSpotLight, i);
+            SpotLight spotLight = spotLightList[i];
+            viewMatrix.transformPosition(spotLight.getPointLight().getPosition(), viewLightPosition);
+            viewMatrix.transformDirection(spotLight.getConeDirection(), viewLightDirection);
+            sceneShaderProgram.setUniform(sceneSpotLights + i * ShaderProgram.SPOT_LIGHT_UNIFORMS, spotLight, viewLightPosition, viewLightDirection);
         }
 
-        // Get a copy of the directional light object and transform its position to view coordinates
-        DirectionalLight currDirLight = new DirectionalLight(sceneLight.getDirectionalLight());
-        Vector4f dir = new Vector4f(currDirLight.getDirection(), 0);
-        dir.mul(viewMatrix);
-        currDirLight.setDirection(new Vector3f(dir.x, dir.y, dir.z));
-        sceneShaderProgram.setUniform("directionalLight", currDirLight);
+        DirectionalLight dirLight = sceneLight.getDirectionalLight();
+        viewMatrix.transformDirection(dirLight.getDirection(), viewLightDirection);
+        sceneShaderProgram.setUniform(sceneDirectionalLight, dirLight, viewLightDirection);
     }
 
     /**
@@ -450,9 +742,9 @@ public class Renderer{
                 Mesh mesh = item.getMesh();
                 // Set ortohtaphic and model matrix for this HUD item
                 Matrix4f projModelMatrix = transformation.buildOrthoProjModelMatrix(item, ortho);
-                hudShaderProgram.setUniform("projModelMatrix", projModelMatrix);
-                hudShaderProgram.setUniform("colour", item.getMesh().getMaterial().getColour());
-                hudShaderProgram.setUniform("hasTexture", item.getMesh().getMaterial().isTextured() ? 1 : 0);
+                hudShaderProgram.setUniform(hudProjModelMatrix, projModelMatrix);
+                hudShaderProgram.setUniform(hudColour, item.getMesh().getMaterial().getColour());
+                hudShaderProgram.setUniform(hudHasTexture, item.getMesh().getMaterial().isTextured() ? 1 : 0);
 
                 // Render the mesh for this HUD item
                 mesh.render();
@@ -476,10 +768,10 @@ public class Renderer{
         if(skyBox != null){
             skyBoxShaderProgram.bind();
 
-            skyBoxShaderProgram.setUniform("texture_sampler", 0);
+            skyBoxShaderProgram.setUniform(skyBoxTextureSampler, 0);
 
             Matrix4f projectionMatrix = transformation.getProjectionMatrix();
-            skyBoxShaderProgram.setUniform("projectionMatrix", projectionMatrix);
+            skyBoxShaderProgram.setUniform(skyBoxProjectionMatrix, projectionMatrix);
             Matrix4f viewMatrix = transformation.getViewMatrix();
             float m30 = viewMatrix.m30();
             viewMatrix.m30(0);
@@ -490,10 +782,10 @@ public class Renderer{
 
             Mesh mesh = skyBox.getMesh();
             Matrix4f modelViewMatrix = transformation.buildModelViewMatrix(skyBox, viewMatrix);
-            skyBoxShaderProgram.setUniform("modelViewMatrix", modelViewMatrix);
-            skyBoxShaderProgram.setUniform("ambientLight", scene.getSceneLight().getSkyBoxLight());
-            skyBoxShaderProgram.setUniform("colour", mesh.getMaterial().getColour());
-            skyBoxShaderProgram.setUniform("hasTexture", mesh.getMaterial().isTextured() ? 1 : 0);
+            skyBoxShaderProgram.setUniform(skyBoxModelViewMatrix, modelViewMatrix);
+            skyBoxShaderProgram.setUniform(skyBoxAmbientLight, scene.getSceneLight().getSkyBoxLight());
+            skyBoxShaderProgram.setUniform(skyBoxColour, mesh.getMaterial().getColour());
+            skyBoxShaderProgram.setUniform(skyBoxHasTexture, mesh.getMaterial().isTextured() ? 1 : 0);
 
             mesh.render();
 
@@ -505,79 +797,125 @@ public class Renderer{
     }
 
     /**
-     * Renders non-instanced meshes.
+     * Fills the render queue with the meshes of the scene and sorts it.
+     * <p>The items of the non-instanced meshes are queued one by one. An instanced mesh with a visible item is
+     * queued once, with all its items, which keep their instance data, and the visible ones, which are drawn.</p>
      *
-     * @param scene           The scene.
-     * @param shader          The shader.
-     * @param viewMatrix      The view matrix.
-     * @param lightViewMatrix The light view matrix.
+     * @param scene  The scene.
+     * @param filter The filter removing the items outside of the view.
+     * @param pass   The pass, see {@link RenderQueue}.
      */
 
-    private void renderNonInstancedMeshes(Scene scene, ShaderProgram shader, Matrix4f viewMatrix, Matrix4f lightViewMatrix){
-        sceneShaderProgram.setUniform("isInstanced", 0);
-
-        // Render each mesh with the associated game Items
-        Map<Mesh, List<Item>> mapMeshes = scene.getMeshes();
-        for(Mesh mesh : mapMeshes.keySet()){
-            if(viewMatrix != null){
-                shader.setUniform("material", mesh.getMaterial());
-                glActiveTexture(GL_TEXTURE2);
-                glBindTexture(GL_TEXTURE_2D, shadowMap.getDepthMapTexture().getId());
+    private void queueMeshes(Scene scene, FrustumCullingFilter filter, int pass){
+        for(Map.Entry<Mesh, List<Item>> entry : scene.getMeshes().entrySet()){
+            Mesh mesh = entry.getKey();
+            List<Item> items = frustumCulling ? filter.getVisibleItems(mesh) : entry.getValue();
+            for(int i = 0; i < items.size(); i++){
+                renderQueue.add(pass, mesh, items.get(i));
             }
-
-            Texture text = mesh.getMaterial().getTexture();
-            if(text != null){
-                sceneShaderProgram.setUniform("numCols", text.getNumCols());
-                sceneShaderProgram.setUniform("numRows", text.getNumRows());
+        }
+        for(Map.Entry<InstancedMesh, List<Item>> entry : scene.getInstancedMeshes().entrySet()){
+            InstancedMesh mesh = entry.getKey();
+            List<Item> items = entry.getValue();
+            List<Item> visible = frustumCulling ? filter.getVisibleItems(mesh) : items;
+            if(!items.isEmpty() && !visible.isEmpty()){
+                renderQueue.addInstanced(pass, mesh, items, visible);
             }
-
-            mesh.renderList(mapMeshes.get(mesh), (Item item) -> {
-                        Matrix4f modelMatrix = transformation.buildModelMatrix(item);
-                        if(viewMatrix != null){
-                            Matrix4f modelViewMatrix = transformation.buildModelViewMatrix(modelMatrix, viewMatrix);
-                            sceneShaderProgram.setUniform("modelViewNonInstancedMatrix", modelViewMatrix);
-                        }
-                        Matrix4f modelLightViewMatrix = transformation.buildModelLightViewMatrix(modelMatrix, lightViewMatrix);
-                        sceneShaderProgram.setUniform("modelLightViewNonInstancedMatrix", modelLightViewMatrix);
-
-                        if(item instanceof AnimItem){
-                            AnimItem animItem = (AnimItem) item;
-                            AnimatedFrame frame = animItem.getCurrentFrame();
-                            shader.setUniform("jointsMatrix", frame.getJointMatrices());
-                        }
-                    }
-            );
         }
+        renderQueue.sort();
     }
 
     /**
-     * Renders instanced meshes.
+     * Draws the sorted render queue, only changing the states that differ from the previous draw.
+     * <p>The instance data of all the items of an instanced mesh stays on the GPU from one frame to the next, and only
+     * the visible ones are drawn.</p>
      *
-     * @param scene           The scene.
      * @param shader          The shader.
-     * @param viewMatrix      The view matrix.
+     * @param viewMatrix      The view matrix, <tt>null</tt> for the depth map.
      * @param lightViewMatrix The light view matrix.
      */
 
-    private void renderInstancedMeshes(Scene scene, ShaderProgram shader, Matrix4f viewMatrix, Matrix4f lightViewMatrix){
-        shader.setUniform("isInstanced", 1);
+    private void renderQueue(ShaderProgram shader, Matrix4f viewMatrix, Matrix4f lightViewMatrix){
+        boolean scenePass = viewMatrix != null;
+        int isInstancedUniform = scenePass ? sceneIsInstanced : depthIsInstanced;
+        int modelLightViewUniform = scenePass ? sceneModelLightViewNonInstancedMatrix : depthModelLightViewNonInstancedMatrix;
+        int jointsUniform = scenePass ? sceneJointsMatrix : depthJointsMatrix;
+        if(scenePass){
+            shader.setUniform(sceneViewMatrix, viewMatrix);
+            device.activeTexture(GL_TEXTURE2);
+            device.bindTexture(GL_TEXTURE_2D, shadowMap.getDepthMapTexture().getId());
+        }
+        shader.setUniform(scenePass ? sceneLightViewMatrix : depthLightViewMatrix, lightViewMatrix);
+
+        int shaderVariant = -1;
+        Material material = null;
+        Texture atlas = null;
+        Texture texture = null;
+        Texture normalMap = null;
+        Mesh boundMesh = null;
+        for(int i = 0; i < renderQueue.size(); i++){
+            Mesh mesh = renderQueue.getMesh(i);
+            List<Item> instances = renderQueue.getInstances(i);
+            int variant = instances != null ? RenderQueue.SHADER_INSTANCED : RenderQueue.SHADER_NON_INSTANCED;
+            if(variant != shaderVariant){
+                shader.setUniform(isInstancedUniform, variant == RenderQueue.SHADER_INSTANCED ? 1 : 0);
+                shaderVariant = variant;
+            }
+
+            Material meshMaterial = mesh.getMaterial();
+            Texture text = meshMaterial.getTexture();
+            if(scenePass){
+                if(meshMaterial != material){
+                    shader.setUniform(sceneMaterial, meshMaterial);
+                    material = meshMaterial;
+                }
+                if(text != null && text != atlas){
+                    shader.setUniform(sceneNumCols, text.getNumCols());
+                    shader.setUniform(sceneNumRows, text.getNumRows());
+                    atlas = text;
+                }
+            }
+
+            if(instances != null){
+                ((InstancedMesh) mesh).renderListInstanced(instances, renderQueue.getVisibleInstances(i), transformation);
+                // The mesh binds its own textures and VAO, possibly on other units
+                texture = null;
+                normalMap = null;
+                boundMesh = null;
+                continue;
+            }
 
-        // Render each mesh with the associated game Items
-        Map<InstancedMesh, List<Item>> mapMeshes = scene.getInstancedMeshes();
-        for(InstancedMesh mesh : mapMeshes.keySet()){
-            Texture text = mesh.getMaterial().getTexture();
-            if(text != null){
-                sceneShaderProgram.setUniform("numCols", text.getNumCols());
-                sceneShaderProgram.setUniform("numRows", text.getNumRows());
+            if(text != null && text != texture){
+                device.activeTexture(GL_TEXTURE0);
+                device.bindTexture(GL_TEXTURE_2D, text.getId());
+                texture = text;
+            }
+            Texture meshNormalMap = meshMaterial.getNormalMap();
+            if(meshNormalMap != null && meshNormalMap != normalMap){
+                device.activeTexture(GL_TEXTURE1);
+                device.bindTexture(GL_TEXTURE_2D, meshNormalMap.getId());
+                normalMap = meshNormalMap;
+            }
+            if(mesh != boundMesh){
+                device.bindVertexArray(mesh.getVaoId());
+                boundMesh = mesh;
             }
 
-            if(viewMatrix != null){
-                shader.setUniform("material", mesh.getMaterial());
-                glActiveTexture(GL_TEXTURE2);
-                glBindTexture(GL_TEXTURE_2D, shadowMap.getDepthMapTexture().getId());
+            Item item = renderQueue.getItem(i);
+            Matrix4f modelMatrix = transformation.buildModelMatrix(item);
+            if(scenePass){
+                Matrix4f modelViewMatrix = transformation.buildModelViewMatrix(modelMatrix, viewMatrix);
+                shader.setUniform(sceneModelViewNonInstancedMatrix, modelViewMatrix);
+            }
+            Matrix4f modelLightViewMatrix = transformation.buildModelLightViewMatrix(modelMatrix, lightViewMatrix);
+            shader.setUniform(modelLightViewUniform, modelLightViewMatrix);
+            if(item instanceof AnimItem){
+                shader.setUniform(jointsUniform, ((AnimItem) item).getJointMatrices());
             }
-            mesh.renderListInstanced(mapMeshes.get(mesh), transformation, viewMatrix, lightViewMatrix);
+            device.drawElements(GL_TRIANGLES, mesh.getVertexCount(), GL_UNSIGNED_INT, 0);
         }
+
+        device.bindVertexArray(0);
     }
 
     /**
@@ -632,6 +970,9 @@ public class Renderer{
         if(particlesShaderProgram != null){
             particlesShaderProgram.cleanup();
         }
+        if(profilerHud != null){
+            profilerHud.cleanup();
+        }
     }
 
 
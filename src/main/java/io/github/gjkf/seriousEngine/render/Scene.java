@@ -6,8 +6,12 @@ package io.github.gjkf.seriousEngine.render;
 
 import io.github.gjkf.seriousEngine.items.Item;
 import io.github.gjkf.seriousEngine.items.SkyBox;
+import io.github.gjkf.seriousEngine.render.anim.AnimItem;
+import io.github.gjkf.seriousEngine.render.anim.AnimationScheduler;
 import io.github.gjkf.seriousEngine.render.lights.SceneLight;
 import io.github.gjkf.seriousEngine.render.particles.IParticleEmitter;
+import io.github.gjkf.seriousEngine.render.particles.ParticleScheduler;
+import io.github.gjkf.seriousEngine.render.spatial.DynamicAabbTree;
 import io.github.gjkf.seriousEngine.render.weather.Fog;
 
 import java.util.*;
@@ -15,6 +19,14 @@ import java.util.*;
 /**
  * Class representing a typical scene.
  * <p>Contains a {@link SceneLight}, some items and a {@link SkyBox}.</p>
+ * <p>The items are also kept in a {@link DynamicAabbTree}, which follows them as they move and answers the spatial
+ * queries of the scene, like the frustum culling of the {@link Renderer}.</p>
+ * <p>The items are also added to a {@link TransformStage}, which computes their model matrices once per frame for
+ * every pass of the {@link Renderer}.</p>
+ * <p>The {@link AnimItem}s are added to an {@link AnimationScheduler}, which the logic updates once per update to
+ * evaluate all their poses together.</p>
+ * <p>The particle emitters are updated together by a {@link ParticleScheduler}, which the logic also updates once per
+ * update.</p>
  */
 
 public class Scene{
@@ -31,6 +43,22 @@ public class Scene{
      * The items.
      */
     private List<Item> items;
+    /**
+     * The spatial index of the items.
+     */
+    private final DynamicAabbTree spatialIndex;
+    /**
+     * The model matrices of the items.
+     */
+    private final TransformStage transformStage;
+    /**
+     * Evaluates the poses of the animated items.
+     */
+    private final AnimationScheduler animationScheduler;
+    /**
+     * Updates the particle emitters.
+     */
+    private final ParticleScheduler particleScheduler;
     /**
      * The sky box.
      */
@@ -61,6 +89,10 @@ public class Scene{
         fog = Fog.NOFOG;
         renderShadows = true;
         items = new ArrayList<>();
+        spatialIndex = new DynamicAabbTree();
+        transformStage = new TransformStage();
+        animationScheduler = new AnimationScheduler();
+        particleScheduler = new ParticleScheduler();
     }
 
     /**
@@ -85,6 +117,7 @@ public class Scene{
         int numItems = items != null ? items.length : 0;
         for(int i = 0; i < numItems; i++){
             Item item = items[i];
+            register(item);
             Mesh[] meshes = item.getMeshes();
             for(Mesh mesh : meshes){
                 boolean instancedMesh = mesh instanceof InstancedMesh;
@@ -102,6 +135,25 @@ public class Scene{
         }
     }
 
+    /**
+     * Adds an item to the spatial index, the transform stage and, when animated, the animation scheduler, unless it
+     * is already there.
+     *
+     * @param item The item.
+     */
+
+    private void register(Item item){
+        if(item.getTransformListener() != spatialIndex){
+            spatialIndex.createProxy(item);
+        }
+        if(item.getTransformIndex() < 0){
+            transformStage.add(item);
+        }
+        if(item instanceof AnimItem && ((AnimItem) item).getScheduler() != animationScheduler){
+            animationScheduler.add((AnimItem) item);
+        }
+    }
+
     /**
      * Getter for property 'meshMap'.
      *
@@ -115,12 +167,59 @@ public class Scene{
 
     /**
      * Setter for property 'meshMap'.
+     * <p>The items of the map are registered as those given to {@link #setItems(Item[])}, so that they are culled and
+     * transformed like them.</p>
      *
      * @param meshMap Value to set for property 'meshMap'.
      */
 
     public void setMeshMap(Map<Mesh, List<Item>> meshMap){
         this.meshMap = meshMap;
+        for(List<Item> list : meshMap.values()){
+            for(Item item : list){
+                register(item);
+            }
+        }
+    }
+
+    /**
+     * Getter for property 'spatialIndex'.
+     *
+     * @return Value for property 'spatialIndex'.
+     */
+
+    public DynamicAabbTree getSpatialIndex(){
+        return spatialIndex;
+    }
+
+    /**
+     * Getter for property 'transformStage'.
+     *
+     * @return Value for property 'transformStage'.
+     */
+
+    public TransformStage getTransformStage(){
+        return transformStage;
+    }
+
+    /**
+     * Getter for property 'animationScheduler'.
+     *
+     * @return Value for property 'animationScheduler'.
+     */
+
+    public AnimationScheduler getAnimationScheduler(){
+        return animationScheduler;
+    }
+
+    /**
+     * Getter for property 'particleScheduler'.
+     *
+     * @return Value for property 'particleScheduler'.
+     */
+
+    public ParticleScheduler getParticleScheduler(){
+        return particleScheduler;
     }
 
     /**
@@ -231,6 +330,7 @@ public class Scene{
 
     public void setParticleEmitters(IParticleEmitter[] particleEmitters){
         this.particleEmitters = particleEmitters;
+        particleScheduler.setEmitters(particleEmitters);
     }
 
     /**
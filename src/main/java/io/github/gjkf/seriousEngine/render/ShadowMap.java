@@ -4,6 +4,9 @@
 
 package io.github.gjkf.seriousEngine.render;
 
+import io.github.gjkf.seriousEngine.render.device.Graphics;
+import io.github.gjkf.seriousEngine.render.device.IGraphicsDevice;
+
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL30.*;
 
@@ -29,6 +32,10 @@ public class ShadowMap{
      * The texture that is created.
      */
     private final Texture depthMap;
+    /**
+     * The graphics device this shadow map was created on.
+     */
+    private final IGraphicsDevice device = Graphics.getDevice();
 
     /**
      * Constructs a new ShadowMap.
@@ -38,24 +45,24 @@ public class ShadowMap{
 
     public ShadowMap() throws Exception{
         // Create a FBO to render the depth map
-        depthMapFBO = glGenFramebuffers();
+        depthMapFBO = device.genFramebuffers();
 
         // Create the depth map texture
         depthMap = new Texture(SHADOW_MAP_WIDTH, SHADOW_MAP_HEIGHT, GL_DEPTH_COMPONENT);
 
         // Attach the the depth map texture to the FBO
-        glBindFramebuffer(GL_FRAMEBUFFER, depthMapFBO);
-        glFramebufferTexture2D(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_TEXTURE_2D, depthMap.getId(), 0);
+        device.bindFramebuffer(GL_FRAMEBUFFER, depthMapFBO);
+        device.framebufferTexture2D(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_TEXTURE_2D, depthMap.getId(), 0);
         // Set only depth
-        glDrawBuffer(GL_NONE);
-        glReadBuffer(GL_NONE);
+        device.drawBuffer(GL_NONE);
+        device.readBuffer(GL_NONE);
 
-        if(glCheckFramebufferStatus(GL_FRAMEBUFFER) != GL_FRAMEBUFFER_COMPLETE){
+        if(device.checkFramebufferStatus(GL_FRAMEBUFFER) != GL_FRAMEBUFFER_COMPLETE){
             throw new Exception("Could not create FrameBuffer");
         }
 
         // Unbind
-        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+        device.bindFramebuffer(GL_FRAMEBUFFER, 0);
     }
 
     /**
@@ -83,7 +90,7 @@ public class ShadowMap{
      */
 
     public void cleanup(){
-        glDeleteFramebuffers(depthMapFBO);
+        device.deleteFramebuffers(depthMapFBO);
         depthMap.cleanup();
     }
 
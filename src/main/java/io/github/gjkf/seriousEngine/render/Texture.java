@@ -4,13 +4,14 @@
 package io.github.gjkf.seriousEngine.render;
 
 import de.matthiasmann.twl.utils.PNGDecoder;
+import io.github.gjkf.seriousEngine.render.device.Graphics;
+import io.github.gjkf.seriousEngine.render.device.IGraphicsDevice;
 
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
-import static org.lwjgl.opengl.GL30.glGenerateMipmap;
 
 /**
  * Object representing a texture.
@@ -38,6 +39,10 @@ public class Texture{
      * The number of columns.
      */
     private int numCols = 1;
+    /**
+     * The graphics device this texture was created on.
+     */
+    private final IGraphicsDevice device = Graphics.getDevice();
 
     /**
      * Creates an empty texture.
@@ -50,15 +55,15 @@ public class Texture{
      */
 
     public Texture(int width, int height, int pixelFormat) throws Exception{
-        this.id = glGenTextures();
+        this.id = device.genTextures();
         this.width = width;
         this.height = height;
-        glBindTexture(GL_TEXTURE_2D, this.id);
-        glTexImage2D(GL_TEXTURE_2D, 0, GL_DEPTH_COMPONENT, this.width, this.height, 0, pixelFormat, GL_FLOAT, (ByteBuffer) null);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        device.bindTexture(GL_TEXTURE_2D, this.id);
+        device.texImage2D(GL_TEXTURE_2D, 0, GL_DEPTH_COMPONENT, this.width, this.height, 0, pixelFormat, GL_FLOAT, (ByteBuffer) null);
+        device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+        device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
     }
 
     public Texture(String fileName) throws Exception{
@@ -86,19 +91,19 @@ public class Texture{
             buf.flip();
 
             // Create a new OpenGL texture
-            this.id = glGenTextures();
+            this.id = device.genTextures();
             // Bind the texture
-            glBindTexture(GL_TEXTURE_2D, this.id);
+            device.bindTexture(GL_TEXTURE_2D, this.id);
 
             // Tell OpenGL how to unpack the RGBA bytes. Each component is 1 byte size
-            glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+            device.pixelStorei(GL_UNPACK_ALIGNMENT, 1);
 
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+            device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+            device.texParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
             // Upload the texture data
-            glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, this.width, this.height, 0, GL_RGBA, GL_UNSIGNED_BYTE, buf);
+            device.texImage2D(GL_TEXTURE_2D, 0, GL_RGBA, this.width, this.height, 0, GL_RGBA, GL_UNSIGNED_BYTE, buf);
             // Generate Mip Map
-            glGenerateMipmap(GL_TEXTURE_2D);
+            device.generateMipmap(GL_TEXTURE_2D);
 
             is.close();
         }finally{
@@ -153,7 +158,7 @@ public class Texture{
      */
 
     public void bind(){
-        glBindTexture(GL_TEXTURE_2D, id);
+        device.bindTexture(GL_TEXTURE_2D, id);
     }
 
     /**
@@ -171,7 +176,7 @@ public class Texture{
      */
 
     public void cleanup(){
-        glDeleteTextures(id);
+        device.deleteTextures(id);
     }
 
 }
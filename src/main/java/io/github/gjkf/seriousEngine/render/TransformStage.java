@@ -0,0 +1,210 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render;
+
+import io.github.gjkf.seriousEngine.items.Item;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+
+/**
+ * The model matrices of the items of a {@link Scene}, computed once per frame and read by every pass.
+ * <p>The matrices are stored in a flat array, {@link #MATRIX_SIZE} floats per item in column-major order, at the
+ * index the stage gives to each item. {@link #update()} recomputes only the items whose transform changed since
+ * their matrix was last computed, as told by {@link Item#isTransformDirty()}, so static items cost nothing from
+ * one frame to the next.</p>
+ * <p>The {@link Renderer} updates the stage of the scene at the start of every frame and hands it to its
+ * {@link Transformation}, which then reads the matrices of the items of the stage instead of building them.</p>
+ */
+
+public class TransformStage{
+
+    /**
+     * The number of floats of a matrix.
+     */
+    public static final int MATRIX_SIZE = 16;
+    /**
+     * The initial number of items.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * The items, by index.
+     */
+    private Item[] items;
+    /**
+     * The model matrices, {@link #MATRIX_SIZE} floats per item.
+     */
+    private float[] matrices;
+    /**
+     * The number of items.
+     */
+    private int size;
+    /**
+     * The matrix the transforms are computed into.
+     */
+    private final Matrix4f scratch;
+
+    /**
+     * Creates an empty stage.
+     */
+
+    public TransformStage(){
+        items = new Item[INITIAL_CAPACITY];
+        matrices = new float[INITIAL_CAPACITY * MATRIX_SIZE];
+        scratch = new Matrix4f();
+    }
+
+    /**
+     * Adds an item, which must not be in a stage already. Its matrix is computed by the next update.
+     *
+     * @param item The item.
+     *
+     * @throws IllegalArgumentException If the item is in a stage.
+     */
+
+    public void add(Item item){
+        if(item.getTransformIndex() >= 0){
+            throw new IllegalArgumentException("The item is already in a transform stage");
+        }
+        if(size == items.length){
+            items = Arrays.copyOf(items, size * 2);
+            matrices = Arrays.copyOf(matrices, size * 2 * MATRIX_SIZE);
+        }
+        items[size] = item;
+        item.setTransformIndex(size);
+        item.setTransformDirty(true);
+        size++;
+    }
+
+    /**
+     * Removes an item. The last item takes its index.
+     *
+     * @param item The item.
+     */
+
+    public void remove(Item item){
+        int index = item.getTransformIndex();
+        if(index < 0 || index >= size || items[index] != item){
+            return;
+        }
+        int last = --size;
+        if(index != last){
+            Item moved = items[last];
+            items[index] = moved;
+            moved.setTransformIndex(index);
+            System.arraycopy(matrices, last * MATRIX_SIZE, matrices, index * MATRIX_SIZE, MATRIX_SIZE);
+        }
+        items[last] = null;
+        item.setTransformIndex(-1);
+    }
+
+    /**
+     * Removes every item.
+     */
+
+    public void clear(){
+        for(int i = 0; i < size; i++){
+            items[i].setTransformIndex(-1);
+            items[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Recomputes the matrices of the items whose transform changed.
+     *
+     * @return The number of matrices recomputed.
+     */
+
+    public int update(){
+        int updated = 0;
+        for(int i = 0; i < size; i++){
+            Item item = items[i];
+            if(item.isTransformDirty()){
+                compute(i, item);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Computes the matrix of an item and clears its dirty flag.
+     *
+     * @param index The index of the item.
+     * @param item  The item.
+     */
+
+    private void compute(int index, Item item){
+        Vector3f position = item.getPosition();
+        Quaternionf rotation = item.getRotation();
+        float scale = item.getScale();
+        scratch.translationRotateScale(position.x, position.y, position.z, rotation.x, rotation.y, rotation.z, rotation.w, scale, scale, scale)
+                .get(matrices, index * MATRIX_SIZE);
+        item.setTransformDirty(false);
+    }
+
+    /**
+     * Returns where the matrix of an item starts in {@link #getMatrices()}, recomputing it first if its transform
+     * changed since the last update.
+     *
+     * @param item The item.
+     *
+     * @return The offset of the matrix, <tt>-1</tt> if the item is not in this stage.
+     */
+
+    public int getOffset(Item item){
+        int index = item.getTransformIndex();
+        if(index < 0 || index >= size || items[index] != item){
+            return -1;
+        }
+        if(item.isTransformDirty()){
+            compute(index, item);
+        }
+        return index * MATRIX_SIZE;
+    }
+
+    /**
+     * Copies the model matrix of an item.
+     *
+     * @param item The item, which must be in this stage.
+     * @param dest Where to store the matrix.
+     *
+     * @return The destination.
+     *
+     * @throws IllegalArgumentException If the item is not in this stage.
+     */
+
+    public Matrix4f getModelMatrix(Item item, Matrix4f dest){
+        int offset = getOffset(item);
+        if(offset < 0){
+            throw new IllegalArgumentException("The item is not in this transform stage");
+        }
+        return dest.set(matrices, offset);
+    }
+
+    /**
+     * Returns the model matrices, {@link #MATRIX_SIZE} floats per item. The array is replaced when the stage grows.
+     *
+     * @return The matrices.
+     */
+
+    public float[] getMatrices(){
+        return matrices;
+    }
+
+    /**
+     * Returns the number of items.
+     *
+     * @return The size.
+     */
+
+    public int size(){
+        return size;
+    }
+
+}
@@ -51,7 +51,10 @@ public class Transformation{
      * The orthomodel matrix.
      */
     private final Matrix4f orthoModelMatrix;
-
+    /**
+     * The model matrices computed for the frame, <tt>null</tt> to always build them.
+     */
+    private TransformStage transformStage;
 
     /**
      * Creates the new empty matrices.
@@ -211,7 +214,8 @@ public class Transformation{
     }
 
     /**
-     * Builds a new model matrix multiplied by a view matrix.
+     * Builds a new model matrix.
+     * <p>The matrix of an item of the {@link TransformStage} is copied from it instead of being built.</p>
      *
      * @param item The item.
      *
@@ -219,6 +223,10 @@ public class Transformation{
      */
 
     public Matrix4f buildModelMatrix(Item item){
+        int offset = transformStage != null ? transformStage.getOffset(item) : -1;
+        if(offset >= 0){
+            return modelMatrix.set(transformStage.getMatrices(), offset);
+        }
         Quaternionf rotation = item.getRotation();
         return modelMatrix.translationRotateScale(
                 item.getPosition().x, item.getPosition().y, item.getPosition().z,
@@ -226,6 +234,24 @@ public class Transformation{
                 item.getScale(), item.getScale(), item.getScale());
     }
 
+    /**
+     * Writes the model matrix of an item to an array, in column-major order.
+     * <p>The matrix of an item of the {@link TransformStage} is copied from it instead of being built.</p>
+     *
+     * @param item   The item.
+     * @param dest   The array.
+     * @param offset Where to write the matrix in the array.
+     */
+
+    public void getModelMatrix(Item item, float[] dest, int offset){
+        int stageOffset = transformStage != null ? transformStage.getOffset(item) : -1;
+        if(stageOffset >= 0){
+            System.arraycopy(transformStage.getMatrices(), stageOffset, dest, offset, TransformStage.MATRIX_SIZE);
+        }else{
+            buildModelMatrix(item).get(dest, offset);
+        }
+    }
+
     /**
      * Builds a model view matrix.
      *
@@ -290,4 +316,25 @@ public class Transformation{
     public Matrix4f buildOrthoProjModelMatrix(Item item, Matrix4f orthoMatrix){
         return orthoMatrix.mulOrthoAffine(buildModelMatrix(item), orthoModelMatrix);
     }
-}
\ No newline at end of file
+
+    /**
+     * Getter for property 'transformStage'.
+     *
+     * @return Value for property 'transformStage'.
+     */
+
+    public TransformStage getTransformStage(){
+        return transformStage;
+    }
+
+    /**
+     * Setter for property 'transformStage'.
+     *
+     * @param transformStage Value to set for property 'transformStage'.
+     */
+
+    public void setTransformStage(TransformStage transformStage){
+        this.transformStage = transformStage;
+    }
+
+}
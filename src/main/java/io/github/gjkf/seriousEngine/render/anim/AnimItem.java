@@ -5,103 +5,615 @@
 package io.github.gjkf.seriousEngine.render.anim;
 
 import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.Bounds;
 import io.github.gjkf.seriousEngine.render.Mesh;
 import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents a {@link Item} that is animated.
+ * <p>The animation is made of {@link AnimationLayer layers}, each driven by its own state machine. The first layer
+ * is the base pose of the item, the following ones are blended over it, optionally restricted to some joints by a
+ * {@link JointMask}. Each item has its own states, so items sharing a clip still play at their own time, and
+ * {@link #update(float)} writes the result to {@link #getJointMatrices()} without allocating.</p>
+ * <p>The joint matrices are double-buffered: the pose is evaluated into a back palette, which only becomes visible
+ * to the renderer when the palettes are swapped. This lets an {@link AnimationScheduler} evaluate many items on
+ * worker threads while the renderer keeps reading the previous palettes. The animation of an item must not be
+ * changed while its scheduler is running.</p>
+ * <p>When the item has the {@link SkinData} of its meshes, {@link #setCpuSkinning(boolean) CPU skinning} can be
+ * enabled: every evaluation then also skins the meshes into {@link SkinnedGeometry}, which gives the bounds of the
+ * current pose and lets rays pick the item by its triangles.</p>
  */
 
 public class AnimItem extends Item{
 
     /**
-     * The current frame.
+     * The name of the state created for the clip given to the constructor.
      */
-    private int currentFrame;
+    public static final String DEFAULT_STATE = "default";
     /**
-     * The list of frames.
+     * The joints.
      */
-    private List<AnimatedFrame> frames;
+    private final Skeleton skeleton;
     /**
-     * The joint matrices.
+     * The layers, from the base one.
+     */
+    private final List<AnimationLayer> layers;
+    /**
+     * The blended pose of the layers.
+     */
+    private final Pose pose;
+    /**
+     * The model space matrices of the joints of the current pose.
+     */
+    private final Matrix4f[] poseMatrices;
+    /**
+     * The joint matrices of the current pose, given to the shaders. One per joint.
+     */
+    private Matrix4f[] jointMatrices;
+    /**
+     * The joint matrices being evaluated, swapped with {@link #jointMatrices} once complete.
+     */
+    private Matrix4f[] backJointMatrices;
+    /**
+     * The bounds of a frame, reused by {@link #updateLocalBounds()}.
+     */
+    private final Bounds frameBounds;
+    /**
+     * The bind pose of each mesh, <tt>null</tt> if unknown.
+     */
+    private final SkinData[] skinData;
+    /**
+     * The meshes skinned on the CPU, <tt>null</tt> unless enabled.
+     */
+    private SkinnedGeometry[] skinnedGeometry;
+    /**
+     * The bounds of a mesh, reused by {@link #getPoseBounds(Bounds)}.
+     */
+    private final Bounds meshBounds;
+    /**
+     * The inverse of the rotation, reused by {@link #raycast(Vector3f, Vector3f, float)}.
+     */
+    private final Quaternionf inverseRotation;
+    /**
+     * The origin of the ray in the space of the meshes, reused by {@link #raycast(Vector3f, Vector3f, float)}.
+     */
+    private final Vector3f rayOrigin;
+    /**
+     * The direction of the ray in the space of the meshes, reused by {@link #raycast(Vector3f, Vector3f, float)}.
+     */
+    private final Vector3f rayDirection;
+    /**
+     * The scheduler evaluating the pose, <tt>null</tt> if none.
+     */
+    private AnimationScheduler scheduler;
+
+    /**
+     * Constructs a new AnimItem, playing a clip in a loop on its base layer as the state {@link #DEFAULT_STATE}.
+     *
+     * @param meshes   The meshes.
+     * @param skeleton The joints.
+     * @param clip     The animation, with the same number of joints.
+     */
+
+    public AnimItem(Mesh[] meshes, Skeleton skeleton, AnimationClip clip){
+        this(meshes, skeleton, clip, null);
+    }
+
+    /**
+     * Constructs a new AnimItem that can be skinned on the CPU, playing a clip in a loop on its base layer as the
+     * state {@link #DEFAULT_STATE}.
+     *
+     * @param meshes   The meshes.
+     * @param skeleton The joints.
+     * @param clip     The animation, with the same number of joints.
+     * @param skinData The bind pose of each mesh, <tt>null</tt> if unknown.
+     *
+     * @throws IllegalArgumentException If there is not one bind pose per mesh, or one uses a joint the skeleton lacks.
      */
-    private List<Matrix4f> invJointMatrices;
 
-    public AnimItem(Mesh[] meshes, List<AnimatedFrame> frames, List<Matrix4f> invJointMatrices){
+    public AnimItem(Mesh[] meshes, Skeleton skeleton, AnimationClip clip, SkinData[] skinData){
         super(meshes);
-        this.frames = frames;
-        this.invJointMatrices = invJointMatrices;
-        currentFrame = 0;
+        checkClip(skeleton, clip);
+        if(skinData != null){
+            if(skinData.length != meshes.length){
+                throw new IllegalArgumentException("There are " + skinData.length + " bind poses for " + meshes.length + " meshes");
+            }
+            for(SkinData skin : skinData){
+                if(skin.getMaxJoint() >= skeleton.getJointCount()){
+                    throw new IllegalArgumentException("A mesh uses the joint " + skin.getMaxJoint() + ", the skeleton has " + skeleton.getJointCount());
+                }
+            }
+        }
+        this.skeleton = skeleton;
+        this.skinData = skinData;
+        this.frameBounds = new Bounds();
+        this.meshBounds = new Bounds();
+        this.inverseRotation = new Quaternionf();
+        this.rayOrigin = new Vector3f();
+        this.rayDirection = new Vector3f();
+        int jointCount = skeleton.getJointCount();
+        this.pose = new Pose(jointCount);
+        poseMatrices = new Matrix4f[jointCount];
+        jointMatrices = new Matrix4f[jointCount];
+        backJointMatrices = new Matrix4f[jointCount];
+        for(int i = 0; i < jointCount; i++){
+            poseMatrices[i] = new Matrix4f();
+            jointMatrices[i] = new Matrix4f();
+            backJointMatrices[i] = new Matrix4f();
+        }
+        AnimationLayer base = new AnimationLayer(jointCount);
+        base.getStateMachine().addState(new AnimationState(DEFAULT_STATE, clip));
+        this.layers = new ArrayList<>();
+        layers.add(base);
+        updatePose();
+        updateLocalBounds();
     }
 
     /**
-     * Getter for property 'frames'.
+     * Advances the layers and updates the pose.
      *
-     * @return Value for property 'frames'.
+     * @param interval The time since the last update, in seconds.
      */
 
-    public List<AnimatedFrame> getFrames(){
-        return frames;
+    public void update(float interval){
+        advance(interval);
+        updatePose();
     }
 
     /**
-     * Setter for property 'frames'.
+     * Advances the layers, without evaluating the pose.
      *
-     * @param frames Value to set for property 'frames'.
+     * @param interval The time since the last update, in seconds.
      */
 
-    public void setFrames(List<AnimatedFrame> frames){
-        this.frames = frames;
+    void advance(float interval){
+        for(int i = 0; i < layers.size(); i++){
+            layers.get(i).update(interval);
+        }
     }
 
     /**
-     * Getter for property 'currentFrame'.
+     * Blends the layers into the back palette.
+     * <p>Only touches the state of this item, so different items can be evaluated at the same time.</p>
+     */
+
+    void evaluate(){
+        layers.get(0).evaluate(pose);
+        for(int i = 1; i < layers.size(); i++){
+            layers.get(i).apply(pose);
+        }
+        pose.computeMatrices(skeleton, poseMatrices, backJointMatrices);
+        if(skinnedGeometry != null){
+            for(SkinnedGeometry geometry : skinnedGeometry){
+                geometry.skin(backJointMatrices);
+            }
+        }
+    }
+
+    /**
+     * Makes the back palette the one returned by {@link #getJointMatrices()}.
+     */
+
+    void swapPalettes(){
+        Matrix4f[] front = jointMatrices;
+        jointMatrices = backJointMatrices;
+        backJointMatrices = front;
+    }
+
+    /**
+     * Evaluates the pose and swaps the palettes.
+     */
+
+    private void updatePose(){
+        evaluate();
+        swapPalettes();
+    }
+
+    /**
+     * Checks that a clip animates a skeleton.
      *
-     * @return Value for property 'currentFrame'.
+     * @param skeleton The skeleton.
+     * @param clip     The clip.
+     *
+     * @throws IllegalArgumentException If the clip has another number of joints.
      */
 
-    public AnimatedFrame getCurrentFrame(){
-        return this.frames.get(currentFrame);
+    private static void checkClip(Skeleton skeleton, AnimationClip clip){
+        if(clip.getJointCount() != skeleton.getJointCount()){
+            throw new IllegalArgumentException("The clip has " + clip.getJointCount() + " joints, the skeleton " + skeleton.getJointCount());
+        }
     }
 
     /**
-     * Getter for property 'nextFrame'.
+     * Adds a layer over the existing ones.
+     *
+     * @param layer The layer, whose states animate the skeleton of this item.
      *
-     * @return Value for property 'nextFrame'.
+     * @return The layer.
      */
 
-    public AnimatedFrame getNextFrame(){
-        int nextFrame = currentFrame + 1;
-        if(nextFrame > frames.size() - 1){
-            nextFrame = 0;
+    public AnimationLayer addLayer(AnimationLayer layer){
+        for(AnimationState state : layer.getStateMachine().getStates()){
+            checkClip(skeleton, state.getClip());
         }
-        return this.frames.get(nextFrame);
+        layers.add(layer);
+        updatePose();
+        updateLocalBounds();
+        return layer;
     }
 
     /**
-     * Goes to the next frame.
+     * Adds a state to the base layer.
+     *
+     * @param state The state, whose clip animates the skeleton of this item.
+     */
+
+    public void addState(AnimationState state){
+        getBaseLayer().getStateMachine().addState(state);
+        updateLocalBounds();
+    }
+
+    /**
+     * Takes the transition of the base layer to the given state, if there is one.
+     *
+     * @param name The name of the state.
+     *
+     * @return Whether the base layer is now playing the state.
+     */
+
+    public boolean request(String name){
+        return getBaseLayer().getStateMachine().request(name);
+    }
+
+    /**
+     * Plays a state of the base layer, ignoring the transitions.
+     *
+     * @param name         The name of the state.
+     * @param fadeDuration The duration of the cross-fade, in seconds, <tt>0</tt> to switch at once.
+     */
+
+    public void play(String name, float fadeDuration){
+        getBaseLayer().getStateMachine().play(name, fadeDuration);
+        updatePose();
+    }
+
+    /**
+     * Returns the layers, from the base one.
+     *
+     * @return The layers.
+     */
+
+    public List<AnimationLayer> getLayers(){
+        return Collections.unmodifiableList(layers);
+    }
+
+    /**
+     * Returns the first layer, giving the base pose of the item.
+     *
+     * @return The layer.
+     */
+
+    public AnimationLayer getBaseLayer(){
+        return layers.get(0);
+    }
+
+    /**
+     * Returns the state played by the base layer.
+     *
+     * @return The state.
+     */
+
+    public AnimationState getCurrentState(){
+        return getBaseLayer().getStateMachine().getCurrent();
+    }
+
+    /**
+     * Moves the clock of the current state of the base layer and updates the pose.
+     * <p>The time is wrapped around the duration when looping, and clamped to it otherwise.</p>
+     *
+     * @param time The time since the start of the clip, in seconds.
+     */
+
+    public void setTime(float time){
+        getCurrentState().setTime(time);
+        updatePose();
+    }
+
+    /**
+     * Returns the clip of the current state of the base layer.
+     *
+     * @return The clip.
+     */
+
+    public AnimationClip getClip(){
+        return getCurrentState().getClip();
+    }
+
+    /**
+     * Replaces the clip of the current state of the base layer.
+     *
+     * @param clip The clip, with the same number of joints.
+     */
+
+    public void setClip(AnimationClip clip){
+        checkClip(skeleton, clip);
+        getCurrentState().setClip(clip);
+        updatePose();
+        updateLocalBounds();
+    }
+
+    /**
+     * Goes to the start of the next frame of the current state of the base layer.
      */
 
     public void nextFrame(){
-        int nextFrame = currentFrame + 1;
-        if(nextFrame > frames.size() - 1){
-            currentFrame = 0;
-        }else{
-            currentFrame = nextFrame;
+        setTime((getCurrentFrameIndex() + 1) / getClip().getFrameRate());
+    }
+
+    /**
+     * Returns the index of the frame at the current time of the base layer.
+     *
+     * @return The index.
+     */
+
+    public int getCurrentFrameIndex(){
+        return getCurrentState().getFrameIndex();
+    }
+
+    /**
+     * Returns the length of the current state of the base layer.
+     *
+     * @return The duration, in seconds.
+     *
+     * @see AnimationState#getDuration()
+     */
+
+    public float getDuration(){
+        return getCurrentState().getDuration();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The bounds of every frame of every clip of the layers are included as well, so the local bounds cover all
+     * the animations and do not change while they play.</p>
+     */
+
+    @Override
+    protected void updateLocalBounds(){
+        super.updateLocalBounds();
+        // Called by the constructor of Item before the layers exist
+        if(layers != null){
+            Bounds localBounds = getLocalBounds();
+            for(AnimationLayer layer : layers){
+                for(AnimationState state : layer.getStateMachine().getStates()){
+                    AnimationClip clip = state.getClip();
+                    for(int i = 0; i < clip.getFrameCount(); i++){
+                        localBounds.union(clip.getBounds(i, frameBounds));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter for property 'scheduler'.
+     *
+     * @return Value for property 'scheduler'.
+     */
+
+    public AnimationScheduler getScheduler(){
+        return scheduler;
+    }
+
+    /**
+     * Setter for property 'scheduler'.
+     *
+     * @param scheduler Value to set for property 'scheduler'.
+     */
+
+    void setScheduler(AnimationScheduler scheduler){
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns whether the meshes are skinned on the CPU.
+     *
+     * @return Whether CPU skinning is enabled.
+     */
+
+    public boolean isCpuSkinning(){
+        return skinnedGeometry != null;
+    }
+
+    /**
+     * Enables or disables skinning the meshes on the CPU at every evaluation of the pose.
+     * <p>Enabling it skins the meshes with the current pose right away.</p>
+     *
+     * @param cpuSkinning Whether to skin the meshes.
+     *
+     * @throws IllegalStateException If the item was created without the bind poses of its meshes.
+     */
+
+    public void setCpuSkinning(boolean cpuSkinning){
+        if(!cpuSkinning){
+            skinnedGeometry = null;
+            return;
+        }
+        if(skinData == null){
+            throw new IllegalStateException("The item has no bind poses");
+        }
+        if(skinnedGeometry == null){
+            skinnedGeometry = new SkinnedGeometry[skinData.length];
+            for(int i = 0; i < skinData.length; i++){
+                skinnedGeometry[i] = new SkinnedGeometry(skinData[i]);
+                skinnedGeometry[i].skin(jointMatrices);
+            }
         }
     }
 
     /**
-     * Getter for property 'invJointMatrices'.
+     * Returns the meshes skinned on the CPU, in the order of the meshes.
+     * <p>They are written when the pose is evaluated, so they must not be read while a scheduler is running.</p>
      *
-     * @return Value for property 'invJointMatrices'.
+     * @return The skinned meshes, <tt>null</tt> unless CPU skinning is enabled.
      */
 
-    public List<Matrix4f> getInvJointMatrices(){
-        return invJointMatrices;
+    public SkinnedGeometry[] getSkinnedGeometry(){
+        return skinnedGeometry;
     }
 
+    /**
+     * Computes the bounds of the current pose, in the space of the meshes.
+     * <p>Unlike the local bounds, which cover every frame of every clip, they fit the pose tightly.</p>
+     *
+     * @param dest Where to store the bounds.
+     *
+     * @return The bounds.
+     *
+     * @throws IllegalStateException If CPU skinning is not enabled.
+     */
+
+    public Bounds getPoseBounds(Bounds dest){
+        checkCpuSkinning();
+        dest.setEmpty();
+        for(SkinnedGeometry geometry : skinnedGeometry){
+            dest.union(geometry.getBounds(meshBounds));
+        }
+        return dest;
+    }
+
+    /**
+     * Finds the nearest triangle of the current pose hit by a ray in world space.
+     * <p>Usually called for the items reported by a ray cast on the spatial index, whose bounds only cover the
+     * animation roughly.</p>
+     *
+     * @param origin      The origin of the ray.
+     * @param direction   The direction of the ray. The direction should be normalized for the distances to be in
+     *                    world units.
+     * @param maxDistance The length of the ray.
+     *
+     * @return The distance of the hit along the ray, <tt>-1</tt> if nothing is hit.
+     *
+     * @throws IllegalStateException If CPU skinning is not enabled.
+     */
+
+    public float raycast(Vector3f origin, Vector3f direction, float maxDistance){
+        checkCpuSkinning();
+        // The model matrix is T * R * S: the ray is brought back with the inverse, and scaling the direction too keeps
+        // the distances the same in both spaces
+        float invScale = 1 / getScale();
+        getRotation().conjugate(inverseRotation);
+        origin.sub(getPosition(), rayOrigin).rotate(inverseRotation).mul(invScale);
+        direction.rotate(inverseRotation, rayDirection).mul(invScale);
+        float nearest = -1;
+        for(SkinnedGeometry geometry : skinnedGeometry){
+            float distance = geometry.raycast(rayOrigin.x, rayOrigin.y, rayOrigin.z,
+                    rayDirection.x, rayDirection.y, rayDirection.z, nearest < 0 ? maxDistance : nearest);
+            if(distance >= 0){
+                nearest = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Checks that CPU skinning is enabled.
+     *
+     * @throws IllegalStateException If it is not.
+     */
+
+    private void checkCpuSkinning(){
+        if(skinnedGeometry == null){
+            throw new IllegalStateException("CPU skinning is not enabled");
+        }
+    }
+
+    /**
+     * Getter for property 'skinData'.
+     *
+     * @return Value for property 'skinData'.
+     */
+
+    public SkinData[] getSkinData(){
+        return skinData;
+    }
+
+    /**
+     * Returns the joint matrices of the last complete pose.
+     * <p>The array is replaced when the palettes are swapped, so it must be fetched again after each update.</p>
+     *
+     * @return The joint matrices, one per joint.
+     */
+
+    public Matrix4f[] getJointMatrices(){
+        return jointMatrices;
+    }
+
+    /**
+     * Getter for property 'skeleton'.
+     *
+     * @return Value for property 'skeleton'.
+     */
+
+    public Skeleton getSkeleton(){
+        return skeleton;
+    }
+
+    /**
+     * Returns the clock of the current state of the base layer.
+     *
+     * @return The time since the start of the clip, in seconds.
+     */
+
+    public float getTime(){
+        return getCurrentState().getTime();
+    }
+
+    /**
+     * Returns the speed of the current state of the base layer.
+     *
+     * @return The playback rate.
+     */
+
+    public float getPlaybackRate(){
+        return getCurrentState().getPlaybackRate();
+    }
+
+    /**
+     * Sets the speed of the current state of the base layer.
+     *
+     * @param playbackRate The playback rate, <tt>1</tt> being the speed of the clip. Negative values play it backwards.
+     */
+
+    public void setPlaybackRate(float playbackRate){
+        getCurrentState().setPlaybackRate(playbackRate);
+    }
+
+    /**
+     * Returns what happens at the ends of the current state of the base layer.
+     *
+     * @return The playback mode.
+     */
+
+    public AnimationState.PlaybackMode getPlaybackMode(){
+        return getCurrentState().getPlaybackMode();
+    }
+
+    /**
+     * Sets what happens at the ends of the current state of the base layer.
+     *
+     * @param playbackMode The playback mode.
+     */
+
+    public void setPlaybackMode(AnimationState.PlaybackMode playbackMode){
+        getCurrentState().setPlaybackMode(playbackMode);
+        updatePose();
+    }
 
-}
\ No newline at end of file
+}
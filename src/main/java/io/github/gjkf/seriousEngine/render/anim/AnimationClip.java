@@ -0,0 +1,228 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+import io.github.gjkf.seriousEngine.render.Bounds;
+
+/**
+ * The frames of an animation, stored as a single array.
+ * <p>The pose of each joint in each frame is {@link #POSE_SIZE} floats: its translation and its rotation, as a
+ * quaternion x, y, z and w, both relative to the parent joint. The poses are stored frame after frame, so the pose of
+ * joint <tt>j</tt> in frame <tt>f</tt> starts at <tt>(f * jointCount + j) * POSE_SIZE</tt>. The bounds of each frame
+ * are stored as six floats: the minimum and the maximum corners.</p>
+ */
+
+public class AnimationClip{
+
+    /**
+     * The number of floats of the pose of a joint.
+     */
+    public static final int POSE_SIZE = 7;
+    /**
+     * The number of floats of the bounds of a frame.
+     */
+    public static final int BOUNDS_SIZE = 6;
+    /**
+     * The number of joints of each frame.
+     */
+    private final int jointCount;
+    /**
+     * The number of frames.
+     */
+    private final int frameCount;
+    /**
+     * The number of frames per second.
+     */
+    private final float frameRate;
+    /**
+     * The poses.
+     */
+    private final float[] poses;
+    /**
+     * The bounds of the frames, in model space. The minimum is greater than the maximum when unknown.
+     */
+    private final float[] bounds;
+
+    /**
+     * Creates a clip of identity poses and unknown bounds.
+     *
+     * @param jointCount The number of joints of each frame.
+     * @param frameCount The number of frames.
+     * @param frameRate  The number of frames per second.
+     */
+
+    public AnimationClip(int jointCount, int frameCount, float frameRate){
+        this(jointCount, frameCount, frameRate, new float[jointCount * frameCount * POSE_SIZE], new float[frameCount * BOUNDS_SIZE]);
+        for(int i = 0; i < jointCount * frameCount; i++){
+            poses[i * POSE_SIZE + 6] = 1;
+        }
+        for(int i = 0; i < frameCount; i++){
+            setBounds(i, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                    Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Creates a clip from its arrays.
+     *
+     * @param jointCount The number of joints of each frame.
+     * @param frameCount The number of frames.
+     * @param frameRate  The number of frames per second.
+     * @param poses      The poses, not copied.
+     * @param bounds     The bounds of the frames, not copied.
+     */
+
+    public AnimationClip(int jointCount, int frameCount, float frameRate, float[] poses, float[] bounds){
+        if(poses.length != jointCount * frameCount * POSE_SIZE || bounds.length != frameCount * BOUNDS_SIZE){
+            throw new IllegalArgumentException("The arrays do not match " + frameCount + " frames of " + jointCount + " joints");
+        }
+        this.jointCount = jointCount;
+        this.frameCount = frameCount;
+        this.frameRate = frameRate;
+        this.poses = poses;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Returns where the pose of a joint starts in {@link #getPoses()}.
+     *
+     * @param frame The index of the frame.
+     * @param joint The index of the joint.
+     *
+     * @return The offset.
+     */
+
+    public int getPoseOffset(int frame, int joint){
+        return (frame * jointCount + joint) * POSE_SIZE;
+    }
+
+    /**
+     * Sets the pose of a joint.
+     *
+     * @param frame The index of the frame.
+     * @param joint The index of the joint.
+     * @param x     The translation on the x axis.
+     * @param y     The translation on the y axis.
+     * @param z     The translation on the z axis.
+     * @param qx    The x component of the rotation.
+     * @param qy    The y component of the rotation.
+     * @param qz    The z component of the rotation.
+     * @param qw    The w component of the rotation.
+     */
+
+    public void setPose(int frame, int joint, float x, float y, float z, float qx, float qy, float qz, float qw){
+        int offset = getPoseOffset(frame, joint);
+        poses[offset] = x;
+        poses[offset + 1] = y;
+        poses[offset + 2] = z;
+        poses[offset + 3] = qx;
+        poses[offset + 4] = qy;
+        poses[offset + 5] = qz;
+        poses[offset + 6] = qw;
+    }
+
+    /**
+     * Sets the bounds of a frame.
+     *
+     * @param frame The index of the frame.
+     * @param minX  The minimum on the x axis.
+     * @param minY  The minimum on the y axis.
+     * @param minZ  The minimum on the z axis.
+     * @param maxX  The maximum on the x axis.
+     * @param maxY  The maximum on the y axis.
+     * @param maxZ  The maximum on the z axis.
+     */
+
+    public void setBounds(int frame, float minX, float minY, float minZ, float maxX, float maxY, float maxZ){
+        int offset = frame * BOUNDS_SIZE;
+        bounds[offset] = minX;
+        bounds[offset + 1] = minY;
+        bounds[offset + 2] = minZ;
+        bounds[offset + 3] = maxX;
+        bounds[offset + 4] = maxY;
+        bounds[offset + 5] = maxZ;
+    }
+
+    /**
+     * Reads the bounds of a frame.
+     *
+     * @param frame The index of the frame.
+     * @param dest  Where to store the bounds, made empty if they are unknown.
+     *
+     * @return <tt>dest</tt>.
+     */
+
+    public Bounds getBounds(int frame, Bounds dest){
+        int offset = frame * BOUNDS_SIZE;
+        if(bounds[offset] > bounds[offset + 3]){
+            return dest.setEmpty();
+        }
+        return dest.set(bounds[offset], bounds[offset + 1], bounds[offset + 2], bounds[offset + 3], bounds[offset + 4], bounds[offset + 5]);
+    }
+
+    /**
+     * Returns the length of the clip.
+     *
+     * @param loop Whether the last frame is blended back into the first one, which makes the clip one frame longer.
+     *
+     * @return The duration, in seconds.
+     */
+
+    public float getDuration(boolean loop){
+        int count = loop ? frameCount : frameCount - 1;
+        return Math.max(0, count) / frameRate;
+    }
+
+    /**
+     * Getter for property 'jointCount'.
+     *
+     * @return Value for property 'jointCount'.
+     */
+
+    public int getJointCount(){
+        return jointCount;
+    }
+
+    /**
+     * Getter for property 'frameCount'.
+     *
+     * @return Value for property 'frameCount'.
+     */
+
+    public int getFrameCount(){
+        return frameCount;
+    }
+
+    /**
+     * Getter for property 'frameRate'.
+     *
+     * @return Value for property 'frameRate'.
+     */
+
+    public float getFrameRate(){
+        return frameRate;
+    }
+
+    /**
+     * Getter for property 'poses'.
+     *
+     * @return Value for property 'poses'.
+     */
+
+    public float[] getPoses(){
+        return poses;
+    }
+
+    /**
+     * Getter for property 'bounds'.
+     *
+     * @return Value for property 'bounds'.
+     */
+
+    public float[] getBounds(){
+        return bounds;
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+/**
+ * A layer of the animation of an {@link AnimItem}: a state machine and how its pose is combined with the layers
+ * below it.
+ * <p>The first layer of an item is its base and is used as is. The following layers are applied in order, with their
+ * weight and mask: an {@link BlendMode#OVERRIDE override} layer blends towards its pose, an
+ * {@link BlendMode#ADDITIVE additive} layer adds the difference between its pose and the first frame of its current
+ * clip.</p>
+ */
+
+public class AnimationLayer{
+
+    /**
+     * The clips of the layer.
+     */
+    private final AnimationStateMachine stateMachine;
+    /**
+     * The pose of the layer.
+     */
+    private final Pose pose;
+    /**
+     * A pose used during the fades.
+     */
+    private final Pose scratch;
+    /**
+     * The reference of the additive layers.
+     */
+    private final Pose reference;
+    /**
+     * How the pose is combined with the layers below.
+     */
+    private BlendMode blendMode;
+    /**
+     * The weight of the layer, from <tt>0</tt> to <tt>1</tt>.
+     */
+    private float weight;
+    /**
+     * The weights of the joints, <tt>null</tt> for all the joints.
+     */
+    private JointMask mask;
+
+    /**
+     * Creates an override layer with a full weight.
+     *
+     * @param jointCount The number of joints of the clips.
+     */
+
+    public AnimationLayer(int jointCount){
+        this(jointCount, BlendMode.OVERRIDE);
+    }
+
+    /**
+     * Creates a layer with a full weight.
+     *
+     * @param jointCount The number of joints of the clips.
+     * @param blendMode  How the pose is combined with the layers below.
+     */
+
+    public AnimationLayer(int jointCount, BlendMode blendMode){
+        this.stateMachine = new AnimationStateMachine(jointCount);
+        this.pose = new Pose(jointCount);
+        this.scratch = new Pose(jointCount);
+        this.reference = new Pose(jointCount);
+        this.blendMode = blendMode;
+        this.weight = 1;
+    }
+
+    /**
+     * Advances the state machine.
+     *
+     * @param interval The time since the last update, in seconds.
+     */
+
+    public void update(float interval){
+        stateMachine.update(interval);
+    }
+
+    /**
+     * Samples the layer, ignoring its weight and mask, as done for the base layer.
+     *
+     * @param dest Where to store the pose.
+     */
+
+    public void evaluate(Pose dest){
+        stateMachine.evaluate(dest, scratch);
+    }
+
+    /**
+     * Combines the pose of the layer with the pose of the layers below.
+     *
+     * @param base The pose of the layers below, modified.
+     */
+
+    public void apply(Pose base){
+        AnimationState current = stateMachine.getCurrent();
+        if(weight <= 0 || current == null){
+            return;
+        }
+        stateMachine.evaluate(pose, scratch);
+        if(blendMode == BlendMode.OVERRIDE){
+            base.blend(pose, weight, mask);
+        }else{
+            reference.sample(current.getClip(), 0, false);
+            base.addDifference(pose, reference, weight, mask);
+        }
+    }
+
+    /**
+     * Getter for property 'stateMachine'.
+     *
+     * @return Value for property 'stateMachine'.
+     */
+
+    public AnimationStateMachine getStateMachine(){
+        return stateMachine;
+    }
+
+    /**
+     * Getter for property 'blendMode'.
+     *
+     * @return Value for property 'blendMode'.
+     */
+
+    public BlendMode getBlendMode(){
+        return blendMode;
+    }
+
+    /**
+     * Setter for property 'blendMode'.
+     *
+     * @param blendMode Value to set for property 'blendMode'.
+     */
+
+    public void setBlendMode(BlendMode blendMode){
+        this.blendMode = blendMode;
+    }
+
+    /**
+     * Getter for property 'weight'.
+     *
+     * @return Value for property 'weight'.
+     */
+
+    public float getWeight(){
+        return weight;
+    }
+
+    /**
+     * Setter for property 'weight'.
+     *
+     * @param weight Value to set for property 'weight'.
+     */
+
+    public void setWeight(float weight){
+        this.weight = weight;
+    }
+
+    /**
+     * Getter for property 'mask'.
+     *
+     * @return Value for property 'mask'.
+     */
+
+    public JointMask getMask(){
+        return mask;
+    }
+
+    /**
+     * Setter for property 'mask'.
+     *
+     * @param mask Value to set for property 'mask'.
+     */
+
+    public void setMask(JointMask mask){
+        this.mask = mask;
+    }
+
+    /**
+     * How the pose of a layer is combined with the layers below.
+     */
+
+    public enum BlendMode{
+        OVERRIDE, ADDITIVE
+    }
+
+}
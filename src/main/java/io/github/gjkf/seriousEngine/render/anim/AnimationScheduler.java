@@ -0,0 +1,366 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+import io.github.gjkf.seriousEngine.render.FrustumCullingFilter;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates the poses of many {@link AnimItem}s at once.
+ * <p>The clocks and state machines of the items are advanced on the calling thread, which is cheap. The poses, where
+ * the joint hierarchies are walked and the palettes computed, are evaluated in chunks on the common
+ * {@link ForkJoinPool} once there are at least {@link #PARALLEL_THRESHOLD} items to evaluate. There are more chunks
+ * than threads, so the idle workers steal the chunks of the busy ones.</p>
+ * <p>The poses are written to the back palettes of the items, which are swapped by {@link #finish()}. Between
+ * {@link #start(float)} and {@link #finish()} the renderer can keep using the previous palettes, so the evaluation
+ * overlaps the rest of the frame:</p>
+ * <pre>
+ *     scheduler.start(interval);
+ *     // other updates, rendering the previous palettes...
+ *     scheduler.finish();
+ * </pre>
+ * <p>When a {@link FrustumCullingFilter} is set, the poses of the items outside of it are not evaluated: their clocks
+ * still advance, and the pose catches up as soon as they are visible again.</p>
+ */
+
+public class AnimationScheduler{
+
+    /**
+     * The number of items to evaluate from which the work is run in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 8;
+    /**
+     * The number of chunks per thread, more than one to balance the load.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+    /**
+     * The items.
+     */
+    private AnimItem[] items;
+    /**
+     * The number of items.
+     */
+    private int count;
+    /**
+     * The items evaluated by the current update.
+     */
+    private AnimItem[] evaluated;
+    /**
+     * The number of items evaluated by the current update.
+     */
+    private int evaluatedCount;
+    /**
+     * The chunks of the parallel evaluation.
+     */
+    private ChunkTask[] tasks;
+    /**
+     * Runs the chunks, submitted to the pool by {@link #start(float)}.
+     */
+    private final BatchTask batch;
+    /**
+     * Whether {@link #start(float)} was called without {@link #finish()}.
+     */
+    private boolean running;
+    /**
+     * Whether the chunks were submitted to the pool.
+     */
+    private boolean submitted;
+    /**
+     * The filter selecting the items to evaluate, <tt>null</tt> for all of them.
+     */
+    private FrustumCullingFilter filter;
+    /**
+     * Whether the work can run in parallel.
+     */
+    private boolean parallel;
+
+    /**
+     * Creates a scheduler without items.
+     */
+
+    public AnimationScheduler(){
+        items = new AnimItem[16];
+        evaluated = new AnimItem[16];
+        tasks = new ChunkTask[0];
+        batch = new BatchTask();
+        parallel = true;
+    }
+
+    /**
+     * Adds an item, unless it is already in this scheduler.
+     *
+     * @param item The item.
+     */
+
+    public void add(AnimItem item){
+        checkIdle();
+        if(item.getScheduler() == this){
+            return;
+        }
+        item.setScheduler(this);
+        if(count == items.length){
+            items = Arrays.copyOf(items, count * 2);
+            evaluated = new AnimItem[count * 2];
+        }
+        items[count++] = item;
+    }
+
+    /**
+     * Removes an item.
+     *
+     * @param item The item.
+     *
+     * @return Whether the item was found.
+     */
+
+    public boolean remove(AnimItem item){
+        checkIdle();
+        for(int i = 0; i < count; i++){
+            if(items[i] == item){
+                item.setScheduler(null);
+                System.arraycopy(items, i + 1, items, i, count - i - 1);
+                items[--count] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all the items.
+     */
+
+    public void clear(){
+        checkIdle();
+        for(int i = 0; i < count; i++){
+            items[i].setScheduler(null);
+        }
+        Arrays.fill(items, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Advances and evaluates every item, then swaps their palettes.
+     *
+     * @param interval The time since the last update, in seconds.
+     */
+
+    public void update(float interval){
+        start(interval);
+        finish();
+    }
+
+    /**
+     * Advances every item and starts evaluating their poses.
+     * <p>When the work runs in parallel this returns as soon as it is submitted; otherwise the poses are evaluated
+     * before returning. The items must not be changed until {@link #finish()}.</p>
+     *
+     * @param interval The time since the last update, in seconds.
+     *
+     * @throws IllegalStateException If the previous update is not finished.
+     */
+
+    public void start(float interval){
+        checkIdle();
+        running = true;
+        evaluatedCount = 0;
+        for(int i = 0; i < count; i++){
+            AnimItem item = items[i];
+            item.advance(interval);
+            if(filter == null || filter.insideFrustum(item.getWorldBounds())){
+                evaluated[evaluatedCount++] = item;
+            }
+        }
+        submitted = parallel && evaluatedCount >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+        if(submitted){
+            prepareTasks();
+            batch.reinitialize();
+            ForkJoinPool.commonPool().execute(batch);
+        }else{
+            evaluate(0, evaluatedCount);
+        }
+    }
+
+    /**
+     * Waits for the poses to be evaluated and swaps the palettes of the items, making the new poses visible to the
+     * renderer. Does nothing if no update is running.
+     */
+
+    public void finish(){
+        if(!running){
+            return;
+        }
+        running = false;
+        if(submitted){
+            submitted = false;
+            batch.join();
+        }
+        for(int i = 0; i < evaluatedCount; i++){
+            evaluated[i].swapPalettes();
+            evaluated[i] = null;
+        }
+    }
+
+    /**
+     * Evaluates a range of the items of the current update.
+     *
+     * @param start The first item.
+     * @param end   The item after the last one.
+     */
+
+    private void evaluate(int start, int end){
+        for(int i = start; i < end; i++){
+            evaluated[i].evaluate();
+        }
+    }
+
+    /**
+     * Creates the chunks and splits the evaluated items evenly between them.
+     */
+
+    private void prepareTasks(){
+        int numTasks = Math.min(ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD, evaluatedCount);
+        if(tasks.length != numTasks){
+            tasks = new ChunkTask[numTasks];
+            for(int i = 0; i < numTasks; i++){
+                tasks[i] = new ChunkTask();
+            }
+        }
+        for(int i = 0; i < numTasks; i++){
+            tasks[i].reinitialize();
+            tasks[i].start = evaluatedCount * i / numTasks;
+            tasks[i].end = evaluatedCount * (i + 1) / numTasks;
+        }
+    }
+
+    /**
+     * Checks that no update is running.
+     *
+     * @throws IllegalStateException If an update is running.
+     */
+
+    private void checkIdle(){
+        if(running){
+            throw new IllegalStateException("The previous update is not finished");
+        }
+    }
+
+    /**
+     * Returns the number of items.
+     *
+     * @return The number of items.
+     */
+
+    public int size(){
+        return count;
+    }
+
+    /**
+     * Returns whether {@link #start(float)} was called without {@link #finish()}.
+     *
+     * @return Whether an update is running.
+     */
+
+    public boolean isRunning(){
+        return running;
+    }
+
+    /**
+     * Getter for property 'filter'.
+     *
+     * @return Value for property 'filter'.
+     */
+
+    public FrustumCullingFilter getFilter(){
+        return filter;
+    }
+
+    /**
+     * Setter for property 'filter'.
+     *
+     * @param filter Value to set for property 'filter'.
+     */
+
+    public void setFilter(FrustumCullingFilter filter){
+        this.filter = filter;
+    }
+
+    /**
+     * Getter for property 'parallel'.
+     *
+     * @return Value for property 'parallel'.
+     */
+
+    public boolean isParallel(){
+        return parallel;
+    }
+
+    /**
+     * Setter for property 'parallel'.
+     *
+     * @param parallel Value to set for property 'parallel'.
+     */
+
+    public void setParallel(boolean parallel){
+        this.parallel = parallel;
+    }
+
+    /**
+     * Runs every chunk and waits for them, from a worker of the pool.
+     */
+
+    private class BatchTask extends RecursiveAction{
+
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * {@inheritDoc}
+         */
+
+        @Override
+        protected void compute(){
+            ForkJoinTask.invokeAll(tasks);
+        }
+
+    }
+
+    /**
+     * A chunk of the items, evaluated by one task.
+     */
+
+    private class ChunkTask extends RecursiveAction{
+
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The start of the range.
+         */
+        int start;
+        /**
+         * The end of the range.
+         */
+        int end;
+
+        /**
+         * {@inheritDoc}
+         */
+
+        @Override
+        protected void compute(){
+            evaluate(start, end);
+        }
+
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+/**
+ * A state of an {@link AnimationStateMachine}: a clip and the clock playing it.
+ * <p>Clips are shared between the items of a model, states are not: each item has its own states, so each one plays
+ * at its own time.</p>
+ */
+
+public class AnimationState{
+
+    /**
+     * The name, used by the transitions.
+     */
+    private final String name;
+    /**
+     * The animation.
+     */
+    private AnimationClip clip;
+    /**
+     * The time since the start of the clip, in seconds.
+     */
+    private float time;
+    /**
+     * The speed of the clock, <tt>1</tt> being the speed of the clip. Negative values play it backwards.
+     */
+    private float playbackRate;
+    /**
+     * What happens at the ends of the clip.
+     */
+    private PlaybackMode playbackMode;
+
+    /**
+     * Creates a looping state.
+     *
+     * @param name The name, used by the transitions.
+     * @param clip The animation.
+     */
+
+    public AnimationState(String name, AnimationClip clip){
+        this(name, clip, PlaybackMode.LOOP);
+    }
+
+    /**
+     * Creates a state.
+     *
+     * @param name         The name, used by the transitions.
+     * @param clip         The animation.
+     * @param playbackMode What happens at the ends of the clip.
+     */
+
+    public AnimationState(String name, AnimationClip clip, PlaybackMode playbackMode){
+        this.name = name;
+        this.clip = clip;
+        this.playbackMode = playbackMode;
+        this.playbackRate = 1;
+    }
+
+    /**
+     * Advances the clock.
+     *
+     * @param interval The time since the last update, in seconds.
+     */
+
+    public void update(float interval){
+        setTime(time + interval * playbackRate);
+    }
+
+    /**
+     * Samples the clip at the current time.
+     *
+     * @param dest Where to store the pose.
+     */
+
+    public void sample(Pose dest){
+        dest.sample(clip, time, playbackMode == PlaybackMode.LOOP);
+    }
+
+    /**
+     * Returns whether a clamped clip reached its end, in the direction it is played.
+     *
+     * @return Whether it is finished. Always <tt>false</tt> when looping.
+     */
+
+    public boolean isFinished(){
+        return playbackMode == PlaybackMode.CLAMP && (playbackRate >= 0 ? time >= getDuration() : time <= 0);
+    }
+
+    /**
+     * Returns the length of the clip.
+     * <p>When looping the last frame is blended back into the first one, so the clip lasts one frame more than when
+     * clamped.</p>
+     *
+     * @return The duration, in seconds.
+     */
+
+    public float getDuration(){
+        return clip.getDuration(playbackMode == PlaybackMode.LOOP);
+    }
+
+    /**
+     * Returns the index of the frame at the current time.
+     *
+     * @return The index.
+     */
+
+    public int getFrameIndex(){
+        return Math.max(0, Math.min((int) (time * clip.getFrameRate()), clip.getFrameCount() - 1));
+    }
+
+    /**
+     * Getter for property 'name'.
+     *
+     * @return Value for property 'name'.
+     */
+
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * Getter for property 'clip'.
+     *
+     * @return Value for property 'clip'.
+     */
+
+    public AnimationClip getClip(){
+        return clip;
+    }
+
+    /**
+     * Setter for property 'clip'.
+     *
+     * @param clip Value to set for property 'clip'.
+     */
+
+    public void setClip(AnimationClip clip){
+        this.clip = clip;
+        setTime(time);
+    }
+
+    /**
+     * Getter for property 'time'.
+     *
+     * @return Value for property 'time'.
+     */
+
+    public float getTime(){
+        return time;
+    }
+
+    /**
+     * Moves the clock.
+     * <p>The time is wrapped around the duration when looping, and clamped to it otherwise.</p>
+     *
+     * @param time The time since the start of the clip, in seconds.
+     */
+
+    public void setTime(float time){
+        float duration = getDuration();
+        if(duration <= 0){
+            this.time = 0;
+        }else if(playbackMode == PlaybackMode.LOOP){
+            this.time = time % duration;
+            if(this.time < 0){
+                this.time += duration;
+            }
+        }else{
+            this.time = Math.max(0, Math.min(time, duration));
+        }
+    }
+
+    /**
+     * Getter for property 'playbackRate'.
+     *
+     * @return Value for property 'playbackRate'.
+     */
+
+    public float getPlaybackRate(){
+        return playbackRate;
+    }
+
+    /**
+     * Setter for property 'playbackRate'.
+     *
+     * @param playbackRate Value to set for property 'playbackRate'.
+     */
+
+    public void setPlaybackRate(float playbackRate){
+        this.playbackRate = playbackRate;
+    }
+
+    /**
+     * Getter for property 'playbackMode'.
+     *
+     * @return Value for property 'playbackMode'.
+     */
+
+    public PlaybackMode getPlaybackMode(){
+        return playbackMode;
+    }
+
+    /**
+     * Setter for property 'playbackMode'.
+     *
+     * @param playbackMode Value to set for property 'playbackMode'.
+     */
+
+    public void setPlaybackMode(PlaybackMode playbackMode){
+        this.playbackMode = playbackMode;
+        setTime(time);
+    }
+
+    /**
+     * What happens when the clock reaches an end of the clip.
+     */
+
+    public enum PlaybackMode{
+        LOOP, CLAMP
+    }
+
+}
@@ -0,0 +1,351 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drives the clips of an {@link AnimationLayer}.
+ * <p>The machine plays one state at a time. {@link #request(String) Requesting} another state takes the transition
+ * between the two, cross-fading from the current state to the new one over the duration of the transition. The
+ * previous state keeps playing during the fade. A transition can also be taken automatically when a clamped state
+ * reaches its end, for example to go back to idle after a jump.</p>
+ * <p>A transition started during a fade freezes the blended pose shown at that moment and fades from it, so the pose
+ * does not jump. Going back to the state that was fading out carries on from its current time.</p>
+ */
+
+public class AnimationStateMachine{
+
+    /**
+     * The number of joints of the clips.
+     */
+    private final int jointCount;
+    /**
+     * The states, by name.
+     */
+    private final Map<String, AnimationState> states;
+    /**
+     * The transitions, searched in order.
+     */
+    private final List<Transition> transitions;
+    /**
+     * The state being played.
+     */
+    private AnimationState current;
+    /**
+     * The state fading out, <tt>null</tt> if none.
+     */
+    private AnimationState previous;
+    /**
+     * The time since the start of the fade, in seconds.
+     */
+    private float fadeTime;
+    /**
+     * The duration of the fade, in seconds.
+     */
+    private float fadeDuration;
+    /**
+     * The pose shown when a transition interrupted a fade, faded from instead of a previous state.
+     */
+    private final Pose fadePose;
+    /**
+     * Whether the fade starts from {@link #fadePose}.
+     */
+    private boolean fadingFromPose;
+    /**
+     * The pose used to compute {@link #fadePose}.
+     */
+    private final Pose fadeScratch;
+
+    /**
+     * Creates a machine without states.
+     *
+     * @param jointCount The number of joints of the clips.
+     */
+
+    public AnimationStateMachine(int jointCount){
+        this.jointCount = jointCount;
+        this.states = new LinkedHashMap<>();
+        this.transitions = new ArrayList<>();
+        this.fadePose = new Pose(jointCount);
+        this.fadeScratch = new Pose(jointCount);
+    }
+
+    /**
+     * Adds a state. The first state added is played.
+     *
+     * @param state The state.
+     *
+     * @return This.
+     *
+     * @throws IllegalArgumentException If the clip of the state has another number of joints, or the name is taken.
+     */
+
+    public AnimationStateMachine addState(AnimationState state){
+        if(state.getClip().getJointCount() != jointCount){
+            throw new IllegalArgumentException("The clip of " + state.getName() + " has " + state.getClip().getJointCount() + " joints, expected " + jointCount);
+        }
+        if(states.putIfAbsent(state.getName(), state) != null){
+            throw new IllegalArgumentException("Duplicate state " + state.getName());
+        }
+        if(current == null){
+            current = state;
+        }
+        return this;
+    }
+
+    /**
+     * Allows going from a state to another when requested.
+     *
+     * @param from         The name of the state the transition starts from, <tt>null</tt> for any state.
+     * @param to           The name of the state the transition goes to.
+     * @param fadeDuration The duration of the cross-fade, in seconds.
+     *
+     * @return This.
+     */
+
+    public AnimationStateMachine addTransition(String from, String to, float fadeDuration){
+        transitions.add(new Transition(from, getState(to), fadeDuration, false));
+        return this;
+    }
+
+    /**
+     * Goes from a clamped state to another when its clip ends.
+     *
+     * @param from         The name of the state the transition starts from.
+     * @param to           The name of the state the transition goes to.
+     * @param fadeDuration The duration of the cross-fade, in seconds.
+     *
+     * @return This.
+     */
+
+    public AnimationStateMachine addExitTransition(String from, String to, float fadeDuration){
+        transitions.add(new Transition(from, getState(to), fadeDuration, true));
+        return this;
+    }
+
+    /**
+     * Takes the transition from the current state to the given one, if there is one.
+     * <p>Requesting the current state does nothing.</p>
+     *
+     * @param name The name of the state.
+     *
+     * @return Whether the machine is now playing the state.
+     */
+
+    public boolean request(String name){
+        if(current != null && current.getName().equals(name)){
+            return true;
+        }
+        for(int i = 0; i < transitions.size(); i++){
+            Transition transition = transitions.get(i);
+            if(!transition.onEnd && transition.to.getName().equals(name) && transition.startsFrom(current)){
+                start(transition.to, transition.fadeDuration);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Plays a state, ignoring the transitions.
+     *
+     * @param name         The name of the state.
+     * @param fadeDuration The duration of the cross-fade, in seconds, <tt>0</tt> to switch at once.
+     */
+
+    public void play(String name, float fadeDuration){
+        start(getState(name), fadeDuration);
+    }
+
+    /**
+     * Advances the clocks of the playing states and the fade, and takes the exit transitions of the finished states.
+     *
+     * @param interval The time since the last update, in seconds.
+     */
+
+    public void update(float interval){
+        if(current == null){
+            return;
+        }
+        current.update(interval);
+        if(isFading()){
+            if(previous != null){
+                previous.update(interval);
+            }
+            fadeTime += interval;
+            if(fadeTime >= fadeDuration){
+                previous = null;
+                fadingFromPose = false;
+            }
+        }
+        if(current.isFinished()){
+            for(int i = 0; i < transitions.size(); i++){
+                Transition transition = transitions.get(i);
+                if(transition.onEnd && transition.startsFrom(current)){
+                    start(transition.to, transition.fadeDuration);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Samples the playing states.
+     *
+     * @param dest    Where to store the pose.
+     * @param scratch A pose used during the fades.
+     */
+
+    public void evaluate(Pose dest, Pose scratch){
+        if(current == null){
+            dest.setIdentity();
+            return;
+        }
+        if(!isFading()){
+            current.sample(dest);
+            return;
+        }
+        if(fadingFromPose){
+            dest.set(fadePose);
+        }else{
+            previous.sample(dest);
+        }
+        current.sample(scratch);
+        dest.blend(scratch, fadeTime / fadeDuration, null);
+    }
+
+    /**
+     * Starts playing a state from its beginning, or from its current time if it was fading out.
+     *
+     * @param state        The state.
+     * @param fadeDuration The duration of the cross-fade, in seconds.
+     */
+
+    private void start(AnimationState state, float fadeDuration){
+        if(state == current){
+            return;
+        }
+        if(fadeDuration > 0 && isFading()){
+            // Fade from the pose shown now rather than dropping the state fading out
+            evaluate(fadePose, fadeScratch);
+            fadingFromPose = true;
+        }else{
+            fadingFromPose = false;
+        }
+        if(state != previous){
+            state.setTime(state.getPlaybackRate() >= 0 ? 0 : state.getDuration());
+        }
+        previous = fadeDuration > 0 && !fadingFromPose ? current : null;
+        current = state;
+        this.fadeTime = 0;
+        this.fadeDuration = fadeDuration;
+    }
+
+    /**
+     * Returns a state.
+     *
+     * @param name The name of the state.
+     *
+     * @return The state.
+     *
+     * @throws IllegalArgumentException If there is no such state.
+     */
+
+    public AnimationState getState(String name){
+        AnimationState state = states.get(name);
+        if(state == null){
+            throw new IllegalArgumentException("Unknown state " + name);
+        }
+        return state;
+    }
+
+    /**
+     * Returns every state, in the order they were added.
+     *
+     * @return The states.
+     */
+
+    public Iterable<AnimationState> getStates(){
+        return states.values();
+    }
+
+    /**
+     * Returns whether the machine is cross-fading between two states.
+     *
+     * @return Whether it is fading.
+     */
+
+    public boolean isFading(){
+        return previous != null || fadingFromPose;
+    }
+
+    /**
+     * Getter for property 'current'.
+     *
+     * @return Value for property 'current'.
+     */
+
+    public AnimationState getCurrent(){
+        return current;
+    }
+
+    /**
+     * A transition between two states.
+     */
+
+    private static final class Transition{
+
+        /**
+         * The name of the state the transition starts from, <tt>null</tt> for any state.
+         */
+        private final String from;
+        /**
+         * The state the transition goes to.
+         */
+        private final AnimationState to;
+        /**
+         * The duration of the cross-fade, in seconds.
+         */
+        private final float fadeDuration;
+        /**
+         * Whether the transition is taken when the clip of the state ends, instead of when requested.
+         */
+        private final boolean onEnd;
+
+        /**
+         * Creates a transition.
+         *
+         * @param from         The name of the state the transition starts from, <tt>null</tt> for any state.
+         * @param to           The state the transition goes to.
+         * @param fadeDuration The duration of the cross-fade, in seconds.
+         * @param onEnd        Whether the transition is taken when the clip of the state ends.
+         */
+
+        Transition(String from, AnimationState to, float fadeDuration, boolean onEnd){
+            this.from = from;
+            this.to = to;
+            this.fadeDuration = fadeDuration;
+            this.onEnd = onEnd;
+        }
+
+        /**
+         * Returns whether the transition can be taken from a state.
+         *
+         * @param state The state.
+         *
+         * @return Whether it starts from the state.
+         */
+
+        boolean startsFrom(AnimationState state){
+            return from == null || (state != null && from.equals(state.getName()));
+        }
+
+    }
+
+}
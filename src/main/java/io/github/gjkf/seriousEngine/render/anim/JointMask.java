@@ -0,0 +1,105 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+/**
+ * A weight per joint, limiting the joints an {@link AnimationLayer} animates.
+ * <p>For example a layer masked to the subtree of the spine plays an attack on the upper body while the base layer
+ * keeps the legs walking.</p>
+ */
+
+public class JointMask{
+
+    /**
+     * The weight of each joint, from <tt>0</tt> to <tt>1</tt>.
+     */
+    private final float[] weights;
+
+    /**
+     * Creates a mask excluding every joint.
+     *
+     * @param jointCount The number of joints.
+     */
+
+    public JointMask(int jointCount){
+        weights = new float[jointCount];
+    }
+
+    /**
+     * Creates a mask including a joint and all its descendants.
+     *
+     * @param skeleton The skeleton.
+     * @param root     The index of the joint.
+     * @param weight   The weight of the included joints.
+     *
+     * @return The mask.
+     */
+
+    public static JointMask subtree(Skeleton skeleton, int root, float weight){
+        JointMask mask = new JointMask(skeleton.getJointCount());
+        mask.setSubtreeWeight(skeleton, root, weight);
+        return mask;
+    }
+
+    /**
+     * Sets the weight of a joint and all its descendants.
+     *
+     * @param skeleton The skeleton.
+     * @param root     The index of the joint.
+     * @param weight   The weight.
+     *
+     * @return This.
+     */
+
+    public JointMask setSubtreeWeight(Skeleton skeleton, int root, float weight){
+        boolean[] included = new boolean[weights.length];
+        // Parents come before their children, so a single pass finds the whole subtree
+        for(int i = root; i < weights.length; i++){
+            int parent = skeleton.getParent(i);
+            included[i] = i == root || (parent >= root && included[parent]);
+            if(included[i]){
+                weights[i] = weight;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the weight of a joint.
+     *
+     * @param joint The index of the joint.
+     *
+     * @return The weight.
+     */
+
+    public float getWeight(int joint){
+        return weights[joint];
+    }
+
+    /**
+     * Sets the weight of a joint.
+     *
+     * @param joint  The index of the joint.
+     * @param weight The weight, from <tt>0</tt> to <tt>1</tt>.
+     *
+     * @return This.
+     */
+
+    public JointMask setWeight(int joint, float weight){
+        weights[joint] = weight;
+        return this;
+    }
+
+    /**
+     * Returns the number of joints.
+     *
+     * @return The number of joints.
+     */
+
+    public int getJointCount(){
+        return weights.length;
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+
+import java.util.List;
+
+/**
+ * The pose of every joint of a skeleton, stored as in an {@link AnimationClip}: {@link AnimationClip#POSE_SIZE}
+ * floats per joint, relative to the parent joint.
+ * <p>The operations work in bulk over the arrays and reuse the fields of the pose, so they do not allocate. A pose
+ * must not be shared between threads.</p>
+ */
+
+public class Pose{
+
+    /**
+     * The number of floats of the pose of a joint.
+     */
+    private static final int SIZE = AnimationClip.POSE_SIZE;
+    /**
+     * The poses of the joints.
+     */
+    private final float[] data;
+    /**
+     * A rotation reused by the operations.
+     */
+    private final Quaternionf first;
+    /**
+     * A rotation reused by the operations.
+     */
+    private final Quaternionf second;
+
+    /**
+     * Creates the rest pose: no translation and no rotation.
+     *
+     * @param jointCount The number of joints.
+     */
+
+    public Pose(int jointCount){
+        data = new float[jointCount * SIZE];
+        first = new Quaternionf();
+        second = new Quaternionf();
+        setIdentity();
+    }
+
+    /**
+     * Resets every joint to no translation and no rotation.
+     *
+     * @return This.
+     */
+
+    public Pose setIdentity(){
+        for(int i = 0; i < data.length; i += SIZE){
+            data[i] = data[i + 1] = data[i + 2] = 0;
+            data[i + 3] = data[i + 4] = data[i + 5] = 0;
+            data[i + 6] = 1;
+        }
+        return this;
+    }
+
+    /**
+     * Copies another pose.
+     *
+     * @param other The other pose, with the same number of joints.
+     *
+     * @return This.
+     */
+
+    public Pose set(Pose other){
+        System.arraycopy(other.data, 0, data, 0, data.length);
+        return this;
+    }
+
+    /**
+     * Sets this pose to the pose of a clip at the given time, interpolating between its two frames around the time.
+     *
+     * @param clip The clip, with the same number of joints.
+     * @param time The time since the start of the clip, in seconds, between <tt>0</tt> and its duration.
+     * @param loop Whether the last frame is blended back into the first one.
+     *
+     * @return This.
+     */
+
+    public Pose sample(AnimationClip clip, float time, boolean loop){
+        int count = clip.getFrameCount();
+        if(count == 0){
+            return setIdentity();
+        }
+        float position = Math.max(0, time * clip.getFrameRate());
+        int index = Math.min((int) position, count - 1);
+        float alpha = position - index;
+        int nextIndex = index + 1;
+        if(nextIndex >= count){
+            nextIndex = loop ? 0 : count - 1;
+        }
+        float[] poses = clip.getPoses();
+        int from = clip.getPoseOffset(index, 0);
+        int to = clip.getPoseOffset(nextIndex, 0);
+        for(int i = 0; i < data.length; i += SIZE){
+            interpolate(poses, from + i, poses, to + i, alpha, i);
+        }
+        return this;
+    }
+
+    /**
+     * Blends this pose towards another one.
+     *
+     * @param other  The other pose, with the same number of joints.
+     * @param weight The weight of the other pose, from <tt>0</tt> to <tt>1</tt>.
+     * @param mask   The weights of the joints, multiplied by <tt>weight</tt>, <tt>null</tt> for all the joints.
+     *
+     * @return This.
+     */
+
+    public Pose blend(Pose other, float weight, JointMask mask){
+        for(int i = 0, joint = 0; i < data.length; i += SIZE, joint++){
+            float alpha = mask != null ? weight * mask.getWeight(joint) : weight;
+            if(alpha >= 1){
+                System.arraycopy(other.data, i, data, i, SIZE);
+            }else if(alpha > 0){
+                interpolate(data, i, other.data, i, alpha, i);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds the difference between a pose and a reference pose to this pose, as done by additive animations.
+     * <p>The translations are added and the rotations are applied on top of the ones of this pose.</p>
+     *
+     * @param pose      The pose, with the same number of joints.
+     * @param reference The reference the difference is taken from, usually the first frame of the clip of the pose.
+     * @param weight    The weight of the difference, from <tt>0</tt> to <tt>1</tt>.
+     * @param mask      The weights of the joints, multiplied by <tt>weight</tt>, <tt>null</tt> for all the joints.
+     *
+     * @return This.
+     */
+
+    public Pose addDifference(Pose pose, Pose reference, float weight, JointMask mask){
+        float[] p = pose.data;
+        float[] r = reference.data;
+        for(int i = 0, joint = 0; i < data.length; i += SIZE, joint++){
+            float alpha = mask != null ? weight * mask.getWeight(joint) : weight;
+            if(alpha <= 0){
+                continue;
+            }
+            data[i] += (p[i] - r[i]) * alpha;
+            data[i + 1] += (p[i + 1] - r[i + 1]) * alpha;
+            data[i + 2] += (p[i + 2] - r[i + 2]) * alpha;
+            // delta = pose * reference^-1, scaled by the weight, then applied before the rotation of this pose
+            first.set(r[i + 3], r[i + 4], r[i + 5], r[i + 6]).conjugate();
+            second.set(p[i + 3], p[i + 4], p[i + 5], p[i + 6]).mul(first);
+            first.identity().slerp(second, Math.min(alpha, 1));
+            second.set(data[i + 3], data[i + 4], data[i + 5], data[i + 6]);
+            first.mul(second).normalize();
+            data[i + 3] = first.x;
+            data[i + 4] = first.y;
+            data[i + 5] = first.z;
+            data[i + 6] = first.w;
+        }
+        return this;
+    }
+
+    /**
+     * Computes the matrices of the pose.
+     *
+     * @param skeleton      The skeleton, with the same number of joints.
+     * @param modelMatrices Where to store the model space matrices of the joints.
+     * @param jointMatrices Where to store the joint matrices: the model space matrices by the inverse bind matrices.
+     */
+
+    public void computeMatrices(Skeleton skeleton, Matrix4f[] modelMatrices, Matrix4f[] jointMatrices){
+        int[] parents = skeleton.getParents();
+        List<Matrix4f> invJointMatrices = skeleton.getInvJointMatrices();
+        for(int i = 0, joint = 0; i < data.length; i += SIZE, joint++){
+            first.set(data[i + 3], data[i + 4], data[i + 5], data[i + 6]);
+            Matrix4f model = modelMatrices[joint].translationRotate(data[i], data[i + 1], data[i + 2], first);
+            if(parents[joint] > -1){
+                modelMatrices[parents[joint]].mulAffine(model, model);
+            }
+            model.mulAffine(invJointMatrices.get(joint), jointMatrices[joint]);
+        }
+    }
+
+    /**
+     * Interpolates the pose of a joint: linearly for the translation and spherically for the rotation.
+     *
+     * @param a       The array of the first pose.
+     * @param aOffset The offset of the first pose.
+     * @param b       The array of the second pose.
+     * @param bOffset The offset of the second pose.
+     * @param alpha   The weight of the second pose.
+     * @param offset  Where to store the result in {@link #data}, which can be the first pose.
+     */
+
+    private void interpolate(float[] a, int aOffset, float[] b, int bOffset, float alpha, int offset){
+        data[offset] = a[aOffset] + (b[bOffset] - a[aOffset]) * alpha;
+        data[offset + 1] = a[aOffset + 1] + (b[bOffset + 1] - a[aOffset + 1]) * alpha;
+        data[offset + 2] = a[aOffset + 2] + (b[bOffset + 2] - a[aOffset + 2]) * alpha;
+        first.set(a[aOffset + 3], a[aOffset + 4], a[aOffset + 5], a[aOffset + 6]);
+        second.set(b[bOffset + 3], b[bOffset + 4], b[bOffset + 5], b[bOffset + 6]);
+        first.slerp(second, alpha);
+        data[offset + 3] = first.x;
+        data[offset + 4] = first.y;
+        data[offset + 5] = first.z;
+        data[offset + 6] = first.w;
+    }
+
+    /**
+     * Returns the number of joints.
+     *
+     * @return The number of joints.
+     */
+
+    public int getJointCount(){
+        return data.length / SIZE;
+    }
+
+    /**
+     * Getter for property 'data'.
+     *
+     * @return Value for property 'data'.
+     */
+
+    public float[] getData(){
+        return data;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The joints of an animated model: the hierarchy and the inverse bind matrices.
+ * <p>A skeleton is shared by every {@link AnimationClip} and {@link AnimItem} of the model.</p>
+ */
+
+public class Skeleton{
+
+    /**
+     * The max number of joints, the size of the joint arrays of the shaders.
+     */
+    public static final int MAX_JOINTS = 150;
+    /**
+     * The index of the parent of each joint, <tt>-1</tt> for the roots.
+     */
+    private final int[] parents;
+    /**
+     * The inverse bind matrices, one per joint.
+     */
+    private final List<Matrix4f> invJointMatrices;
+
+    /**
+     * Creates a skeleton.
+     *
+     * @param parents          The index of the parent of each joint, <tt>-1</tt> for the roots. Parents must come
+     *                         before their children.
+     * @param invJointMatrices The inverse bind matrices, one per joint.
+     */
+
+    public Skeleton(int[] parents, List<Matrix4f> invJointMatrices){
+        if(parents.length != invJointMatrices.size()){
+            throw new IllegalArgumentException("Expected " + parents.length + " inverse bind matrices, got " + invJointMatrices.size());
+        }
+        if(parents.length > MAX_JOINTS){
+            throw new IllegalArgumentException("Too many joints: " + parents.length + " > " + MAX_JOINTS);
+        }
+        for(int i = 0; i < parents.length; i++){
+            if(parents[i] >= i){
+                throw new IllegalArgumentException("The parent of joint " + i + " comes after it");
+            }
+        }
+        this.parents = parents;
+        this.invJointMatrices = Collections.unmodifiableList(Arrays.asList(invJointMatrices.toArray(new Matrix4f[0])));
+    }
+
+    /**
+     * Returns the number of joints.
+     *
+     * @return The number of joints.
+     */
+
+    public int getJointCount(){
+        return parents.length;
+    }
+
+    /**
+     * Returns the parent of a joint.
+     *
+     * @param joint The index of the joint.
+     *
+     * @return The index of the parent, <tt>-1</tt> for a root.
+     */
+
+    public int getParent(int joint){
+        return parents[joint];
+    }
+
+    /**
+     * Getter for property 'parents'.
+     *
+     * @return Value for property 'parents'.
+     */
+
+    public int[] getParents(){
+        return parents;
+    }
+
+    /**
+     * Getter for property 'invJointMatrices'.
+     *
+     * @return Value for property 'invJointMatrices'.
+     */
+
+    public List<Matrix4f> getInvJointMatrices(){
+        return invJointMatrices;
+    }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+import io.github.gjkf.seriousEngine.render.Mesh;
+import io.github.gjkf.seriousEngine.render.MeshData;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * The bind pose of a mesh as needed by {@link SkinnedGeometry}, kept on the CPU.
+ * <p>The data is stored as a structure of arrays: one array per coordinate, and one array of joints and one of weights
+ * per influence, so the skinning loops read consecutive elements. The influences a vertex does not use have a zero
+ * weight; a vertex without any influence keeps its bind position, as in the shaders. The data is immutable and shared
+ * by every item of the mesh.</p>
+ */
+
+public class SkinData{
+
+    /**
+     * The number of vertices.
+     */
+    private final int vertexCount;
+    /**
+     * The X coordinates of the positions.
+     */
+    private final float[] x;
+    /**
+     * The Y coordinates of the positions.
+     */
+    private final float[] y;
+    /**
+     * The Z coordinates of the positions.
+     */
+    private final float[] z;
+    /**
+     * The X coordinates of the normals.
+     */
+    private final float[] normalX;
+    /**
+     * The Y coordinates of the normals.
+     */
+    private final float[] normalY;
+    /**
+     * The Z coordinates of the normals.
+     */
+    private final float[] normalZ;
+    /**
+     * The joints of each influence, {@link Mesh#MAX_WEIGHTS} arrays of one joint per vertex.
+     */
+    private final int[][] joints;
+    /**
+     * The weights of each influence, {@link Mesh#MAX_WEIGHTS} arrays of one weight per vertex.
+     */
+    private final float[][] weights;
+    /**
+     * The weight of the bind pose: <tt>1</tt> for the vertices without influences, <tt>0</tt> for the others.
+     */
+    private final float[] restWeights;
+    /**
+     * The order of the vertices for the triangles.
+     */
+    private final int[] indices;
+
+    /**
+     * Creates the skinning data of an animated mesh.
+     *
+     * @param data The data of the mesh.
+     *
+     * @throws IllegalArgumentException If the mesh has no joints.
+     */
+
+    public SkinData(MeshData data){
+        this(FloatBuffer.wrap(data.getPositions()), FloatBuffer.wrap(data.getNormals()), IntBuffer.wrap(data.getIndices()),
+                data.isAnimated() ? IntBuffer.wrap(data.getJointIndices()) : null,
+                data.isAnimated() ? FloatBuffer.wrap(data.getWeights()) : null);
+    }
+
+    /**
+     * Creates the skinning data of a mesh from buffers, such as the slices of a memory mapped file.
+     * <p>The buffers are read from their position to their limit and are not kept.</p>
+     *
+     * @param positions    The positions of the vertices on the 3 axis.
+     * @param normals      The normals.
+     * @param indices      The order of the vertices for the triangles.
+     * @param jointIndices The indices of the joints, {@link Mesh#MAX_WEIGHTS} per vertex.
+     * @param weights      The weights, {@link Mesh#MAX_WEIGHTS} per vertex.
+     *
+     * @throws IllegalArgumentException If the mesh has no joints.
+     */
+
+    public SkinData(FloatBuffer positions, FloatBuffer normals, IntBuffer indices, IntBuffer jointIndices, FloatBuffer weights){
+        if(jointIndices == null || weights == null){
+            throw new IllegalArgumentException("The mesh has no joints");
+        }
+        vertexCount = positions.remaining() / 3;
+        x = new float[vertexCount];
+        y = new float[vertexCount];
+        z = new float[vertexCount];
+        normalX = new float[vertexCount];
+        normalY = new float[vertexCount];
+        normalZ = new float[vertexCount];
+        joints = new int[Mesh.MAX_WEIGHTS][vertexCount];
+        this.weights = new float[Mesh.MAX_WEIGHTS][vertexCount];
+        restWeights = new float[vertexCount];
+        int p = positions.position(), n = normals.position(), j = jointIndices.position(), w = weights.position();
+        for(int v = 0; v < vertexCount; v++, p += 3, n += 3){
+            x[v] = positions.get(p);
+            y[v] = positions.get(p + 1);
+            z[v] = positions.get(p + 2);
+            normalX[v] = normals.get(n);
+            normalY[v] = normals.get(n + 1);
+            normalZ[v] = normals.get(n + 2);
+            boolean influenced = false;
+            for(int i = 0; i < Mesh.MAX_WEIGHTS; i++, j++, w++){
+                float weight = weights.get(w);
+                if(weight > 0){
+                    joints[i][v] = jointIndices.get(j);
+                    this.weights[i][v] = weight;
+                    influenced = true;
+                }
+            }
+            restWeights[v] = influenced ? 0 : 1;
+        }
+        this.indices = new int[indices.remaining()];
+        indices.duplicate().get(this.indices);
+    }
+
+    /**
+     * Returns the highest joint index used by the influences.
+     *
+     * @return The index, <tt>-1</tt> if no vertex has an influence.
+     */
+
+    public int getMaxJoint(){
+        int max = -1;
+        for(int i = 0; i < Mesh.MAX_WEIGHTS; i++){
+            for(int v = 0; v < vertexCount; v++){
+                if(weights[i][v] > 0){
+                    max = Math.max(max, joints[i][v]);
+                }
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Getter for property 'vertexCount'.
+     *
+     * @return Value for property 'vertexCount'.
+     */
+
+    public int getVertexCount(){
+        return vertexCount;
+    }
+
+    /**
+     * Getter for property 'x'.
+     *
+     * @return Value for property 'x'.
+     */
+
+    public float[] getX(){
+        return x;
+    }
+
+    /**
+     * Getter for property 'y'.
+     *
+     * @return Value for property 'y'.
+     */
+
+    public float[] getY(){
+        return y;
+    }
+
+    /**
+     * Getter for property 'z'.
+     *
+     * @return Value for property 'z'.
+     */
+
+    public float[] getZ(){
+        return z;
+    }
+
+    /**
+     * Getter for property 'normalX'.
+     *
+     * @return Value for property 'normalX'.
+     */
+
+    public float[] getNormalX(){
+        return normalX;
+    }
+
+    /**
+     * Getter for property 'normalY'.
+     *
+     * @return Value for property 'normalY'.
+     */
+
+    public float[] getNormalY(){
+        return normalY;
+    }
+
+    /**
+     * Getter for property 'normalZ'.
+     *
+     * @return Value for property 'normalZ'.
+     */
+
+    public float[] getNormalZ(){
+        return normalZ;
+    }
+
+    /**
+     * Returns the joints of an influence.
+     *
+     * @param influence The index of the influence, below {@link Mesh#MAX_WEIGHTS}.
+     *
+     * @return The joint of each vertex.
+     */
+
+    public int[] getJoints(int influence){
+        return joints[influence];
+    }
+
+    /**
+     * Returns the weights of an influence.
+     *
+     * @param influence The index of the influence, below {@link Mesh#MAX_WEIGHTS}.
+     *
+     * @return The weight of each vertex, <tt>0</tt> when the vertex does not use the influence.
+     */
+
+    public float[] getWeights(int influence){
+        return weights[influence];
+    }
+
+    /**
+     * Getter for property 'restWeights'.
+     *
+     * @return Value for property 'restWeights'.
+     */
+
+    public float[] getRestWeights(){
+        return restWeights;
+    }
+
+    /**
+     * Getter for property 'indices'.
+     *
+     * @return Value for property 'indices'.
+     */
+
+    public int[] getIndices(){
+        return indices;
+    }
+
+}
@@ -0,0 +1,289 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.anim;
+
+import io.github.gjkf.seriousEngine.render.Bounds;
+import io.github.gjkf.seriousEngine.render.Mesh;
+import org.joml.Matrix4f;
+
+/**
+ * The vertices of a mesh skinned on the CPU, for the code that needs the animated geometry without a GPU: ray
+ * picking, the bounds of the current pose, physics.
+ * <p>The skinning gives the same result as the shaders. The output is a structure of arrays like {@link SkinData}, and
+ * the joint matrices are first flattened into a float array of the affine rows, so the loops run over primitive
+ * arrays with no object access. The loops go over one influence of every vertex at a time, which keeps them short
+ * and straight enough for the JIT to unroll and vectorize the parts without indirect loads. Nothing is allocated
+ * after the construction.</p>
+ */
+
+public class SkinnedGeometry{
+
+    /**
+     * The number of floats per joint in {@link #palette}: the three first rows of the matrix.
+     */
+    private static final int ROW_SIZE = 12;
+    /**
+     * The bind pose.
+     */
+    private final SkinData skin;
+    /**
+     * The skinned X coordinates.
+     */
+    private final float[] x;
+    /**
+     * The skinned Y coordinates.
+     */
+    private final float[] y;
+    /**
+     * The skinned Z coordinates.
+     */
+    private final float[] z;
+    /**
+     * The X coordinates of the skinned normals.
+     */
+    private final float[] normalX;
+    /**
+     * The Y coordinates of the skinned normals.
+     */
+    private final float[] normalY;
+    /**
+     * The Z coordinates of the skinned normals.
+     */
+    private final float[] normalZ;
+    /**
+     * The joint matrices, {@link #ROW_SIZE} floats each.
+     */
+    private float[] palette;
+
+    /**
+     * Creates the geometry, in the bind pose.
+     *
+     * @param skin The bind pose.
+     */
+
+    public SkinnedGeometry(SkinData skin){
+        this.skin = skin;
+        x = skin.getX().clone();
+        y = skin.getY().clone();
+        z = skin.getZ().clone();
+        normalX = skin.getNormalX().clone();
+        normalY = skin.getNormalY().clone();
+        normalZ = skin.getNormalZ().clone();
+        palette = new float[0];
+    }
+
+    /**
+     * Skins the vertices with the given joint matrices.
+     *
+     * @param jointMatrices The joint matrices, as given to the shaders.
+     */
+
+    public void skin(Matrix4f[] jointMatrices){
+        if(palette.length != jointMatrices.length * ROW_SIZE){
+            palette = new float[jointMatrices.length * ROW_SIZE];
+        }
+        for(int i = 0, o = 0; i < jointMatrices.length; i++, o += ROW_SIZE){
+            Matrix4f m = jointMatrices[i];
+            palette[o] = m.m00();
+            palette[o + 1] = m.m10();
+            palette[o + 2] = m.m20();
+            palette[o + 3] = m.m30();
+            palette[o + 4] = m.m01();
+            palette[o + 5] = m.m11();
+            palette[o + 6] = m.m21();
+            palette[o + 7] = m.m31();
+            palette[o + 8] = m.m02();
+            palette[o + 9] = m.m12();
+            palette[o + 10] = m.m22();
+            palette[o + 11] = m.m32();
+        }
+        int count = skin.getVertexCount();
+        float[] bx = skin.getX(), by = skin.getY(), bz = skin.getZ();
+        float[] bnx = skin.getNormalX(), bny = skin.getNormalY(), bnz = skin.getNormalZ();
+        float[] rest = skin.getRestWeights();
+        for(int v = 0; v < count; v++){
+            float r = rest[v];
+            x[v] = bx[v] * r;
+            y[v] = by[v] * r;
+            z[v] = bz[v] * r;
+            normalX[v] = bnx[v] * r;
+            normalY[v] = bny[v] * r;
+            normalZ[v] = bnz[v] * r;
+        }
+        float[] p = palette;
+        for(int i = 0; i < Mesh.MAX_WEIGHTS; i++){
+            int[] joints = skin.getJoints(i);
+            float[] weights = skin.getWeights(i);
+            for(int v = 0; v < count; v++){
+                float w = weights[v];
+                int o = joints[v] * ROW_SIZE;
+                float px = bx[v], py = by[v], pz = bz[v];
+                float nx = bnx[v], ny = bny[v], nz = bnz[v];
+                x[v] += w * (p[o] * px + p[o + 1] * py + p[o + 2] * pz + p[o + 3]);
+                y[v] += w * (p[o + 4] * px + p[o + 5] * py + p[o + 6] * pz + p[o + 7]);
+                z[v] += w * (p[o + 8] * px + p[o + 9] * py + p[o + 10] * pz + p[o + 11]);
+                normalX[v] += w * (p[o] * nx + p[o + 1] * ny + p[o + 2] * nz);
+                normalY[v] += w * (p[o + 4] * nx + p[o + 5] * ny + p[o + 6] * nz);
+                normalZ[v] += w * (p[o + 8] * nx + p[o + 9] * ny + p[o + 10] * nz);
+            }
+        }
+        for(int v = 0; v < count; v++){
+            float length = (float) Math.sqrt(normalX[v] * normalX[v] + normalY[v] * normalY[v] + normalZ[v] * normalZ[v]);
+            float inv = length > 0 ? 1 / length : 0;
+            normalX[v] *= inv;
+            normalY[v] *= inv;
+            normalZ[v] *= inv;
+        }
+    }
+
+    /**
+     * Computes the bounds of the skinned vertices.
+     *
+     * @param dest Where to store the bounds.
+     *
+     * @return The bounds, empty if there are no vertices.
+     */
+
+    public Bounds getBounds(Bounds dest){
+        int count = skin.getVertexCount();
+        if(count == 0){
+            return dest.setEmpty();
+        }
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        for(int v = 0; v < count; v++){
+            minX = Math.min(minX, x[v]);
+            maxX = Math.max(maxX, x[v]);
+        }
+        for(int v = 0; v < count; v++){
+            minY = Math.min(minY, y[v]);
+            maxY = Math.max(maxY, y[v]);
+        }
+        for(int v = 0; v < count; v++){
+            minZ = Math.min(minZ, z[v]);
+            maxZ = Math.max(maxZ, z[v]);
+        }
+        return dest.set(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Finds the nearest triangle hit by a ray, in the space of the mesh.
+     *
+     * @param originX     The X coordinate of the origin.
+     * @param originY     The Y coordinate of the origin.
+     * @param originZ     The Z coordinate of the origin.
+     * @param dirX        The X component of the direction.
+     * @param dirY        The Y component of the direction.
+     * @param dirZ        The Z component of the direction.
+     * @param maxDistance The length of the ray, in multiples of the direction.
+     *
+     * @return The distance of the hit along the ray, in multiples of the direction, <tt>-1</tt> if nothing is hit.
+     */
+
+    public float raycast(float originX, float originY, float originZ, float dirX, float dirY, float dirZ, float maxDistance){
+        int[] indices = skin.getIndices();
+        float nearest = maxDistance;
+        boolean hit = false;
+        for(int i = 0; i + 2 < indices.length; i += 3){
+            int a = indices[i], b = indices[i + 1], c = indices[i + 2];
+            // Moller-Trumbore, both faces
+            float e1x = x[b] - x[a], e1y = y[b] - y[a], e1z = z[b] - z[a];
+            float e2x = x[c] - x[a], e2y = y[c] - y[a], e2z = z[c] - z[a];
+            float px = dirY * e2z - dirZ * e2y, py = dirZ * e2x - dirX * e2z, pz = dirX * e2y - dirY * e2x;
+            float det = e1x * px + e1y * py + e1z * pz;
+            if(det > -1e-8f && det < 1e-8f){
+                continue;
+            }
+            float invDet = 1 / det;
+            float tx = originX - x[a], ty = originY - y[a], tz = originZ - z[a];
+            float u = (tx * px + ty * py + tz * pz) * invDet;
+            if(u < 0 || u > 1){
+                continue;
+            }
+            float qx = ty * e1z - tz * e1y, qy = tz * e1x - tx * e1z, qz = tx * e1y - ty * e1x;
+            float v = (dirX * qx + dirY * qy + dirZ * qz) * invDet;
+            if(v < 0 || u + v > 1){
+                continue;
+            }
+            float t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+            if(t >= 0 && t <= nearest){
+                nearest = t;
+                hit = true;
+            }
+        }
+        return hit ? nearest : -1;
+    }
+
+    /**
+     * Getter for property 'skin'.
+     *
+     * @return Value for property 'skin'.
+     */
+
+    public SkinData getSkin(){
+        return skin;
+    }
+
+    /**
+     * Getter for property 'x'.
+     *
+     * @return Value for property 'x'.
+     */
+
+    public float[] getX(){
+        return x;
+    }
+
+    /**
+     * Getter for property 'y'.
+     *
+     * @return Value for property 'y'.
+     */
+
+    public float[] getY(){
+        return y;
+    }
+
+    /**
+     * Getter for property 'z'.
+     *
+     * @return Value for property 'z'.
+     */
+
+    public float[] getZ(){
+        return z;
+    }
+
+    /**
+     * Getter for property 'normalX'.
+     *
+     * @return Value for property 'normalX'.
+     */
+
+    public float[] getNormalX(){
+        return normalX;
+    }
+
+    /**
+     * Getter for property 'normalY'.
+     *
+     * @return Value for property 'normalY'.
+     */
+
+    public float[] getNormalY(){
+        return normalY;
+    }
+
+    /**
+     * Getter for property 'normalZ'.
+     *
+     * @return Value for property 'normalZ'.
+     */
+
+    public float[] getNormalZ(){
+        return normalZ;
+    }
+
+}
@@ -0,0 +1,870 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.device;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER;
+
+/**
+ * A {@link IGraphicsDevice} that remembers the OpenGL state it sets and drops the calls that would not change it.
+ * <p>Wraps another device, to which the calls that change the state are forwarded. The current program, vertex
+ * array, array buffer, framebuffer, active texture unit and 2D texture of each unit are tracked, as well as the
+ * viewport, the clear colour, the blend function, the depth mask, the culled face and the enabled capabilities
+ * among blending, depth test, face culling and stencil test. Deleting a bound object resets its binding like OpenGL
+ * does.</p>
+ * <p>The state starts unknown, so the first call of each kind is always forwarded. OpenGL calls made around the device
+ * must be followed by {@link #invalidate()}.</p>
+ */
+
+public class CachingGraphicsDevice implements IGraphicsDevice{
+
+    /**
+     * The value of a state that is not known.
+     */
+    private static final int UNKNOWN = -1;
+    /**
+     * The number of texture units tracked.
+     */
+    private static final int TEXTURE_UNITS = 16;
+    /**
+     * The capabilities whose state is tracked.
+     */
+    private static final int[] TRACKED_CAPABILITIES = {GL_BLEND, GL_DEPTH_TEST, GL_CULL_FACE, GL_STENCIL_TEST};
+    /**
+     * The device the calls are forwarded to.
+     */
+    private final IGraphicsDevice device;
+    /**
+     * The 2D texture bound to each unit.
+     */
+    private final int[] textures;
+    /**
+     * The state of each tracked capability: <tt>1</tt> enabled, <tt>0</tt> disabled.
+     */
+    private final int[] capabilities;
+    /**
+     * The viewport.
+     */
+    private final int[] viewport;
+    /**
+     * The clear colour.
+     */
+    private final float[] clearColor;
+    /**
+     * The program in use.
+     */
+    private int program;
+    /**
+     * The bound vertex array.
+     */
+    private int vertexArray;
+    /**
+     * The buffer bound to <tt>GL_ARRAY_BUFFER</tt>.
+     */
+    private int arrayBuffer;
+    /**
+     * The bound framebuffer.
+     */
+    private int framebuffer;
+    /**
+     * The active texture unit.
+     */
+    private int activeTexture;
+    /**
+     * The source factor of the blend function.
+     */
+    private int blendSrc;
+    /**
+     * The destination factor of the blend function.
+     */
+    private int blendDst;
+    /**
+     * The depth mask: <tt>1</tt> writing, <tt>0</tt> not writing.
+     */
+    private int depthMask;
+    /**
+     * The culled face.
+     */
+    private int cullFace;
+    /**
+     * The number of calls dropped since the counter was reset.
+     */
+    private long skippedCalls;
+
+    /**
+     * Wraps a device.
+     *
+     * @param device The device the calls are forwarded to.
+     */
+
+    public CachingGraphicsDevice(IGraphicsDevice device){
+        if(device == null){
+            throw new IllegalArgumentException("The graphics device cannot be null");
+        }
+        this.device = device;
+        this.textures = new int[TEXTURE_UNITS];
+        this.capabilities = new int[TRACKED_CAPABILITIES.length];
+        this.viewport = new int[4];
+        this.clearColor = new float[4];
+        invalidate();
+    }
+
+    /**
+     * Forgets the state, so that the next calls are all forwarded.
+     * <p>Call it after changing the OpenGL state without going through this device.</p>
+     */
+
+    public void invalidate(){
+        Arrays.fill(textures, UNKNOWN);
+        Arrays.fill(capabilities, UNKNOWN);
+        Arrays.fill(viewport, UNKNOWN);
+        Arrays.fill(clearColor, Float.NaN);
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        arrayBuffer = UNKNOWN;
+        framebuffer = UNKNOWN;
+        activeTexture = UNKNOWN;
+        blendSrc = UNKNOWN;
+        blendDst = UNKNOWN;
+        depthMask = UNKNOWN;
+        cullFace = UNKNOWN;
+    }
+
+    /**
+     * Enables or disables a capability, forwarding the call only if it changes a tracked state.
+     *
+     * @param cap     The capability.
+     * @param enabled Whether to enable it.
+     */
+
+    private void setCapability(int cap, boolean enabled){
+        int state = enabled ? 1 : 0;
+        for(int i = 0; i < TRACKED_CAPABILITIES.length; i++){
+            if(TRACKED_CAPABILITIES[i] == cap){
+                if(capabilities[i] == state){
+                    skippedCalls++;
+                    return;
+                }
+                capabilities[i] = state;
+                break;
+            }
+        }
+        if(enabled){
+            device.enable(cap);
+        }else{
+            device.disable(cap);
+        }
+    }
+
+    /**
+     * Getter for property 'device'.
+     *
+     * @return Value for property 'device'.
+     */
+
+    public IGraphicsDevice getDevice(){
+        return device;
+    }
+
+    /**
+     * Returns the number of calls dropped because they would not have changed the state.
+     *
+     * @return The number of calls.
+     */
+
+    public long getSkippedCalls(){
+        return skippedCalls;
+    }
+
+    /**
+     * Resets the number of calls dropped.
+     */
+
+    public void resetSkippedCalls(){
+        skippedCalls = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void clear(int mask){
+        device.clear(mask);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void clearColor(float r, float g, float b, float a){
+        if(clearColor[0] != r || clearColor[1] != g || clearColor[2] != b || clearColor[3] != a){
+            clearColor[0] = r;
+            clearColor[1] = g;
+            clearColor[2] = b;
+            clearColor[3] = a;
+            device.clearColor(r, g, b, a);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void viewport(int x, int y, int width, int height){
+        if(viewport[0] != x || viewport[1] != y || viewport[2] != width || viewport[3] != height){
+            viewport[0] = x;
+            viewport[1] = y;
+            viewport[2] = width;
+            viewport[3] = height;
+            device.viewport(x, y, width, height);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void enable(int cap){
+        setCapability(cap, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void disable(int cap){
+        setCapability(cap, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void blendFunc(int sfactor, int dfactor){
+        if(blendSrc != sfactor || blendDst != dfactor){
+            blendSrc = sfactor;
+            blendDst = dfactor;
+            device.blendFunc(sfactor, dfactor);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void depthMask(boolean flag){
+        int mask = flag ? 1 : 0;
+        if(depthMask != mask){
+            depthMask = mask;
+            device.depthMask(flag);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void cullFace(int mode){
+        if(cullFace != mode){
+            cullFace = mode;
+            device.cullFace(mode);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void polygonMode(int face, int mode){
+        device.polygonMode(face, mode);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genVertexArrays(){
+        return device.genVertexArrays();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindVertexArray(int array){
+        if(vertexArray != array){
+            vertexArray = array;
+            device.bindVertexArray(array);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteVertexArrays(int array){
+        if(vertexArray == array){
+            vertexArray = 0;
+        }
+        device.deleteVertexArrays(array);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genBuffers(){
+        return device.genBuffers();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindBuffer(int target, int buffer){
+        if(target != GL_ARRAY_BUFFER){
+            // The element array buffer is part of the VAO
+            device.bindBuffer(target, buffer);
+        }else if(arrayBuffer != buffer){
+            arrayBuffer = buffer;
+            device.bindBuffer(target, buffer);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferData(int target, FloatBuffer data, int usage){
+        device.bufferData(target, data, usage);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferData(int target, IntBuffer data, int usage){
+        device.bufferData(target, data, usage);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferData(int target, long size, int usage){
+        device.bufferData(target, size, usage);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferSubData(int target, long offset, FloatBuffer data){
+        device.bufferSubData(target, offset, data);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferStorage(int target, long size, int flags){
+        device.bufferStorage(target, size, flags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access){
+        return device.mapBufferRange(target, offset, length, access);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteBuffers(int buffer){
+        if(arrayBuffer == buffer){
+            arrayBuffer = 0;
+        }
+        device.deleteBuffers(buffer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public boolean isBufferStorageSupported(){
+        return device.isBufferStorageSupported();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer){
+        device.vertexAttribPointer(index, size, type, normalized, stride, pointer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void vertexAttribDivisor(int index, int divisor){
+        device.vertexAttribDivisor(index, divisor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void enableVertexAttribArray(int index){
+        device.enableVertexAttribArray(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void disableVertexAttribArray(int index){
+        device.disableVertexAttribArray(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public long fenceSync(int condition, int flags){
+        return device.fenceSync(condition, flags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int clientWaitSync(long sync, int flags, long timeout){
+        return device.clientWaitSync(sync, flags, timeout);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteSync(long sync){
+        device.deleteSync(sync);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void drawElements(int mode, int count, int type, long indices){
+        device.drawElements(mode, count, type, indices);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void drawElementsInstanced(int mode, int count, int type, long indices, int primcount){
+        device.drawElementsInstanced(mode, count, type, indices, primcount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genTextures(){
+        return device.genTextures();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void activeTexture(int texture){
+        if(activeTexture != texture){
+            activeTexture = texture;
+            device.activeTexture(texture);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindTexture(int target, int texture){
+        int unit = activeTexture - GL_TEXTURE0;
+        if(target != GL_TEXTURE_2D || unit < 0 || unit >= TEXTURE_UNITS){
+            device.bindTexture(target, texture);
+        }else if(textures[unit] != texture){
+            textures[unit] = texture;
+            device.bindTexture(target, texture);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void texImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, ByteBuffer pixels){
+        device.texImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void texParameteri(int target, int pname, int param){
+        device.texParameteri(target, pname, param);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void pixelStorei(int pname, int param){
+        device.pixelStorei(pname, param);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void generateMipmap(int target){
+        device.generateMipmap(target);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteTextures(int texture){
+        for(int i = 0; i < TEXTURE_UNITS; i++){
+            if(textures[i] == texture){
+                textures[i] = 0;
+            }
+        }
+        device.deleteTextures(texture);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genFramebuffers(){
+        return device.genFramebuffers();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindFramebuffer(int target, int framebuffer){
+        if(target != GL_FRAMEBUFFER){
+            this.framebuffer = UNKNOWN;
+            device.bindFramebuffer(target, framebuffer);
+        }else if(this.framebuffer != framebuffer){
+            this.framebuffer = framebuffer;
+            device.bindFramebuffer(target, framebuffer);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void framebufferTexture2D(int target, int attachment, int textarget, int texture, int level){
+        device.framebufferTexture2D(target, attachment, textarget, texture, level);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void drawBuffer(int buf){
+        device.drawBuffer(buf);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void readBuffer(int src){
+        device.readBuffer(src);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int checkFramebufferStatus(int target){
+        return device.checkFramebufferStatus(target);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteFramebuffers(int framebuffer){
+        if(this.framebuffer == framebuffer){
+            this.framebuffer = 0;
+        }
+        device.deleteFramebuffers(framebuffer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int createProgram(){
+        return device.createProgram();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int createShader(int type){
+        return device.createShader(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void shaderSource(int shader, CharSequence source){
+        device.shaderSource(shader, source);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void compileShader(int shader){
+        device.compileShader(shader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int getShaderi(int shader, int pname){
+        return device.getShaderi(shader, pname);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public String getShaderInfoLog(int shader, int maxLength){
+        return device.getShaderInfoLog(shader, maxLength);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void attachShader(int program, int shader){
+        device.attachShader(program, shader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void detachShader(int program, int shader){
+        device.detachShader(program, shader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void linkProgram(int program){
+        device.linkProgram(program);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void validateProgram(int program){
+        device.validateProgram(program);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int getProgrami(int program, int pname){
+        return device.getProgrami(program, pname);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public String getProgramInfoLog(int program, int maxLength){
+        return device.getProgramInfoLog(program, maxLength);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void useProgram(int program){
+        if(this.program != program){
+            this.program = program;
+            device.useProgram(program);
+        }else{
+            skippedCalls++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteProgram(int program){
+        if(this.program == program){
+            this.program = UNKNOWN;
+        }
+        device.deleteProgram(program);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int getUniformLocation(int program, CharSequence name){
+        return device.getUniformLocation(program, name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniform1i(int location, int value){
+        device.uniform1i(location, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniform1f(int location, float value){
+        device.uniform1f(location, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z){
+        device.uniform3f(location, x, y, z);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer value){
+        device.uniformMatrix4fv(location, transpose, value);
+    }
+
+}
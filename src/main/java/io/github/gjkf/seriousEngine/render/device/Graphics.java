@@ -0,0 +1,50 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.device;
+
+/**
+ * Holds the {@link IGraphicsDevice} used by the engine.
+ * <p>Defaults to a {@link LWJGLGraphicsDevice} wrapped in a {@link CachingGraphicsDevice}. Render objects capture the
+ * device when they are created, so the device should be set before the
+ * {@link io.github.gjkf.seriousEngine.render.Renderer} and the meshes are initialized.</p>
+ */
+
+public class Graphics{
+
+    /**
+     * The current device.
+     */
+    private static IGraphicsDevice device = new CachingGraphicsDevice(new LWJGLGraphicsDevice());
+
+    /**
+     * Do not instantiate Graphics.
+     */
+    private Graphics(){
+    }
+
+    /**
+     * Getter for property 'device'.
+     *
+     * @return Value for property 'device'.
+     */
+
+    public static IGraphicsDevice getDevice(){
+        return device;
+    }
+
+    /**
+     * Setter for property 'device'.
+     *
+     * @param device Value to set for property 'device'.
+     */
+
+    public static void setDevice(IGraphicsDevice device){
+        if(device == null){
+            throw new IllegalArgumentException("The graphics device cannot be null");
+        }
+        Graphics.device = device;
+    }
+
+}
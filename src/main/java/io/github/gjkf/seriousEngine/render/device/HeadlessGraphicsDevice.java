@@ -0,0 +1,741 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.device;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL11.GL_TRUE;
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER_COMPLETE;
+import static org.lwjgl.opengl.GL32.GL_ALREADY_SIGNALED;
+
+/**
+ * A {@link IGraphicsDevice} that does not need an OpenGL context.
+ * <p>Every call is a no-op that only gets counted, so the CPU side of the render path can be run, profiled and
+ * benchmarked on machines without a GPU. Object names are handed out from a counter and every shader compiles and
+ * links successfully. Mapped buffer ranges are plain direct buffers and every fence is already signaled.</p>
+ * <p>Use it with <tt>Graphics.setDevice(new HeadlessGraphicsDevice())</tt> before creating any render object.</p>
+ */
+
+public class HeadlessGraphicsDevice implements IGraphicsDevice{
+
+    /**
+     * The last object name handed out.
+     */
+    private int lastName;
+    /**
+     * The last sync object handed out.
+     */
+    private long lastSync;
+    /**
+     * The number of draw calls.
+     */
+    private long drawCalls;
+    /**
+     * The number of instances drawn by instanced draw calls.
+     */
+    private long instances;
+    /**
+     * The number of indices submitted.
+     */
+    private long indices;
+    /**
+     * The number of state changes (binds, enables, blend and depth state).
+     */
+    private long stateChanges;
+    /**
+     * The number of uniform uploads.
+     */
+    private long uniformUploads;
+    /**
+     * The number of buffer uploads.
+     */
+    private long bufferUploads;
+    /**
+     * The number of bytes uploaded to buffers.
+     */
+    private long bufferBytes;
+
+    /**
+     * Returns a new object name.
+     *
+     * @return The name.
+     */
+
+    private int nextName(){
+        return ++lastName;
+    }
+
+    /**
+     * Resets all the counters.
+     */
+
+    public void resetCounters(){
+        drawCalls = 0;
+        instances = 0;
+        indices = 0;
+        stateChanges = 0;
+        uniformUploads = 0;
+        bufferUploads = 0;
+        bufferBytes = 0;
+    }
+
+    /**
+     * Getter for property 'drawCalls'.
+     *
+     * @return Value for property 'drawCalls'.
+     */
+
+    public long getDrawCalls(){
+        return drawCalls;
+    }
+
+    /**
+     * Getter for property 'instances'.
+     *
+     * @return Value for property 'instances'.
+     */
+
+    public long getInstances(){
+        return instances;
+    }
+
+    /**
+     * Getter for property 'indices'.
+     *
+     * @return Value for property 'indices'.
+     */
+
+    public long getIndices(){
+        return indices;
+    }
+
+    /**
+     * Getter for property 'stateChanges'.
+     *
+     * @return Value for property 'stateChanges'.
+     */
+
+    public long getStateChanges(){
+        return stateChanges;
+    }
+
+    /**
+     * Getter for property 'uniformUploads'.
+     *
+     * @return Value for property 'uniformUploads'.
+     */
+
+    public long getUniformUploads(){
+        return uniformUploads;
+    }
+
+    /**
+     * Getter for property 'bufferUploads'.
+     *
+     * @return Value for property 'bufferUploads'.
+     */
+
+    public long getBufferUploads(){
+        return bufferUploads;
+    }
+
+    /**
+     * Getter for property 'bufferBytes'.
+     *
+     * @return Value for property 'bufferBytes'.
+     */
+
+    public long getBufferBytes(){
+        return bufferBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public String toString(){
+        return "[drawCalls: " + drawCalls + ", instances: " + instances + ", indices: " + indices
+                + ", stateChanges: " + stateChanges + ", uniformUploads: " + uniformUploads
+                + ", bufferUploads: " + bufferUploads + ", bufferBytes: " + bufferBytes + "]";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void clear(int mask){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void clearColor(float r, float g, float b, float a){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void viewport(int x, int y, int width, int height){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void enable(int cap){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void disable(int cap){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void blendFunc(int sfactor, int dfactor){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void depthMask(boolean flag){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void cullFace(int mode){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void polygonMode(int face, int mode){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genVertexArrays(){
+        return nextName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindVertexArray(int array){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteVertexArrays(int array){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genBuffers(){
+        return nextName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindBuffer(int target, int buffer){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferData(int target, FloatBuffer data, int usage){
+        bufferUploads++;
+        bufferBytes += (long) data.remaining() * Float.BYTES;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferData(int target, IntBuffer data, int usage){
+        bufferUploads++;
+        bufferBytes += (long) data.remaining() * Integer.BYTES;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferData(int target, long size, int usage){
+        bufferUploads++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferSubData(int target, long offset, FloatBuffer data){
+        bufferUploads++;
+        bufferBytes += (long) data.remaining() * Float.BYTES;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferStorage(int target, long size, int flags){
+        bufferUploads++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access){
+        return ByteBuffer.allocateDirect((int) length).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteBuffers(int buffer){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public boolean isBufferStorageSupported(){
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public long fenceSync(int condition, int flags){
+        return ++lastSync;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int clientWaitSync(long sync, int flags, long timeout){
+        return GL_ALREADY_SIGNALED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteSync(long sync){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void vertexAttribDivisor(int index, int divisor){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void enableVertexAttribArray(int index){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void disableVertexAttribArray(int index){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void drawElements(int mode, int count, int type, long indices){
+        drawCalls++;
+        this.indices += count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void drawElementsInstanced(int mode, int count, int type, long indices, int primcount){
+        drawCalls++;
+        this.indices += count;
+        instances += primcount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genTextures(){
+        return nextName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void activeTexture(int texture){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindTexture(int target, int texture){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void texImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, ByteBuffer pixels){
+        if(pixels != null){
+            bufferUploads++;
+            bufferBytes += pixels.remaining();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void texParameteri(int target, int pname, int param){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void pixelStorei(int pname, int param){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void generateMipmap(int target){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteTextures(int texture){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genFramebuffers(){
+        return nextName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindFramebuffer(int target, int framebuffer){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void framebufferTexture2D(int target, int attachment, int textarget, int texture, int level){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void drawBuffer(int buf){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void readBuffer(int src){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int checkFramebufferStatus(int target){
+        return GL_FRAMEBUFFER_COMPLETE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteFramebuffers(int framebuffer){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int createProgram(){
+        return nextName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int createShader(int type){
+        return nextName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void shaderSource(int shader, CharSequence source){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void compileShader(int shader){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int getShaderi(int shader, int pname){
+        return GL_TRUE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public String getShaderInfoLog(int shader, int maxLength){
+        return "";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void attachShader(int program, int shader){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void detachShader(int program, int shader){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void linkProgram(int program){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void validateProgram(int program){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int getProgrami(int program, int pname){
+        return GL_TRUE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public String getProgramInfoLog(int program, int maxLength){
+        return "";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void useProgram(int program){
+        stateChanges++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteProgram(int program){
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int getUniformLocation(int program, CharSequence name){
+        return nextName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniform1i(int location, int value){
+        uniformUploads++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniform1f(int location, float value){
+        uniformUploads++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z){
+        uniformUploads++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer value){
+        uniformUploads++;
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.device;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Implement this interface to provide a new graphics backend.
+ * <p>Every OpenGL call made by the render classes goes through the device returned by {@link Graphics#getDevice()}.
+ * The methods mirror the OpenGL functions with the same name, without the <tt>gl</tt> prefix, and take the same
+ * <tt>GL_*</tt> constants.</p>
+ * <p>See {@link LWJGLGraphicsDevice} and {@link HeadlessGraphicsDevice}.</p>
+ */
+
+public interface IGraphicsDevice{
+
+    // Framebuffer and global state
+
+    /** Mirrors <tt>glClear</tt>. */
+    void clear(int mask);
+
+    /** Mirrors <tt>glClearColor</tt>. */
+    void clearColor(float r, float g, float b, float a);
+
+    /** Mirrors <tt>glViewport</tt>. */
+    void viewport(int x, int y, int width, int height);
+
+    /** Mirrors <tt>glEnable</tt>. */
+    void enable(int cap);
+
+    /** Mirrors <tt>glDisable</tt>. */
+    void disable(int cap);
+
+    /** Mirrors <tt>glBlendFunc</tt>. */
+    void blendFunc(int sfactor, int dfactor);
+
+    /** Mirrors <tt>glDepthMask</tt>. */
+    void depthMask(boolean flag);
+
+    /** Mirrors <tt>glCullFace</tt>. */
+    void cullFace(int mode);
+
+    /** Mirrors <tt>glPolygonMode</tt>. */
+    void polygonMode(int face, int mode);
+
+    // Vertex arrays and buffers
+
+    /** Mirrors <tt>glGenVertexArrays</tt>. */
+    int genVertexArrays();
+
+    /** Mirrors <tt>glBindVertexArray</tt>. */
+    void bindVertexArray(int array);
+
+    /** Mirrors <tt>glDeleteVertexArrays</tt>. */
+    void deleteVertexArrays(int array);
+
+    /** Mirrors <tt>glGenBuffers</tt>. */
+    int genBuffers();
+
+    /** Mirrors <tt>glBindBuffer</tt>. */
+    void bindBuffer(int target, int buffer);
+
+    /** Mirrors <tt>glBufferData</tt>. */
+    void bufferData(int target, FloatBuffer data, int usage);
+
+    /** Mirrors <tt>glBufferData</tt>. */
+    void bufferData(int target, IntBuffer data, int usage);
+
+    /** Mirrors <tt>glBufferData</tt>, allocating the storage without data. */
+    void bufferData(int target, long size, int usage);
+
+    /** Mirrors <tt>glBufferSubData</tt>. */
+    void bufferSubData(int target, long offset, FloatBuffer data);
+
+    /** Mirrors <tt>glBufferStorage</tt>, only available when {@link #isBufferStorageSupported()}. */
+    void bufferStorage(int target, long size, int flags);
+
+    /** Mirrors <tt>glMapBufferRange</tt>. */
+    ByteBuffer mapBufferRange(int target, long offset, long length, int access);
+
+    /** Mirrors <tt>glDeleteBuffers</tt>. */
+    void deleteBuffers(int buffer);
+
+    /**
+     * Returns whether {@link #bufferStorage(int, long, int)} can be called: OpenGL 4.4 or
+     * <tt>ARB_buffer_storage</tt>.
+     *
+     * @return Whether immutable buffer storage is supported.
+     */
+    boolean isBufferStorageSupported();
+
+    /** Mirrors <tt>glVertexAttribPointer</tt>. */
+    void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer);
+
+    /** Mirrors <tt>glVertexAttribDivisor</tt>. */
+    void vertexAttribDivisor(int index, int divisor);
+
+    /** Mirrors <tt>glEnableVertexAttribArray</tt>. */
+    void enableVertexAttribArray(int index);
+
+    /** Mirrors <tt>glDisableVertexAttribArray</tt>. */
+    void disableVertexAttribArray(int index);
+
+    // Synchronization
+
+    /** Mirrors <tt>glFenceSync</tt>. */
+    long fenceSync(int condition, int flags);
+
+    /** Mirrors <tt>glClientWaitSync</tt>. */
+    int clientWaitSync(long sync, int flags, long timeout);
+
+    /** Mirrors <tt>glDeleteSync</tt>. */
+    void deleteSync(long sync);
+
+    // Drawing
+
+    /** Mirrors <tt>glDrawElements</tt>. */
+    void drawElements(int mode, int count, int type, long indices);
+
+    /** Mirrors <tt>glDrawElementsInstanced</tt>. */
+    void drawElementsInstanced(int mode, int count, int type, long indices, int primcount);
+
+    // Textures
+
+    /** Mirrors <tt>glGenTextures</tt>. */
+    int genTextures();
+
+    /** Mirrors <tt>glActiveTexture</tt>. */
+    void activeTexture(int texture);
+
+    /** Mirrors <tt>glBindTexture</tt>. */
+    void bindTexture(int target, int texture);
+
+    /** Mirrors <tt>glTexImage2D</tt>. */
+    void texImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, ByteBuffer pixels);
+
+    /** Mirrors <tt>glTexParameteri</tt>. */
+    void texParameteri(int target, int pname, int param);
+
+    /** Mirrors <tt>glPixelStorei</tt>. */
+    void pixelStorei(int pname, int param);
+
+    /** Mirrors <tt>glGenerateMipmap</tt>. */
+    void generateMipmap(int target);
+
+    /** Mirrors <tt>glDeleteTextures</tt>. */
+    void deleteTextures(int texture);
+
+    // Framebuffers
+
+    /** Mirrors <tt>glGenFramebuffers</tt>. */
+    int genFramebuffers();
+
+    /** Mirrors <tt>glBindFramebuffer</tt>. */
+    void bindFramebuffer(int target, int framebuffer);
+
+    /** Mirrors <tt>glFramebufferTexture2D</tt>. */
+    void framebufferTexture2D(int target, int attachment, int textarget, int texture, int level);
+
+    /** Mirrors <tt>glDrawBuffer</tt>. */
+    void drawBuffer(int buf);
+
+    /** Mirrors <tt>glReadBuffer</tt>. */
+    void readBuffer(int src);
+
+    /** Mirrors <tt>glCheckFramebufferStatus</tt>. */
+    int checkFramebufferStatus(int target);
+
+    /** Mirrors <tt>glDeleteFramebuffers</tt>. */
+    void deleteFramebuffers(int framebuffer);
+
+    // Shaders
+
+    /** Mirrors <tt>glCreateProgram</tt>. */
+    int createProgram();
+
+    /** Mirrors <tt>glCreateShader</tt>. */
+    int createShader(int type);
+
+    /** Mirrors <tt>glShaderSource</tt>. */
+    void shaderSource(int shader, CharSequence source);
+
+    /** Mirrors <tt>glCompileShader</tt>. */
+    void compileShader(int shader);
+
+    /** Mirrors <tt>glGetShaderi</tt>. */
+    int getShaderi(int shader, int pname);
+
+    /** Mirrors <tt>glGetShaderInfoLog</tt>. */
+    String getShaderInfoLog(int shader, int maxLength);
+
+    /** Mirrors <tt>glAttachShader</tt>. */
+    void attachShader(int program, int shader);
+
+    /** Mirrors <tt>glDetachShader</tt>. */
+    void detachShader(int program, int shader);
+
+    /** Mirrors <tt>glLinkProgram</tt>. */
+    void linkProgram(int program);
+
+    /** Mirrors <tt>glValidateProgram</tt>. */
+    void validateProgram(int program);
+
+    /** Mirrors <tt>glGetProgrami</tt>. */
+    int getProgrami(int program, int pname);
+
+    /** Mirrors <tt>glGetProgramInfoLog</tt>. */
+    String getProgramInfoLog(int program, int maxLength);
+
+    /** Mirrors <tt>glUseProgram</tt>. */
+    void useProgram(int program);
+
+    /** Mirrors <tt>glDeleteProgram</tt>. */
+    void deleteProgram(int program);
+
+    /** Mirrors <tt>glGetUniformLocation</tt>. */
+    int getUniformLocation(int program, CharSequence name);
+
+    /** Mirrors <tt>glUniform1i</tt>. */
+    void uniform1i(int location, int value);
+
+    /** Mirrors <tt>glUniform1f</tt>. */
+    void uniform1f(int location, float value);
+
+    /** Mirrors <tt>glUniform3f</tt>. */
+    void uniform3f(int location, float x, float y, float z);
+
+    /** Mirrors <tt>glUniformMatrix4fv</tt>. */
+    void uniformMatrix4fv(int location, boolean transpose, FloatBuffer value);
+
+}
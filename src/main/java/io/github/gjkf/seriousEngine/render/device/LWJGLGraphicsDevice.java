@@ -0,0 +1,617 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.device;
+
+import org.lwjgl.opengl.ARBBufferStorage;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * The default {@link IGraphicsDevice}. Forwards every call to the LWJGL OpenGL bindings.
+ * <p>Requires a current OpenGL context, see {@link io.github.gjkf.seriousEngine.Window#init()}.</p>
+ */
+
+public class LWJGLGraphicsDevice implements IGraphicsDevice{
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void clear(int mask){
+        glClear(mask);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void clearColor(float r, float g, float b, float a){
+        glClearColor(r, g, b, a);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void viewport(int x, int y, int width, int height){
+        glViewport(x, y, width, height);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void enable(int cap){
+        glEnable(cap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void disable(int cap){
+        glDisable(cap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void blendFunc(int sfactor, int dfactor){
+        glBlendFunc(sfactor, dfactor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void depthMask(boolean flag){
+        glDepthMask(flag);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void cullFace(int mode){
+        glCullFace(mode);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void polygonMode(int face, int mode){
+        glPolygonMode(face, mode);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genVertexArrays(){
+        return glGenVertexArrays();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindVertexArray(int array){
+        glBindVertexArray(array);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteVertexArrays(int array){
+        glDeleteVertexArrays(array);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genBuffers(){
+        return glGenBuffers();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindBuffer(int target, int buffer){
+        glBindBuffer(target, buffer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferData(int target, FloatBuffer data, int usage){
+        glBufferData(target, data, usage);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferData(int target, IntBuffer data, int usage){
+        glBufferData(target, data, usage);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferData(int target, long size, int usage){
+        glBufferData(target, size, usage);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferSubData(int target, long offset, FloatBuffer data){
+        glBufferSubData(target, offset, data);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bufferStorage(int target, long size, int flags){
+        ARBBufferStorage.glBufferStorage(target, size, flags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access){
+        return glMapBufferRange(target, offset, length, access);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteBuffers(int buffer){
+        glDeleteBuffers(buffer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public boolean isBufferStorageSupported(){
+        GLCapabilities capabilities = GL.getCapabilities();
+        return capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public long fenceSync(int condition, int flags){
+        return glFenceSync(condition, flags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int clientWaitSync(long sync, int flags, long timeout){
+        return glClientWaitSync(sync, flags, timeout);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteSync(long sync){
+        glDeleteSync(sync);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer){
+        glVertexAttribPointer(index, size, type, normalized, stride, pointer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void vertexAttribDivisor(int index, int divisor){
+        glVertexAttribDivisor(index, divisor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void enableVertexAttribArray(int index){
+        glEnableVertexAttribArray(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void disableVertexAttribArray(int index){
+        glDisableVertexAttribArray(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void drawElements(int mode, int count, int type, long indices){
+        glDrawElements(mode, count, type, indices);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void drawElementsInstanced(int mode, int count, int type, long indices, int primcount){
+        glDrawElementsInstanced(mode, count, type, indices, primcount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genTextures(){
+        return glGenTextures();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void activeTexture(int texture){
+        glActiveTexture(texture);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindTexture(int target, int texture){
+        glBindTexture(target, texture);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void texImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, ByteBuffer pixels){
+        glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void texParameteri(int target, int pname, int param){
+        glTexParameteri(target, pname, param);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void pixelStorei(int pname, int param){
+        glPixelStorei(pname, param);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void generateMipmap(int target){
+        glGenerateMipmap(target);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteTextures(int texture){
+        glDeleteTextures(texture);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int genFramebuffers(){
+        return glGenFramebuffers();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void bindFramebuffer(int target, int framebuffer){
+        glBindFramebuffer(target, framebuffer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void framebufferTexture2D(int target, int attachment, int textarget, int texture, int level){
+        glFramebufferTexture2D(target, attachment, textarget, texture, level);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void drawBuffer(int buf){
+        glDrawBuffer(buf);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void readBuffer(int src){
+        glReadBuffer(src);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int checkFramebufferStatus(int target){
+        return glCheckFramebufferStatus(target);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteFramebuffers(int framebuffer){
+        glDeleteFramebuffers(framebuffer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int createProgram(){
+        return glCreateProgram();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int createShader(int type){
+        return glCreateShader(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void shaderSource(int shader, CharSequence source){
+        glShaderSource(shader, source);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void compileShader(int shader){
+        glCompileShader(shader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int getShaderi(int shader, int pname){
+        return glGetShaderi(shader, pname);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public String getShaderInfoLog(int shader, int maxLength){
+        return glGetShaderInfoLog(shader, maxLength);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void attachShader(int program, int shader){
+        glAttachShader(program, shader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void detachShader(int program, int shader){
+        glDetachShader(program, shader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void linkProgram(int program){
+        glLinkProgram(program);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void validateProgram(int program){
+        glValidateProgram(program);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int getProgrami(int program, int pname){
+        return glGetProgrami(program, pname);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public String getProgramInfoLog(int program, int maxLength){
+        return glGetProgramInfoLog(program, maxLength);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void useProgram(int program){
+        glUseProgram(program);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void deleteProgram(int program){
+        glDeleteProgram(program);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public int getUniformLocation(int program, CharSequence name){
+        return glGetUniformLocation(program, name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniform1i(int location, int value){
+        glUniform1i(location, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniform1f(int location, float value){
+        glUniform1f(location, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z){
+        glUniform3f(location, x, y, z);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer value){
+        glUniformMatrix4fv(location, transpose, value);
+    }
+
+}
@@ -4,16 +4,23 @@
 
 package io.github.gjkf.seriousEngine.render.particles;
 
-import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.Bounds;
 import org.joml.Vector3f;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * This is the most basic {@link IParticleEmitter}. It's just a flow of particles.
  * <p>Can define a direction, a speed and a scale of each particle.</p>
+ * <p>The particles are copies of the base particle stored in a {@link ParticleData}, sized for the maximum number of
+ * particles, so spawning and killing particles allocates nothing.</p>
+ * <p>The particles are spawned at a rate, in particles per second, accumulated over the simulation time given to the
+ * updates: an update spawns as many whole particles as the time since the last one allows and keeps the fraction
+ * for the next. The randomness comes from a {@link SplittableRandom} owned by the emitter, so an emitter created
+ * with a seed spawns the same particles for the same updates, and emitters updated on different threads do not
+ * contend.</p>
+ * <p>A {@link ParticleBudget} lowers the maximum number of particles and the emission rate together through
+ * {@link #setBudgetScale(float)}.</p>
  */
 
 public class FlowParticleEmitter implements IParticleEmitter{
@@ -27,21 +34,37 @@ public class FlowParticleEmitter implements IParticleEmitter{
      */
     private boolean active;
     /**
-     * The list of particles.
+     * How the particles are blended.
      */
-    private final List<Item> particles;
+    private BlendMode blendMode;
+    /**
+     * The live particles.
+     */
+    private final ParticleData particles;
     /**
      * The base particle.
      */
     private final Particle baseParticle;
     /**
-     * How often a particle should be created.
+     * The number of particles created per second, infinite to fill the emitter on every update.
+     */
+    private float emissionRate;
+    /**
+     * The fraction of the maximum number of particles and of the emission rate allowed by the budget.
+     */
+    private float budgetScale;
+    /**
+     * The bounds of the particles.
+     */
+    private final Bounds bounds;
+    /**
+     * The particles owed by the past updates, less than one once they are spawned.
      */
-    private long creationPeriodMillis;
+    private float pendingEmission;
     /**
-     * The last time a particle was created.
+     * The random generator of the particles.
      */
-    private long lastCreationTime;
+    private SplittableRandom random;
     /**
      * The speed of the particle. Also affects the emitter range.
      */
@@ -68,12 +91,41 @@ public class FlowParticleEmitter implements IParticleEmitter{
      */
 
     public FlowParticleEmitter(Particle baseParticle, int maxParticles, long creationPeriodMillis){
-        particles = new ArrayList<>();
+        this(baseParticle, maxParticles, creationPeriodMillis, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new FlowParticleEmitter whose particles are reproducible.
+     *
+     * @param baseParticle         The base particle from which the other origin.
+     * @param maxParticles         The maximum amount of particles.
+     * @param creationPeriodMillis The time in milliseconds from each creation.
+     * @param seed                 The seed of the random generator.
+     */
+
+    public FlowParticleEmitter(Particle baseParticle, int maxParticles, long creationPeriodMillis, long seed){
+        this(baseParticle, maxParticles, creationPeriodMillis, new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructs a new FlowParticleEmitter drawing from a random generator.
+     *
+     * @param baseParticle         The base particle from which the other origin.
+     * @param maxParticles         The maximum amount of particles.
+     * @param creationPeriodMillis The time in milliseconds from each creation.
+     * @param random               The random generator, owned by the emitter from now on.
+     */
+
+    private FlowParticleEmitter(Particle baseParticle, int maxParticles, long creationPeriodMillis, SplittableRandom random){
+        particles = new ParticleData(maxParticles);
         this.baseParticle = baseParticle;
         this.maxParticles = maxParticles;
         this.active = false;
-        this.lastCreationTime = 0;
-        this.creationPeriodMillis = creationPeriodMillis;
+        this.blendMode = BlendMode.ADDITIVE;
+        this.budgetScale = 1;
+        this.bounds = new Bounds();
+        this.random = random;
+        setCreationPeriodMillis(creationPeriodMillis);
     }
 
     /**
@@ -92,15 +144,89 @@ public class FlowParticleEmitter implements IParticleEmitter{
      */
 
     public long getCreationPeriodMillis(){
-        return creationPeriodMillis;
+        if(emissionRate <= 0){
+            return Long.MAX_VALUE;
+        }
+        return Float.isInfinite(emissionRate) ? 0 : Math.round(1000 / emissionRate);
     }
 
     /**
-     * Getter for property 'maxParticles'.
+     * {@inheritDoc}
+     */
+
+    @Override
+    public BlendMode getBlendMode(){
+        return blendMode;
+    }
+
+    /**
+     * Setter for property 'blendMode'.
+     *
+     * @param blendMode Value to set for property 'blendMode'.
+     */
+
+    public void setBlendMode(BlendMode blendMode){
+        this.blendMode = blendMode;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The bounds are computed from the base particle and the random ranges: a particle spawns within
+     * {@link #getPositionRndRange()} of the base position and moves in a straight line for its time to live.</p>
+     */
+
+    @Override
+    public Bounds getBounds(){
+        Vector3f pos = baseParticle.getPosition();
+        Vector3f speed = baseParticle.getSpeed();
+        float ttl = baseParticle.geTtl() / 1000f;
+        // The quads are at most as large as their scale in every direction
+        float extent = Math.abs(positionRndRange) + Math.abs(baseParticle.getScale()) + Math.abs(scaleRndRange);
+        float speedRange = Math.abs(speedRndRange);
+        bounds.set(
+                pos.x - extent + Math.min(0, (speed.x - speedRange) * ttl),
+                pos.y - extent + Math.min(0, (speed.y - speedRange) * ttl),
+                pos.z - extent + Math.min(0, (speed.z - speedRange) * ttl),
+                pos.x + extent + Math.max(0, (speed.x + speedRange) * ttl),
+                pos.y + extent + Math.max(0, (speed.y + speedRange) * ttl),
+                pos.z + extent + Math.max(0, (speed.z + speedRange) * ttl));
+        return bounds;
+    }
+
+    /**
+     * Getter for property 'budgetScale'.
      *
-     * @return Value for property 'maxParticles'.
+     * @return Value for property 'budgetScale'.
+     */
+
+    public float getBudgetScale(){
+        return budgetScale;
+    }
+
+    /**
+     * {@inheritDoc}
      */
 
+    @Override
+    public void setBudgetScale(float budgetScale){
+        this.budgetScale = Math.max(0, Math.min(1, budgetScale));
+    }
+
+    /**
+     * Getter for property 'emissionRate'.
+     *
+     * @return Value for property 'emissionRate'.
+     */
+
+    public float getEmissionRate(){
+        return emissionRate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
     public int getMaxParticles(){
         return maxParticles;
     }
@@ -110,7 +236,7 @@ public class FlowParticleEmitter implements IParticleEmitter{
      */
 
     @Override
-    public List<Item> getParticles(){
+    public ParticleData getParticles(){
         return particles;
     }
 
@@ -161,7 +287,40 @@ public class FlowParticleEmitter implements IParticleEmitter{
      */
 
     public void setCreationPeriodMillis(long creationPeriodMillis){
-        this.creationPeriodMillis = creationPeriodMillis;
+        setEmissionRate(creationPeriodMillis > 0 ? 1000f / creationPeriodMillis : Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Sets the number of particles created per second.
+     *
+     * @param emissionRate The rate, infinite to fill the emitter on every update, <tt>0</tt> to stop creating.
+     */
+
+    public void setEmissionRate(float emissionRate){
+        this.emissionRate = Math.max(0, emissionRate);
+        if(this.emissionRate == 0 || Float.isInfinite(this.emissionRate)){
+            pendingEmission = 0;
+        }
+    }
+
+    /**
+     * Restarts the random generator from a seed.
+     *
+     * @param seed The seed.
+     */
+
+    public void setSeed(long seed){
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Splits the random generator, giving an independent one, for example to seed another emitter.
+     *
+     * @return The new generator.
+     */
+
+    public SplittableRandom splitRandom(){
+        return random.split();
     }
 
     /**
@@ -172,6 +331,7 @@ public class FlowParticleEmitter implements IParticleEmitter{
 
     public void setMaxParticles(int maxParticles){
         this.maxParticles = maxParticles;
+        particles.ensureCapacity(maxParticles);
     }
 
     /**
@@ -225,68 +385,94 @@ public class FlowParticleEmitter implements IParticleEmitter{
     }
 
     /**
-     * Updates the emitter with the given time delta.
-     *
-     * @param elapsedTime The time delta.
+     * {@inheritDoc}
      */
 
-    public void update(long elapsedTime){
-        long now = System.currentTimeMillis();
-        if(lastCreationTime == 0){
-            lastCreationTime = now;
-        }
-        Iterator<? extends Item> it = particles.iterator();
-        while(it.hasNext()){
-            Particle particle = (Particle) it.next();
-            if(particle.updateTtl(elapsedTime) < 0){
-                it.remove();
-            }else{
-                updatePosition(particle, elapsedTime);
-            }
-        }
+    @Override
+    public void update(float interval){
+        simulate(0, particles.size(), interval);
+        finishUpdate(interval);
+    }
 
-        int length = this.getParticles().size();
-        if(now - lastCreationTime >= this.creationPeriodMillis && length < maxParticles){
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public void finishUpdate(float interval){
+        particles.removeDead();
+
+        int room = (int) Math.ceil(maxParticles * budgetScale) - particles.size();
+        int count;
+        if(budgetScale == 0){
+            count = 0;
+        }else if(Float.isInfinite(emissionRate)){
+            count = room;
+        }else{
+            pendingEmission += emissionRate * budgetScale * interval;
+            count = (int) pendingEmission;
+            pendingEmission -= count;
+        }
+        // The particles that do not fit are dropped, not owed
+        count = Math.min(count, room);
+        for(int i = 0; i < count; i++){
             createParticle();
-            this.lastCreationTime = now;
         }
     }
 
     /**
-     * Creates a new particle.
-     * <p>It assigns random speed and position.</p>
+     * {@inheritDoc}
+     * <p>The particles whose time to live runs out are left for {@link #finishUpdate(float)}.</p>
      */
 
-    private void createParticle(){
-        Particle particle = new Particle(this.getBaseParticle());
-        // Add a little bit of randomness of the particle
-        float sign = Math.random() > 0.5d ? -1.0f : 1.0f;
-        float speedInc = sign * (float) Math.random() * this.speedRndRange;
-        float posInc = sign * (float) Math.random() * this.positionRndRange;
-        float scaleInc = sign * (float) Math.random() * this.scaleRndRange;
-        long updateAnimInc = (long) sign * (long) (Math.random() * (float) this.animRange);
-        particle.getPosition().add(posInc, posInc, posInc);
-        particle.getSpeed().add(speedInc, speedInc, speedInc);
-        particle.setScale(particle.getScale() + scaleInc);
-        particle.setUpdateTextureMills(particle.getUpdateTextureMillis() + updateAnimInc);
-        particles.add(particle);
+    @Override
+    public void simulate(int from, int to, float interval){
+        float[] x = particles.getX(), y = particles.getY(), z = particles.getZ();
+        float[] speedX = particles.getSpeedX(), speedY = particles.getSpeedY(), speedZ = particles.getSpeedZ();
+        float[] ttl = particles.getTtl();
+        int[] frame = particles.getFrame();
+        float[] frameTime = particles.getFrameTime(), frameDuration = particles.getFrameDuration();
+        int animFrames = baseParticle.getAnimFrames();
+        float elapsedMillis = interval * 1000;
+        for(int i = from; i < to; i++){
+            ttl[i] -= elapsedMillis;
+            frameTime[i] += elapsedMillis;
+            if(frameTime[i] >= frameDuration[i] && animFrames > 0){
+                frameTime[i] = 0;
+                frame[i] = frame[i] + 1 < animFrames ? frame[i] + 1 : 0;
+            }
+            x[i] += speedX[i] * interval;
+            y[i] += speedY[i] * interval;
+            z[i] += speedZ[i] * interval;
+        }
     }
 
     /**
-     * Updates a particle position
-     *
-     * @param particle    The particle to update
-     * @param elapsedTime Elapsed time in milliseconds
+     * Creates a new particle.
+     * <p>It assigns random speed and position.</p>
      */
 
-    public void updatePosition(Particle particle, long elapsedTime){
-        Vector3f speed = particle.getSpeed();
-        float delta = elapsedTime / 1000.0f;
-        float dx = speed.x * delta;
-        float dy = speed.y * delta;
-        float dz = speed.z * delta;
-        Vector3f pos = particle.getPosition();
-        particle.setPosition(pos.x + dx, pos.y + dy, pos.z + dz);
+    private void createParticle(){
+        int i = particles.add();
+        // Add a little bit of randomness of the particle
+        float sign = random.nextBoolean() ? -1.0f : 1.0f;
+        float speedInc = sign * (float) random.nextDouble() * this.speedRndRange;
+        float posInc = sign * (float) random.nextDouble() * this.positionRndRange;
+        float scaleInc = sign * (float) random.nextDouble() * this.scaleRndRange;
+        long updateAnimInc = (long) sign * (long) (random.nextDouble() * this.animRange);
+        Vector3f pos = baseParticle.getPosition();
+        particles.getX()[i] = pos.x + posInc;
+        particles.getY()[i] = pos.y + posInc;
+        particles.getZ()[i] = pos.z + posInc;
+        Vector3f speed = baseParticle.getSpeed();
+        particles.getSpeedX()[i] = speed.x + speedInc;
+        particles.getSpeedY()[i] = speed.y + speedInc;
+        particles.getSpeedZ()[i] = speed.z + speedInc;
+        particles.getTtl()[i] = baseParticle.geTtl();
+        particles.getScale()[i] = baseParticle.getScale() + scaleInc;
+        particles.getFrame()[i] = 0;
+        particles.getFrameTime()[i] = 0;
+        particles.getFrameDuration()[i] = baseParticle.getUpdateTextureMillis() + updateAnimInc;
     }
 
     /**
@@ -295,9 +481,8 @@ public class FlowParticleEmitter implements IParticleEmitter{
 
     @Override
     public void cleanup(){
-        for(Item particle : getParticles()){
-            particle.cleanup();
-        }
+        particles.clear();
+        baseParticle.cleanup();
     }
 
 }
\ No newline at end of file
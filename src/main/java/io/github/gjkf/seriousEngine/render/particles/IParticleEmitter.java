@@ -4,13 +4,14 @@
 
 package io.github.gjkf.seriousEngine.render.particles;
 
-import io.github.gjkf.seriousEngine.items.Item;
-
-import java.util.List;
+import io.github.gjkf.seriousEngine.render.Bounds;
 
 /**
  * Implement this interface to create your own <tt>Particle Emitter</tt>.
  * <p>An example can be found at {@link FlowParticleEmitter}.</p>
+ * <p>An update is split in two steps so that a {@link ParticleScheduler} can spread the particles of a large emitter
+ * over several threads: {@link #simulate(int, int, float)} runs on ranges of the particles, possibly at the same
+ * time, then {@link #finishUpdate(float)} runs once.</p>
  */
 
 public interface IParticleEmitter{
@@ -29,11 +30,84 @@ public interface IParticleEmitter{
     Particle getBaseParticle();
 
     /**
-     * Gets the list of particles.
+     * Gets the live particles.
      *
      * @return The particles.
      */
 
-    List<Item> getParticles();
+    ParticleData getParticles();
+
+    /**
+     * Gets how the particles are blended with what is behind them.
+     *
+     * @return The blend mode.
+     */
+
+    BlendMode getBlendMode();
+
+    /**
+     * Gets the world space bounds every particle of the emitter stays in, alive or yet to spawn. They may be larger
+     * than the particles, but never smaller.
+     *
+     * @return The bounds.
+     */
+
+    Bounds getBounds();
+
+    /**
+     * Gets the maximum number of particles, before the budget is applied.
+     *
+     * @return The maximum.
+     */
+
+    int getMaxParticles();
+
+    /**
+     * Sets the fraction of the maximum number of particles and of the emission rate allowed by a
+     * {@link ParticleBudget}. The particles already alive are left to die.
+     *
+     * @param budgetScale The fraction, from <tt>0</tt> to <tt>1</tt>.
+     */
+
+    void setBudgetScale(float budgetScale);
+
+    /**
+     * Updates the emitter, as {@link #simulate(int, int, float)} over all the particles followed by
+     * {@link #finishUpdate(float)}.
+     *
+     * @param interval The time since the last update, in seconds.
+     */
+
+    void update(float interval);
+
+    /**
+     * Ages and moves a range of the particles. Each particle must only depend on itself, so that disjoint ranges can
+     * be simulated by different threads and give the same result as a single range.
+     *
+     * @param from     The first particle.
+     * @param to       The particle after the last one.
+     * @param interval The time since the last update, in seconds.
+     */
+
+    void simulate(int from, int to, float interval);
+
+    /**
+     * Ends an update once every particle was simulated, removing the dead particles and spawning the new ones.
+     *
+     * @param interval The time since the last update, in seconds.
+     */
+
+    void finishUpdate(float interval);
+
+    /**
+     * How the particles are blended with what is behind them.
+     * <p>{@link #ADDITIVE} adds their colour, which does not depend on the order they are drawn in, like fire or
+     * sparks. {@link #ALPHA} covers what is behind them by their alpha, like smoke, and needs them drawn back to
+     * front.</p>
+     */
+
+    enum BlendMode{
+        ADDITIVE, ALPHA
+    }
 
 }
\ No newline at end of file
@@ -40,7 +40,7 @@ public class Particle extends Item{
     /**
      * Constructs a new Particle.
      *
-     * @param mesh                The mesh to use.
+     * @param mesh                The mesh to use, a {@link io.github.gjkf.seriousEngine.render.ParticleMesh} to be rendered.
      * @param speed               The speed of the particle.
      * @param ttl                 The TimeToLive
      * @param updateTextureMillis How often the texture should be updated.
@@ -0,0 +1,297 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.particles;
+
+import io.github.gjkf.seriousEngine.profiler.FrameProfiler;
+import io.github.gjkf.seriousEngine.profiler.RollingStats;
+import io.github.gjkf.seriousEngine.render.Bounds;
+import io.github.gjkf.seriousEngine.render.Camera;
+import io.github.gjkf.seriousEngine.render.FrustumCullingFilter;
+import org.joml.Vector3f;
+
+/**
+ * Shares a global number of particles between the {@link IParticleEmitter}s of a {@link ParticleScheduler}.
+ * <p>Every update the emitters get a level of detail from how large their bounds look from the camera: an emitter
+ * whose bounds cover at least {@link #getFullDetailAngle()} radians is at full detail, a smaller one gets
+ * proportionally fewer particles. The emitters outside the frustum of the filter or farther than
+ * {@link #getMaxDistance()} are hidden: the scheduler stops simulating them until they are visible again.</p>
+ * <p>When the wanted particles of the visible emitters exceed {@link #getMaxParticles()}, they are all scaled down by
+ * the same factor. When a profiler is set, the budget also shrinks while the frames take longer than
+ * {@link #getTargetFrameTime()} and grows back once they do not, so that busy scenes keep their frame time bounded.
+ * The scale of each emitter is given to {@link IParticleEmitter#setBudgetScale(float)}.</p>
+ */
+
+public class ParticleBudget{
+
+    /**
+     * The lowest fraction of the budget left by the frame time control.
+     */
+    public static final float MIN_HEADROOM = 0.1f;
+    /**
+     * The factor applied to the headroom after a frame over the target time.
+     */
+    private static final float HEADROOM_SHRINK = 0.9f;
+    /**
+     * The factor applied to the headroom after a frame within the target time.
+     */
+    private static final float HEADROOM_GROWTH = 1.05f;
+    /**
+     * The camera the emitters are seen from.
+     */
+    private final Camera camera;
+    /**
+     * The filter of the visible emitters, <tt>null</tt> for all of them.
+     */
+    private FrustumCullingFilter filter;
+    /**
+     * The profiler the frame times are read from, <tt>null</tt> not to control them.
+     */
+    private FrameProfiler profiler;
+    /**
+     * The maximum number of particles of all the emitters.
+     */
+    private int maxParticles;
+    /**
+     * The frame time to stay within, in nanoseconds.
+     */
+    private long targetFrameTime;
+    /**
+     * The angle covered by the bounds of an emitter from which it is at full detail, in radians.
+     */
+    private float fullDetailAngle;
+    /**
+     * The distance from which the emitters are hidden.
+     */
+    private float maxDistance;
+    /**
+     * The fraction of the budget left by the frame time control.
+     */
+    private float headroom;
+    /**
+     * The number of frames of the profiler at the last update.
+     */
+    private long frameCount;
+    /**
+     * The level of detail of each emitter.
+     */
+    private float[] detail;
+
+    /**
+     * Creates a budget.
+     *
+     * @param camera          The camera the emitters are seen from.
+     * @param maxParticles    The maximum number of particles of all the emitters.
+     * @param targetFrameTime The frame time to stay within, in nanoseconds.
+     */
+
+    public ParticleBudget(Camera camera, int maxParticles, long targetFrameTime){
+        this.camera = camera;
+        this.maxParticles = maxParticles;
+        this.targetFrameTime = targetFrameTime;
+        fullDetailAngle = 0.1f;
+        maxDistance = Float.POSITIVE_INFINITY;
+        headroom = 1;
+        detail = new float[0];
+    }
+
+    /**
+     * Computes which emitters are visible and sets the budget scale of every emitter.
+     *
+     * @param emitters The emitters.
+     * @param visible  Where to store whether each emitter is visible.
+     */
+
+    public void update(IParticleEmitter[] emitters, boolean[] visible){
+        if(detail.length < emitters.length){
+            detail = new float[emitters.length];
+        }
+        updateHeadroom();
+
+        Vector3f position = camera.getPosition();
+        float wanted = 0;
+        for(int i = 0; i < emitters.length; i++){
+            IParticleEmitter emitter = emitters[i];
+            Bounds bounds = emitter.getBounds();
+            float distance = bounds.isEmpty() ? 0 : Math.max(0, bounds.getCenter().distance(position) - bounds.getRadius());
+            visible[i] = distance <= maxDistance && (filter == null || bounds.isEmpty() || filter.insideFrustum(bounds));
+            if(!visible[i]){
+                detail[i] = 0;
+                continue;
+            }
+            // The bounds cover about radius / distance radians of the view
+            float angle = distance > 0 ? bounds.getRadius() / distance : Float.POSITIVE_INFINITY;
+            detail[i] = Math.min(1, angle / fullDetailAngle);
+            wanted += detail[i] * emitter.getMaxParticles();
+        }
+
+        float available = maxParticles * headroom;
+        float scale = wanted > available ? available / wanted : 1;
+        for(int i = 0; i < emitters.length; i++){
+            emitters[i].setBudgetScale(detail[i] * scale);
+        }
+    }
+
+    /**
+     * Shrinks or grows the headroom from the time of the last frame, once per frame.
+     */
+
+    private void updateHeadroom(){
+        if(profiler == null || profiler.getFrameCount() == frameCount){
+            return;
+        }
+        frameCount = profiler.getFrameCount();
+        RollingStats frames = profiler.getFrameStats();
+        if(frames.getCount() == 0){
+            return;
+        }
+        if(frames.getLast() > targetFrameTime){
+            headroom = Math.max(MIN_HEADROOM, headroom * HEADROOM_SHRINK);
+        }else{
+            headroom = Math.min(1, headroom * HEADROOM_GROWTH);
+        }
+    }
+
+    /**
+     * Getter for property 'camera'.
+     *
+     * @return Value for property 'camera'.
+     */
+
+    public Camera getCamera(){
+        return camera;
+    }
+
+    /**
+     * Getter for property 'filter'.
+     *
+     * @return Value for property 'filter'.
+     */
+
+    public FrustumCullingFilter getFilter(){
+        return filter;
+    }
+
+    /**
+     * Setter for property 'filter'.
+     *
+     * @param filter Value to set for property 'filter'.
+     */
+
+    public void setFilter(FrustumCullingFilter filter){
+        this.filter = filter;
+    }
+
+    /**
+     * Getter for property 'profiler'.
+     *
+     * @return Value for property 'profiler'.
+     */
+
+    public FrameProfiler getProfiler(){
+        return profiler;
+    }
+
+    /**
+     * Setter for property 'profiler'.
+     *
+     * @param profiler Value to set for property 'profiler'.
+     */
+
+    public void setProfiler(FrameProfiler profiler){
+        this.profiler = profiler;
+        frameCount = profiler != null ? profiler.getFrameCount() : 0;
+    }
+
+    /**
+     * Getter for property 'maxParticles'.
+     *
+     * @return Value for property 'maxParticles'.
+     */
+
+    public int getMaxParticles(){
+        return maxParticles;
+    }
+
+    /**
+     * Setter for property 'maxParticles'.
+     *
+     * @param maxParticles Value to set for property 'maxParticles'.
+     */
+
+    public void setMaxParticles(int maxParticles){
+        this.maxParticles = maxParticles;
+    }
+
+    /**
+     * Getter for property 'targetFrameTime'.
+     *
+     * @return Value for property 'targetFrameTime'.
+     */
+
+    public long getTargetFrameTime(){
+        return targetFrameTime;
+    }
+
+    /**
+     * Setter for property 'targetFrameTime'.
+     *
+     * @param targetFrameTime Value to set for property 'targetFrameTime'.
+     */
+
+    public void setTargetFrameTime(long targetFrameTime){
+        this.targetFrameTime = targetFrameTime;
+    }
+
+    /**
+     * Getter for property 'fullDetailAngle'.
+     *
+     * @return Value for property 'fullDetailAngle'.
+     */
+
+    public float getFullDetailAngle(){
+        return fullDetailAngle;
+    }
+
+    /**
+     * Setter for property 'fullDetailAngle'.
+     *
+     * @param fullDetailAngle Value to set for property 'fullDetailAngle'.
+     */
+
+    public void setFullDetailAngle(float fullDetailAngle){
+        this.fullDetailAngle = fullDetailAngle;
+    }
+
+    /**
+     * Getter for property 'maxDistance'.
+     *
+     * @return Value for property 'maxDistance'.
+     */
+
+    public float getMaxDistance(){
+        return maxDistance;
+    }
+
+    /**
+     * Setter for property 'maxDistance'.
+     *
+     * @param maxDistance Value to set for property 'maxDistance'.
+     */
+
+    public void setMaxDistance(float maxDistance){
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Getter for property 'headroom'.
+     *
+     * @return Value for property 'headroom'.
+     */
+
+    public float getHeadroom(){
+        return headroom;
+    }
+
+}
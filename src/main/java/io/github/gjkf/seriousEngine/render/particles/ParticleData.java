@@ -0,0 +1,304 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.particles;
+
+import java.util.Arrays;
+
+/**
+ * The live particles of an emitter, stored as parallel arrays of primitives, one element per particle.
+ * <p>The particles are packed at the start of the arrays: {@link #add()} appends one and {@link #remove(int)} moves
+ * the last one into the hole, so the order of the particles is not kept. The arrays are only replaced when the
+ * capacity grows, so an emitter sized for its maximum number of particles allocates nothing while it runs. As they
+ * may be replaced, the arrays must be read again after adding particles.</p>
+ * <p>The times are in milliseconds.</p>
+ */
+
+public class ParticleData{
+
+    /**
+     * The X coordinates of the positions.
+     */
+    private float[] x;
+    /**
+     * The Y coordinates of the positions.
+     */
+    private float[] y;
+    /**
+     * The Z coordinates of the positions.
+     */
+    private float[] z;
+    /**
+     * The X components of the speeds, in units per second.
+     */
+    private float[] speedX;
+    /**
+     * The Y components of the speeds, in units per second.
+     */
+    private float[] speedY;
+    /**
+     * The Z components of the speeds, in units per second.
+     */
+    private float[] speedZ;
+    /**
+     * The remaining times to live.
+     */
+    private float[] ttl;
+    /**
+     * The scales.
+     */
+    private float[] scale;
+    /**
+     * The frames of the texture atlas.
+     */
+    private int[] frame;
+    /**
+     * The times spent on the current frame.
+     */
+    private float[] frameTime;
+    /**
+     * The times to spend on each frame.
+     */
+    private float[] frameDuration;
+    /**
+     * The number of particles.
+     */
+    private int size;
+
+    /**
+     * Creates an empty set of particles.
+     *
+     * @param capacity The initial number of particles that fit.
+     */
+
+    public ParticleData(int capacity){
+        x = new float[0];
+        y = new float[0];
+        z = new float[0];
+        speedX = new float[0];
+        speedY = new float[0];
+        speedZ = new float[0];
+        ttl = new float[0];
+        scale = new float[0];
+        frame = new int[0];
+        frameTime = new float[0];
+        frameDuration = new float[0];
+        ensureCapacity(capacity);
+    }
+
+    /**
+     * Makes room for a number of particles.
+     *
+     * @param capacity The number of particles.
+     */
+
+    public void ensureCapacity(int capacity){
+        if(capacity <= x.length){
+            return;
+        }
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+        speedX = Arrays.copyOf(speedX, capacity);
+        speedY = Arrays.copyOf(speedY, capacity);
+        speedZ = Arrays.copyOf(speedZ, capacity);
+        ttl = Arrays.copyOf(ttl, capacity);
+        scale = Arrays.copyOf(scale, capacity);
+        frame = Arrays.copyOf(frame, capacity);
+        frameTime = Arrays.copyOf(frameTime, capacity);
+        frameDuration = Arrays.copyOf(frameDuration, capacity);
+    }
+
+    /**
+     * Appends a particle, whose values must then be set.
+     *
+     * @return The index of the particle.
+     */
+
+    public int add(){
+        if(size == x.length){
+            ensureCapacity(Math.max(16, size * 2));
+        }
+        return size++;
+    }
+
+    /**
+     * Removes a particle, moving the last one to its index.
+     *
+     * @param i The index of the particle.
+     */
+
+    public void remove(int i){
+        int last = --size;
+        if(i != last){
+            x[i] = x[last];
+            y[i] = y[last];
+            z[i] = z[last];
+            speedX[i] = speedX[last];
+            speedY[i] = speedY[last];
+            speedZ[i] = speedZ[last];
+            ttl[i] = ttl[last];
+            scale[i] = scale[last];
+            frame[i] = frame[last];
+            frameTime[i] = frameTime[last];
+            frameDuration[i] = frameDuration[last];
+        }
+    }
+
+    /**
+     * Removes the particles whose time to live ran out.
+     *
+     * @return The number of particles removed.
+     */
+
+    public int removeDead(){
+        int removed = 0;
+        for(int i = size - 1; i >= 0; i--){
+            if(ttl[i] < 0){
+                remove(i);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every particle.
+     */
+
+    public void clear(){
+        size = 0;
+    }
+
+    /**
+     * Returns the number of particles.
+     *
+     * @return The size.
+     */
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns the number of particles that fit before the arrays are replaced.
+     *
+     * @return The capacity.
+     */
+
+    public int getCapacity(){
+        return x.length;
+    }
+
+    /**
+     * Getter for property 'x'.
+     *
+     * @return Value for property 'x'.
+     */
+
+    public float[] getX(){
+        return x;
+    }
+
+    /**
+     * Getter for property 'y'.
+     *
+     * @return Value for property 'y'.
+     */
+
+    public float[] getY(){
+        return y;
+    }
+
+    /**
+     * Getter for property 'z'.
+     *
+     * @return Value for property 'z'.
+     */
+
+    public float[] getZ(){
+        return z;
+    }
+
+    /**
+     * Getter for property 'speedX'.
+     *
+     * @return Value for property 'speedX'.
+     */
+
+    public float[] getSpeedX(){
+        return speedX;
+    }
+
+    /**
+     * Getter for property 'speedY'.
+     *
+     * @return Value for property 'speedY'.
+     */
+
+    public float[] getSpeedY(){
+        return speedY;
+    }
+
+    /**
+     * Getter for property 'speedZ'.
+     *
+     * @return Value for property 'speedZ'.
+     */
+
+    public float[] getSpeedZ(){
+        return speedZ;
+    }
+
+    /**
+     * Getter for property 'ttl'.
+     *
+     * @return Value for property 'ttl'.
+     */
+
+    public float[] getTtl(){
+        return ttl;
+    }
+
+    /**
+     * Getter for property 'scale'.
+     *
+     * @return Value for property 'scale'.
+     */
+
+    public float[] getScale(){
+        return scale;
+    }
+
+    /**
+     * Getter for property 'frame'.
+     *
+     * @return Value for property 'frame'.
+     */
+
+    public int[] getFrame(){
+        return frame;
+    }
+
+    /**
+     * Getter for property 'frameTime'.
+     *
+     * @return Value for property 'frameTime'.
+     */
+
+    public float[] getFrameTime(){
+        return frameTime;
+    }
+
+    /**
+     * Getter for property 'frameDuration'.
+     *
+     * @return Value for property 'frameDuration'.
+     */
+
+    public float[] getFrameDuration(){
+        return frameDuration;
+    }
+
+}
@@ -0,0 +1,359 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.particles;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Updates the {@link IParticleEmitter}s of a scene, in parallel.
+ * <p>The particles of all the emitters are seen as a single range, split evenly into chunks run on the common
+ * {@link ForkJoinPool}, so a large emitter is spread over several threads while the small ones share a chunk. Once
+ * every particle is simulated, the emitters are split into chunks too and finish their updates, each on one thread.
+ * There are more chunks than threads, so the idle workers steal the chunks of the busy ones. The work runs in
+ * parallel once there are at least {@link #PARALLEL_THRESHOLD} particles.</p>
+ * <p>A particle is only simulated from itself, and an emitter removes and spawns its particles on a single thread, so
+ * an update gives the same result however it is split: the same as updating the emitters one after the other.</p>
+ * <p>When a {@link ParticleBudget} is set, the emitters it hides are not updated: their time is put aside, and they
+ * catch up over it in {@link #CATCH_UP_STEPS} updates as soon as they are visible again, capped to
+ * {@link #getMaxCatchUp()} seconds. As the particles move in straight lines, a few long updates place them about where
+ * they would have been, and the particles spawned along the way get different ages.</p>
+ */
+
+public class ParticleScheduler{
+
+    /**
+     * The number of particles from which the work is run in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 4096;
+    /**
+     * The number of updates an emitter catches up in.
+     */
+    public static final int CATCH_UP_STEPS = 8;
+    /**
+     * The number of chunks per thread, more than one to balance the load.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+    /**
+     * The emitters.
+     */
+    private IParticleEmitter[] emitters;
+    /**
+     * The index of the first particle of each emitter in the whole range, then the number of particles.
+     */
+    private int[] offsets;
+    /**
+     * The chunks of the parallel update.
+     */
+    private ChunkTask[] tasks;
+    /**
+     * The budget of the emitters, <tt>null</tt> to update all of them in full.
+     */
+    private ParticleBudget budget;
+    /**
+     * Whether each emitter is visible, and so updated.
+     */
+    private boolean[] visible;
+    /**
+     * The time each hidden emitter was not updated for, in seconds.
+     */
+    private float[] pausedTime;
+    /**
+     * The longest time an emitter catches up, in seconds.
+     */
+    private float maxCatchUp;
+    /**
+     * The time of the current update, in seconds.
+     */
+    private float interval;
+    /**
+     * Whether the work can run in parallel.
+     */
+    private boolean parallel;
+
+    /**
+     * Creates a scheduler without emitters.
+     */
+
+    public ParticleScheduler(){
+        emitters = new IParticleEmitter[0];
+        offsets = new int[1];
+        visible = new boolean[0];
+        pausedTime = new float[0];
+        maxCatchUp = 10;
+        tasks = new ChunkTask[0];
+        parallel = true;
+    }
+
+    /**
+     * Updates every emitter.
+     *
+     * @param interval The time since the last update, in seconds.
+     */
+
+    public void update(float interval){
+        this.interval = interval;
+        if(budget != null){
+            budget.update(emitters, visible);
+        }
+        int total = 0;
+        for(int i = 0; i < emitters.length; i++){
+            offsets[i] = total;
+            if(!visible[i]){
+                pausedTime[i] += interval;
+                continue;
+            }
+            if(pausedTime[i] > 0){
+                float step = Math.min(pausedTime[i], maxCatchUp) / CATCH_UP_STEPS;
+                for(int j = 0; j < CATCH_UP_STEPS; j++){
+                    emitters[i].update(step);
+                }
+                pausedTime[i] = 0;
+            }
+            total += emitters[i].getParticles().size();
+        }
+        offsets[emitters.length] = total;
+        if(parallel && total >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1){
+            prepareTasks();
+            runTasks(ChunkTask.SIMULATE, total);
+            runTasks(ChunkTask.FINISH, emitters.length);
+        }else{
+            simulate(0, total);
+            finish(0, emitters.length);
+        }
+    }
+
+    /**
+     * Simulates a range of the particles of all the emitters.
+     *
+     * @param start The first particle.
+     * @param end   The particle after the last one.
+     */
+
+    private void simulate(int start, int end){
+        if(start >= end){
+            return;
+        }
+        // Find the emitter of the first particle
+        int lo = 0, hi = emitters.length - 1;
+        while(lo < hi){
+            int mid = (lo + hi + 1) >>> 1;
+            if(offsets[mid] <= start){
+                lo = mid;
+            }else{
+                hi = mid - 1;
+            }
+        }
+        for(int i = lo; i < emitters.length && offsets[i] < end; i++){
+            int from = Math.max(start, offsets[i]) - offsets[i];
+            int to = Math.min(end, offsets[i + 1]) - offsets[i];
+            if(from < to){
+                emitters[i].simulate(from, to, interval);
+            }
+        }
+    }
+
+    /**
+     * Finishes the update of a range of the emitters.
+     *
+     * @param start The first emitter.
+     * @param end   The emitter after the last one.
+     */
+
+    private void finish(int start, int end){
+        for(int i = start; i < end; i++){
+            if(visible[i]){
+                emitters[i].finishUpdate(interval);
+            }
+        }
+    }
+
+    /**
+     * Creates the chunks.
+     */
+
+    private void prepareTasks(){
+        int numTasks = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD;
+        if(tasks.length != numTasks){
+            tasks = new ChunkTask[numTasks];
+            for(int i = 0; i < numTasks; i++){
+                tasks[i] = new ChunkTask();
+            }
+        }
+    }
+
+    /**
+     * Splits a range evenly between the chunks, runs a phase on every chunk and waits for them.
+     *
+     * @param phase  The phase.
+     * @param length The length of the range.
+     */
+
+    private void runTasks(int phase, int length){
+        int numTasks = tasks.length;
+        for(int i = 0; i < numTasks; i++){
+            ChunkTask task = tasks[i];
+            task.reinitialize();
+            task.phase = phase;
+            task.start = (int) ((long) length * i / numTasks);
+            task.end = (int) ((long) length * (i + 1) / numTasks);
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * Getter for property 'emitters'.
+     *
+     * @return Value for property 'emitters'.
+     */
+
+    public IParticleEmitter[] getEmitters(){
+        return emitters;
+    }
+
+    /**
+     * Setter for property 'emitters'.
+     *
+     * @param emitters Value to set for property 'emitters', <tt>null</tt> for none.
+     */
+
+    public void setEmitters(IParticleEmitter[] emitters){
+        this.emitters = emitters != null ? emitters : new IParticleEmitter[0];
+        if(offsets.length != this.emitters.length + 1){
+            offsets = new int[this.emitters.length + 1];
+            visible = new boolean[this.emitters.length];
+            pausedTime = new float[this.emitters.length];
+        }
+        Arrays.fill(visible, true);
+        Arrays.fill(pausedTime, 0);
+    }
+
+    /**
+     * Returns whether an emitter was visible at the last update. The hidden emitters do not need to be drawn.
+     *
+     * @param index The index of the emitter.
+     *
+     * @return Whether it is visible.
+     */
+
+    public boolean isVisible(int index){
+        return visible[index];
+    }
+
+    /**
+     * Getter for property 'budget'.
+     *
+     * @return Value for property 'budget'.
+     */
+
+    public ParticleBudget getBudget(){
+        return budget;
+    }
+
+    /**
+     * Setter for property 'budget'.
+     *
+     * @param budget Value to set for property 'budget', <tt>null</tt> to update every emitter in full.
+     */
+
+    public void setBudget(ParticleBudget budget){
+        this.budget = budget;
+        if(budget == null){
+            Arrays.fill(visible, true);
+            for(IParticleEmitter emitter : emitters){
+                emitter.setBudgetScale(1);
+            }
+        }
+    }
+
+    /**
+     * Getter for property 'maxCatchUp'.
+     *
+     * @return Value for property 'maxCatchUp'.
+     */
+
+    public float getMaxCatchUp(){
+        return maxCatchUp;
+    }
+
+    /**
+     * Setter for property 'maxCatchUp'.
+     *
+     * @param maxCatchUp Value to set for property 'maxCatchUp'.
+     */
+
+    public void setMaxCatchUp(float maxCatchUp){
+        this.maxCatchUp = maxCatchUp;
+    }
+
+    /**
+     * Getter for property 'parallel'.
+     *
+     * @return Value for property 'parallel'.
+     */
+
+    public boolean isParallel(){
+        return parallel;
+    }
+
+    /**
+     * Setter for property 'parallel'.
+     *
+     * @param parallel Value to set for property 'parallel'.
+     */
+
+    public void setParallel(boolean parallel){
+        this.parallel = parallel;
+    }
+
+    /**
+     * A chunk of the work, processed by one task.
+     */
+
+    private class ChunkTask extends RecursiveAction{
+
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The phase simulating the particles, over a range of the particles of all the emitters.
+         */
+        static final int SIMULATE = 0;
+        /**
+         * The phase finishing the updates, over a range of the emitters.
+         */
+        static final int FINISH = 1;
+        /**
+         * The start of the range.
+         */
+        int start;
+        /**
+         * The end of the range.
+         */
+        int end;
+        /**
+         * The phase to run.
+         */
+        int phase;
+
+        /**
+         * {@inheritDoc}
+         */
+
+        @Override
+        protected void compute(){
+            if(phase == SIMULATE){
+                simulate(start, end);
+            }else{
+                finish(start, end);
+            }
+        }
+
+    }
+
+}
@@ -4,6 +4,8 @@
 package io.github.gjkf.seriousEngine.render.shaders;
 
 import io.github.gjkf.seriousEngine.render.Material;
+import io.github.gjkf.seriousEngine.render.device.Graphics;
+import io.github.gjkf.seriousEngine.render.device.IGraphicsDevice;
 import io.github.gjkf.seriousEngine.render.lights.DirectionalLight;
 import io.github.gjkf.seriousEngine.render.lights.PointLight;
 import io.github.gjkf.seriousEngine.render.lights.SpotLight;
@@ -13,6 +15,7 @@ import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
 
 import java.nio.FloatBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,10 +24,24 @@ import static org.lwjgl.opengl.GL20.*;
 /**
  * Object representing a <tt>Shader program</tt>.
  * <p>Provides useful methods to create, set and load engineShaders.</p>
+ * <p>Creating a uniform returns its handle, a small integer that sets it without looking its name up. The uniforms of
+ * a struct, like a light or a material, get consecutive handles and are set through the handle of the first one. The
+ * arrays of structs created by {@link #createPointLightListUniform(String, int)} and
+ * {@link #createSpotLightListUniform(String, int)} are laid out the same way, {@link #POINT_LIGHT_UNIFORMS} and
+ * {@link #SPOT_LIGHT_UNIFORMS} handles per element. The setters taking a name are kept for the code that runs once.</p>
+ * <p>A value equal to the last one uploaded to a uniform is not uploaded again.</p>
  */
 
 public class ShaderProgram{
 
+    /**
+     * The number of uniforms of a point light.
+     */
+    public static final int POINT_LIGHT_UNIFORMS = 6;
+    /**
+     * The number of uniforms of a spot light.
+     */
+    public static final int SPOT_LIGHT_UNIFORMS = POINT_LIGHT_UNIFORMS + 2;
     /**
      * The program ID
      */
@@ -42,9 +59,21 @@ public class ShaderProgram{
      */
     private int geometryShaderId;
     /**
-     * A map containing all the uniforms that will be passed to the engineShaders.
+     * The handle of each uniform, by name.
+     */
+    private final Map<String, Integer> handles;
+    /**
+     * The uniforms, by handle.
+     */
+    private UniformData[] uniforms;
+    /**
+     * The number of uniforms.
      */
-    private final Map<String, UniformData> uniforms;
+    private int uniformCount;
+    /**
+     * The graphics device this program was created on.
+     */
+    private final IGraphicsDevice device = Graphics.getDevice();
 
     /**
      * Creates an new program.
@@ -52,11 +81,12 @@ public class ShaderProgram{
      * @throws Exception If the {@link #programId} is 0.
      */
     public ShaderProgram() throws Exception{
-        programId = glCreateProgram();
+        programId = device.createProgram();
         if(programId == 0){
             throw new Exception("Could not create Shader");
         }
-        uniforms = new HashMap<>();
+        handles = new HashMap<>();
+        uniforms = new UniformData[16];
     }
 
     /**
@@ -64,15 +94,39 @@ public class ShaderProgram{
      *
      * @param uniformName The name to add.
      *
+     * @return The handle of the uniform.
+     *
      * @throws Exception If the uniform could not be found in the shader.
      */
 
-    public void createUniform(String uniformName) throws Exception{
-        int uniformLocation = glGetUniformLocation(programId, uniformName);
+    public int createUniform(String uniformName) throws Exception{
+        int uniformLocation = device.getUniformLocation(programId, uniformName);
         if(uniformLocation < 0){
             throw new Exception("Could not find uniform:" + uniformName);
         }
-        uniforms.put(uniformName, new UniformData(uniformLocation));
+        if(uniformCount == uniforms.length){
+            uniforms = Arrays.copyOf(uniforms, uniformCount * 2);
+        }
+        int handle = uniformCount++;
+        uniforms[handle] = new UniformData(uniformLocation);
+        handles.put(uniformName, handle);
+        return handle;
+    }
+
+    /**
+     * Returns the handle of a uniform.
+     *
+     * @param uniformName The name of the uniform.
+     *
+     * @return The handle.
+     */
+
+    public int getUniform(String uniformName){
+        Integer handle = handles.get(uniformName);
+        if(handle == null){
+            throw new RuntimeException("Uniform [" + uniformName + "] has nor been created");
+        }
+        return handle;
     }
 
     /**
@@ -83,13 +137,35 @@ public class ShaderProgram{
      */
 
     public void setUniform(String uniformName, Vector3f value){
-        UniformData uniformData = uniforms.get(uniformName);
-        if(uniformData == null){
-            throw new RuntimeException("Uniform [" + uniformName + "] has nor been created");
-        }
-        glUniform3f(uniformData.getUniformLocation(), value.x, value.y, value.z);
+        setUniform(getUniform(uniformName), value);
+    }
+
+    /**
+     * Sets the value of the given uniform.
+     *
+     * @param handle The handle of the uniform.
+     * @param value  The value.
+     */
+
+    public void setUniform(int handle, Vector3f value){
+        setUniform(handle, value.x, value.y, value.z);
     }
 
+    /**
+     * Sets the value of the given uniform.
+     *
+     * @param handle The handle of the uniform.
+     * @param x      The first component.
+     * @param y      The second component.
+     * @param z      The third component.
+     */
+
+    public void setUniform(int handle, float x, float y, float z){
+        UniformData uniformData = uniforms[handle];
+        if(uniformData.update(x, y, z)){
+            device.uniform3f(uniformData.getUniformLocation(), x, y, z);
+        }
+    }
 
     /**
      * Sets the value of the given uniform.
@@ -99,9 +175,20 @@ public class ShaderProgram{
      */
 
     public void setUniform(String uniformName, Matrix4f value){
-        UniformData uniformData = uniforms.get(uniformName);
-        if(uniformData == null){
-            throw new RuntimeException("Uniform [" + uniformName + "] has nor been created");
+        setUniform(getUniform(uniformName), value);
+    }
+
+    /**
+     * Sets the value of the given uniform.
+     *
+     * @param handle The handle of the uniform.
+     * @param value  The value.
+     */
+
+    public void setUniform(int handle, Matrix4f value){
+        UniformData uniformData = uniforms[handle];
+        if(!uniformData.update(value)){
+            return;
         }
         // Check if float buffer has been created
         FloatBuffer fb = uniformData.getFloatBuffer();
@@ -111,7 +198,7 @@ public class ShaderProgram{
         }
         // Dump the matrix into a float buffer
         value.get(fb);
-        glUniformMatrix4fv(uniformData.getUniformLocation(), false, fb);
+        device.uniformMatrix4fv(uniformData.getUniformLocation(), false, fb);
     }
 
     /**
@@ -122,11 +209,21 @@ public class ShaderProgram{
      */
 
     public void setUniform(String uniformName, int value){
-        UniformData uniformData = uniforms.get(uniformName);
-        if(uniformData == null){
-            throw new RuntimeException("Uniform [" + uniformName + "] has nor been created");
+        setUniform(getUniform(uniformName), value);
+    }
+
+    /**
+     * Sets the value of the given uniform.
+     *
+     * @param handle The handle of the uniform.
+     * @param value  The value.
+     */
+
+    public void setUniform(int handle, int value){
+        UniformData uniformData = uniforms[handle];
+        if(uniformData.update(value)){
+            device.uniform1i(uniformData.getUniformLocation(), value);
         }
-        glUniform1i(uniformData.getUniformLocation(), value);
     }
 
     /**
@@ -137,11 +234,21 @@ public class ShaderProgram{
      */
 
     public void setUniform(String uniformName, float value){
-        UniformData uniformData = uniforms.get(uniformName);
-        if(uniformData == null){
-            throw new RuntimeException("Uniform [" + uniformName + "] has nor been created");
+        setUniform(getUniform(uniformName), value);
+    }
+
+    /**
+     * Sets the value of the given uniform.
+     *
+     * @param handle The handle of the uniform.
+     * @param value  The value.
+     */
+
+    public void setUniform(int handle, float value){
+        UniformData uniformData = uniforms[handle];
+        if(uniformData.update(value)){
+            device.uniform1f(uniformData.getUniformLocation(), value);
         }
-        glUniform1f(uniformData.getUniformLocation(), value);
     }
 
     /**
@@ -152,9 +259,21 @@ public class ShaderProgram{
      */
 
     public void setUniform(String uniformName, DirectionalLight dirLight){
-        setUniform(uniformName + ".colour", dirLight.getColor());
-        setUniform(uniformName + ".direction", dirLight.getDirection());
-        setUniform(uniformName + ".intensity", dirLight.getIntensity());
+        setUniform(getUniform(uniformName + ".colour"), dirLight, dirLight.getDirection());
+    }
+
+    /**
+     * Sets the value of the given uniform.
+     *
+     * @param handle    The handle of the uniform, as returned by {@link #createDirectionalLightUniform(String)}.
+     * @param dirLight  The value.
+     * @param direction The direction to upload instead of the one of the light, for example in view space.
+     */
+
+    public void setUniform(int handle, DirectionalLight dirLight, Vector3f direction){
+        setUniform(handle, dirLight.getColor());
+        setUniform(handle + 1, direction);
+        setUniform(handle + 2, dirLight.getIntensity());
     }
 
     /**
@@ -163,13 +282,17 @@ public class ShaderProgram{
      * @param uniformName The name.
      * @param size        The size of the array.
      *
+     * @return The handle of the first light, the next ones following every {@link #POINT_LIGHT_UNIFORMS} handles.
+     *
      * @throws Exception If anything went wrong.
      */
 
-    public void createPointLightListUniform(String uniformName, int size) throws Exception{
+    public int createPointLightListUniform(String uniformName, int size) throws Exception{
+        int handle = uniformCount;
         for(int i = 0; i < size; i++){
             createPointLightUniform(uniformName + "[" + i + "]");
         }
+        return handle;
     }
 
     /**
@@ -206,13 +329,25 @@ public class ShaderProgram{
      */
 
     public void setUniform(String uniformName, PointLight pointLight){
-        setUniform(uniformName + ".colour", pointLight.getColor());
-        setUniform(uniformName + ".position", pointLight.getPosition());
-        setUniform(uniformName + ".intensity", pointLight.getIntensity());
+        setUniform(getUniform(uniformName + ".colour"), pointLight, pointLight.getPosition());
+    }
+
+    /**
+     * Sets the value of the given uniform.
+     *
+     * @param handle     The handle of the uniform, as returned by {@link #createPointLightUniform(String)}.
+     * @param pointLight The value.
+     * @param position   The position to upload instead of the one of the light, for example in view space.
+     */
+
+    public void setUniform(int handle, PointLight pointLight, Vector3f position){
+        setUniform(handle, pointLight.getColor());
+        setUniform(handle + 1, position);
+        setUniform(handle + 2, pointLight.getIntensity());
         PointLight.Attenuation att = pointLight.getAttenuation();
-        setUniform(uniformName + ".att.constant", att.getConstant());
-        setUniform(uniformName + ".att.linear", att.getLinear());
-        setUniform(uniformName + ".att.exponent", att.getExponent());
+        setUniform(handle + 3, att.getConstant());
+        setUniform(handle + 4, att.getLinear());
+        setUniform(handle + 5, att.getExponent());
     }
 
     /**
@@ -221,13 +356,17 @@ public class ShaderProgram{
      * @param uniformName The name.
      * @param size        The size of the array.
      *
+     * @return The handle of the first light, the next ones following every {@link #SPOT_LIGHT_UNIFORMS} handles.
+     *
      * @throws Exception If anything went wrong.
      */
 
-    public void createSpotLightListUniform(String uniformName, int size) throws Exception{
+    public int createSpotLightListUniform(String uniformName, int size) throws Exception{
+        int handle = uniformCount;
         for(int i = 0; i < size; i++){
             createSpotLightUniform(uniformName + "[" + i + "]");
         }
+        return handle;
     }
 
     /**
@@ -238,9 +377,22 @@ public class ShaderProgram{
      */
 
     public void setUniform(String uniformName, SpotLight spotLight){
-        setUniform(uniformName + ".pl", spotLight.getPointLight());
-        setUniform(uniformName + ".conedir", spotLight.getConeDirection());
-        setUniform(uniformName + ".cutoff", spotLight.getCutOff());
+        setUniform(getUniform(uniformName + ".pl.colour"), spotLight, spotLight.getPointLight().getPosition(), spotLight.getConeDirection());
+    }
+
+    /**
+     * Sets the value of the given uniform.
+     *
+     * @param handle        The handle of the uniform, as returned by {@link #createSpotLightUniform(String)}.
+     * @param spotLight     The value.
+     * @param position      The position to upload instead of the one of the light, for example in view space.
+     * @param coneDirection The cone direction to upload instead of the one of the light.
+     */
+
+    public void setUniform(int handle, SpotLight spotLight, Vector3f position, Vector3f coneDirection){
+        setUniform(handle, spotLight.getPointLight(), position);
+        setUniform(handle + POINT_LIGHT_UNIFORMS, coneDirection);
+        setUniform(handle + POINT_LIGHT_UNIFORMS + 1, spotLight.getCutOff());
     }
 
     /**
@@ -277,10 +429,21 @@ public class ShaderProgram{
      */
 
     public void setUniform(String uniformName, Material material){
-        setUniform(uniformName + ".colour", material.getColour());
-        setUniform(uniformName + ".hasTexture", material.isTextured() ? 1 : 0);
-        setUniform(uniformName + ".hasNormalMap", material.hasNormalMap() ? 1 : 0);
-        setUniform(uniformName + ".reflectance", material.getReflectance());
+        setUniform(getUniform(uniformName + ".colour"), material);
+    }
+
+    /**
+     * Sets the value of the given uniform.
+     *
+     * @param handle   The handle of the uniform, as returned by {@link #createMaterialUniform(String)}.
+     * @param material The value.
+     */
+
+    public void setUniform(int handle, Material material){
+        setUniform(handle, material.getColour());
+        setUniform(handle + 1, material.isTextured() ? 1 : 0);
+        setUniform(handle + 2, material.hasNormalMap() ? 1 : 0);
+        setUniform(handle + 3, material.getReflectance());
     }
 
     /**
@@ -291,34 +454,57 @@ public class ShaderProgram{
      */
 
     public void setUniform(String uniformName, Fog fog){
-        setUniform(uniformName + ".activeFog", fog.isActive() ? 1 : 0);
-        setUniform(uniformName + ".colour", fog.getColour());
-        setUniform(uniformName + ".density", fog.getDensity());
+        setUniform(getUniform(uniformName + ".activeFog"), fog);
     }
 
     /**
      * Sets the value of the given uniform.
      *
+     * @param handle The handle of the uniform, as returned by {@link #createFogUniform(String)}.
+     * @param fog    The value.
+     */
+
+    public void setUniform(int handle, Fog fog){
+        setUniform(handle, fog.isActive() ? 1 : 0);
+        setUniform(handle + 1, fog.getColour());
+        setUniform(handle + 2, fog.getDensity());
+    }
+
+    /**
+     * Sets the first values of the given uniform array, with a single upload.
+     *
      * @param uniformName The uniform to reference.
-     * @param matrices    The values.
+     * @param matrices    The values, possibly fewer than the elements of the array.
      */
 
     public void setUniform(String uniformName, Matrix4f[] matrices){
+        setUniform(getUniform(uniformName), matrices);
+    }
+
+    /**
+     * Sets the first values of the given uniform array, with a single upload.
+     * <p>Arrays are always uploaded, comparing them would cost about as much.</p>
+     *
+     * @param handle   The handle of the uniform.
+     * @param matrices The values, possibly fewer than the elements of the array.
+     */
+
+    public void setUniform(int handle, Matrix4f[] matrices){
         int length = matrices != null ? matrices.length : 0;
-        UniformData uniformData = uniforms.get(uniformName);
-        if(uniformData == null){
-            throw new RuntimeException("Uniform [" + uniformName + "] has nor been created");
-        }
-        // Check if float buffer has been created
+        UniformData uniformData = uniforms[handle];
+        // Check if float buffer has been created and is large enough
         FloatBuffer fb = uniformData.getFloatBuffer();
-        if(fb == null){
+        if(fb == null || fb.capacity() < 16 * length){
             fb = BufferUtils.createFloatBuffer(16 * length);
             uniformData.setFloatBuffer(fb);
         }
         for(int i = 0; i < length; i++){
             matrices[i].get(16 * i, fb);
         }
-        glUniformMatrix4fv(uniformData.getUniformLocation(), false, fb);
+        // Only upload the given matrices, the rest of the array keeps its values
+        fb.limit(16 * length);
+        device.uniformMatrix4fv(uniformData.getUniformLocation(), false, fb);
+        fb.clear();
     }
 
     /**
@@ -326,13 +512,16 @@ public class ShaderProgram{
      *
      * @param uniformName The name.
      *
+     * @return The handle of the first uniform of the fog.
+     *
      * @throws Exception If anything went wrong.
      */
 
-    public void createFogUniform(String uniformName) throws Exception{
-        createUniform(uniformName + ".activeFog");
+    public int createFogUniform(String uniformName) throws Exception{
+        int handle = createUniform(uniformName + ".activeFog");
         createUniform(uniformName + ".colour");
         createUniform(uniformName + ".density");
+        return handle;
     }
 
     /**
@@ -340,16 +529,19 @@ public class ShaderProgram{
      *
      * @param uniformName The name.
      *
+     * @return The handle of the first uniform of the light.
+     *
      * @throws Exception If anything went wrong.
      */
 
-    public void createPointLightUniform(String uniformName) throws Exception{
-        createUniform(uniformName + ".colour");
+    public int createPointLightUniform(String uniformName) throws Exception{
+        int handle = createUniform(uniformName + ".colour");
         createUniform(uniformName + ".position");
         createUniform(uniformName + ".intensity");
         createUniform(uniformName + ".att.constant");
         createUniform(uniformName + ".att.linear");
         createUniform(uniformName + ".att.exponent");
+        return handle;
     }
 
     /**
@@ -357,15 +549,17 @@ public class ShaderProgram{
      *
      * @param uniformName The name.
      *
+     * @return The handle of the first uniform of the material.
+     *
      * @throws Exception If anything went wrong.
      */
 
-    public void createMaterialUniform(String uniformName) throws Exception{
-        createUniform(uniformName + ".colour");
+    public int createMaterialUniform(String uniformName) throws Exception{
+        int handle = createUniform(uniformName + ".colour");
         createUniform(uniformName + ".hasTexture");
         createUniform(uniformName + ".hasNormalMap");
         createUniform(uniformName + ".reflectance");
-
+        return handle;
     }
 
     /**
@@ -373,13 +567,16 @@ public class ShaderProgram{
      *
      * @param uniformName The name.
      *
+     * @return The handle of the first uniform of the light.
+     *
      * @throws Exception If anything went wrong.
      */
 
-    public void createDirectionalLightUniform(String uniformName) throws Exception{
-        createUniform(uniformName + ".colour");
+    public int createDirectionalLightUniform(String uniformName) throws Exception{
+        int handle = createUniform(uniformName + ".colour");
         createUniform(uniformName + ".direction");
         createUniform(uniformName + ".intensity");
+        return handle;
     }
 
     /**
@@ -387,13 +584,16 @@ public class ShaderProgram{
      *
      * @param uniformName The name.
      *
+     * @return The handle of the first uniform of the light.
+     *
      * @throws Exception If anything went wrong.
      */
 
-    public void createSpotLightUniform(String uniformName) throws Exception{
-        createPointLightUniform(uniformName + ".pl");
+    public int createSpotLightUniform(String uniformName) throws Exception{
+        int handle = createPointLightUniform(uniformName + ".pl");
         createUniform(uniformName + ".conedir");
         createUniform(uniformName + ".cutoff");
+        return handle;
     }
 
     /**
@@ -432,19 +632,19 @@ public class ShaderProgram{
      */
 
     protected int createShader(String shaderCode, int shaderType) throws Exception{
-        int shaderId = glCreateShader(shaderType);
+        int shaderId = device.createShader(shaderType);
         if(shaderId == 0){
             throw new Exception("Error creating shader. Code: " + shaderId);
         }
 
-        glShaderSource(shaderId, shaderCode);
-        glCompileShader(shaderId);
+        device.shaderSource(shaderId, shaderCode);
+        device.compileShader(shaderId);
 
-        if(glGetShaderi(shaderId, GL_COMPILE_STATUS) == 0){
-            throw new Exception("Error compiling Shader code: " + glGetShaderInfoLog(shaderId, 1024));
+        if(device.getShaderi(shaderId, GL_COMPILE_STATUS) == 0){
+            throw new Exception("Error compiling Shader code: " + device.getShaderInfoLog(shaderId, 1024));
         }
 
-        glAttachShader(programId, shaderId);
+        device.attachShader(programId, shaderId);
 
         return shaderId;
     }
@@ -456,14 +656,14 @@ public class ShaderProgram{
      */
 
     public void link() throws Exception{
-        glLinkProgram(programId);
-        if(glGetProgrami(programId, GL_LINK_STATUS) == 0){
-            throw new Exception("Error linking Shader code: " + glGetProgramInfoLog(programId, 1024));
+        device.linkProgram(programId);
+        if(device.getProgrami(programId, GL_LINK_STATUS) == 0){
+            throw new Exception("Error linking Shader code: " + device.getProgramInfoLog(programId, 1024));
         }
 
-        glValidateProgram(programId);
-        if(glGetProgrami(programId, GL_VALIDATE_STATUS) == 0){
-            System.err.println("Warning validating Shader code: " + glGetProgramInfoLog(programId, 1024));
+        device.validateProgram(programId);
+        if(device.getProgrami(programId, GL_VALIDATE_STATUS) == 0){
+            System.err.println("Warning validating Shader code: " + device.getProgramInfoLog(programId, 1024));
         }
 
     }
@@ -473,7 +673,7 @@ public class ShaderProgram{
      */
 
     public void bind(){
-        glUseProgram(programId);
+        device.useProgram(programId);
     }
 
     /**
@@ -481,7 +681,7 @@ public class ShaderProgram{
      */
 
     public void unbind(){
-        glUseProgram(0);
+        device.useProgram(0);
     }
 
     /**
@@ -492,15 +692,15 @@ public class ShaderProgram{
         unbind();
         if(programId != 0){
             if(vertexShaderId != 0){
-                glDetachShader(programId, vertexShaderId);
+                device.detachShader(programId, vertexShaderId);
             }
             if(fragmentShaderId != 0){
-                glDetachShader(programId, fragmentShaderId);
+                device.detachShader(programId, fragmentShaderId);
             }
             if(geometryShaderId != 0){
-                glDetachShader(programId, geometryShaderId);
+                device.detachShader(programId, geometryShaderId);
             }
-            glDeleteProgram(programId);
+            device.deleteProgram(programId);
         }
     }
 
@@ -4,10 +4,14 @@
 
 package io.github.gjkf.seriousEngine.render.shaders;
 
+import org.joml.Matrix4f;
+
 import java.nio.FloatBuffer;
 
 /**
  * Simple place holder class used with engineShaders.
+ * <p>Also remembers the last value uploaded, so that {@link ShaderProgram} can skip uploading the same value again.
+ * Uniform values are part of the program, so they stay valid while other programs are used.</p>
  */
 
 public class UniformData{
@@ -20,6 +24,18 @@ public class UniformData{
      * The buffer that holds the information.
      */
     private FloatBuffer floatBuffer;
+    /**
+     * Whether {@link #values} or {@link #matrix} hold the last value uploaded.
+     */
+    private boolean valueSet;
+    /**
+     * The last scalar or vector uploaded, integers being stored as their bits.
+     */
+    private final int[] values;
+    /**
+     * The last matrix uploaded, created with the first one.
+     */
+    private Matrix4f matrix;
 
     /**
      * Constructs a new object.
@@ -28,6 +44,85 @@ public class UniformData{
      */
     public UniformData(int uniformLocation){
         this.uniformLocation = uniformLocation;
+        this.values = new int[3];
+    }
+
+    /**
+     * Remembers an integer, returning whether it differs from the last value uploaded.
+     *
+     * @param value The value.
+     *
+     * @return Whether it must be uploaded.
+     */
+
+    public boolean update(int value){
+        if(valueSet && values[0] == value){
+            return false;
+        }
+        values[0] = value;
+        valueSet = true;
+        return true;
+    }
+
+    /**
+     * Remembers a float, returning whether it differs from the last value uploaded.
+     *
+     * @param value The value.
+     *
+     * @return Whether it must be uploaded.
+     */
+
+    public boolean update(float value){
+        return update(Float.floatToIntBits(value));
+    }
+
+    /**
+     * Remembers a vector, returning whether it differs from the last value uploaded.
+     *
+     * @param x The first component.
+     * @param y The second component.
+     * @param z The third component.
+     *
+     * @return Whether it must be uploaded.
+     */
+
+    public boolean update(float x, float y, float z){
+        int bitsX = Float.floatToIntBits(x), bitsY = Float.floatToIntBits(y), bitsZ = Float.floatToIntBits(z);
+        if(valueSet && values[0] == bitsX && values[1] == bitsY && values[2] == bitsZ){
+            return false;
+        }
+        values[0] = bitsX;
+        values[1] = bitsY;
+        values[2] = bitsZ;
+        valueSet = true;
+        return true;
+    }
+
+    /**
+     * Remembers a matrix, returning whether it differs from the last value uploaded.
+     *
+     * @param value The value.
+     *
+     * @return Whether it must be uploaded.
+     */
+
+    public boolean update(Matrix4f value){
+        if(matrix == null){
+            matrix = new Matrix4f();
+        }else if(valueSet && matrix.equals(value)){
+            return false;
+        }
+        matrix.set(value);
+        valueSet = true;
+        return true;
+    }
+
+    /**
+     * Forgets the last value uploaded, so that the next one is always uploaded.
+     */
+
+    public void invalidate(){
+        valueSet = false;
     }
 
     /**
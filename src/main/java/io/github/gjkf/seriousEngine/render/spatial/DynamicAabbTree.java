@@ -0,0 +1,921 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.spatial;
+
+import io.github.gjkf.seriousEngine.items.ITransformListener;
+import io.github.gjkf.seriousEngine.items.Item;
+import io.github.gjkf.seriousEngine.render.Bounds;
+import org.joml.FrustumIntersection;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+
+/**
+ * A bounding volume hierarchy of items that is updated incrementally.
+ * <p>Every item is a leaf, called proxy, holding a box slightly larger than the world bounds of the item: the fat box.
+ * The tree listens to the items it holds, and the ones that move are queued. {@link #update()} reinserts only the
+ * queued items whose bounds left their fat box, so the cost of an update depends on the moving items and not on the
+ * size of the tree. The tree is kept balanced with rotations, as in Box2D.</p>
+ * <p>The nodes are stored in flat arrays and the queries traverse them with a stack owned by the tree, so queries do
+ * not allocate. For the same reason queries must not be nested and the tree must be used from one thread only.</p>
+ * <p>Every query first calls {@link #update()}, the leaves are tested against the exact world bounds of the items.</p>
+ */
+
+public class DynamicAabbTree implements ITransformListener{
+
+    /**
+     * The default distance the fat boxes extend past the bounds of the items.
+     */
+    public static final float DEFAULT_MARGIN = 0.1f;
+    /**
+     * The null node.
+     */
+    private static final int NULL = -1;
+    /**
+     * The initial number of nodes.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * The distance the fat boxes extend past the bounds of the items.
+     */
+    private final float margin;
+    /**
+     * The boxes of the nodes, six floats each: the minimum and the maximum corner.
+     */
+    private float[] boxes;
+    /**
+     * The parent of each node.
+     */
+    private int[] parents;
+    /**
+     * The first child of each node, or the next free node if the node is free.
+     */
+    private int[] children1;
+    /**
+     * The second child of each node.
+     */
+    private int[] children2;
+    /**
+     * The height of each node: 0 for the leaves, -1 for the free nodes.
+     */
+    private int[] heights;
+    /**
+     * The item of each leaf.
+     */
+    private Item[] items;
+    /**
+     * Whether each leaf is in the queue of the moved proxies.
+     */
+    private boolean[] moved;
+    /**
+     * The root node.
+     */
+    private int root;
+    /**
+     * The first free node.
+     */
+    private int freeList;
+    /**
+     * The number of proxies.
+     */
+    private int proxyCount;
+    /**
+     * The queue of the moved proxies.
+     */
+    private int[] movedQueue;
+    /**
+     * The number of proxies in the queue.
+     */
+    private int movedCount;
+    /**
+     * The stack used by the queries.
+     */
+    private int[] stack;
+
+    /**
+     * Creates an empty tree with {@link #DEFAULT_MARGIN}.
+     */
+
+    public DynamicAabbTree(){
+        this(DEFAULT_MARGIN);
+    }
+
+    /**
+     * Creates an empty tree.
+     *
+     * @param margin The distance the fat boxes extend past the bounds of the items. Larger margins mean less
+     *               reinsertions for moving items and looser queries.
+     */
+
+    public DynamicAabbTree(float margin){
+        if(margin < 0){
+            throw new IllegalArgumentException("The margin must not be negative");
+        }
+        this.margin = margin;
+        boxes = new float[0];
+        parents = new int[0];
+        children1 = new int[0];
+        children2 = new int[0];
+        heights = new int[0];
+        items = new Item[0];
+        moved = new boolean[0];
+        movedQueue = new int[INITIAL_CAPACITY];
+        stack = new int[64];
+        root = NULL;
+        freeList = NULL;
+        grow(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Adds an item to the tree and starts listening to it.
+     * <p>The item remembers its proxy, so it can be in only one tree at a time.</p>
+     *
+     * @param item The item.
+     *
+     * @return The proxy of the item.
+     */
+
+    public int createProxy(Item item){
+        if(item.getTransformListener() != null){
+            throw new IllegalArgumentException("The item is already in a spatial index");
+        }
+        int proxy = allocateNode();
+        items[proxy] = item;
+        heights[proxy] = 0;
+        setFatBox(proxy, item);
+        insertLeaf(proxy);
+        proxyCount++;
+        item.setTransformListener(this);
+        item.setSpatialProxy(proxy);
+        return proxy;
+    }
+
+    /**
+     * Removes an item from the tree and stops listening to it.
+     *
+     * @param item The item.
+     */
+
+    public void destroyProxy(Item item){
+        if(item.getTransformListener() != this){
+            throw new IllegalArgumentException("The item is not in this spatial index");
+        }
+        int proxy = item.getSpatialProxy();
+        removeLeaf(proxy);
+        moved[proxy] = false;
+        freeNode(proxy);
+        proxyCount--;
+        item.setTransformListener(null);
+        item.setSpatialProxy(NULL);
+    }
+
+    /**
+     * Removes all the items from the tree.
+     */
+
+    public void clear(){
+        for(int i = 0; i < items.length; i++){
+            Item item = items[i];
+            if(item != null){
+                item.setTransformListener(null);
+                item.setSpatialProxy(NULL);
+            }
+        }
+        int capacity = heights.length;
+        boxes = new float[0];
+        parents = new int[0];
+        children1 = new int[0];
+        children2 = new int[0];
+        heights = new int[0];
+        items = new Item[0];
+        moved = new boolean[0];
+        root = NULL;
+        freeList = NULL;
+        proxyCount = 0;
+        movedCount = 0;
+        grow(capacity);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Queues the proxy of the item for the next {@link #update()}.</p>
+     */
+
+    @Override
+    public void transformChanged(Item item){
+        int proxy = item.getSpatialProxy();
+        if(moved[proxy]){
+            return;
+        }
+        moved[proxy] = true;
+        if(movedCount == movedQueue.length){
+            movedQueue = Arrays.copyOf(movedQueue, movedCount * 2);
+        }
+        movedQueue[movedCount++] = proxy;
+    }
+
+    /**
+     * Updates the proxies of the items that moved since the last update.
+     *
+     * @return The number of proxies that were reinserted.
+     */
+
+    public int update(){
+        int reinserted = 0;
+        for(int i = 0; i < movedCount; i++){
+            int proxy = movedQueue[i];
+            if(moved[proxy]){
+                moved[proxy] = false;
+                if(moveProxy(proxy)){
+                    reinserted++;
+                }
+            }
+        }
+        movedCount = 0;
+        return reinserted;
+    }
+
+    /**
+     * Reinserts a proxy if the bounds of its item left the fat box, or if the fat box became much larger than them.
+     *
+     * @param proxy The proxy.
+     *
+     * @return Whether the proxy was reinserted.
+     */
+
+    private boolean moveProxy(int proxy){
+        Bounds bounds = items[proxy].getWorldBounds();
+        if(!bounds.isEmpty()){
+            Vector3f min = bounds.getMin();
+            Vector3f max = bounds.getMax();
+            int o = proxy * 6;
+            float limit = 4 * margin;
+            if(boxes[o] <= min.x && boxes[o + 1] <= min.y && boxes[o + 2] <= min.z
+                    && boxes[o + 3] >= max.x && boxes[o + 4] >= max.y && boxes[o + 5] >= max.z
+                    && min.x - boxes[o] <= limit && min.y - boxes[o + 1] <= limit && min.z - boxes[o + 2] <= limit
+                    && boxes[o + 3] - max.x <= limit && boxes[o + 4] - max.y <= limit && boxes[o + 5] - max.z <= limit){
+                return false;
+            }
+        }
+        removeLeaf(proxy);
+        setFatBox(proxy, items[proxy]);
+        insertLeaf(proxy);
+        return true;
+    }
+
+    /**
+     * Visits the items whose bounds overlap a box.
+     *
+     * @param bounds   The box.
+     * @param callback The callback.
+     */
+
+    public void query(Bounds bounds, ISpatialCallback callback){
+        update();
+        if(root == NULL || bounds.isEmpty()){
+            return;
+        }
+        Vector3f min = bounds.getMin();
+        Vector3f max = bounds.getMax();
+        int top = 0;
+        stack[top++] = root;
+        while(top > 0){
+            int node = stack[--top];
+            int o = node * 6;
+            if(boxes[o] > max.x || boxes[o + 1] > max.y || boxes[o + 2] > max.z
+                    || boxes[o + 3] < min.x || boxes[o + 4] < min.y || boxes[o + 5] < min.z){
+                continue;
+            }
+            if(heights[node] == 0){
+                Bounds itemBounds = items[node].getWorldBounds();
+                if(!itemBounds.isEmpty() && itemBounds.intersects(bounds) && !callback.visit(items[node])){
+                    return;
+                }
+            }else{
+                top = push(top, children1[node], children2[node]);
+            }
+        }
+    }
+
+    /**
+     * Visits the items whose bounds overlap a sphere.
+     *
+     * @param x        The X coordinate of the center.
+     * @param y        The Y coordinate of the center.
+     * @param z        The Z coordinate of the center.
+     * @param radius   The radius.
+     * @param callback The callback.
+     */
+
+    public void query(float x, float y, float z, float radius, ISpatialCallback callback){
+        update();
+        if(root == NULL){
+            return;
+        }
+        float radiusSquared = radius * radius;
+        int top = 0;
+        stack[top++] = root;
+        while(top > 0){
+            int node = stack[--top];
+            int o = node * 6;
+            if(distanceSquared(x, y, z, boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3], boxes[o + 4], boxes[o + 5]) > radiusSquared){
+                continue;
+            }
+            if(heights[node] == 0){
+                Bounds itemBounds = items[node].getWorldBounds();
+                if(itemBounds.isEmpty()){
+                    continue;
+                }
+                Vector3f min = itemBounds.getMin();
+                Vector3f max = itemBounds.getMax();
+                if(distanceSquared(x, y, z, min.x, min.y, min.z, max.x, max.y, max.z) <= radiusSquared && !callback.visit(items[node])){
+                    return;
+                }
+            }else{
+                top = push(top, children1[node], children2[node]);
+            }
+        }
+    }
+
+    /**
+     * Visits the items whose bounds are at least partially inside a frustum.
+     * <p>The subtrees completely inside the frustum are visited without testing them any further.</p>
+     *
+     * @param frustum  The frustum.
+     * @param callback The callback.
+     */
+
+    public void query(FrustumIntersection frustum, ISpatialCallback callback){
+        update();
+        if(root == NULL){
+            return;
+        }
+        int top = 0;
+        stack[top++] = root;
+        while(top > 0){
+            int entry = stack[--top];
+            // The nodes known to be inside are pushed complemented
+            boolean inside = entry < 0;
+            int node = inside ? ~entry : entry;
+            if(!inside){
+                int o = node * 6;
+                int result = frustum.intersectAab(boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3], boxes[o + 4], boxes[o + 5]);
+                if(result == FrustumIntersection.INSIDE){
+                    inside = true;
+                }else if(result != FrustumIntersection.INTERSECT){
+                    continue;
+                }
+            }
+            if(heights[node] == 0){
+                Bounds itemBounds = items[node].getWorldBounds();
+                if(itemBounds.isEmpty()){
+                    continue;
+                }
+                if(!inside && !frustum.testAab(itemBounds.getMin(), itemBounds.getMax())){
+                    continue;
+                }
+                if(!callback.visit(items[node])){
+                    return;
+                }
+            }else if(inside){
+                top = push(top, ~children1[node], ~children2[node]);
+            }else{
+                top = push(top, children1[node], children2[node]);
+            }
+        }
+    }
+
+    /**
+     * Casts a ray and reports the items whose bounds it hits.
+     *
+     * @param originX     The X coordinate of the origin.
+     * @param originY     The Y coordinate of the origin.
+     * @param originZ     The Z coordinate of the origin.
+     * @param dirX        The X component of the direction. The direction should be normalized for the distances to
+     *                    be in world units.
+     * @param dirY        The Y component of the direction.
+     * @param dirZ        The Z component of the direction.
+     * @param maxDistance The length of the ray.
+     * @param callback    The callback.
+     */
+
+    public void raycast(float originX, float originY, float originZ, float dirX, float dirY, float dirZ, float maxDistance, IRayCallback callback){
+        update();
+        if(root == NULL){
+            return;
+        }
+        float invX = 1.0f / dirX, invY = 1.0f / dirY, invZ = 1.0f / dirZ;
+        int top = 0;
+        stack[top++] = root;
+        while(top > 0){
+            int node = stack[--top];
+            int o = node * 6;
+            if(intersectRay(originX, originY, originZ, invX, invY, invZ, maxDistance,
+                    boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3], boxes[o + 4], boxes[o + 5]) < 0){
+                continue;
+            }
+            if(heights[node] == 0){
+                Bounds itemBounds = items[node].getWorldBounds();
+                if(itemBounds.isEmpty()){
+                    continue;
+                }
+                Vector3f min = itemBounds.getMin();
+                Vector3f max = itemBounds.getMax();
+                float distance = intersectRay(originX, originY, originZ, invX, invY, invZ, maxDistance,
+                        min.x, min.y, min.z, max.x, max.y, max.z);
+                if(distance < 0){
+                    continue;
+                }
+                float newDistance = callback.hit(items[node], distance);
+                if(newDistance <= 0){
+                    return;
+                }
+                maxDistance = Math.min(maxDistance, newDistance);
+            }else{
+                top = push(top, children1[node], children2[node]);
+            }
+        }
+    }
+
+    /**
+     * Getter for property 'proxyCount'.
+     *
+     * @return Value for property 'proxyCount'.
+     */
+
+    public int getProxyCount(){
+        return proxyCount;
+    }
+
+    /**
+     * Returns the height of the tree.
+     *
+     * @return The height, 0 if the tree is empty.
+     */
+
+    public int getHeight(){
+        return root == NULL ? 0 : heights[root];
+    }
+
+    /**
+     * Getter for property 'margin'.
+     *
+     * @return Value for property 'margin'.
+     */
+
+    public float getMargin(){
+        return margin;
+    }
+
+    /**
+     * Pushes two nodes on the query stack, growing it if needed.
+     *
+     * @param top    The current size of the stack.
+     * @param first  The first node.
+     * @param second The second node.
+     *
+     * @return The new size of the stack.
+     */
+
+    private int push(int top, int first, int second){
+        if(top + 2 > stack.length){
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top] = first;
+        stack[top + 1] = second;
+        return top + 2;
+    }
+
+    /**
+     * Sets the box of a leaf to the world bounds of its item, extended by the margin.
+     * <p>Items with empty bounds get a box around their position.</p>
+     *
+     * @param node The leaf.
+     * @param item The item.
+     */
+
+    private void setFatBox(int node, Item item){
+        Bounds bounds = item.getWorldBounds();
+        int o = node * 6;
+        if(bounds.isEmpty()){
+            Vector3f position = item.getPosition();
+            boxes[o] = position.x - margin;
+            boxes[o + 1] = position.y - margin;
+            boxes[o + 2] = position.z - margin;
+            boxes[o + 3] = position.x + margin;
+            boxes[o + 4] = position.y + margin;
+            boxes[o + 5] = position.z + margin;
+        }else{
+            Vector3f min = bounds.getMin();
+            Vector3f max = bounds.getMax();
+            boxes[o] = min.x - margin;
+            boxes[o + 1] = min.y - margin;
+            boxes[o + 2] = min.z - margin;
+            boxes[o + 3] = max.x + margin;
+            boxes[o + 4] = max.y + margin;
+            boxes[o + 5] = max.z + margin;
+        }
+    }
+
+    /**
+     * Inserts a leaf next to the sibling that makes the tree grow the least, then walks up refitting and balancing the
+     * ancestors.
+     *
+     * @param leaf The leaf.
+     */
+
+    private void insertLeaf(int leaf){
+        if(root == NULL){
+            root = leaf;
+            parents[leaf] = NULL;
+            return;
+        }
+
+        // Find the best sibling
+        int lo = leaf * 6;
+        int index = root;
+        while(heights[index] > 0){
+            int child1 = children1[index];
+            int child2 = children2[index];
+
+            float area = area(index * 6);
+            float combinedArea = unionArea(index * 6, lo);
+            // Cost of creating a new parent for this node and the leaf
+            float cost = 2 * combinedArea;
+            // Minimum cost of pushing the leaf further down the tree
+            float inheritanceCost = 2 * (combinedArea - area);
+
+            float cost1 = cost(child1, lo) + inheritanceCost;
+            float cost2 = cost(child2, lo) + inheritanceCost;
+            if(cost < cost1 && cost < cost2){
+                break;
+            }
+            index = cost1 < cost2 ? child1 : child2;
+        }
+        int sibling = index;
+
+        // Create a new parent
+        int oldParent = parents[sibling];
+        int newParent = allocateNode();
+        parents[newParent] = oldParent;
+        heights[newParent] = heights[sibling] + 1;
+        union(newParent, sibling, leaf);
+        if(oldParent != NULL){
+            if(children1[oldParent] == sibling){
+                children1[oldParent] = newParent;
+            }else{
+                children2[oldParent] = newParent;
+            }
+        }else{
+            root = newParent;
+        }
+        children1[newParent] = sibling;
+        children2[newParent] = leaf;
+        parents[sibling] = newParent;
+        parents[leaf] = newParent;
+
+        refit(parents[leaf]);
+    }
+
+    /**
+     * Removes a leaf and its parent, then walks up refitting and balancing the ancestors.
+     *
+     * @param leaf The leaf.
+     */
+
+    private void removeLeaf(int leaf){
+        if(leaf == root){
+            root = NULL;
+            return;
+        }
+        int parent = parents[leaf];
+        int grandParent = parents[parent];
+        int sibling = children1[parent] == leaf ? children2[parent] : children1[parent];
+        if(grandParent != NULL){
+            if(children1[grandParent] == parent){
+                children1[grandParent] = sibling;
+            }else{
+                children2[grandParent] = sibling;
+            }
+            parents[sibling] = grandParent;
+            freeNode(parent);
+            refit(grandParent);
+        }else{
+            root = sibling;
+            parents[sibling] = NULL;
+            freeNode(parent);
+        }
+    }
+
+    /**
+     * Walks from a node up to the root, balancing and recomputing the boxes and heights.
+     *
+     * @param node The first node.
+     */
+
+    private void refit(int node){
+        while(node != NULL){
+            node = balance(node);
+            int child1 = children1[node];
+            int child2 = children2[node];
+            heights[node] = 1 + Math.max(heights[child1], heights[child2]);
+            union(node, child1, child2);
+            node = parents[node];
+        }
+    }
+
+    /**
+     * Performs a left or right rotation if the children of a node differ in height by more than one.
+     *
+     * @param a The node.
+     *
+     * @return The node that took its place.
+     */
+
+    private int balance(int a){
+        if(heights[a] < 2){
+            return a;
+        }
+        int b = children1[a];
+        int c = children2[a];
+        int balance = heights[c] - heights[b];
+
+        if(balance > 1){
+            // Rotate c up
+            int f = children1[c];
+            int g = children2[c];
+            children1[c] = a;
+            parents[c] = parents[a];
+            parents[a] = c;
+            replaceChild(parents[c], a, c);
+            if(heights[f] > heights[g]){
+                children2[c] = f;
+                children2[a] = g;
+                parents[g] = a;
+                union(a, b, g);
+                union(c, a, f);
+                heights[a] = 1 + Math.max(heights[b], heights[g]);
+                heights[c] = 1 + Math.max(heights[a], heights[f]);
+            }else{
+                children2[c] = g;
+                children2[a] = f;
+                parents[f] = a;
+                union(a, b, f);
+                union(c, a, g);
+                heights[a] = 1 + Math.max(heights[b], heights[f]);
+                heights[c] = 1 + Math.max(heights[a], heights[g]);
+            }
+            return c;
+        }
+
+        if(balance < -1){
+            // Rotate b up
+            int d = children1[b];
+            int e = children2[b];
+            children1[b] = a;
+            parents[b] = parents[a];
+            parents[a] = b;
+            replaceChild(parents[b], a, b);
+            if(heights[d] > heights[e]){
+                children2[b] = d;
+                children1[a] = e;
+                parents[e] = a;
+                union(a, c, e);
+                union(b, a, d);
+                heights[a] = 1 + Math.max(heights[c], heights[e]);
+                heights[b] = 1 + Math.max(heights[a], heights[d]);
+            }else{
+                children2[b] = e;
+                children1[a] = d;
+                parents[d] = a;
+                union(a, c, d);
+                union(b, a, e);
+                heights[a] = 1 + Math.max(heights[c], heights[d]);
+                heights[b] = 1 + Math.max(heights[a], heights[e]);
+            }
+            return b;
+        }
+        return a;
+    }
+
+    /**
+     * Replaces the child of a node, or the root if the node is null.
+     *
+     * @param parent   The node.
+     * @param oldChild The old child.
+     * @param newChild The new child.
+     */
+
+    private void replaceChild(int parent, int oldChild, int newChild){
+        if(parent == NULL){
+            root = newChild;
+        }else if(children1[parent] == oldChild){
+            children1[parent] = newChild;
+        }else{
+            children2[parent] = newChild;
+        }
+    }
+
+    /**
+     * Returns the cost of descending into a child when inserting a leaf.
+     *
+     * @param child The child.
+     * @param leafO The offset of the box of the leaf.
+     *
+     * @return The cost.
+     */
+
+    private float cost(int child, int leafO){
+        int o = child * 6;
+        float area = unionArea(o, leafO);
+        return heights[child] == 0 ? area : area - area(o);
+    }
+
+    /**
+     * Sets the box of a node to the union of the boxes of two other nodes.
+     *
+     * @param dest   The node.
+     * @param first  The first node.
+     * @param second The second node.
+     */
+
+    private void union(int dest, int first, int second){
+        int d = dest * 6, a = first * 6, b = second * 6;
+        boxes[d] = Math.min(boxes[a], boxes[b]);
+        boxes[d + 1] = Math.min(boxes[a + 1], boxes[b + 1]);
+        boxes[d + 2] = Math.min(boxes[a + 2], boxes[b + 2]);
+        boxes[d + 3] = Math.max(boxes[a + 3], boxes[b + 3]);
+        boxes[d + 4] = Math.max(boxes[a + 4], boxes[b + 4]);
+        boxes[d + 5] = Math.max(boxes[a + 5], boxes[b + 5]);
+    }
+
+    /**
+     * Returns the surface area of a box.
+     *
+     * @param o The offset of the box.
+     *
+     * @return The area.
+     */
+
+    private float area(int o){
+        float dx = boxes[o + 3] - boxes[o];
+        float dy = boxes[o + 4] - boxes[o + 1];
+        float dz = boxes[o + 5] - boxes[o + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Returns the surface area of the union of two boxes.
+     *
+     * @param a The offset of the first box.
+     * @param b The offset of the second box.
+     *
+     * @return The area.
+     */
+
+    private float unionArea(int a, int b){
+        float dx = Math.max(boxes[a + 3], boxes[b + 3]) - Math.min(boxes[a], boxes[b]);
+        float dy = Math.max(boxes[a + 4], boxes[b + 4]) - Math.min(boxes[a + 1], boxes[b + 1]);
+        float dz = Math.max(boxes[a + 5], boxes[b + 5]) - Math.min(boxes[a + 2], boxes[b + 2]);
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Returns a free node, growing the arrays if there are none.
+     *
+     * @return The node.
+     */
+
+    private int allocateNode(){
+        if(freeList == NULL){
+            grow(heights.length * 2);
+        }
+        int node = freeList;
+        freeList = children1[node];
+        parents[node] = NULL;
+        children1[node] = NULL;
+        children2[node] = NULL;
+        heights[node] = 0;
+        items[node] = null;
+        moved[node] = false;
+        return node;
+    }
+
+    /**
+     * Returns a node to the free list.
+     *
+     * @param node The node.
+     */
+
+    private void freeNode(int node){
+        children1[node] = freeList;
+        heights[node] = -1;
+        items[node] = null;
+        freeList = node;
+    }
+
+    /**
+     * Grows the node arrays and adds the new nodes to the free list.
+     *
+     * @param capacity The new number of nodes.
+     */
+
+    private void grow(int capacity){
+        int oldCapacity = heights.length;
+        boxes = Arrays.copyOf(boxes, capacity * 6);
+        parents = Arrays.copyOf(parents, capacity);
+        children1 = Arrays.copyOf(children1, capacity);
+        children2 = Arrays.copyOf(children2, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        items = Arrays.copyOf(items, capacity);
+        moved = Arrays.copyOf(moved, capacity);
+        for(int i = capacity - 1; i >= oldCapacity; i--){
+            children1[i] = freeList;
+            heights[i] = -1;
+            freeList = i;
+        }
+    }
+
+    /**
+     * Returns the squared distance between a point and a box.
+     *
+     * @param x    The X coordinate of the point.
+     * @param y    The Y coordinate of the point.
+     * @param z    The Z coordinate of the point.
+     * @param minX The minimum X of the box.
+     * @param minY The minimum Y of the box.
+     * @param minZ The minimum Z of the box.
+     * @param maxX The maximum X of the box.
+     * @param maxY The maximum Y of the box.
+     * @param maxZ The maximum Z of the box.
+     *
+     * @return The squared distance, 0 if the point is inside.
+     */
+
+    private static float distanceSquared(float x, float y, float z, float minX, float minY, float minZ, float maxX, float maxY, float maxZ){
+        float dx = Math.max(0, Math.max(minX - x, x - maxX));
+        float dy = Math.max(0, Math.max(minY - y, y - maxY));
+        float dz = Math.max(0, Math.max(minZ - z, z - maxZ));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Intersects a ray with a box using the slab method.
+     *
+     * @param originX     The X coordinate of the origin.
+     * @param originY     The Y coordinate of the origin.
+     * @param originZ     The Z coordinate of the origin.
+     * @param invX        The inverse of the X component of the direction.
+     * @param invY        The inverse of the Y component of the direction.
+     * @param invZ        The inverse of the Z component of the direction.
+     * @param maxDistance The length of the ray.
+     * @param minX        The minimum X of the box.
+     * @param minY        The minimum Y of the box.
+     * @param minZ        The minimum Z of the box.
+     * @param maxX        The maximum X of the box.
+     * @param maxY        The maximum Y of the box.
+     * @param maxZ        The maximum Z of the box.
+     *
+     * @return The distance where the ray enters the box, 0 if the origin is inside, -1 if it misses the box.
+     */
+
+    private static float intersectRay(float originX, float originY, float originZ, float invX, float invY, float invZ, float maxDistance,
+                                      float minX, float minY, float minZ, float maxX, float maxY, float maxZ){
+        float near = 0;
+        float far = maxDistance;
+        if(Float.isInfinite(invX)){
+            if(originX < minX || originX > maxX){
+                return -1;
+            }
+        }else{
+            float t1 = (minX - originX) * invX;
+            float t2 = (maxX - originX) * invX;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        if(Float.isInfinite(invY)){
+            if(originY < minY || originY > maxY){
+                return -1;
+            }
+        }else{
+            float t1 = (minY - originY) * invY;
+            float t2 = (maxY - originY) * invY;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        if(Float.isInfinite(invZ)){
+            if(originZ < minZ || originZ > maxZ){
+                return -1;
+            }
+        }else{
+            float t1 = (minZ - originZ) * invZ;
+            float t2 = (maxZ - originZ) * invZ;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        return near <= far ? near : -1;
+    }
+
+}
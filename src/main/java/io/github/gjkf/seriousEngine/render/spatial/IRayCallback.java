@@ -0,0 +1,28 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.spatial;
+
+import io.github.gjkf.seriousEngine.items.Item;
+
+/**
+ * Receives the items hit by a ray cast on a {@link DynamicAabbTree}.
+ * <p>The items are not reported in order of distance. Returning the distance of the hit shortens the ray, so only
+ * closer items are reported afterwards: that is how the nearest item is found.</p>
+ */
+
+public interface IRayCallback{
+
+    /**
+     * Called for every item whose bounds are hit by the ray.
+     *
+     * @param item     The item.
+     * @param distance The distance along the ray where it enters the bounds of the item.
+     *
+     * @return The new length of the ray, 0 to stop the ray cast.
+     */
+
+    float hit(Item item, float distance);
+
+}
@@ -0,0 +1,25 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.render.spatial;
+
+import io.github.gjkf.seriousEngine.items.Item;
+
+/**
+ * Receives the items found by a query on a {@link DynamicAabbTree}.
+ */
+
+public interface ISpatialCallback{
+
+    /**
+     * Called for every item found.
+     *
+     * @param item The item.
+     *
+     * @return Whether the query should go on.
+     */
+
+    boolean visit(Item item);
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of primitive ints.
+ * <p>Unlike a <tt>List&lt;Integer&gt;</tt> it does not box the values, so adding one allocates only when the array
+ * grows.</p>
+ */
+
+public class IntArrayList{
+
+    /**
+     * The values, valid up to {@link #size}.
+     */
+    private int[] data;
+    /**
+     * The number of values.
+     */
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+
+    public IntArrayList(){
+        this(16);
+    }
+
+    /**
+     * Creates an empty list.
+     *
+     * @param capacity The initial number of values that fit in the list.
+     */
+
+    public IntArrayList(int capacity){
+        data = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value The value.
+     */
+
+    public void add(int value){
+        if(size == data.length){
+            grow(size + 1);
+        }
+        data[size++] = value;
+    }
+
+    /**
+     * Adds two values.
+     *
+     * @param x The first value.
+     * @param y The second value.
+     */
+
+    public void add(int x, int y){
+        if(size + 2 > data.length){
+            grow(size + 2);
+        }
+        data[size] = x;
+        data[size + 1] = y;
+        size += 2;
+    }
+
+    /**
+     * Adds three values.
+     *
+     * @param x The first value.
+     * @param y The second value.
+     * @param z The third value.
+     */
+
+    public void add(int x, int y, int z){
+        if(size + 3 > data.length){
+            grow(size + 3);
+        }
+        data[size] = x;
+        data[size + 1] = y;
+        data[size + 2] = z;
+        size += 3;
+    }
+
+    /**
+     * Adds all the values of another list.
+     *
+     * @param other The other list.
+     */
+
+    public void addAll(IntArrayList other){
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.data, 0, data, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Returns a value.
+     *
+     * @param index The index.
+     *
+     * @return The value.
+     */
+
+    public int get(int index){
+        if(index >= size){
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return data[index];
+    }
+
+    /**
+     * Replaces a value.
+     *
+     * @param index The index.
+     * @param value The new value.
+     */
+
+    public void set(int index, int value){
+        if(index >= size){
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        data[index] = value;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return The size.
+     */
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns whether the list is empty.
+     *
+     * @return Whether there are no values.
+     */
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Removes all the values, keeping the array.
+     */
+
+    public void clear(){
+        size = 0;
+    }
+
+    /**
+     * Grows the array to hold at least the given number of values.
+     *
+     * @param capacity The number of values.
+     */
+
+    public void ensureCapacity(int capacity){
+        if(capacity > data.length){
+            grow(capacity);
+        }
+    }
+
+    /**
+     * Returns the array backing the list, valid up to {@link #size()}.
+     * <p>The array is replaced when the list grows.</p>
+     *
+     * @return The array.
+     */
+
+    public int[] getArray(){
+        return data;
+    }
+
+    /**
+     * Copies the values to a new array.
+     *
+     * @return The array.
+     */
+
+    public int[] toArray(){
+        return Arrays.copyOf(data, size);
+    }
+
+    /**
+     * Grows the array, at least doubling it.
+     *
+     * @param capacity The minimum number of values.
+     */
+
+    private void grow(int capacity){
+        data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Created by Davide Cossu (gjkf), 10/18/2026
+ */
+
+package io.github.gjkf.seriousEngine.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses numbers straight from the bytes of a text file, without creating strings.
+ * <p>The results are exactly the ones of {@link Float#parseFloat(String)} and {@link Integer#parseInt(String)}: the
+ * common cases are handled in place and everything else is given to the JDK parsers. Only absolute reads are used, so
+ * a buffer can be shared between threads.</p>
+ */
+
+public final class NumberParser{
+
+    /**
+     * The powers of ten that are exact doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * The largest mantissa that is an exact double.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Do not instantiate NumberParser.
+     */
+    private NumberParser(){
+    }
+
+    /**
+     * Parses a float exactly like {@link Float#parseFloat(String)}.
+     * <p>Plain decimal numbers with up to 18 significant digits and small exponents are computed with a single exact
+     * double operation, which is correctly rounded, and then rounded to float unless the double lies exactly halfway
+     * between two floats. Everything else is given to {@link Float#parseFloat(String)}.</p>
+     *
+     * @param buffer The bytes.
+     * @param start  The start of the number.
+     * @param end    The end of the number.
+     *
+     * @return The value.
+     *
+     * @throws NumberFormatException If the bytes are not a number.
+     */
+
+    public static float parseFloat(ByteBuffer buffer, int start, int end){
+        int i = start;
+        boolean negative = false;
+        if(i < end){
+            byte sign = buffer.get(i);
+            if(sign == '-'){
+                negative = true;
+                i++;
+            }else if(sign == '+'){
+                i++;
+            }
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean exact = true;
+        byte c;
+        while(i < end && (c = buffer.get(i)) >= '0' && c <= '9'){
+            if(significantDigits < 18){
+                mantissa = mantissa * 10 + (c - '0');
+                if(mantissa != 0){
+                    significantDigits++;
+                }
+            }else{
+                exact = false;
+            }
+            anyDigit = true;
+            i++;
+        }
+        if(i < end && buffer.get(i) == '.'){
+            i++;
+            while(i < end && (c = buffer.get(i)) >= '0' && c <= '9'){
+                if(significantDigits < 18){
+                    mantissa = mantissa * 10 + (c - '0');
+                    if(mantissa != 0){
+                        significantDigits++;
+                    }
+                    exponent--;
+                }else{
+                    exact = false;
+                }
+                anyDigit = true;
+                i++;
+            }
+        }
+        if(anyDigit && i < end && ((c = buffer.get(i)) == 'e' || c == 'E')){
+            i++;
+            boolean negativeExponent = false;
+            if(i < end && ((c = buffer.get(i)) == '-' || c == '+')){
+                negativeExponent = c == '-';
+                i++;
+            }
+            int exponentValue = 0;
+            boolean anyExponentDigit = false;
+            while(i < end && (c = buffer.get(i)) >= '0' && c <= '9'){
+                exponentValue = Math.min(exponentValue * 10 + (c - '0'), 10_000);
+                anyExponentDigit = true;
+                i++;
+            }
+            if(!anyExponentDigit){
+                return Float.parseFloat(toString(buffer, start, end));
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        if(!anyDigit || i != end || !exact){
+            return Float.parseFloat(toString(buffer, start, end));
+        }
+        if(mantissa == 0){
+            return negative ? -0.0f : 0.0f;
+        }
+        if(mantissa < MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22){
+            double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            // The 29 bits dropped by the float are exactly one half: rounding twice could differ
+            if((Double.doubleToRawLongBits(value) & 0x1FFFFFFFL) != 0x10000000L){
+                float result = (float) value;
+                return negative ? -result : result;
+            }
+        }
+        return Float.parseFloat(toString(buffer, start, end));
+    }
+
+    /**
+     * Parses an int exactly like {@link Integer#parseInt(String)}.
+     *
+     * @param buffer The bytes.
+     * @param start  The start of the number.
+     * @param end    The end of the number.
+     *
+     * @return The value.
+     *
+     * @throws NumberFormatException If the bytes are not an int.
+     */
+
+    public static int parseInt(ByteBuffer buffer, int start, int end){
+        int i = start;
+        boolean negative = false;
+        if(i < end){
+            byte sign = buffer.get(i);
+            if(sign == '-'){
+                negative = true;
+                i++;
+            }else if(sign == '+'){
+                i++;
+            }
+        }
+        // Nine digits never overflow
+        if(i == end || end - i > 9){
+            return Integer.parseInt(toString(buffer, start, end));
+        }
+        int value = 0;
+        for(; i < end; i++){
+            byte c = buffer.get(i);
+            if(c < '0' || c > '9'){
+                return Integer.parseInt(toString(buffer, start, end));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Decodes a range of bytes, for the slow paths and the error messages.
+     *
+     * @param buffer The bytes.
+     * @param start  The start of the range.
+     * @param end    The end of the range.
+     *
+     * @return The string.
+     */
+
+    private static String toString(ByteBuffer buffer, int start, int end){
+        byte[] bytes = new byte[end - start];
+        for(int i = 0; i < bytes.length; i++){
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+}
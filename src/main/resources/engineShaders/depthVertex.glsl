@@ -8,11 +8,11 @@ layout (location=1) in vec2 texCoord;
 layout (location=2) in vec3 vertexNormal;
 layout (location=3) in vec4 jointWeights;
 layout (location=4) in ivec4 jointIndices;
-layout (location=5) in mat4 modelViewInstancedMatrix;
-layout (location=9) in mat4 modelLightViewInstancedMatrix;
+layout (location=5) in mat4 modelInstancedMatrix;
 
 uniform int isInstanced;
 uniform mat4 modelLightViewNonInstancedMatrix;
+uniform mat4 lightViewMatrix;
 uniform mat4 jointsMatrix[MAX_JOINTS];
 uniform mat4 orthoProjectionMatrix;
 
@@ -20,7 +20,7 @@ void main(){
     vec4 initPos = vec4(0, 0, 0, 0);
     mat4 modelLightViewMatrix;
     if(isInstanced > 0){
-        modelLightViewMatrix = modelLightViewInstancedMatrix;
+        modelLightViewMatrix = lightViewMatrix * modelInstancedMatrix;
 
         int count = 0;
         for(int i = 0; i < MAX_WEIGHTS; i++){
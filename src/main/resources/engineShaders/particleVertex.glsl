@@ -3,18 +3,22 @@
 layout (location=0) in vec3 position;
 layout (location=1) in vec2 texCoord;
 layout (location=2) in vec3 vertexNormal;
-layout (location=5) in mat4 modelViewMatrix;
-layout (location=13) in vec2 texOffset;
+layout (location=5) in vec4 particle;
+layout (location=6) in vec2 texOffset;
 
 out vec2 outTexCoord;
 
 uniform mat4 projectionMatrix;
+uniform mat4 viewMatrix;
 
 uniform int numCols;
 uniform int numRows;
 
 void main(){
-    gl_Position = projectionMatrix * modelViewMatrix * vec4(position, 1.0);
+    // Billboard, the quad is scaled and laid out in view space so that it always faces the camera
+    vec4 mvPos = viewMatrix * vec4(particle.xyz, 1.0);
+    mvPos.xyz += position * particle.w;
+    gl_Position = projectionMatrix * mvPos;
 
     // Support for texture atlas, update texture coordinates
     float x = (texCoord.x / numCols + texOffset.x);
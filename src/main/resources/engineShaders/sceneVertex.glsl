@@ -8,8 +8,7 @@ layout (location=1) in vec2 texCoord;
 layout (location=2) in vec3 vertexNormal;
 layout (location=3) in vec4 jointWeights;
 layout (location=4) in ivec4 jointIndices;
-layout (location=5) in mat4 modelViewInstancedMatrix;
-layout (location=9) in mat4 modelLightViewInstancedMatrix;
+layout (location=5) in mat4 modelInstancedMatrix;
 layout (location=13) in vec2 texOffset;
 
 out vec2 outTexCoord;
@@ -23,6 +22,8 @@ uniform mat4 modelViewNonInstancedMatrix;
 uniform mat4 jointsMatrix[MAX_JOINTS];
 uniform mat4 projectionMatrix;
 uniform mat4 modelLightViewNonInstancedMatrix;
+uniform mat4 viewMatrix;
+uniform mat4 lightViewMatrix;
 uniform mat4 orthoProjectionMatrix;
 
 uniform int numCols;
@@ -32,16 +33,16 @@ void main(){
     vec4 initPos = vec4(0, 0, 0, 0);
     vec4 initNormal = vec4(0, 0, 0, 0);
     mat4 modelViewMatrix;
-    mat4 lightViewMatrix;
+    mat4 modelLightViewMatrix;
     if(isInstanced > 0){
-        modelViewMatrix = modelViewInstancedMatrix;
-        lightViewMatrix = modelLightViewInstancedMatrix;
+        modelViewMatrix = viewMatrix * modelInstancedMatrix;
+        modelLightViewMatrix = lightViewMatrix * modelInstancedMatrix;
 
         initPos = vec4(position, 1.0);
         initNormal = vec4(vertexNormal, 0.0);
     }else{
         modelViewMatrix = modelViewNonInstancedMatrix;
-        lightViewMatrix = modelLightViewNonInstancedMatrix;
+        modelLightViewMatrix = modelLightViewNonInstancedMatrix;
 
         int count = 0;
         for(int i = 0; i < MAX_WEIGHTS; i++){
@@ -71,6 +72,6 @@ void main(){
 
     mvVertexNormal = normalize(modelViewMatrix * initNormal).xyz;
     mvVertexPos = mvPos.xyz;
-    mlightviewVertexPos = orthoProjectionMatrix * lightViewMatrix * initPos;
+    mlightviewVertexPos = orthoProjectionMatrix * modelLightViewMatrix * initPos;
     outModelViewMatrix = modelViewMatrix;
 }
\ No newline at end of file
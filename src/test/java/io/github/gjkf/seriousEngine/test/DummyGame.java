@@ -6,6 +6,7 @@ package io.github.gjkf.seriousEngine.test;
 import io.github.gjkf.seriousEngine.ILogic;
 import io.github.gjkf.seriousEngine.MouseInput;
 import io.github.gjkf.seriousEngine.Window;
+import io.github.gjkf.seriousEngine.collision.CollisionWorld;
 import io.github.gjkf.seriousEngine.items.Item;
 import io.github.gjkf.seriousEngine.items.Terrain;
 import io.github.gjkf.seriousEngine.loaders.obj.OBJLoader;
@@ -44,6 +45,8 @@ public class DummyGame implements ILogic{
 
     private Item block, block1;
 
+    private CollisionWorld collisionWorld;
+
     public DummyGame(){
         renderer = new Renderer();
         camera = new Camera();
@@ -71,6 +74,8 @@ public class DummyGame implements ILogic{
         scene.setItems(new Item[]{
                 block,block1
         });
+        collisionWorld = new CollisionWorld();
+        collisionWorld.addAll(new Item[]{block, block1});
 
         setupLights();
 
@@ -137,7 +142,7 @@ public class DummyGame implements ILogic{
 
     @Override
     public void update(float interval, MouseInput mouseInput){
-        System.err.println(block.checkCollisionWith(block1));
+        System.err.println(collisionWorld.update().contains(block, block1));
         // Update camera based on mouse            
         if(mouseInput.isLeftButtonPressed()){
             Vector2f rotVec = mouseInput.getDisplVec();